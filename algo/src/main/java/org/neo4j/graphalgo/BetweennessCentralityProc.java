@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.core.utils.*;
 import org.neo4j.graphalgo.core.write.AtomicDoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.impl.betweenness.*;
 import org.neo4j.graphalgo.results.BetweennessCentralityProcResult;
 import org.neo4j.graphdb.Direction;
@@ -34,6 +35,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
 import java.util.Map;
+import java.util.function.LongToDoubleFunction;
 import java.util.stream.Stream;
 
 /**
@@ -47,6 +49,7 @@ public class BetweennessCentralityProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "centrality";
     public static final Direction DEFAULT_DIRECTION = Direction.OUTGOING;
+    public static final String CONFIG_TOP_K = "topK";
 
     @Context
     public GraphDatabaseAPI api;
@@ -67,7 +70,7 @@ public class BetweennessCentralityProc {
      *                      or use log10(nodeCount) / e^2 as default
      */
     @Procedure(value = "algo.betweenness.sampled.stream")
-    @Description("CALL algo.betweenness.sampled.stream(label:String, relationship:String, {strategy:{'random', 'degree'}, probability:double, maxDepth:int, direction:String, concurrency:int}) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.betweenness.sampled.stream(label:String, relationship:String, {strategy:{'random', 'degree'}, probability:double, maxDepth:int, direction:String, topK:int, concurrency:int}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<BetweennessCentrality.Result> betweennessRABrandes(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -91,6 +94,10 @@ public class BetweennessCentralityProc {
 
         graph.release();
 
+        if (topK(configuration) >= 0) {
+            final AtomicDoubleArray centrality = algo.getCentrality();
+            return topKStream(graph, nodeId -> centrality.get((int) nodeId), configuration);
+        }
         return algo.resultStream();
     }
 
@@ -99,8 +106,8 @@ public class BetweennessCentralityProc {
      *
      */
     @Procedure(value = "algo.betweenness.stream")
-    @Description("CALL algo.betweenness.stream(label:String, relationship:String, {direction:'out', concurrency :4})" +
-                 "YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.betweenness.stream(label:String, relationship:String, {direction:'out', topK:100, concurrency :4})" +
+                 "YIELD nodeId, centrality - yields centrality for each node, only the highest if topK is given")
     public Stream<BetweennessCentrality.Result> betweennessStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -123,6 +130,10 @@ public class BetweennessCentralityProc {
                             .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
                             .compute();
             graph.release();
+            if (topK(configuration) >= 0) {
+                final AtomicDoubleArray centrality = algo.getCentrality();
+                return topKStream(graph, nodeId -> centrality.get((int) nodeId), configuration);
+            }
             return algo.resultStream();
         }
 
@@ -130,11 +141,15 @@ public class BetweennessCentralityProc {
                 .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
                 .compute();
         graph.release();
+        if (topK(configuration) >= 0) {
+            final double[] centrality = compute.getCentrality();
+            return topKStream(graph, nodeId -> centrality[(int) nodeId], configuration);
+        }
         return compute.resultStream();
     }
 
     @Procedure(value = "algo.betweenness", mode = Mode.WRITE)
-    @Description("CALL algo.betweenness(label:String, relationship:String, {direction:'out',write:true, writeProperty:'centrality', stats:true, concurrency:4}) YIELD " +
+    @Description("CALL algo.betweenness(label:String, relationship:String, {direction:'out',write:true, writeProperty:'centrality', topK:100, stats:true, concurrency:4}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes, minCentrality, maxCentrality, sumCentrality - yields status of evaluation")
     public Stream<BetweennessCentralityProcResult> betweenness(
             @Name(value = "label", defaultValue = "") String label,
@@ -161,7 +176,7 @@ public class BetweennessCentralityProc {
      *                      or use log10(nodeCount) / e^2 as default
      */
     @Procedure(value = "algo.betweenness.sampled", mode = Mode.WRITE)
-    @Description("CALL algo.betweenness.sampled(label:String, relationship:String, {strategy:'random', probability:double, maxDepth:5, direction:'out',write:true, writeProperty:'centrality', stats:true, concurrency:4}) YIELD " +
+    @Description("CALL algo.betweenness.sampled(label:String, relationship:String, {strategy:'random', probability:double, maxDepth:5, direction:'out',write:true, writeProperty:'centrality', topK:100, stats:true, concurrency:4}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes, minCentrality, maxCentrality, sumCentrality - yields status of evaluation")
     public Stream<BetweennessCentralityProcResult> betweennessRABrandesWrite(
             @Name(value = "label", defaultValue = "") String label,
@@ -206,6 +221,10 @@ public class BetweennessCentralityProc {
             builder.timeWrite(() -> {
                 final AtomicDoubleArray centrality = bc.getCentrality();
                 final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                if (topK(configuration) >= 0) {
+                    writeTopK(graph, nodeId -> centrality.get((int) nodeId), writeProperty, configuration, terminationFlag);
+                    return;
+                }
                 Exporter.of(api, graph)
                         .withLog(log)
                         .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
@@ -255,16 +274,21 @@ public class BetweennessCentralityProc {
 
         if (configuration.isWriteFlag()) {
             final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-            builder.timeWrite(() -> Exporter.of(api, graph)
-                    .withLog(log)
-                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
-                    .build()
-                    .write(
-                            writeProperty,
-                            centrality,
-                            DoubleArrayTranslator.INSTANCE
-                    )
-            );
+            builder.timeWrite(() -> {
+                if (topK(configuration) >= 0) {
+                    writeTopK(graph, nodeId -> centrality[(int) nodeId], writeProperty, configuration, terminationFlag);
+                    return;
+                }
+                Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                        .build()
+                        .write(
+                                writeProperty,
+                                centrality,
+                                DoubleArrayTranslator.INSTANCE
+                        );
+            });
         }
 
         return Stream.of(builder.build());
@@ -310,6 +334,10 @@ public class BetweennessCentralityProc {
             builder.timeWrite(() -> {
                 final AtomicDoubleArray centrality = bc.getCentrality();
                 final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                if (topK(configuration) >= 0) {
+                    writeTopK(graph, nodeId -> centrality.get((int) nodeId), writeProperty, configuration, terminationFlag);
+                    return;
+                }
                 Exporter.of(api, graph)
                         .withLog(log)
                         .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
@@ -360,6 +388,47 @@ public class BetweennessCentralityProc {
                 .withCentralitySum(sum);
     }
 
+    private static int topK(ProcedureConfiguration configuration) {
+        return configuration.getNumber(CONFIG_TOP_K, -1).intValue();
+    }
+
+    /**
+     * streams the nodes with the highest centrality, ordered by centrality
+     */
+    private Stream<BetweennessCentrality.Result> topKStream(
+            Graph graph,
+            LongToDoubleFunction centrality,
+            ProcedureConfiguration configuration) {
+        return ParallelResultStream.of(graph.nodeCount(), nodeId -> graph.toOriginalNodeId((int) nodeId), centrality)
+                .withTopK(topK(configuration))
+                .parallel(Pools.DEFAULT, configuration.getConcurrency())
+                .stream(BetweennessCentrality.Result::new);
+    }
+
+    /**
+     * writes the centrality of the nodes with the highest centrality only
+     */
+    private void writeTopK(
+            Graph graph,
+            LongToDoubleFunction centrality,
+            String writeProperty,
+            ProcedureConfiguration configuration,
+            TerminationFlag terminationFlag) {
+        final long[] nodes = ParallelResultStream
+                .of(graph.nodeCount(), nodeId -> graph.toOriginalNodeId((int) nodeId), centrality)
+                .withTopK(topK(configuration))
+                .parallel(Pools.DEFAULT, configuration.getConcurrency())
+                .topKNodes();
+        Exporter.of(api, nodes.length, i -> graph.toOriginalNodeId((int) nodes[(int) i]))
+                .withLog(log)
+                .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                .build()
+                .write(
+                        writeProperty,
+                        nodes,
+                        (PropertyTranslator.OfDouble<long[]>) (data, i) -> centrality.applyAsDouble(data[(int) i]));
+    }
+
     private RABrandesBetweennessCentrality.SelectionStrategy strategy(ProcedureConfiguration configuration, Graph graph) {
 
         switch (configuration.getString("strategy", "random")) {
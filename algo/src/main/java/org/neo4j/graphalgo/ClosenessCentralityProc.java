@@ -19,16 +19,20 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
-import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.*;
+import org.neo4j.graphalgo.impl.hyperball.HugeHyperBall;
+import org.neo4j.graphalgo.impl.hyperball.HyperBallClosenessCentrality;
 import org.neo4j.graphalgo.results.CentralityProcResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -46,6 +50,10 @@ public class ClosenessCentralityProc {
 
 
     public static final String DEFAULT_TARGET_PROPERTY = "centrality";
+    public static final String TASK_CLOSENESS = "ClosenessCentrality(MultiSource)";
+    public static final String CONFIG_APPROXIMATE = "approximate";
+    public static final String CONFIG_PRECISION = "precision";
+    public static final int DEFAULT_ITERATIONS = 100;
 
 
     @Context
@@ -66,29 +74,50 @@ public class ClosenessCentralityProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
         AllocationTracker tracker = AllocationTracker.create();
+        final Job job = JobRegistry.start(TASK_CLOSENESS, log, tracker);
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, label, relationship, configuration)
-                .withoutNodeProperties()
-                .withDirection(Direction.OUTGOING)
-                .withAllocationTracker(tracker)
-                .load(configuration.getGraphImpl());
-
-        final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration.getConcurrency());
-        algo
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
-        algo.compute();
-        graph.release();
-        return algo.resultStream();
+        try {
+            job.startPhase("load");
+            final Graph graph = new GraphLoader(api, Pools.DEFAULT)
+                    .init(log, label, relationship, configuration)
+                    .withoutNodeProperties()
+                    .withDirection(direction(configuration))
+                    .withAllocationTracker(tracker)
+                    .load(graphImpl(configuration));
+
+            job.startPhase("compute");
+            final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration);
+            algo
+                    .withProgressLogger(job)
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+            algo.compute();
+            graph.release();
+            job.startPhase("stream");
+            return algo.resultStream().onClose(job::close);
+        } catch (RuntimeException e) {
+            job.close();
+            throw e;
+        }
     }
 
     private MSBFSCCAlgorithm<?> newAlgo(
             final AllocationTracker tracker,
             final Graph graph,
-            final int concurrency) {
+            final ProcedureConfiguration configuration) {
+        final int concurrency = configuration.getConcurrency();
         final MSBFSCCAlgorithm<?> algo;
-        if (graph instanceof HugeGraph) {
+        if (isApproximate(configuration)) {
+            if (!(graph instanceof HugeGraph)) {
+                throw new IllegalArgumentException("approximate closeness centrality requires a huge graph");
+            }
+            algo = new HyperBallClosenessCentrality(
+                    (HugeGraph) graph,
+                    configuration.getInt(CONFIG_PRECISION, HugeHyperBall.DEFAULT_PRECISION),
+                    configuration.getIterations(DEFAULT_ITERATIONS),
+                    tracker,
+                    concurrency,
+                    Pools.DEFAULT);
+        } else if (graph instanceof HugeGraph) {
             HugeGraph hugeGraph = (HugeGraph) graph;
             algo = new HugeMSClosenessCentrality(
                     hugeGraph,
@@ -104,9 +133,26 @@ public class ClosenessCentralityProc {
         return algo;
     }
 
+    private static boolean isApproximate(final ProcedureConfiguration configuration) {
+        return configuration.get(CONFIG_APPROXIMATE, false);
+    }
+
+    private static Direction direction(final ProcedureConfiguration configuration) {
+        // the approximation counts the nodes reaching each node by pulling
+        // along incoming relationships, the multi source BFS pushes along outgoing ones
+        return isApproximate(configuration) ? Direction.INCOMING : Direction.OUTGOING;
+    }
+
+    private static Class<? extends GraphFactory> graphImpl(final ProcedureConfiguration configuration) {
+        if (isApproximate(configuration)) {
+            return configuration.getGraphImpl(HugeGraph.TYPE, HugeGraph.TYPE);
+        }
+        return configuration.getGraphImpl();
+    }
+
     @Procedure(value = "algo.closeness", mode = Mode.WRITE)
     @Description("CALL algo.closeness(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4'}) YIELD " +
-            "loadMillis, computeMillis, writeMillis, nodes] - yields evaluation details")
+            "loadMillis, computeMillis, writeMillis, nodes, effectiveDiameter] - yields evaluation details")
     public Stream<CentralityProcResult> closeness(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -120,38 +166,47 @@ public class ClosenessCentralityProc {
         int concurrency = configuration.getConcurrency();
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
 
-        Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, label, relationship, configuration)
-                    .withoutNodeProperties()
-                    .withDirection(Direction.OUTGOING)
-                    .withAllocationTracker(tracker)
-                    .load(configuration.getGraphImpl());
-        }
-
-        builder.withNodeCount(graph.nodeCount());
-
-        final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, concurrency);
-        algo
-                .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
-                .withTerminationFlag(terminationFlag);
-
-        builder.timeEval(algo::compute);
-
-        if (configuration.isWriteFlag()) {
-            graph.release();
-            final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-            builder.timeWrite(() -> {
-                Exporter exporter = Exporter.of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, concurrency, terminationFlag)
-                        .build();
-                algo.export(writeProperty, exporter);
-            });
-            algo.release();
+        final Job job = JobRegistry.start(TASK_CLOSENESS, log, tracker);
+        builder.withJob(job);
+        try {
+            Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = new GraphLoader(api, Pools.DEFAULT)
+                        .init(log, label, relationship, configuration)
+                        .withoutNodeProperties()
+                        .withDirection(direction(configuration))
+                        .withAllocationTracker(tracker)
+                        .load(graphImpl(configuration));
+            }
+
+            builder.withNodeCount(graph.nodeCount());
+
+            final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration);
+            algo
+                    .withProgressLogger(job)
+                    .withTerminationFlag(terminationFlag);
+
+            builder.timeEval(algo::compute);
+            if (algo instanceof HyperBallClosenessCentrality) {
+                builder.withEffectiveDiameter(((HyperBallClosenessCentrality) algo).hyperBall().effectiveDiameter());
+            }
+
+            if (configuration.isWriteFlag()) {
+                graph.release();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                builder.timeWrite(() -> {
+                    Exporter exporter = Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, concurrency, terminationFlag)
+                            .build();
+                    algo.export(writeProperty, exporter);
+                });
+                algo.release();
+            }
+
+            return Stream.of(builder.build());
+        } finally {
+            job.close();
         }
-
-        return Stream.of(builder.build());
     }
 }
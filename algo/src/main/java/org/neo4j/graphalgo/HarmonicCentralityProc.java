@@ -19,16 +19,21 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
-import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.harmonic.HarmonicCentrality;
 import org.neo4j.graphalgo.impl.harmonic.HarmonicCentralityAlgorithm;
+import org.neo4j.graphalgo.impl.hyperball.HugeHyperBall;
+import org.neo4j.graphalgo.impl.hyperball.HyperBallHarmonicCentrality;
 import org.neo4j.graphalgo.results.CentralityProcResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -45,6 +50,10 @@ import java.util.stream.Stream;
 public class HarmonicCentralityProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "centrality";
+    public static final String TASK_HARMONIC = "HarmonicCentrality";
+    public static final String CONFIG_APPROXIMATE = "approximate";
+    public static final String CONFIG_PRECISION = "precision";
+    public static final int DEFAULT_ITERATIONS = 100;
 
     @Context
     public GraphDatabaseAPI api;
@@ -64,28 +73,67 @@ public class HarmonicCentralityProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
         final AllocationTracker tracker = AllocationTracker.create();
+        final Job job = JobRegistry.start(TASK_HARMONIC, log, tracker);
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                .withoutNodeProperties()
-                .withConcurrency(configuration.getConcurrency())
-                .withDirection(Direction.BOTH)
-                .withAllocationTracker(tracker)
-                .load(configuration.getGraphImpl());
+        try {
+            job.startPhase("load");
+            final Graph graph = new GraphLoader(api, Pools.DEFAULT)
+                    .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                    .withoutNodeProperties()
+                    .withConcurrency(configuration.getConcurrency())
+                    .withDirection(Direction.BOTH)
+                    .withAllocationTracker(tracker)
+                    .load(graphImpl(configuration));
 
-        final HarmonicCentralityAlgorithm algo = HarmonicCentralityAlgorithm.instance(graph, tracker, Pools.DEFAULT, configuration.getConcurrency())
-                .withProgressLogger(ProgressLogger.wrap(log, "HarmonicCentrality"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute();
+            job.startPhase("compute");
+            final HarmonicCentralityAlgorithm algo = newAlgo(graph, tracker, configuration)
+                    .withProgressLogger(job)
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute();
 
-        graph.release();
+            graph.release();
 
-        return algo.resultStream();
+            job.startPhase("stream");
+            return algo.resultStream().onClose(job::close);
+        } catch (RuntimeException e) {
+            job.close();
+            throw e;
+        }
+    }
+
+    private HarmonicCentralityAlgorithm newAlgo(
+            final Graph graph,
+            final AllocationTracker tracker,
+            final ProcedureConfiguration configuration) {
+        if (isApproximate(configuration)) {
+            if (!(graph instanceof HugeGraph)) {
+                throw new IllegalArgumentException("approximate harmonic centrality requires a huge graph");
+            }
+            return new HyperBallHarmonicCentrality(
+                    (HugeGraph) graph,
+                    configuration.getInt(CONFIG_PRECISION, HugeHyperBall.DEFAULT_PRECISION),
+                    configuration.getIterations(DEFAULT_ITERATIONS),
+                    tracker,
+                    configuration.getConcurrency(),
+                    Pools.DEFAULT);
+        }
+        return HarmonicCentralityAlgorithm.instance(graph, tracker, Pools.DEFAULT, configuration.getConcurrency());
+    }
+
+    private static boolean isApproximate(final ProcedureConfiguration configuration) {
+        return configuration.get(CONFIG_APPROXIMATE, false);
+    }
+
+    private static Class<? extends GraphFactory> graphImpl(final ProcedureConfiguration configuration) {
+        if (isApproximate(configuration)) {
+            return configuration.getGraphImpl(HugeGraph.TYPE, HugeGraph.TYPE);
+        }
+        return configuration.getGraphImpl();
     }
 
     @Procedure(value = "algo.harmonic", mode = Mode.WRITE)
     @Description("CALL algo.harmonic(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4'}) YIELD " +
-            "loadMillis, computeMillis, writeMillis, nodes] - yields evaluation details")
+            "loadMillis, computeMillis, writeMillis, nodes, effectiveDiameter] - yields evaluation details")
     public Stream<CentralityProcResult> harmonic(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -101,38 +149,47 @@ public class HarmonicCentralityProc {
         final int concurrency = configuration.getConcurrency();
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
 
-        final Graph graph;
-        try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                    .withoutNodeProperties()
-                    .withConcurrency(concurrency)
-                    .withDirection(Direction.BOTH)
-                    .withAllocationTracker(tracker)
-                    .load(configuration.getGraphImpl());
-        }
-
-        builder.withNodeCount(graph.nodeCount());
-
-        final HarmonicCentralityAlgorithm algo = HarmonicCentralityAlgorithm.instance(graph, tracker, Pools.DEFAULT, concurrency)
-                .withProgressLogger(ProgressLogger.wrap(log, "HarmonicCentrality"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
-
-        builder.timeEval(algo::compute);
-
-        if (configuration.isWriteFlag()) {
-            graph.release();
-            final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
-            builder.timeWrite(() -> {
-                Exporter exporter = Exporter.of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, concurrency, terminationFlag)
-                        .build();
-                algo.export(writeProperty, exporter);
-            });
-            algo.release();
+        final Job job = JobRegistry.start(TASK_HARMONIC, log, tracker);
+        builder.withJob(job);
+        try {
+            final Graph graph;
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = new GraphLoader(api, Pools.DEFAULT)
+                        .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                        .withoutNodeProperties()
+                        .withConcurrency(concurrency)
+                        .withDirection(Direction.BOTH)
+                        .withAllocationTracker(tracker)
+                        .load(graphImpl(configuration));
+            }
+
+            builder.withNodeCount(graph.nodeCount());
+
+            final HarmonicCentralityAlgorithm algo = newAlgo(graph, tracker, configuration)
+                    .withProgressLogger(job)
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+
+            builder.timeEval(algo::compute);
+            if (algo instanceof HyperBallHarmonicCentrality) {
+                builder.withEffectiveDiameter(((HyperBallHarmonicCentrality) algo).hyperBall().effectiveDiameter());
+            }
+
+            if (configuration.isWriteFlag()) {
+                graph.release();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                builder.timeWrite(() -> {
+                    Exporter exporter = Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, concurrency, terminationFlag)
+                            .build();
+                    algo.export(writeProperty, exporter);
+                });
+                algo.release();
+            }
+
+            return Stream.of(builder.build());
+        } finally {
+            job.close();
         }
-
-        return Stream.of(builder.build());
     }
 }
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Procedure;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class JobsProc {
+
+    @Procedure("algo.jobs")
+    @Description("CALL algo.jobs() YIELD id, name, phase, progress, rate, work, runningMillis, memory, phases " +
+            "- lists running algorithms, exports and their progress")
+    public Stream<JobResult> jobs() {
+        return JobRegistry.jobs().stream().map(JobResult::new);
+    }
+
+    @Procedure("algo.jobs.queues")
+    @Description("CALL algo.jobs.queues() YIELD priority, parallelism, maxRunning, maxJobConcurrency, running, queued, " +
+            "admitted, completed, cancelled, avgWaitMillis, maxWaitMillis, activeThreads, queuedTasks, steals " +
+            "- lists the queueing metrics of all scheduler priority classes")
+    public Stream<QueueResult> queues() {
+        return QueryScheduler.DEFAULT.stats().stream().map(QueueResult::new);
+    }
+
+    public static class JobResult {
+        public long id;
+        public String name;
+        public String phase;
+        public double progress;
+        public double rate;
+        public long work;
+        public long runningMillis;
+        public long memory;
+        public Map<String, Object> phases;
+
+        public JobResult(Job job) {
+            this.id = job.id();
+            this.name = job.name();
+            this.phase = job.phase();
+            this.progress = job.progress();
+            this.rate = job.rate();
+            this.work = job.work();
+            this.runningMillis = job.runningMillis();
+            this.memory = job.memoryUsage();
+            this.phases = new LinkedHashMap<>(job.phaseMillis());
+        }
+    }
+
+    public static class QueueResult {
+        public String priority;
+        public long parallelism;
+        public long maxRunning;
+        public long maxJobConcurrency;
+        public long running;
+        public long queued;
+        public long admitted;
+        public long completed;
+        public long cancelled;
+        public double avgWaitMillis;
+        public double maxWaitMillis;
+        public long activeThreads;
+        public long queuedTasks;
+        public long steals;
+
+        public QueueResult(QueryScheduler.QueueStats stats) {
+            this.priority = stats.priority.name();
+            this.parallelism = stats.parallelism;
+            this.maxRunning = stats.maxRunning;
+            this.maxJobConcurrency = stats.maxJobConcurrency;
+            this.running = stats.running;
+            this.queued = stats.queued;
+            this.admitted = stats.admitted;
+            this.completed = stats.completed;
+            this.cancelled = stats.cancelled;
+            this.avgWaitMillis = stats.avgWaitMillis;
+            this.maxWaitMillis = stats.maxWaitMillis;
+            this.activeThreads = stats.activeThreads;
+            this.queuedTasks = stats.queuedTasks;
+            this.steals = stats.steals;
+        }
+    }
+}
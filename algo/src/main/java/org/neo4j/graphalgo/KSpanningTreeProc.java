@@ -27,10 +27,12 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
 import org.neo4j.graphalgo.impl.spanningTrees.SpanningTree;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeKSpanningTree;
 import org.neo4j.graphalgo.impl.spanningTrees.KSpanningTree;
-import org.neo4j.graphalgo.impl.spanningTrees.Prim;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -61,7 +63,7 @@ public class KSpanningTreeProc {
     @Description("CALL algo.spanningTree.kmax(label:String, relationshipType:String, weightProperty:String, startNodeId:long, k:int, {" +
             "writeProperty:String}) " +
             "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
-    public Stream<Prim.Result> kmax(
+    public Stream<KSpanningTree.Result> kmax(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
             @Name(value = "weightProperty") String weightProperty,
@@ -76,7 +78,7 @@ public class KSpanningTreeProc {
     @Description("CALL algo.spanningTree.kmin(label:String, relationshipType:String, weightProperty:String, startNodeId:long, k:int, {" +
             "writeProperty:String}) " +
             "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
-    public Stream<Prim.Result> kmin(
+    public Stream<KSpanningTree.Result> kmin(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
             @Name(value = "weightProperty") String weightProperty,
@@ -87,7 +89,7 @@ public class KSpanningTreeProc {
         return spanningTree(label, relationship, weightProperty, startNode, k, config, false);
     }
 
-    public Stream<Prim.Result> spanningTree(String label,
+    public Stream<KSpanningTree.Result> spanningTree(String label,
                                             String relationship,
                                             String weightProperty,
                                             long startNode,
@@ -96,7 +98,7 @@ public class KSpanningTreeProc {
                                             boolean max) {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
-        final Prim.Builder builder = new Prim.Builder();
+        final KSpanningTree.Builder builder = new KSpanningTree.Builder();
         final Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
             graph = new GraphLoader(api, Pools.DEFAULT)
@@ -108,6 +110,9 @@ public class KSpanningTreeProc {
                     .withLog(log)
                     .load(configuration.getGraphImpl(HugeGraph.TYPE));
         }
+        if (graph instanceof HugeGraph) {
+            return hugeSpanningTree((HugeGraph) graph, startNode, k, configuration, builder, max);
+        }
         final int root = graph.toMappedNodeId(startNode);
 
         final KSpanningTree kSpanningTree = new KSpanningTree(graph, graph, graph)
@@ -142,4 +147,44 @@ public class KSpanningTreeProc {
 
         return Stream.of(builder.build());
     }
+
+    private Stream<KSpanningTree.Result> hugeSpanningTree(HugeGraph graph,
+                                                 long startNode,
+                                                 long k,
+                                                 ProcedureConfiguration configuration,
+                                                 KSpanningTree.Builder builder,
+                                                 boolean max) {
+        final AllocationTracker tracker = AllocationTracker.create();
+        final HugeKSpanningTree kSpanningTree = new HugeKSpanningTree(graph, Pools.DEFAULT, configuration.getConcurrency(), tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "KSpanningTrees(Boruvka)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+
+        builder.timeEval(() -> {
+            kSpanningTree.compute(graph.toHugeMappedNodeId(startNode), k, max);
+            builder.withEffectiveNodeCount(kSpanningTree.getEffectiveNodeCount());
+        });
+
+        if (configuration.isWriteFlag()) {
+            try (ProgressTimer timer = builder.timeWrite()) {
+                final Exporter exporter = Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(
+                                Pools.DEFAULT,
+                                configuration.getConcurrency(),
+                                TerminationFlag.wrap(transaction))
+                        .build();
+
+                exporter.write(
+                        configuration.get(
+                                CONFIG_CLUSTER_PROPERTY,
+                                DEFAULT_CLUSTER_PROPERTY),
+                        kSpanningTree.getPartitions(),
+                        LongArray.Translator.INSTANCE);
+            }
+        }
+        tracker.remove(kSpanningTree.getPartitions().release());
+        kSpanningTree.release();
+
+        return Stream.of(builder.build());
+    }
 }
@@ -52,6 +52,8 @@ public final class LabelPropagationProc {
 
     public static final String CONFIG_WEIGHT_KEY = "weightProperty";
     public static final String CONFIG_PARTITION_KEY = "partitionProperty";
+    public static final String CONFIG_TOLERANCE = "tolerance";
+    public static final String CONFIG_SYNCHRONOUS = "synchronous";
     public static final Integer DEFAULT_ITERATIONS = 1;
     public static final Boolean DEFAULT_WRITE = Boolean.TRUE;
     public static final String DEFAULT_WEIGHT_KEY = "weight";
@@ -69,8 +71,8 @@ public final class LabelPropagationProc {
     @Procedure(name = "algo.labelPropagation", mode = Mode.WRITE)
     @Description("CALL algo.labelPropagation(" +
             "label:String, relationship:String, direction:String, " +
-            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4}) " +
-            "YIELD nodes, iterations, didConverge, loadMillis, computeMillis, writeMillis, write, weightProperty, partitionProperty - " +
+            "{iterations:1, tolerance:0.001, synchronous:false, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4}) " +
+            "YIELD nodes, iterations, didConverge, residuals, loadMillis, computeMillis, writeMillis, write, weightProperty, partitionProperty - " +
             "simple label propagation kernel")
     public Stream<LabelPropagationStats> labelPropagation(
             @Name(value = "label", defaultValue = "") String label,
@@ -85,6 +87,8 @@ public final class LabelPropagationProc {
 
         final Direction direction = configuration.getDirection(Direction.OUTGOING);
         final int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        final double tolerance = configuration.getNumber(CONFIG_TOLERANCE, 0.0).doubleValue();
+        final boolean synchronous = configuration.get(CONFIG_SYNCHRONOUS, false);
         final int batchSize = configuration.getBatchSize();
         final int concurrency = configuration.getConcurrency();
         final String partitionProperty = configuration.getString(CONFIG_PARTITION_KEY, DEFAULT_PARTITION_KEY);
@@ -103,7 +107,7 @@ public final class LabelPropagationProc {
                 concurrency,
                 stats);
 
-        int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
+        int[] labels = compute(direction, iterations, tolerance, synchronous, batchSize, concurrency, graph, stats);
         if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
             write(concurrency, partitionProperty, graph, labels, stats);
         }
@@ -139,6 +143,8 @@ public final class LabelPropagationProc {
     private int[] compute(
             Direction direction,
             int iterations,
+            double tolerance,
+            boolean synchronous,
             int batchSize,
             int concurrency,
             HeavyGraph graph,
@@ -151,12 +157,17 @@ public final class LabelPropagationProc {
                     .withProgressLogger(ProgressLogger.wrap(
                             log,
                             "LabelPropagation"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(direction, iterations);
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+            if (synchronous) {
+                labelPropagation.computeSynchronous(direction, iterations, tolerance);
+            } else {
+                labelPropagation.compute(direction, iterations, true, tolerance);
+            }
             final int[] result = labelPropagation.labels();
 
             stats.iterations(labelPropagation.ranIterations());
             stats.didConverge(labelPropagation.didConverge());
+            stats.residuals(labelPropagation.residuals());
             stats.nodes(result.length);
 
             labelPropagation.release();
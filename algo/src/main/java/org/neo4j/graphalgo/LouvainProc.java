@@ -27,6 +27,8 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.IntArrayTranslator;
 import org.neo4j.graphalgo.impl.louvain.*;
@@ -48,6 +50,10 @@ public class LouvainProc {
 
     public static final String CONFIG_CLUSTER_PROPERTY = "writeProperty";
     public static final String DEFAULT_CLUSTER_PROPERTY = "community";
+    public static final String CONFIG_MAX_LEVELS = "maxLevels";
+    public static final String CONFIG_INTERMEDIATE = "includeIntermediateCommunities";
+    public static final String CONFIG_INTERMEDIATE_PROPERTY = "intermediateCommunitiesWriteProperty";
+    public static final String DEFAULT_INTERMEDIATE_PROPERTY = "communities";
 
     public static final int DEFAULT_ITERATIONS = 5;
 
@@ -62,8 +68,9 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain", mode = Mode.WRITE)
     @Description("CALL algo.louvain(label:String, relationship:String, " +
-            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4}) " +
-            "YIELD nodes, communityCount, iterations, loadMillis, computeMillis, writeMillis")
+            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4, " +
+            "maxLevels:1, includeIntermediateCommunities:false, intermediateCommunitiesWriteProperty:'communities'}) " +
+            "YIELD nodes, communityCount, iterations, levels, communityCounts, loadMillis, computeMillis, writeMillis")
     public Stream<LouvainResult> louvain(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -88,13 +95,20 @@ public class LouvainProc {
         try (ProgressTimer timer = builder.timeEval()) {
             louvain.compute();
             builder.withIterations(louvain.getIterations())
-                    .withCommunityCount(louvain.getCommunityCount());
+                    .withCommunityCount(louvain.getCommunityCount())
+                    .withLevels(louvain.getLevels());
+        }
+
+        if (louvain instanceof MultiLevelLouvain) {
+            builder.withCommunityCounts(((MultiLevelLouvain) louvain).getCommunityCounts());
+        } else {
+            builder.withCommunityCounts(new long[]{louvain.getCommunityCount()});
         }
 
         if (configuration.isWriteFlag()) {
             // write back
             builder.timeWrite(() ->
-                    write(graph, louvain.getCommunityIds(), configuration));
+                    builder.withWriteCounts(write(graph, louvain, configuration)));
         }
 
         return Stream.of(builder.build());
@@ -102,8 +116,8 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain.stream")
     @Description("CALL algo.louvain.stream(label:String, relationship:String, " +
-            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4) " +
-            "YIELD nodeId, community - yields a setId to each node id")
+            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4, maxLevels:1}) " +
+            "YIELD nodeId, community, communities - yields a setId to each node id")
     public Stream<WeightedLouvain.Result> louvainStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -147,6 +161,23 @@ public class LouvainProc {
 
     public LouvainAlgorithm louvain(Graph graph, ProcedureConfiguration config) {
 
+        final int maxLevels = config.getNumber(CONFIG_MAX_LEVELS, 1).intValue();
+        if (maxLevels > 1) {
+            if (!(graph instanceof HugeGraph)) {
+                throw new IllegalArgumentException("multi-level louvain requires a huge graph");
+            }
+            return new MultiLevelLouvain(
+                    (HugeGraph) graph,
+                    Pools.DEFAULT,
+                    config.getConcurrency(),
+                    config.getIterations(DEFAULT_ITERATIONS),
+                    maxLevels,
+                    config.hasWeightProperty(),
+                    AllocationTracker.create())
+                    .withProgressLogger(ProgressLogger.wrap(log, "MultiLevelLouvain"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+        }
+
         if (graph instanceof HugeGraph) {
             if (config.hasWeightProperty()) {
                 return new WeightedLouvain(graph, Pools.DEFAULT, config.getConcurrency(), config.getIterations(DEFAULT_ITERATIONS))
@@ -168,16 +199,39 @@ public class LouvainProc {
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
     }
 
-    private void write(Graph graph, int[] communities, ProcedureConfiguration configuration) {
+    private Exporter write(Graph graph, LouvainAlgorithm louvain, ProcedureConfiguration configuration) {
         log.debug("Writing results");
-        Exporter.of(api, graph)
+        final Exporter exporter = Exporter.of(api, graph)
                 .withLog(log)
                 .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
-                .build()
-                .write(
-                        configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
-                        communities,
-                        IntArrayTranslator.INSTANCE
-                );
+                .skipUnchanged(configuration.getWriteTolerance())
+                .build();
+        final String writeProperty = configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY);
+        if (!(louvain instanceof MultiLevelLouvain)) {
+            exporter.write(
+                    writeProperty,
+                    louvain.getCommunityIds(),
+                    IntArrayTranslator.INSTANCE
+            );
+            return exporter;
+        }
+        final MultiLevelLouvain multiLevel = (MultiLevelLouvain) louvain;
+        if (configuration.get(CONFIG_INTERMEDIATE, false)) {
+            exporter.write(
+                    writeProperty,
+                    multiLevel.getFinalCommunities(),
+                    LongArray.Translator.INSTANCE,
+                    configuration.get(CONFIG_INTERMEDIATE_PROPERTY, DEFAULT_INTERMEDIATE_PROPERTY),
+                    multiLevel,
+                    MultiLevelLouvain.CommunitiesTranslator.INSTANCE
+            );
+        } else {
+            exporter.write(
+                    writeProperty,
+                    multiLevel.getFinalCommunities(),
+                    LongArray.Translator.INSTANCE
+            );
+        }
+        return exporter;
     }
 }
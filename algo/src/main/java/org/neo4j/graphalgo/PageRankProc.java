@@ -23,17 +23,33 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.loadgraph.GraphStatePool;
+import org.neo4j.graphalgo.core.huge.HugeNodeProperties;
+import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.ParallelResultStream;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.scheduler.Priority;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler.Ticket;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.FileExporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.impl.PageRankResult;
+import org.neo4j.graphalgo.impl.HugePersonalizedPageRank;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
 import org.neo4j.graphalgo.results.PageRankScore;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
@@ -42,9 +58,11 @@ import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class PageRankProc {
@@ -54,6 +72,11 @@ public final class PageRankProc {
     public static final Double DEFAULT_DAMPING = 0.85;
     public static final Integer DEFAULT_ITERATIONS = 20;
     public static final String DEFAULT_SCORE_PROPERTY = "pagerank";
+    public static final String TASK_PAGERANK = "PageRank";
+    public static final String CONFIG_TOLERANCE = "tolerance";
+    public static final String CONFIG_LIMIT = "limit";
+    public static final String CONFIG_TOP_K = "topK";
+    public static final String CONFIG_TELEPORT_PROPERTY = "teleportProperty";
 
     @Context
     public GraphDatabaseAPI api;
@@ -66,8 +89,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4}) " +
-            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
+            "{iterations:5, tolerance:0.0001, dampingFactor:0.85, weightProperty:'weight', defaultValue:1.0, teleportProperty:'prior', write: true, writeProperty:'pagerank', topK:100, concurrency:4, priority:'batch', exportPath:'pagerank', exportFormat:'csv'}) " +
+            "YIELD nodes, iterations, didConverge, residuals, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty, exportMillis, exportFiles" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
             @Name(value = "label", defaultValue = "") String label,
@@ -78,21 +101,25 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration);
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
+        try (Job job = JobRegistry.start(TASK_PAGERANK, log, tracker);
+             Ticket ticket = admit(configuration, terminationFlag)) {
+            statsBuilder.withJob(job);
+            final Graph graph = load(label, relationship, tracker, graphImpl(configuration), statsBuilder, configuration, ticket);
+            PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, job, ticket);
 
-        log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+            log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
-        write(graph, terminationFlag, scores, configuration, statsBuilder);
+            write(graph, terminationFlag, scores, configuration, statsBuilder, ticket);
 
-        return Stream.of(statsBuilder.build());
+            return Stream.of(statsBuilder.build());
+        }
     }
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, concurrency:4}) " +
-            "YIELD node, score - calculates page rank and streams results")
+            "{iterations:20, tolerance:0.0001, dampingFactor:0.85, weightProperty:'weight', defaultValue:1.0, teleportProperty:'prior', topK:100, concurrency:4, priority:'batch'}) " +
+            "YIELD node, score - calculates page rank and streams results, only the highest scores if topK is given")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -102,35 +129,94 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration);
-
+        final Job job = JobRegistry.start(TASK_PAGERANK, log, tracker);
+        statsBuilder.withJob(job);
+        final Graph graph;
+        final PageRankResult scores;
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
+        try (Ticket ticket = admit(configuration, terminationFlag)) {
+            graph = load(label, relationship, tracker, graphImpl(configuration), statsBuilder, configuration, ticket);
+            scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, job, ticket);
+        } catch (RuntimeException e) {
+            job.close();
+            throw e;
+        }
 
         log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+        job.startPhase("stream");
 
-        if (graph instanceof HugeGraph) {
-            HugeGraph hugeGraph = (HugeGraph) graph;
-            return LongStream.range(0, hugeGraph.nodeCount())
-                    .mapToObj(i -> {
-                        final long nodeId = hugeGraph.toOriginalNodeId(i);
-                        return new PageRankScore(
-                                nodeId,
-                                api.getNodeById(nodeId),
-                                scores.score(i)
-                        );
-                    });
-        }
+        return ParallelResultStream.of(graph.nodeCount(), toOriginalId(graph), scores::score)
+                .withTopK(configuration.getNumber(CONFIG_TOP_K, -1).intValue())
+                .parallel(Pools.DEFAULT, configuration.getConcurrency())
+                .stream((nodeId, score) -> new PageRankScore(nodeId, api.getNodeById(nodeId), score))
+                .onClose(job::close);
+    }
 
-        return IntStream.range(0, Math.toIntExact(graph.nodeCount()))
-                .mapToObj(i -> {
-                    final long nodeId = graph.toOriginalNodeId(i);
-                    return new PageRankScore(
-                            nodeId,
-                            api.getNodeById(nodeId),
-                            scores.score(i)
-                    );
-                });
+    @Procedure(value = "algo.pageRank.personalized.stream", mode = Mode.READ)
+    @Description("CALL algo.pageRank.personalized.stream(sourceNodes:List<Node>, label:String, relationship:String, " +
+            "{dampingFactor:0.85, tolerance:1e-6, limit:0, direction:'OUTGOING', priority:'interactive'}) " +
+            "YIELD node, score - calculates the page rank personalized to the source nodes and streams the highest scores")
+    public Stream<PageRankScore> personalizedPageRankStream(
+            @Name("sourceNodes") List<Node> sourceNodes,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideRelationshipTypeOrQuery(relationship);
+        final double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
+        final double tolerance = configuration.getNumber(CONFIG_TOLERANCE, HugePersonalizedPageRank.DEFAULT_TOLERANCE).doubleValue();
+        final int limit = configuration.getInt(CONFIG_LIMIT, 0);
+        final Direction direction = configuration.getDirection(Direction.OUTGOING);
+        final long[] sources = sourceNodes.stream().mapToLong(Node::getId).toArray();
+
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        try (Ticket ticket = QueryScheduler.DEFAULT.admit(
+                configuration.getPriority(Priority.INTERACTIVE),
+                configuration.getConcurrency(),
+                terminationFlag)) {
+            final Graph graph = new GraphLoader(api, ticket.executor())
+                    .init(log, label, relationship, configuration)
+                    .withDirection(direction)
+                    .withoutRelationshipWeights()
+                    .load(configuration.getGraphImpl(HugeGraph.TYPE));
+            if (!(graph instanceof HugeGraph)) {
+                throw new IllegalArgumentException("personalized page rank requires a huge graph");
+            }
+            final HugeGraph hugeGraph = (HugeGraph) graph;
+
+            final String graphName = configuration.getGraphName(HugeGraph.TYPE);
+            // the state keeps a reference to the graph which differs per relationship type
+            final GraphStatePool<HugePersonalizedPageRank> pool = LoadGraphFactory.check(graphName)
+                    ? GraphStatePool.of(
+                            graphName,
+                            HugePersonalizedPageRank.class.getName() + ":" + direction + ":" + configuration.getRelationshipOrQuery(),
+                            () -> new HugePersonalizedPageRank(hugeGraph, direction, AllocationTracker.EMPTY),
+                            HugePersonalizedPageRank::release)
+                    : null;
+            final HugePersonalizedPageRank ppr = pool == null
+                    ? new HugePersonalizedPageRank(hugeGraph, direction, AllocationTracker.EMPTY)
+                    : pool.acquire();
+            try {
+                // the state is reused by the next query, materialize the scores first
+                return ppr.withProgressLogger(ProgressLogger.wrap(log, "PageRank(personalized)"))
+                        .withTerminationFlag(terminationFlag)
+                        .compute(dampingFactor, tolerance, sources)
+                        .resultStream(limit)
+                        .map(result -> new PageRankScore(
+                                result.nodeId,
+                                api.getNodeById(result.nodeId),
+                                result.score))
+                        .collect(Collectors.toList())
+                        .stream();
+            } finally {
+                if (pool == null) {
+                    ppr.release();
+                } else {
+                    pool.release(ppr);
+                }
+            }
+        }
     }
 
     private Graph load(
@@ -138,13 +224,16 @@ public final class PageRankProc {
             String relationship,
             AllocationTracker tracker,
             Class<? extends GraphFactory> graphFactory,
-            PageRankScore.Stats.Builder statsBuilder, ProcedureConfiguration configuration) {
+            PageRankScore.Stats.Builder statsBuilder, ProcedureConfiguration configuration,
+            Ticket ticket) {
 
-        GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
+        GraphLoader graphLoader = new GraphLoader(api, ticket.executor())
                 .init(log, label, relationship, configuration)
                 .withAllocationTracker(tracker)
                 .withDirection(Direction.OUTGOING)
-                .withoutRelationshipWeights();
+                .withOptionalRelationshipWeightsFromProperty(
+                        configuration.getWeightProperty(),
+                        configuration.getWeightPropertyDefaultValue(1.0));
 
         try (ProgressTimer timer = statsBuilder.timeLoad()) {
             Graph graph = graphLoader.load(graphFactory);
@@ -158,54 +247,134 @@ public final class PageRankProc {
             AllocationTracker tracker,
             TerminationFlag terminationFlag,
             ProcedureConfiguration configuration,
-            PageRankScore.Stats.Builder statsBuilder) {
+            PageRankScore.Stats.Builder statsBuilder,
+            Job job,
+            Ticket ticket) {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        final double tolerance = configuration.getNumber(CONFIG_TOLERANCE, 0.0).doubleValue();
         final int batchSize = configuration.getBatchSize();
-        final int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
+        final int concurrency = ticket.concurrency();
         log.debug("Computing page rank with damping of " + dampingFactor + " and " + iterations + " iterations.");
 
+        final DoubleArray teleport = configuration.getString(CONFIG_TELEPORT_PROPERTY)
+                .map(property -> loadTeleport(graph, property, tracker, ticket))
+                .orElse(null);
         PageRankAlgorithm prAlgo = PageRankAlgorithm.of(
                 tracker,
                 graph,
                 dampingFactor,
-                Pools.DEFAULT,
+                ticket.executor(),
                 concurrency,
-                batchSize);
+                batchSize,
+                configuration.hasWeightProperty(),
+                teleport);
         Algorithm<?> algo = prAlgo
                 .algorithm()
-                .withLog(log)
+                .withProgressLogger(job)
                 .withTerminationFlag(terminationFlag);
 
-        statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        statsBuilder.timeEval(() -> prAlgo.compute(iterations, tolerance));
 
+        final double[] residuals = prAlgo.residuals();
         statsBuilder
-                .withIterations(iterations)
+                .withIterations(prAlgo.iterations())
+                .withResiduals(residuals)
+                .withDidConverge(residuals.length > 0 && residuals[residuals.length - 1] < tolerance)
                 .withDampingFactor(dampingFactor);
 
         final PageRankResult pageRank = prAlgo.result();
         algo.release();
         graph.release();
+        if (teleport != null) {
+            tracker.remove(teleport.release());
+        }
         return pageRank;
     }
 
+    private DoubleArray loadTeleport(
+            Graph graph,
+            String property,
+            AllocationTracker tracker,
+            Ticket ticket) {
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("weighted page rank requires a huge graph");
+        }
+        // nodes without the property are never teleported to
+        return HugeNodeProperties.load(
+                api,
+                (HugeGraph) graph,
+                property,
+                0.0,
+                ticket.executor(),
+                ticket.concurrency(),
+                tracker);
+    }
+
+    /**
+     * the weighted variants are only implemented for the huge graph,
+     * which becomes the default if weights are requested
+     */
+    private static Class<? extends GraphFactory> graphImpl(ProcedureConfiguration configuration) {
+        if (configuration.hasWeightProperty() || configuration.containsKeys(CONFIG_TELEPORT_PROPERTY)) {
+            return configuration.getGraphImpl(HugeGraph.TYPE);
+        }
+        return configuration.getGraphImpl();
+    }
+
+    /**
+     * page rank runs in the normal class unless the query opts in to a
+     * different priority, e.g. 'batch' for long running global computations
+     */
+    private Ticket admit(ProcedureConfiguration configuration, TerminationFlag terminationFlag) {
+        return QueryScheduler.DEFAULT.admit(
+                configuration.getPriority(Priority.NORMAL),
+                configuration.getConcurrency(),
+                terminationFlag);
+    }
+
     private void write(
             Graph graph,
             TerminationFlag terminationFlag,
             PageRankResult result,
             ProcedureConfiguration configuration,
-            final PageRankScore.Stats.Builder statsBuilder) {
+            final PageRankScore.Stats.Builder statsBuilder,
+            Ticket ticket) {
         if (configuration.isWriteFlag(true)) {
             log.debug("Writing results");
             String propertyName = configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY);
             try (ProgressTimer timer = statsBuilder.timeWrite()) {
-                Exporter exporter = Exporter
-                        .of(api, graph)
-                        .withLog(log)
-                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
-                        .build();
-                result.export(propertyName, exporter);
+                final int topK = configuration.getNumber(CONFIG_TOP_K, -1).intValue();
+                if (topK >= 0) {
+                    // only the highest scores, selected without sorting all nodes
+                    final LongUnaryOperator toOriginalId = toOriginalId(graph);
+                    final long[] nodes = ParallelResultStream
+                            .of(graph.nodeCount(), toOriginalId, result::score)
+                            .withTopK(topK)
+                            .parallel(ticket.executor(), ticket.concurrency())
+                            .topKNodes();
+                    final Exporter exporter = Exporter
+                            .of(api, nodes.length, i -> toOriginalId.applyAsLong(nodes[(int) i]))
+                            .withLog(log)
+                            .parallel(ticket.executor(), ticket.concurrency(), terminationFlag)
+                            .skipUnchanged(configuration.getWriteTolerance())
+                            .build();
+                    exporter.write(
+                            propertyName,
+                            result,
+                            (PropertyTranslator.OfDouble<PageRankResult>) (scores, i) -> scores.score(nodes[(int) i]));
+                    statsBuilder.withWriteCounts(exporter);
+                } else {
+                    Exporter exporter = Exporter
+                            .of(api, graph)
+                            .withLog(log)
+                            .parallel(ticket.executor(), ticket.concurrency(), terminationFlag)
+                            .skipUnchanged(configuration.getWriteTolerance())
+                            .build();
+                    result.export(propertyName, exporter);
+                    statsBuilder.withWriteCounts(exporter);
+                }
             }
             statsBuilder
                     .withWrite(true)
@@ -213,5 +382,32 @@ public final class PageRankProc {
         } else {
             statsBuilder.withWrite(false);
         }
+        configuration.getExportPath().ifPresent(path -> {
+            final Path directory = FileExporter.resolveExportPath(
+                    api.getDependencyResolver().resolveDependency(Config.class),
+                    path);
+            log.debug("Exporting results to %s", directory);
+            try (ProgressTimer timer = statsBuilder.timeExport()) {
+                FileExporter exporter = FileExporter
+                        .of(graph, directory)
+                        .withFormat(configuration.getExportFormat())
+                        .compressed(configuration.isExportCompressed())
+                        .withLog(log)
+                        .parallel(ticket.executor(), ticket.concurrency(), terminationFlag)
+                        .build();
+                List<Path> files = exporter.write(
+                        configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY),
+                        "score",
+                        result,
+                        (PropertyTranslator.OfDouble<PageRankResult>) PageRankResult::score);
+                statsBuilder.withExportFiles(files.size());
+            }
+        });
+    }
+
+    private static LongUnaryOperator toOriginalId(Graph graph) {
+        return graph instanceof HugeGraph
+                ? ((HugeGraph) graph)::toOriginalNodeId
+                : nodeId -> graph.toOriginalNodeId((int) nodeId);
     }
 }
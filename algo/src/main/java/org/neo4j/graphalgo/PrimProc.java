@@ -20,7 +20,6 @@ package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
@@ -28,14 +27,13 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeBoruvka;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeSpanningForest;
 import org.neo4j.graphalgo.impl.spanningTrees.Prim;
 import org.neo4j.graphalgo.impl.spanningTrees.SpanningTree;
-import org.neo4j.helpers.Exceptions;
-import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.KernelTransaction;
-import org.neo4j.kernel.api.exceptions.KernelException;
-import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
@@ -64,7 +62,7 @@ public class PrimProc {
     @Procedure(value = "algo.mst", mode = Mode.WRITE)
     @Description("CALL algo.mst(label:String, relationshipType:String, weightProperty:String, startNodeId:long, {" +
             "writeProperty:String}) " +
-            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
+            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount, relationshipsWritten")
     public Stream<Prim.Result> deprecatedProc(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
@@ -77,7 +75,7 @@ public class PrimProc {
     @Procedure(value = "algo.spanningTree", mode = Mode.WRITE)
     @Description("CALL algo.spanningTree(label:String, relationshipType:String, weightProperty:String, startNodeId:long, {" +
             "writeProperty:String}) " +
-            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
+            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount, relationshipsWritten")
     public Stream<Prim.Result> defaultProc(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
@@ -90,7 +88,7 @@ public class PrimProc {
     @Procedure(value = "algo.spanningTree.minimum", mode = Mode.WRITE)
     @Description("CALL algo.spanningTree.minimum(label:String, relationshipType:String, weightProperty:String, startNodeId:long, {" +
             "writeProperty:String}) " +
-            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
+            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount, relationshipsWritten")
     public Stream<Prim.Result> minimumSpanningTree(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
@@ -104,7 +102,7 @@ public class PrimProc {
     @Procedure(value = "algo.spanningTree.maximum", mode = Mode.WRITE)
     @Description("CALL algo.spanningTree.maximum(label:String, relationshipType:String, weightProperty:String, startNodeId:long, {" +
             "writeProperty:String}) " +
-            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount")
+            "YIELD loadMillis, computeMillis, writeMillis, effectiveNodeCount, relationshipsWritten")
     public Stream<Prim.Result> maximumSpanningTree(
             @Name(value = "label") String label,
             @Name(value = "relationshipType") String relationship,
@@ -135,6 +133,9 @@ public class PrimProc {
                     .withLog(log)
                     .load(configuration.getGraphImpl(HugeGraph.TYPE));
         }
+        if (graph instanceof HugeGraph) {
+            return hugeSpanningTree((HugeGraph) graph, weightProperty, startNode, configuration, builder, max);
+        }
         final int root = graph.toMappedNodeId(startNode);
         final Prim mstPrim = new Prim(graph, graph, graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "Prim(MaximumSpanningTree)"))
@@ -151,32 +152,73 @@ public class PrimProc {
         if (configuration.isWriteFlag()) {
             mstPrim.release();
             builder.timeWrite(() -> {
-                Exporter.of(graph, api)
-                        .withLog(log)
-                        .build()
-                        .writeRelationshipAndProperty(
-                                configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
-                                weightProperty,
-                                (ops, relType, propertyType) -> spanningTree.forEach(writeBack(relType, propertyType, graph, ops))
-                        );
+                final Exporter exporter = exporter(graph, configuration);
+                // partitioned by target node, every node has at most one parent
+                exporter.writeRelationships(
+                        configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
+                        new String[]{weightProperty},
+                        spanningTree.nodeCount,
+                        (creator, node) -> {
+                            final int parent = spanningTree.parent[(int) node];
+                            if (parent != -1) {
+                                creator.create(parent, node, graph.weightOf(parent, (int) node));
+                            }
+                        });
+                builder.withRelationshipsWritten(exporter.relationshipCount());
             });
         }
         return Stream.of(builder.build());
     }
 
-    private static RelationshipConsumer writeBack(int relType, int propertyType, Graph graph, DataWriteOperations ops) {
-        return (source, target, rid) -> {
-            try {
-                final long relId = ops.relationshipCreate(
-                        relType,
-                        graph.toOriginalNodeId(source),
-                        graph.toOriginalNodeId(target)
-                );
-                ops.relationshipSetProperty(relId, DefinedProperty.doubleProperty(propertyType, graph.weightOf(source, target)));
-            } catch (KernelException e) {
-                throw Exceptions.launderedException(e);
+    private Stream<Prim.Result> hugeSpanningTree(HugeGraph graph,
+                                                 String weightProperty,
+                                                 long startNode,
+                                                 ProcedureConfiguration configuration,
+                                                 Prim.Builder builder,
+                                                 boolean max) {
+        final long root = graph.toHugeMappedNodeId(startNode);
+        final AllocationTracker tracker = AllocationTracker.create();
+        final HugeBoruvka boruvka = new HugeBoruvka(graph, Pools.DEFAULT, configuration.getConcurrency(), tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "Boruvka(SpanningForest)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        builder.timeEval(() -> {
+            if (max) {
+                boruvka.computeMaximumSpanningForest();
+            } else {
+                boruvka.computeMinimumSpanningForest();
             }
-            return true;
-        };
+        });
+        final HugeSpanningForest spanningForest = boruvka.getSpanningForest();
+        builder.withEffectiveNodeCount(spanningForest.treeSize(root));
+        if (configuration.isWriteFlag()) {
+            boruvka.release();
+            final long component = spanningForest.componentOf(root);
+            builder.timeWrite(() -> {
+                final Exporter exporter = exporter(graph, configuration);
+                exporter.writeRelationships(
+                        configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
+                        new String[]{weightProperty},
+                        spanningForest.relationshipCount(),
+                        (creator, relationship) -> {
+                            final long source = spanningForest.source(relationship);
+                            if (spanningForest.componentOf(source) == component) {
+                                creator.create(
+                                        source,
+                                        spanningForest.target(relationship),
+                                        spanningForest.weight(relationship));
+                            }
+                        });
+                builder.withRelationshipsWritten(exporter.relationshipCount());
+            });
+        }
+        spanningForest.release(tracker);
+        return Stream.of(builder.build());
+    }
+
+    private Exporter exporter(Graph graph, ProcedureConfiguration configuration) {
+        return Exporter.of(api, graph)
+                .withLog(log)
+                .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
+                .build();
     }
 }
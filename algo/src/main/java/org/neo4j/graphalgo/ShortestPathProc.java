@@ -20,15 +20,29 @@ package org.neo4j.graphalgo;
 
 import com.carrotsearch.hppc.IntArrayDeque;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.huge.HugeNodeProperties;
+import org.neo4j.graphalgo.core.loadgraph.GraphStatePool;
+import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.scheduler.Priority;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler.Ticket;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.HugeAStar;
+import org.neo4j.graphalgo.impl.HugeBidirectionalDijkstra;
+import org.neo4j.graphalgo.impl.HugePointToPointSearch;
+import org.neo4j.graphalgo.impl.HugeSearchState;
 import org.neo4j.graphalgo.impl.ShortestPathDijkstra;
 import org.neo4j.graphalgo.results.DijkstraResult;
 import org.neo4j.graphdb.Direction;
@@ -38,7 +52,10 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +65,18 @@ public class ShortestPathProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "sssp";
 
+    public static final String ALGORITHM = "algorithm";
+    public static final String DIJKSTRA = "dijkstra";
+    public static final String BIDIRECTIONAL = "bidirectional";
+    public static final String ASTAR = "astar";
+
+    public static final String LATITUDE_PROPERTY = "latitudeProperty";
+    public static final String LATITUDE_PROPERTY_DEFAULT = "latitude";
+    public static final String LONGITUDE_PROPERTY = "longitudeProperty";
+    public static final String LONGITUDE_PROPERTY_DEFAULT = "longitude";
+    public static final String DISTANCE_UNIT = "distanceUnit";
+    public static final String DISTANCE_UNIT_DEFAULT = "km";
+
 
     @Context
     public GraphDatabaseAPI api;
@@ -63,6 +92,8 @@ public class ShortestPathProc {
      * takes a startNode and endNode id and tries to find the best path
      * supports direction flag in configuration ( see {@link org.neo4j.graphalgo.core.utils.Directions})
      * default is: BOTH
+     * algorithm:'bidirectional' or algorithm:'astar' run a point to point
+     * search on a huge graph instead
      *
      * @param startNode
      * @param endNode
@@ -72,7 +103,8 @@ public class ShortestPathProc {
      */
     @Procedure("algo.shortestPath.stream")
     @Description("CALL algo.shortestPath.stream(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, " +
+            "algorithm:'dijkstra|bidirectional|astar', latitudeProperty:'latitude', longitudeProperty:'longitude', distanceUnit:'km'}) " +
             "YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathDijkstra.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -85,24 +117,51 @@ public class ShortestPathProc {
 
         final Direction direction = configuration.getDirection(Direction.BOTH);
 
-        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
-                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                .withOptionalRelationshipWeightsFromProperty(
-                        propertyName,
-                        configuration.getWeightPropertyDefaultValue(1.0))
-                .withDirection(direction)
-                .load(configuration.getGraphImpl());
-
-        return new ShortestPathDijkstra(graph)
-                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute(startNode.getId(), endNode.getId(), direction)
-                .resultStream();
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        try (Ticket ticket = admit(configuration, terminationFlag)) {
+            final String algorithm = algorithm(configuration);
+            if (!DIJKSTRA.equals(algorithm)) {
+                final HugeGraph graph = loadHugeGraph(configuration, propertyName, algorithm, direction, ticket.executor());
+                return pointToPointSearch(graph, configuration, algorithm, direction, startNode.getId(), endNode.getId(), ticket.executor())
+                        .resultStream();
+            }
+
+            final Graph graph = new GraphLoader(api, ticket.executor())
+                    .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                    .withOptionalRelationshipWeightsFromProperty(
+                            propertyName,
+                            configuration.getWeightPropertyDefaultValue(1.0))
+                    .withDirection(direction)
+                    .load(configuration.getGraphImpl());
+
+            final GraphStatePool<ShortestPathDijkstra> pool = dijkstraPool(graph, configuration);
+            if (pool == null) {
+                return new ShortestPathDijkstra(graph)
+                        .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
+                        .withTerminationFlag(terminationFlag)
+                        .compute(startNode.getId(), endNode.getId(), direction)
+                        .resultStream();
+            }
+            final ShortestPathDijkstra dijkstra = pool.acquire();
+            try {
+                // the pooled state is reused by the next query, materialize the path first
+                return dijkstra
+                        .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
+                        .withTerminationFlag(terminationFlag)
+                        .compute(startNode.getId(), endNode.getId(), direction)
+                        .resultStream()
+                        .collect(Collectors.toList())
+                        .stream();
+            } finally {
+                pool.release(dijkstra);
+            }
+        }
     }
 
     @Procedure(value = "algo.shortestPath", mode = Mode.WRITE)
     @Description("CALL algo.shortestPath(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, write:'true', writeProperty:'sssp'}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, write:'true', writeProperty:'sssp', " +
+            "algorithm:'dijkstra|bidirectional|astar', latitudeProperty:'latitude', longitudeProperty:'longitude', distanceUnit:'km'}) " +
             "YIELD nodeId, cost, loadMillis, evalMillis, writeMillis - yields nodeCount, totalCost, loadMillis, evalMillis, writeMillis")
     public Stream<DijkstraResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -115,42 +174,97 @@ public class ShortestPathProc {
 
         DijkstraResult.Builder builder = DijkstraResult.builder();
 
-        final Graph graph;
-        final ShortestPathDijkstra dijkstra;
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        try (Ticket ticket = admit(configuration, terminationFlag)) {
+            final String algorithm = algorithm(configuration);
+            if (!DIJKSTRA.equals(algorithm)) {
+                return pointToPoint(startNode, endNode, propertyName, configuration, algorithm, builder, ticket.executor());
+            }
+
+            final Graph graph;
+            final IntArrayDeque finalPath;
+
+            final Direction direction = configuration.getDirection(Direction.BOTH);
+            try (ProgressTimer timer = builder.timeLoad()) {
+                graph = new GraphLoader(api, ticket.executor())
+                        .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                        .withOptionalRelationshipWeightsFromProperty(
+                                propertyName,
+                                configuration.getWeightPropertyDefaultValue(1.0))
+                        .withDirection(direction)
+                        .load(configuration.getGraphImpl());
+            }
+
+            final GraphStatePool<ShortestPathDijkstra> pool = dijkstraPool(graph, configuration);
+            final ShortestPathDijkstra dijkstra = pool == null ? new ShortestPathDijkstra(graph) : pool.acquire();
+            try (ProgressTimer timer = builder.timeEval()) {
+                dijkstra.withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
+                        .withTerminationFlag(terminationFlag)
+                        .compute(startNode.getId(), endNode.getId(), direction);
+                builder.withNodeCount(dijkstra.getPathLength())
+                        .withTotalCosts(dijkstra.getTotalCost());
+            } finally {
+                if (pool == null) {
+                    finalPath = dijkstra.getFinalPath();
+                    dijkstra.release();
+                } else {
+                    finalPath = dijkstra.getFinalPath().clone();
+                    pool.release(dijkstra);
+                }
+            }
+
+            if (configuration.isWriteFlag()) {
+                try (ProgressTimer timer = builder.timeWrite()) {
+                    final DequeMapping mapping = new DequeMapping(graph, finalPath);
+                    Exporter.of(mapping, api)
+                            .withLog(log)
+                            .build()
+                            .write(
+                                    configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY),
+                                    finalPath,
+                                    (PropertyTranslator.OfInt<IntArrayDeque>) (data, nodeId) -> (int) nodeId
+                            );
+                }
+            }
+
+            return Stream.of(builder.build());
+        }
+    }
+
+    private Stream<DijkstraResult> pointToPoint(
+            Node startNode,
+            Node endNode,
+            String propertyName,
+            ProcedureConfiguration configuration,
+            String algorithm,
+            DijkstraResult.Builder builder,
+            ExecutorService executor) {
 
         final Direction direction = configuration.getDirection(Direction.BOTH);
+        final HugeGraph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
-            graph = new GraphLoader(api, Pools.DEFAULT)
-                    .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
-                    .withOptionalRelationshipWeightsFromProperty(
-                            propertyName,
-                            configuration.getWeightPropertyDefaultValue(1.0))
-                    .withDirection(direction)
-                    .load(configuration.getGraphImpl());
+            graph = loadHugeGraph(configuration, propertyName, algorithm, direction, executor);
         }
 
+        final long[] path;
         try (ProgressTimer timer = builder.timeEval()) {
-            dijkstra = new ShortestPathDijkstra(graph)
-                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(startNode.getId(), endNode.getId(), direction);
-            builder.withNodeCount(dijkstra.getPathLength())
-                    .withTotalCosts(dijkstra.getTotalCost());
+            final HugePointToPointSearch<?> search =
+                    pointToPointSearch(graph, configuration, algorithm, direction, startNode.getId(), endNode.getId(), executor);
+            builder.withNodeCount(search.getPathLength())
+                    .withTotalCosts(search.getTotalCost());
+            path = search.getPath();
+            search.release();
         }
 
         if (configuration.isWriteFlag()) {
             try (ProgressTimer timer = builder.timeWrite()) {
-                final IntArrayDeque finalPath = dijkstra.getFinalPath();
-                dijkstra.release();
-
-                final DequeMapping mapping = new DequeMapping(graph, finalPath);
-                Exporter.of(mapping, api)
+                Exporter.of(new PathMapping(path), api)
                         .withLog(log)
                         .build()
                         .write(
                                 configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY),
-                                finalPath,
-                                (PropertyTranslator.OfInt<IntArrayDeque>) (data, nodeId) -> (int) nodeId
+                                path,
+                                (PropertyTranslator.OfInt<long[]>) (data, nodeId) -> (int) nodeId
                         );
             }
         }
@@ -158,6 +272,226 @@ public class ShortestPathProc {
         return Stream.of(builder.build());
     }
 
+    /**
+     * point to point searches are short, latency sensitive queries which
+     * must not wait behind global computations
+     */
+    private static Ticket admit(ProcedureConfiguration configuration, TerminationFlag terminationFlag) {
+        return QueryScheduler.DEFAULT.admit(
+                configuration.getPriority(Priority.INTERACTIVE),
+                configuration.getConcurrency(),
+                terminationFlag);
+    }
+
+    private static String algorithm(ProcedureConfiguration configuration) {
+        final String algorithm = configuration.getString(ALGORITHM, DIJKSTRA).toLowerCase(Locale.ROOT);
+        switch (algorithm) {
+            case DIJKSTRA:
+            case BIDIRECTIONAL:
+            case ASTAR:
+                return algorithm;
+            default:
+                throw new IllegalArgumentException("Unknown shortest path algorithm: " + algorithm);
+        }
+    }
+
+    /**
+     * @return a pool of dijkstra instances if the graph has been loaded by name, null otherwise
+     */
+    private static GraphStatePool<ShortestPathDijkstra> dijkstraPool(Graph graph, ProcedureConfiguration configuration) {
+        final String graphName = configuration.getGraphName(ProcedureConstants.DEFAULT_GRAPH_IMPL);
+        if (!LoadGraphFactory.check(graphName)) {
+            return null;
+        }
+        // dijkstra keeps a reference to the graph which differs per relationship type
+        return GraphStatePool.of(
+                graphName,
+                ShortestPathDijkstra.class.getName() + ":" + configuration.getRelationshipOrQuery(),
+                () -> new ShortestPathDijkstra(graph),
+                ShortestPathDijkstra::release);
+    }
+
+    /**
+     * @return a pool of search states if the graph has been loaded by name, null otherwise
+     */
+    private static GraphStatePool<HugeSearchState> searchStatePool(HugeGraph graph, ProcedureConfiguration configuration) {
+        final String graphName = configuration.getGraphName(HugeGraph.TYPE);
+        if (!LoadGraphFactory.check(graphName)) {
+            return null;
+        }
+        return GraphStatePool.of(
+                graphName,
+                HugeSearchState.class.getName(),
+                () -> new HugeSearchState(graph.nodeCount(), AllocationTracker.EMPTY),
+                HugeSearchState::release);
+    }
+
+    private HugeGraph loadHugeGraph(
+            ProcedureConfiguration configuration,
+            String propertyName,
+            String algorithm,
+            Direction direction,
+            ExecutorService executor) {
+        final Graph graph = new GraphLoader(api, executor)
+                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                .withOptionalRelationshipWeightsFromProperty(
+                        propertyName,
+                        configuration.getWeightPropertyDefaultValue(1.0))
+                // the backward search of the bidirectional variant needs the reverse adjacency
+                .withDirection(BIDIRECTIONAL.equals(algorithm) ? Direction.BOTH : direction)
+                .load(configuration.getGraphImpl(HugeGraph.TYPE));
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("algorithm '" + algorithm + "' requires a huge graph");
+        }
+        return (HugeGraph) graph;
+    }
+
+    /**
+     * run the search with states borrowed from the pool of a named graph
+     * or with new states which are released afterwards
+     */
+    private HugePointToPointSearch<?> pointToPointSearch(
+            HugeGraph graph,
+            ProcedureConfiguration configuration,
+            String algorithm,
+            Direction direction,
+            long startNode,
+            long endNode,
+            ExecutorService executor) {
+        final GraphStatePool<HugeSearchState> pool = searchStatePool(graph, configuration);
+        GraphStatePool<DoubleArray[]> coordinatePool = null;
+        DoubleArray[] coordinates = null;
+        if (ASTAR.equals(algorithm)) {
+            final String latitude = configuration.getString(LATITUDE_PROPERTY, LATITUDE_PROPERTY_DEFAULT);
+            final String longitude = configuration.getString(LONGITUDE_PROPERTY, LONGITUDE_PROPERTY_DEFAULT);
+            coordinatePool = coordinatePool(api, graph, configuration, latitude, longitude);
+            coordinates = coordinatePool == null
+                    ? loadCoordinates(api, graph, latitude, longitude, executor, configuration.getConcurrency())
+                    : coordinatePool.acquire();
+        }
+        final HugeSearchState[] states = new HugeSearchState[BIDIRECTIONAL.equals(algorithm) ? 2 : 1];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = pool == null
+                    ? new HugeSearchState(graph.nodeCount(), AllocationTracker.EMPTY)
+                    : pool.acquire();
+        }
+        try {
+            return pointToPointSearch(graph, configuration, algorithm, direction, states, coordinates)
+                    .compute(startNode, endNode);
+        } finally {
+            if (coordinatePool != null) {
+                coordinatePool.release(coordinates);
+            } else if (coordinates != null) {
+                releaseCoordinates(coordinates);
+            }
+            for (HugeSearchState state : states) {
+                if (pool == null) {
+                    state.release();
+                } else {
+                    pool.release(state);
+                }
+            }
+        }
+    }
+
+    private HugePointToPointSearch<?> pointToPointSearch(
+            HugeGraph graph,
+            ProcedureConfiguration configuration,
+            String algorithm,
+            Direction direction,
+            HugeSearchState[] states,
+            DoubleArray[] coordinates) {
+        final HugePointToPointSearch<?> search;
+        if (ASTAR.equals(algorithm)) {
+            search = new HugeAStar(
+                    graph,
+                    direction,
+                    new HugeAStar.Haversine(
+                            coordinates[0]::get,
+                            coordinates[1]::get,
+                            HugeAStar.Haversine.earthRadius(configuration.getString(DISTANCE_UNIT, DISTANCE_UNIT_DEFAULT))),
+                    states[0]);
+        } else {
+            search = new HugeBidirectionalDijkstra(graph, direction, states[0], states[1]);
+        }
+        return search
+                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(" + algorithm + ")"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+    }
+
+    /**
+     * @return a pool of the coordinates if the graph has been loaded by name, null otherwise
+     */
+    private static GraphStatePool<DoubleArray[]> coordinatePool(
+            GraphDatabaseAPI api,
+            HugeGraph graph,
+            ProcedureConfiguration configuration,
+            String latitude,
+            String longitude) {
+        final String graphName = configuration.getGraphName(HugeGraph.TYPE);
+        if (!LoadGraphFactory.check(graphName)) {
+            return null;
+        }
+        // the pool outlives the query, don't use its executor
+        return GraphStatePool.of(
+                graphName,
+                HugeAStar.Haversine.class.getName() + ":" + latitude + ":" + longitude,
+                () -> loadCoordinates(api, graph, latitude, longitude, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY),
+                ShortestPathProc::releaseCoordinates);
+    }
+
+    /**
+     * @return latitudes and longitudes by mapped node id, NaN for nodes without coordinates
+     */
+    private static DoubleArray[] loadCoordinates(
+            GraphDatabaseAPI api,
+            HugeGraph graph,
+            String latitude,
+            String longitude,
+            ExecutorService executor,
+            int concurrency) {
+        return new DoubleArray[]{
+                HugeNodeProperties.load(api, graph, latitude, Double.NaN, executor, concurrency, AllocationTracker.EMPTY),
+                HugeNodeProperties.load(api, graph, longitude, Double.NaN, executor, concurrency, AllocationTracker.EMPTY)};
+    }
+
+    private static void releaseCoordinates(DoubleArray[] coordinates) {
+        for (DoubleArray values : coordinates) {
+            values.release();
+        }
+    }
+
+    /**
+     * maps the index of a path node to its original node id
+     */
+    private static final class PathMapping implements IdMapping {
+        private final long[] path;
+
+        private PathMapping(long[] path) {
+            this.path = path;
+        }
+
+        @Override
+        public int toMappedNodeId(final long nodeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long toOriginalNodeId(final int nodeId) {
+            return path[nodeId];
+        }
+
+        @Override
+        public boolean contains(final long nodeId) {
+            return true;
+        }
+
+        @Override
+        public long nodeCount() {
+            return path.length;
+        }
+    }
+
     private static final class DequeMapping implements IdMapping {
         private final IdMapping mapping;
         private final int[] data;
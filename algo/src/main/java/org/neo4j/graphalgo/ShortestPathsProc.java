@@ -20,14 +20,18 @@ package org.neo4j.graphalgo;
 
 import com.carrotsearch.hppc.IntDoubleMap;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.IntDoubleMapTranslator;
+import org.neo4j.graphalgo.impl.HugeShortestPaths;
 import org.neo4j.graphalgo.impl.ShortestPaths;
 import org.neo4j.graphalgo.results.ShortestPathResult;
 import org.neo4j.graphdb.Direction;
@@ -47,6 +51,7 @@ public class ShortestPathsProc {
 
     public static final String WRITE_PROPERTY = "writeProperty";
     public static final String DEFAULT_TARGET_PROPERTY = "sssp";
+    public static final String CONFIG_DELTA = "delta";
 
     @Context
     public GraphDatabaseAPI api;
@@ -77,6 +82,13 @@ public class ShortestPathsProc {
                 .withDirection(Direction.OUTGOING)
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            final HugeShortestPaths algo = hugeShortestPaths((HugeGraph) graph, configuration)
+                    .compute(startNode.getId());
+            graph.release();
+            return algo.resultStream();
+        }
+
         final ShortestPaths algo = new ShortestPaths(graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
@@ -110,6 +122,28 @@ public class ShortestPathsProc {
         load.stop();
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            final HugeShortestPaths algorithm = hugeShortestPaths((HugeGraph) graph, configuration);
+            builder.timeEval(() -> algorithm.compute(startNode.getId()));
+            if (configuration.isWriteFlag()) {
+                builder.timeWrite(() -> {
+                    final DoubleArray shortestPaths = algorithm.getDistances();
+                    graph.release();
+                    Exporter.of(api, graph)
+                            .withLog(log)
+                            .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                            .build()
+                            .write(
+                                    configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY),
+                                    shortestPaths,
+                                    DoubleArray.Translator.INSTANCE
+                            );
+                });
+            }
+            algorithm.release();
+            return Stream.of(builder.build());
+        }
+
         final ShortestPaths algorithm = new ShortestPaths(graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths"))
                 .withTerminationFlag(terminationFlag);
@@ -136,4 +170,16 @@ public class ShortestPathsProc {
         return Stream.of(builder.build());
     }
 
+    private HugeShortestPaths hugeShortestPaths(HugeGraph graph, ProcedureConfiguration configuration) {
+        final HugeShortestPaths algorithm = new HugeShortestPaths(graph, AllocationTracker.create())
+                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths(Huge)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        if (configuration.containsKeys(CONFIG_DELTA)) {
+            algorithm.withDeltaStepping(
+                    configuration.getNumber(CONFIG_DELTA, 1.0).doubleValue(),
+                    Pools.DEFAULT,
+                    configuration.getConcurrency());
+        }
+        return algorithm;
+    }
 }
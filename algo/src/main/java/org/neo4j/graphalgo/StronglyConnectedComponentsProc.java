@@ -35,6 +35,7 @@ import org.neo4j.graphalgo.core.utils.paged.LongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.OptionalIntArrayTranslator;
 import org.neo4j.graphalgo.impl.*;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
 import org.neo4j.graphalgo.impl.multistepscc.MultistepSCC;
 import org.neo4j.graphalgo.impl.scc.SCCAlgorithm;
 import org.neo4j.graphalgo.impl.scc.SCCIterativeTarjan;
@@ -349,6 +350,29 @@ public class StronglyConnectedComponentsProc {
         loadTimer.stop();
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            final HugeMultistepSCC multistep = new HugeMultistepSCC(
+                    (HugeGraph) graph,
+                    Pools.DEFAULT,
+                    configuration.getConcurrency(),
+                    configuration.getNumber("cutoff", 100_000).longValue(),
+                    AllocationTracker.create())
+                    .withProgressLogger(ProgressLogger.wrap(log, "SCC(HugeMultiStep)"))
+                    .withTerminationFlag(terminationFlag);
+
+            builder.timeEval(multistep::compute);
+
+            builder.withMaxSetSize(multistep.getMaxSetSize())
+                    .withMinSetSize(multistep.getMinSetSize())
+                    .withSetCount(multistep.getSetCount());
+
+            if (configuration.isWriteFlag()) {
+                builder.timeWrite(() -> write(configuration, graph, terminationFlag, multistep));
+            }
+
+            return Stream.of(builder.build());
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
@@ -396,6 +420,21 @@ public class StronglyConnectedComponentsProc {
                 .withoutRelationshipWeights()
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            final HugeMultistepSCC multistep = new HugeMultistepSCC(
+                    (HugeGraph) graph,
+                    Pools.DEFAULT,
+                    configuration.getConcurrency(),
+                    configuration.getNumber("cutoff", 100_000).longValue(),
+                    AllocationTracker.create())
+                    .withProgressLogger(ProgressLogger.wrap(log, "SCC(HugeMultiStep)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute();
+            graph.release();
+            return multistep.resultStream()
+                    .map(result -> new SCCStreamResult(result.nodeId, result.partition));
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.impl.ComponentService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.UserFunction;
+
+import java.util.Collection;
+
+public class UnionFindFunc {
+
+    @UserFunction("algo.unionFind.componentOf")
+    @Description("RETURN algo.unionFind.componentOf(node, graphName:String) - the component id of the node " +
+            "as maintained by the running component service, null if the node is unknown")
+    public Long componentOf(
+            @Name(value = "node") Node node,
+            @Name(value = "graphName", defaultValue = "") String graphName) {
+        if (node == null) {
+            return null;
+        }
+        final ComponentService service;
+        if (graphName.isEmpty()) {
+            final Collection<ComponentService> services = ComponentService.all();
+            if (services.size() != 1) {
+                throw new IllegalArgumentException(String.format(
+                        "Expected exactly one running component service but found %d, pass the graph name",
+                        services.size()));
+            }
+            service = services.iterator().next();
+        } else {
+            service = UnionFindProc.service(graphName);
+        }
+        final long component = service.componentOf(node.getId());
+        return component == -1L ? null : component;
+    }
+}
@@ -18,9 +18,21 @@
  */
 package org.neo4j.graphalgo;
 
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.ComponentService;
+import org.neo4j.graphalgo.impl.IncrementalUnionFind;
 import org.neo4j.graphalgo.impl.UnionFindAlgo;
 import org.neo4j.graphalgo.impl.UnionFindProcExec;
+import org.neo4j.graphalgo.results.ComponentServiceResult;
+import org.neo4j.graphalgo.results.IncrementalUnionFindResult;
 import org.neo4j.graphalgo.results.UnionFindResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -39,6 +51,15 @@ import java.util.stream.Stream;
  */
 public class UnionFindProc {
 
+    private static final String CONFIG_CLUSTER_PROPERTY = "partitionProperty";
+    private static final String DEFAULT_CLUSTER_PROPERTY = "partition";
+    private static final String CONFIG_SINCE_RELATIONSHIP_ID = "sinceRelationshipId";
+    private static final String CONFIG_SINCE_PROPERTY = "sinceProperty";
+    private static final String CONFIG_SINCE = "since";
+    private static final String CONFIG_NEW_NODE_CAPACITY = "newNodeCapacity";
+    private static final String CONFIG_FLUSH_INTERVAL = "flushInterval";
+    private static final long DEFAULT_FLUSH_INTERVAL = 10_000L;
+
     @Context
     public GraphDatabaseAPI api;
 
@@ -80,6 +101,156 @@ public class UnionFindProc {
                 this::ufExec);
     }
 
+    @Procedure(value = "algo.unionFind.incremental", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.incremental(label:String, relationship:String, " +
+            "{partitionProperty:'partition', sinceRelationshipId:4711, sinceProperty:'created', since:0, " +
+            "write: true, concurrency:4}) " +
+            "YIELD nodes, relationships, mergedSets, newSets, changed, written, computeMillis, writeMillis, " +
+            "nextRelationshipId - updates the partitions of a previous run with new relationships, " +
+            "sinceProperty reads all relationships from sinceRelationshipId on, i.e. the whole store if it is 0")
+    public Stream<IncrementalUnionFindResult> incremental(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final IncrementalUnionFindResult.Builder builder = IncrementalUnionFindResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
+        final String partitionProperty = configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY);
+
+        final IncrementalUnionFind algo = new IncrementalUnionFind(
+                api,
+                label,
+                relationship,
+                partitionProperty,
+                Pools.DEFAULT,
+                configuration.getConcurrency(),
+                tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "CC(Incremental)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+
+        builder.timeEval(() -> compute(algo, configuration));
+
+        if (configuration.isWriteFlag(true) && algo.changedCount() > 0) {
+            builder.timeWrite(() -> {
+                final Exporter exporter = Exporter.of(api, algo.changedCount(), algo::changedNode)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
+                        .build();
+                exporter.write(partitionProperty, algo.changedSets(), LongArray.Translator.INSTANCE);
+                builder.withWriteCounts(exporter);
+            });
+        }
+
+        builder.withNodeCount(algo.nodeCount())
+                .withRelationshipCount(algo.relationshipCount())
+                .withMergedSets(algo.mergedSets())
+                .withNewSets(algo.newSets())
+                .withChanged(algo.changedCount())
+                .withNextRelationshipId(algo.nextRelationshipId());
+        algo.release();
+        return Stream.of(builder.build());
+    }
+
+    @Procedure(value = "algo.unionFind.incremental.stream")
+    @Description("CALL algo.unionFind.incremental.stream(label:String, relationship:String, " +
+            "{partitionProperty:'partition', sinceRelationshipId:4711, sinceProperty:'created', since:0}) " +
+            "YIELD nodeId, setId - yields the new setId of each node whose partition changed, " +
+            "sinceProperty reads all relationships from sinceRelationshipId on, i.e. the whole store if it is 0")
+    public Stream<DisjointSetStruct.Result> incrementalStream(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final IncrementalUnionFind algo = new IncrementalUnionFind(
+                api,
+                label,
+                relationship,
+                configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
+                Pools.DEFAULT,
+                configuration.getConcurrency(),
+                AllocationTracker.EMPTY)
+                .withProgressLogger(ProgressLogger.wrap(log, "CC(Incremental)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        compute(algo, configuration);
+        return algo.resultStream();
+    }
+
+    @Procedure(value = "algo.unionFind.service.start", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.service.start(graphName:String, " +
+            "{relationship:'TYPE', label:'Label', partitionProperty:'partition', newNodeCapacity:65536, " +
+            "flushInterval:10000, write:true, concurrency:4}) " +
+            "YIELD graph, running, nodes, millis - computes the components of a loaded huge graph and " +
+            "keeps them up to date with committed relationships")
+    public Stream<ComponentServiceResult> startService(
+            @Name(value = "graphName") String graphName,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            final ComponentService service = ComponentService.start(
+                    graphName,
+                    api,
+                    configuration.getString("relationship", null),
+                    configuration.getString("label", null),
+                    configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
+                    configuration.getNumber(CONFIG_NEW_NODE_CAPACITY, -1L).longValue(),
+                    configuration.getNumber(CONFIG_FLUSH_INTERVAL, DEFAULT_FLUSH_INTERVAL).longValue(),
+                    configuration.isWriteFlag(true),
+                    Pools.DEFAULT,
+                    configuration.getConcurrency(),
+                    AllocationTracker.create(),
+                    log);
+            return Stream.of(ComponentServiceResult.of(service, timer.stop().getDuration()));
+        }
+    }
+
+    @Procedure(value = "algo.unionFind.service.flush", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.service.flush(graphName:String) " +
+            "YIELD graph, relationships, mergedSets, written, millis - writes the changed components now")
+    public Stream<ComponentServiceResult> flushService(@Name(value = "graphName") String graphName) {
+        final ComponentService service = service(graphName);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            service.flush();
+            return Stream.of(ComponentServiceResult.of(service, timer.stop().getDuration()));
+        }
+    }
+
+    @Procedure(value = "algo.unionFind.service.stop", mode = Mode.WRITE)
+    @Description("CALL algo.unionFind.service.stop(graphName:String) " +
+            "YIELD graph, running, relationships, mergedSets, written, millis - flushes and stops the service")
+    public Stream<ComponentServiceResult> stopService(@Name(value = "graphName") String graphName) {
+        final ComponentService service = service(graphName);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            service.stop();
+            return Stream.of(ComponentServiceResult.of(service, timer.stop().getDuration()));
+        }
+    }
+
+    static ComponentService service(String graphName) {
+        final ComponentService service = ComponentService.get(graphName);
+        if (service == null) {
+            throw new IllegalArgumentException(String.format(
+                    "No component service running for graph '%s'",
+                    graphName));
+        }
+        return service;
+    }
+
+    private static void compute(IncrementalUnionFind algo, ProcedureConfiguration configuration) {
+        final String sinceProperty = configuration.getString(CONFIG_SINCE_PROPERTY, null);
+        final long sinceRelationshipId = configuration.getNumber(CONFIG_SINCE_RELATIONSHIP_ID, 0L).longValue();
+        if (sinceProperty != null) {
+            algo.compute(
+                    sinceProperty,
+                    configuration.getNumber(CONFIG_SINCE, 0).doubleValue(),
+                    sinceRelationshipId);
+        } else {
+            algo.compute(sinceRelationshipId);
+        }
+    }
+
     private UnionFindProcExec ufExec() {
         return new UnionFindProcExec(
                 api,
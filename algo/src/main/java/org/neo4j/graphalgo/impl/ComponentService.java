@@ -0,0 +1,591 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Online weakly connected components of a named HugeGraph.
+ * <p>
+ * The service computes the components of the loaded graph once, using
+ * a lock-free {@link PagedAtomicDisjointSetStruct}, and afterwards keeps
+ * them up to date by listening to committed transactions. Each created
+ * relationship (of the configured type) unites the sets of its end nodes,
+ * so {@link #componentOf(long)} is answered in O(α(n)) without touching
+ * the store. Nodes which are not part of the loaded graph, e.g. nodes
+ * created after loading, are given one of {@code newNodeCapacity} extra
+ * slots on their first relationship; relationships of further new nodes
+ * are dropped.
+ * <p>
+ * Union-find cannot split sets, so deleted relationships and nodes are
+ * not reflected until the service is restarted on a reloaded graph.
+ * <p>
+ * The component id of a node is the original id of the representative
+ * of its set, which is the node with the lowest mapped id. Component
+ * ids are flushed to the partition property periodically and on
+ * {@link #stop()}, only nodes whose component id changed since the last
+ * flush are written.
+ * <p>
+ * Services are registered by graph name and stopped when their graph
+ * is removed.
+ */
+public final class ComponentService implements TransactionEventHandler<long[]> {
+
+    private static final long NONE = -1L;
+    private static final int MIN_BATCH_SIZE = 10_000;
+    private static final long MIN_NEW_NODE_CAPACITY = 1L << 16;
+
+    private static final Map<String, ComponentService> SERVICES = new ConcurrentHashMap<>();
+
+    private final String graphName;
+    private final GraphDatabaseAPI api;
+    private final HugeGraph graph;
+    private final RelationshipType relationshipType;
+    private final Label label;
+    private final String partitionProperty;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final Log log;
+    private final long nodeCount;
+    private final long newNodeCapacity;
+
+    private final PagedAtomicDisjointSetStruct components;
+    // original ids + 1 of nodes unknown to the graph, by slot - nodeCount, 0 until assigned
+    private final PagedAtomicLongArray newNodeIds;
+    // open addressing table from original id to (slot - nodeCount + 1), 0 if empty
+    private final PagedAtomicLongArray newNodeSlots;
+    private final long newNodeSlotsMask;
+    // component id of each slot as of the last flush
+    private final LongArray written;
+
+    private final AtomicLong newNodes = new AtomicLong();
+    private final AtomicLong relationships = new AtomicLong();
+    private final AtomicLong mergedSets = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    // guards the structures against being released while in use
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean released;
+
+    private ScheduledExecutorService flusher;
+
+    private ComponentService(
+            String graphName,
+            GraphDatabaseAPI api,
+            HugeGraph graph,
+            String relationshipType,
+            String label,
+            String partitionProperty,
+            long newNodeCapacity,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            Log log) {
+        this.graphName = graphName;
+        this.api = api;
+        this.graph = graph;
+        this.relationshipType = relationshipType == null ? null : RelationshipType.withName(relationshipType);
+        this.label = label == null ? null : Label.label(label);
+        this.partitionProperty = partitionProperty;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.log = log;
+        this.nodeCount = graph.nodeCount();
+        this.newNodeCapacity = newNodeCapacity < 0L
+                ? Math.max(MIN_NEW_NODE_CAPACITY, nodeCount / 10L)
+                : newNodeCapacity;
+        final long capacity = nodeCount + this.newNodeCapacity;
+        this.components = new PagedAtomicDisjointSetStruct(capacity, tracker);
+        this.newNodeIds = PagedAtomicLongArray.newArray(Math.max(1L, this.newNodeCapacity), tracker);
+        // at most half full
+        final long tableSize = Long.highestOneBit(Math.max(1L, this.newNodeCapacity)) << 2;
+        this.newNodeSlots = PagedAtomicLongArray.newArray(tableSize, tracker);
+        this.newNodeSlotsMask = tableSize - 1L;
+        this.written = LongArray.newArray(capacity, tracker);
+        written.fill(NONE);
+    }
+
+    /**
+     * computes the components of a named graph and starts to apply
+     * committed relationships to them
+     *
+     * @param relationshipType only relationships of this type are applied, any type if null
+     * @param label            only new nodes with this label are added, any node if null
+     * @param newNodeCapacity  number of nodes which can be added to the graph, 10% of its nodes if negative
+     * @param flushInterval    milliseconds between two flushes, no periodic flush if 0
+     * @param write            write the component ids of all nodes right away
+     * @throws IllegalArgumentException if the graph is not loaded or not a HugeGraph
+     * @throws IllegalStateException    if a service for the graph is already running
+     */
+    public static ComponentService start(
+            String graphName,
+            GraphDatabaseAPI api,
+            String relationshipType,
+            String label,
+            String partitionProperty,
+            long newNodeCapacity,
+            long flushInterval,
+            boolean write,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            Log log) {
+        final Graph graph = LoadGraphFactory.get(graphName);
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException(String.format(
+                    "No huge graph loaded with the name '%s'",
+                    graphName));
+        }
+        final ComponentService service = new ComponentService(
+                graphName,
+                api,
+                (HugeGraph) graph,
+                relationshipType,
+                label,
+                partitionProperty,
+                newNodeCapacity,
+                executor,
+                concurrency,
+                tracker,
+                log);
+        if (SERVICES.putIfAbsent(graphName, service) != null) {
+            service.release();
+            throw new IllegalStateException(String.format(
+                    "Component service for graph '%s' is already running",
+                    graphName));
+        }
+        try {
+            // register first so that no relationship committed during the computation is lost
+            api.registerTransactionEventHandler(service);
+            service.computeInitial();
+            LoadGraphFactory.onRemove(graphName, service::close);
+            if (write) {
+                service.dirty.set(true);
+                service.flush();
+            } else {
+                service.markWritten();
+            }
+        } catch (RuntimeException e) {
+            service.close();
+            throw e;
+        }
+        if (flushInterval > 0L) {
+            service.flusher = Executors.newSingleThreadScheduledExecutor(
+                    NamedThreadFactory.daemon("algo-components-" + graphName));
+            service.flusher.scheduleWithFixedDelay(
+                    service::flushSafely,
+                    flushInterval,
+                    flushInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+        return service;
+    }
+
+    /**
+     * @return the running service of the graph or null
+     */
+    public static ComponentService get(String graphName) {
+        return graphName == null ? null : SERVICES.get(graphName);
+    }
+
+    /**
+     * @return all running services
+     */
+    public static Collection<ComponentService> all() {
+        return Collections.unmodifiableCollection(SERVICES.values());
+    }
+
+    public String graphName() {
+        return graphName;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @param nodeId original node id
+     * @return the component id of the node or -1 if the node is unknown
+     */
+    public long componentOf(long nodeId) {
+        lock.readLock().lock();
+        try {
+            if (released) {
+                return NONE;
+            }
+            final long slot = slotOf(nodeId);
+            return slot == NONE ? NONE : originalIdOf(components.find(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * writes the component id of every node whose component changed since
+     * the last flush
+     *
+     * @return number of written nodes
+     */
+    public synchronized long flush() {
+        lock.readLock().lock();
+        try {
+            if (released || !dirty.getAndSet(false)) {
+                return 0L;
+            }
+            return writeChanges();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long writeChanges() {
+        final long slots = nodeCount + Math.min(newNodes.get(), newNodeCapacity);
+        final List<LongArrayList> changes = Collections.synchronizedList(new ArrayList<>());
+        forEachBatch(slots, (start, end) -> {
+            final LongArrayList changed = new LongArrayList();
+            for (long slot = start; slot < end; slot++) {
+                if (originalIdOf(slot) == NONE) {
+                    // new node whose slot is being assigned concurrently
+                    continue;
+                }
+                final long component = originalIdOf(components.find(slot));
+                if (written.get(slot) != component) {
+                    changed.add(slot, component);
+                }
+            }
+            if (!changed.isEmpty()) {
+                changes.add(changed);
+            }
+        });
+
+        long count = 0L;
+        for (LongArrayList changed : changes) {
+            count += changed.size() / 2;
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        final LongArray changedSlots = LongArray.newArray(count, tracker);
+        final LongArray changedComponents = LongArray.newArray(count, tracker);
+        long index = 0L;
+        for (LongArrayList changed : changes) {
+            final long[] buffer = changed.buffer;
+            for (int i = 0; i < changed.size(); i += 2) {
+                changedSlots.set(index, buffer[i]);
+                changedComponents.set(index, buffer[i + 1]);
+                index++;
+            }
+        }
+
+        final Exporter exporter = Exporter.of(api, count, i -> originalIdOf(changedSlots.get(i)))
+                .withLog(log)
+                .parallel(executor, concurrency, TerminationFlag.RUNNING_TRUE)
+                .build();
+        exporter.write(partitionProperty, changedComponents, LongArray.Translator.INSTANCE);
+
+        for (long i = 0L; i < count; i++) {
+            written.set(changedSlots.get(i), changedComponents.get(i));
+        }
+        tracker.remove(changedSlots.release());
+        tracker.remove(changedComponents.release());
+        flushes.incrementAndGet();
+        writtenCount.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * unregisters the service, flushes pending changes and releases its memory
+     */
+    public void stop() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        SERVICES.remove(graphName, this);
+        shutdown();
+        flush();
+        release();
+    }
+
+    /**
+     * unregisters the service without a final flush, used when the graph is removed
+     */
+    private void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        SERVICES.remove(graphName, this);
+        shutdown();
+        release();
+    }
+
+    @Override
+    public long[] beforeCommit(TransactionData data) throws Exception {
+        LongArrayList pairs = null;
+        for (Relationship relationship : data.createdRelationships()) {
+            if (relationshipType != null && !relationship.isType(relationshipType)) {
+                continue;
+            }
+            if (label != null && !(relationship.getStartNode().hasLabel(label)
+                    && relationship.getEndNode().hasLabel(label))) {
+                continue;
+            }
+            if (pairs == null) {
+                pairs = new LongArrayList();
+            }
+            pairs.add(relationship.getStartNodeId(), relationship.getEndNodeId());
+        }
+        return pairs == null ? null : pairs.toArray();
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, long[] pairs) {
+        if (pairs == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (released) {
+                return;
+            }
+            for (int i = 0; i < pairs.length; i += 2) {
+                final long p = slotOrAdd(pairs[i]);
+                final long q = slotOrAdd(pairs[i + 1]);
+                if (p == NONE || q == NONE) {
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                if (components.union(p, q)) {
+                    mergedSets.incrementAndGet();
+                    // set after the union so that a concurrent flush cannot miss it
+                    dirty.set(true);
+                }
+            }
+            relationships.addAndGet(pairs.length / 2);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, long[] pairs) {
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public long newNodeCapacity() {
+        return newNodeCapacity;
+    }
+
+    public long newNodes() {
+        return Math.min(newNodes.get(), newNodeCapacity);
+    }
+
+    public long relationships() {
+        return relationships.get();
+    }
+
+    public long mergedSets() {
+        return mergedSets.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long flushes() {
+        return flushes.get();
+    }
+
+    public long written() {
+        return writtenCount.get();
+    }
+
+    private void computeInitial() {
+        forEachBatch(nodeCount, (start, end) -> {
+            final HugeRelationshipIterator iterator = graph.concurrentCopy();
+            for (long node = start; node < end; node++) {
+                iterator.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    components.union(s, t);
+                    return true;
+                });
+            }
+        });
+    }
+
+    /**
+     * the property is expected to hold the current components already
+     */
+    private void markWritten() {
+        forEachBatch(nodeCount, (start, end) -> {
+            for (long slot = start; slot < end; slot++) {
+                written.set(slot, originalIdOf(components.find(slot)));
+            }
+        });
+    }
+
+    private long slotOf(long nodeId) {
+        final long mapped = graph.toHugeMappedNodeId(nodeId);
+        // unknown ids may map onto a loaded node
+        if (mapped >= 0L && mapped < nodeCount && graph.toOriginalNodeId(mapped) == nodeId) {
+            return mapped;
+        }
+        long pos = BitMixer.mix64(nodeId) & newNodeSlotsMask;
+        long entry;
+        while ((entry = newNodeSlots.get(pos)) != 0L) {
+            if (newNodeIds.get(entry - 1L) == nodeId + 1L) {
+                return nodeCount + entry - 1L;
+            }
+            pos = (pos + 1L) & newNodeSlotsMask;
+        }
+        return NONE;
+    }
+
+    private long slotOrAdd(long nodeId) {
+        final long slot = slotOf(nodeId);
+        if (slot != NONE || newNodes.get() >= newNodeCapacity) {
+            return slot;
+        }
+        final long index = newNodes.getAndIncrement();
+        if (index >= newNodeCapacity) {
+            return NONE;
+        }
+        // publish the id before the slot so that lookups can compare it
+        newNodeIds.set(index, nodeId + 1L);
+        long pos = BitMixer.mix64(nodeId) & newNodeSlotsMask;
+        while (true) {
+            final long entry = newNodeSlots.get(pos);
+            if (entry == 0L) {
+                if (newNodeSlots.cas(pos, 0L, index + 1L)) {
+                    return nodeCount + index;
+                }
+                continue;
+            }
+            if (newNodeIds.get(entry - 1L) == nodeId + 1L) {
+                // added concurrently, the reserved slot stays unused
+                newNodeIds.set(index, 0L);
+                return nodeCount + entry - 1L;
+            }
+            pos = (pos + 1L) & newNodeSlotsMask;
+        }
+    }
+
+    private long originalIdOf(long slot) {
+        return slot < nodeCount
+                ? graph.toOriginalNodeId(slot)
+                : newNodeIds.get(slot - nodeCount) - 1L;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing the components of graph '" + graphName + "' failed", e);
+            dirty.set(true);
+        }
+    }
+
+    private void shutdown() {
+        try {
+            api.unregisterTransactionEventHandler(this);
+        } catch (IllegalStateException ignored) {
+            // already unregistered or database shutting down
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+    }
+
+    private void release() {
+        lock.writeLock().lock();
+        try {
+            if (!released) {
+                released = true;
+                tracker.remove(components.release());
+                tracker.remove(newNodeIds.release());
+                tracker.remove(newNodeSlots.release());
+                tracker.remove(written.release());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void forEachBatch(long count, BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(count, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                count,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                TerminationFlag.RUNNING_TRUE,
+                executor);
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * A* search for the HugeGraph.
+ * <p>
+ * Like Dijkstra but nodes are taken from the queue by their distance from
+ * the start node plus an estimate of the remaining distance to the goal.
+ * The estimate must never exceed the real remaining distance, otherwise
+ * the found path is not guaranteed to be the shortest. With
+ * {@link Haversine} the great circle distance between the coordinates of
+ * two nodes is used as estimate, which is admissible if the relationship
+ * weights are road or flight distances in the unit of the earth radius
+ * given to it.
+ */
+public class HugeAStar extends HugePointToPointSearch<HugeAStar> {
+
+    private final Heuristic heuristic;
+    private HugeSearchState state;
+    private final boolean ownsState;
+
+    public HugeAStar(HugeGraph graph, Direction direction, Heuristic heuristic, AllocationTracker tracker) {
+        this(graph, direction, heuristic, new HugeSearchState(graph.nodeCount(), tracker), true);
+    }
+
+    /**
+     * use an externally managed (e.g. pooled) state which is
+     * reset but not released by this search
+     */
+    public HugeAStar(HugeGraph graph, Direction direction, Heuristic heuristic, HugeSearchState state) {
+        this(graph, direction, heuristic, state, false);
+    }
+
+    private HugeAStar(
+            HugeGraph graph,
+            Direction direction,
+            Heuristic heuristic,
+            HugeSearchState state,
+            boolean ownsState) {
+        super(graph, direction);
+        this.heuristic = heuristic;
+        this.state = state;
+        this.ownsState = ownsState;
+    }
+
+    public static long estimateMemoryUsage(long nodeCount) {
+        return HugeSearchState.estimateMemoryUsage(nodeCount);
+    }
+
+    @Override
+    protected void search(long start, long goal) {
+        state.start(start);
+        while (!state.isEmpty() && running()) {
+            final long node = state.pop();
+            if (node == goal) {
+                buildPath(goal);
+                return;
+            }
+            final double sourceCost = state.distance(node);
+            iterator.forEachRelationship(node, direction, (source, target) -> {
+                final double cost = sourceCost + graph.weightOf(source, target);
+                if (cost < state.distance(target)) {
+                    state.relax(target, source, cost, cost + heuristic.estimate(target, goal));
+                }
+                return true;
+            });
+        }
+    }
+
+    private void buildPath(long goal) {
+        final int length = pathLength(goal);
+        final long[] nodes = new long[length];
+        long node = goal;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes[i] = node;
+            node = state.predecessor(node);
+        }
+        for (long n : nodes) {
+            addToPath(n, state.distance(n));
+        }
+    }
+
+    private int pathLength(long goal) {
+        int length = 0;
+        for (long node = goal; node != HugeSearchState.NO_PREDECESSOR; node = state.predecessor(node)) {
+            length++;
+        }
+        return length;
+    }
+
+    @Override
+    protected void reset() {
+        state.reset();
+    }
+
+    @Override
+    public HugeAStar me() {
+        return this;
+    }
+
+    @Override
+    public HugeAStar release() {
+        if (ownsState && state != null) {
+            state.release();
+        }
+        state = null;
+        return super.release();
+    }
+
+    /**
+     * estimate of the remaining distance between two nodes
+     */
+    @FunctionalInterface
+    public interface Heuristic {
+
+        /**
+         * @param node mapped node id
+         * @param goal mapped id of the goal node
+         * @return a lower bound of the distance between node and goal
+         */
+        double estimate(long node, long goal);
+    }
+
+    /**
+     * great circle distance between node coordinates given in degrees,
+     * in the unit of the earth radius. Nodes without coordinates (NaN)
+     * are estimated as 0. The coordinates of the goal are cached, an
+     * instance must therefore not be shared between threads.
+     */
+    public static final class Haversine implements Heuristic {
+
+        public static final double EARTH_RADIUS_KM = 6371.0;
+        public static final double EARTH_RADIUS_MI = 3958.8;
+        public static final double EARTH_RADIUS_M = 6371000.0;
+
+        private final LongToDoubleFunction latitude;
+        private final LongToDoubleFunction longitude;
+        private final double radius;
+
+        private long goal = -1L;
+        private double goalLatitude;
+        private double goalLongitude;
+
+        /**
+         * estimate distances in kilometers
+         *
+         * @param latitude  mapped node id to latitude in degrees
+         * @param longitude mapped node id to longitude in degrees
+         */
+        public Haversine(LongToDoubleFunction latitude, LongToDoubleFunction longitude) {
+            this(latitude, longitude, EARTH_RADIUS_KM);
+        }
+
+        /**
+         * @param latitude  mapped node id to latitude in degrees
+         * @param longitude mapped node id to longitude in degrees
+         * @param radius    the earth radius in the unit of the relationship weights
+         */
+        public Haversine(LongToDoubleFunction latitude, LongToDoubleFunction longitude, double radius) {
+            if (!(radius > 0.0)) {
+                throw new IllegalArgumentException("radius must be positive but was " + radius);
+            }
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radius = radius;
+        }
+
+        /**
+         * @param unit one of 'km', 'mi' or 'm'
+         * @return the mean earth radius in the given unit
+         */
+        public static double earthRadius(String unit) {
+            switch (unit.toLowerCase()) {
+                case "km":
+                    return EARTH_RADIUS_KM;
+                case "mi":
+                    return EARTH_RADIUS_MI;
+                case "m":
+                    return EARTH_RADIUS_M;
+                default:
+                    throw new IllegalArgumentException("Unknown distance unit '" + unit + "', expected 'km', 'mi' or 'm'");
+            }
+        }
+
+        @Override
+        public double estimate(long node, long goal) {
+            if (this.goal != goal) {
+                this.goal = goal;
+                goalLatitude = Math.toRadians(latitude.applyAsDouble(goal));
+                goalLongitude = Math.toRadians(longitude.applyAsDouble(goal));
+            }
+            final double distance = distance(
+                    Math.toRadians(latitude.applyAsDouble(node)),
+                    Math.toRadians(longitude.applyAsDouble(node)),
+                    goalLatitude,
+                    goalLongitude,
+                    radius);
+            return Double.isNaN(distance) ? 0.0 : distance;
+        }
+
+        /**
+         * @return great circle distance in kilometers between two
+         * coordinates given in radians
+         */
+        public static double distance(double lat1, double lon1, double lat2, double lon2) {
+            return distance(lat1, lon1, lat2, lon2, EARTH_RADIUS_KM);
+        }
+
+        /**
+         * @return great circle distance in the unit of the radius between
+         * two coordinates given in radians
+         */
+        public static double distance(double lat1, double lon1, double lat2, double lon2, double radius) {
+            final double sinLat = Math.sin((lat2 - lat1) / 2.0);
+            final double sinLon = Math.sin((lon2 - lon1) / 2.0);
+            final double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+            return 2.0 * radius * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        }
+    }
+}
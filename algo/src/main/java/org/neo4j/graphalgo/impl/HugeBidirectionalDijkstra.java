@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Bidirectional Dijkstra for the HugeGraph.
+ * <p>
+ * Two searches run alternately, a forward search from the start node
+ * along the given direction and a backward search from the goal node
+ * along the reverse direction. The graph must therefore be loaded with
+ * incoming and outgoing relationships unless the direction is BOTH.
+ * Whenever one search reaches a node already reached by the other one a
+ * candidate path is recorded. The search stops as soon as the sum of both
+ * queue minima is not lower than the best candidate, which usually
+ * happens long before the whole reachable region is explored.
+ * Relationship weights must not be negative.
+ */
+public class HugeBidirectionalDijkstra extends HugePointToPointSearch<HugeBidirectionalDijkstra> {
+
+    private HugeSearchState forward;
+    private HugeSearchState backward;
+    private final boolean ownsState;
+
+    private double best;
+    private long meetingNode;
+
+    public HugeBidirectionalDijkstra(HugeGraph graph, Direction direction, AllocationTracker tracker) {
+        this(graph,
+                direction,
+                new HugeSearchState(graph.nodeCount(), tracker),
+                new HugeSearchState(graph.nodeCount(), tracker),
+                true);
+    }
+
+    /**
+     * use externally managed (e.g. pooled) states which are
+     * reset but not released by this search
+     */
+    public HugeBidirectionalDijkstra(
+            HugeGraph graph,
+            Direction direction,
+            HugeSearchState forward,
+            HugeSearchState backward) {
+        this(graph, direction, forward, backward, false);
+    }
+
+    private HugeBidirectionalDijkstra(
+            HugeGraph graph,
+            Direction direction,
+            HugeSearchState forward,
+            HugeSearchState backward,
+            boolean ownsState) {
+        super(graph, direction);
+        this.forward = forward;
+        this.backward = backward;
+        this.ownsState = ownsState;
+    }
+
+    public static long estimateMemoryUsage(long nodeCount) {
+        return 2L * HugeSearchState.estimateMemoryUsage(nodeCount);
+    }
+
+    @Override
+    protected void search(long start, long goal) {
+        best = Double.POSITIVE_INFINITY;
+        meetingNode = -1L;
+        forward.start(start);
+        backward.start(goal);
+        if (start == goal) {
+            best = 0.0;
+            meetingNode = start;
+        }
+        final Direction reverse = direction.reverse();
+        while (!forward.isEmpty() && !backward.isEmpty() && running()) {
+            if (forward.topPriority() + backward.topPriority() >= best) {
+                break;
+            }
+            // expand the search which reached fewer nodes to keep both balanced
+            if (forward.touchedCount() <= backward.touchedCount()) {
+                expand(forward, backward, direction);
+            } else {
+                expand(backward, forward, reverse);
+            }
+        }
+        if (meetingNode != -1L) {
+            buildPath();
+        }
+    }
+
+    private void expand(HugeSearchState state, HugeSearchState other, Direction direction) {
+        final long node = state.pop();
+        final double sourceCost = state.distance(node);
+        iterator.forEachRelationship(node, direction, (source, target) -> {
+            final double cost = sourceCost + graph.weightOf(source, target);
+            if (state.relax(target, source, cost, cost)) {
+                final double total = cost + other.distance(target);
+                if (total < best) {
+                    best = total;
+                    meetingNode = target;
+                }
+            }
+            return true;
+        });
+    }
+
+    private void buildPath() {
+        final LongArrayList nodes = new LongArrayList();
+        for (long node = meetingNode; node != HugeSearchState.NO_PREDECESSOR; node = forward.predecessor(node)) {
+            nodes.add(node);
+        }
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            final long node = nodes.get(i);
+            addToPath(node, forward.distance(node));
+        }
+        for (long node = backward.predecessor(meetingNode); node != HugeSearchState.NO_PREDECESSOR; node = backward.predecessor(node)) {
+            addToPath(node, best - backward.distance(node));
+        }
+    }
+
+    @Override
+    protected void reset() {
+        forward.reset();
+        backward.reset();
+    }
+
+    @Override
+    public HugeBidirectionalDijkstra me() {
+        return this;
+    }
+
+    @Override
+    public HugeBidirectionalDijkstra release() {
+        if (ownsState && forward != null) {
+            forward.release();
+            backward.release();
+        }
+        forward = null;
+        backward = null;
+        return super.release();
+    }
+}
@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelResultStream;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
@@ -30,7 +31,6 @@ import org.neo4j.graphdb.Direction;
 
 import java.util.concurrent.ExecutorService;
 import java.util.function.LongToIntFunction;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -65,11 +65,13 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
     public HugeMSClosenessCentrality compute() {
 
         final ProgressLogger progressLogger = getProgressLogger();
+        // every consumed source node is one reached pair of nodes
+        final long pairs = (long) nodeCount * (nodeCount - 1);
 
         final HugeBfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             int len = sourceNodeIds.size();
             farness.add(nodeId, len * depth);
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            progressLogger.addProgress(len, pairs);
         };
 
         new HugeMultiSourceBFS(
@@ -101,10 +103,12 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
     @Override
     public Stream<MSClosenessCentrality.Result> resultStream() {
         final double k = nodeCount - 1;
-        return LongStream.range(0L, nodeCount)
-                .mapToObj(nodeId -> new MSClosenessCentrality.Result(
-                        graph.toOriginalNodeId(nodeId),
-                        centrality(farness.get(nodeId), k)));
+        return ParallelResultStream.of(
+                nodeCount,
+                graph::toOriginalNodeId,
+                nodeId -> centrality(farness.get(nodeId), k))
+                .parallel(executorService, concurrency)
+                .stream(MSClosenessCentrality.Result::new);
     }
 
     @Override
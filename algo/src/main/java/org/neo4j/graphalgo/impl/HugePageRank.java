@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import com.carrotsearch.hppc.DoubleArrayList;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
@@ -26,8 +27,10 @@ import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.HugeRelationshipWeights;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.write.DoubleArrayTranslator;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
@@ -97,6 +100,17 @@ import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
+ * If relationship weights are given, every node distributes its rank in proportion
+ * to the weights of its outgoing relationships instead of equally to all targets.
+ * The weight sums of all nodes and the weights of the partitions relationships
+ * (in adjacency order) are read once during initialization, so the iterations
+ * don't touch the weight map. Relationships with a weight that is not positive
+ * receive no rank.
+ * If a teleport vector is given, the random jump does not land uniformly on all nodes
+ * but in proportion to the (non-negative) teleport weight of a node.
+ * The vector is scaled to an average of {@code 1}, so uniform weights yield the
+ * same scores as the unweighted teleport.
+ * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
  */
@@ -111,8 +125,11 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     private final HugeRelationshipIterator relationshipIterator;
     private final HugeDegrees degrees;
     private final double dampingFactor;
+    private final HugeRelationshipWeights weights;
+    private final DoubleArray teleport;
 
     private Log log;
+    private DoubleArray weightSums;
     private ComputeSteps computeSteps;
 
     /**
@@ -153,6 +170,38 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             HugeRelationshipIterator relationshipIterator,
             HugeDegrees degrees,
             double dampingFactor) {
+        this(
+                executor,
+                concurrency,
+                batchSize,
+                tracker,
+                idMapping,
+                nodeIterator,
+                relationshipIterator,
+                degrees,
+                dampingFactor,
+                null,
+                null);
+    }
+
+    /**
+     * Parallel weighted Page Rank implementation.
+     *
+     * @param weights  the relationship weights or {@code null} to distribute the rank equally
+     * @param teleport the teleport weight of every node or {@code null} for a uniform teleport
+     */
+    HugePageRank(
+            ExecutorService executor,
+            int concurrency,
+            int batchSize,
+            AllocationTracker tracker,
+            HugeIdMapping idMapping,
+            HugeNodeIterator nodeIterator,
+            HugeRelationshipIterator relationshipIterator,
+            HugeDegrees degrees,
+            double dampingFactor,
+            HugeRelationshipWeights weights,
+            DoubleArray teleport) {
         this.executor = executor;
         this.concurrency = concurrency;
         this.batchSize = batchSize;
@@ -162,6 +211,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         this.relationshipIterator = relationshipIterator;
         this.degrees = degrees;
         this.dampingFactor = dampingFactor;
+        this.weights = weights;
+        this.teleport = teleport;
     }
 
     /**
@@ -169,12 +220,31 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
      */
     @Override
     public HugePageRank compute(int iterations) {
-        assert iterations >= 1;
+        return compute(iterations, 0.0);
+    }
+
+    /**
+     * compute pageRank for at most n iterations, stops early once
+     * the residual of an iteration drops below the tolerance
+     */
+    @Override
+    public HugePageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
         initializeSteps();
-        computeSteps.run(iterations);
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps == null ? 0 : computeSteps.residuals.size();
+    }
+
+    @Override
+    public double[] residuals() {
+        return computeSteps == null ? new double[0] : computeSteps.residuals.toArray();
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -204,6 +274,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 degrees);
         ExecutorService executor = ParallelUtil.canRunInParallel(this.executor)
                 ? this.executor : null;
+        if (weights != null) {
+            weightSums = DoubleArray.newArray(idMapping.nodeCount(), tracker);
+        }
 
         computeSteps = createComputeSteps(
                 concurrency,
@@ -255,6 +328,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 concurrency,
                 partitions.size());
 
+        final double teleportScale = teleportScale(nodeCount);
         List<ComputeStep> computeSteps = new ArrayList<>(expectedParallelism);
         LongArrayList starts = new LongArrayList(expectedParallelism);
         IntArrayList lengths = new IntArrayList(expectedParallelism);
@@ -283,6 +357,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                     dampingFactor,
                     relationshipIterator,
                     degrees,
+                    weights,
+                    weightSums,
+                    teleport,
+                    teleportScale,
                     tracker,
                     partitionCount,
                     start
@@ -297,6 +375,27 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return new ComputeSteps(tracker, computeSteps, concurrency, pool);
     }
 
+    /**
+     * scales the teleport vector to an average weight of {@code 1}
+     */
+    private double teleportScale(long nodeCount) {
+        if (teleport == null) {
+            return 1.0;
+        }
+        double sum = 0.0;
+        for (long nodeId = 0L; nodeId < nodeCount; ++nodeId) {
+            sum += positive(teleport.get(nodeId));
+        }
+        if (!(sum > 0.0)) {
+            throw new IllegalArgumentException("The teleport weights of all nodes must have a positive sum");
+        }
+        return (double) nodeCount / sum;
+    }
+
+    private static double positive(double weight) {
+        return weight > 0.0 ? weight : 0.0;
+    }
+
     private static int findIdealConcurrency(
             long nodeCount,
             List<Partition> partitions,
@@ -417,6 +516,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     @Override
     public HugePageRank release() {
         computeSteps.release();
+        if (weightSums != null) {
+            tracker.remove(weightSums.release());
+            weightSums = null;
+        }
         return this;
     }
 
@@ -454,6 +557,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     private final class ComputeSteps {
         private List<ComputeStep> steps;
         private final ExecutorService pool;
+        private final DoubleArrayList residuals;
         private int[][][] scores;
         private final int concurrency;
 
@@ -466,6 +570,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             assert !steps.isEmpty();
             this.steps = steps;
             this.pool = pool;
+            this.residuals = new DoubleArrayList();
             int stepSize = steps.size();
             scores = new int[stepSize][stepSize][];
             if (AllocationTracker.isTracking(tracker)) {
@@ -487,7 +592,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             }
         }
 
-        private void run(int iterations) {
+        private void run(int iterations, double tolerance) {
             final int operations = (iterations << 1) + 1;
             int op = 0;
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
@@ -500,7 +605,26 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
+                double residual = residual();
+                residuals.add(residual);
+                if (residual < tolerance) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * the mean absolute change of the scores in the last iteration,
+         * reduced from the L1 norms of all partitions
+         */
+        private double residual() {
+            double sum = 0.0;
+            long nodeCount = 0L;
+            for (ComputeStep step : steps) {
+                sum += step.residual;
+                nodeCount += (long) step.partitionSize;
             }
+            return nodeCount > 0L ? sum / (double) nodeCount : 0.0;
         }
 
         private void synchronizeScores() {
@@ -527,6 +651,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
              if (AllocationTracker.isTracking(tracker)) {
                 tracker.remove((scores.length + 1) * sizeOfObjectArray(scores.length));
             }
+            for (ComputeStep step : steps) {
+                step.release();
+            }
             steps.clear();
             steps = null;
             scores = null;
@@ -544,6 +671,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private int[] lengths;
         private final HugeRelationshipIterator relationshipIterator;
         private final HugeDegrees degrees;
+        private final HugeRelationshipWeights weights;
+        private final DoubleArray weightSums;
+        private final DoubleArray teleport;
+        private final double teleportScale;
         private final AllocationTracker tracker;
 
         private final double alpha;
@@ -559,11 +690,24 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final int partitionSize;
 
         private int srcRankDelta = 0;
+        private double residual;
+
+        // the weights of the outgoing relationships in adjacency order
+        private DoubleArray relationshipWeights;
+        private long relationshipIndex;
+        private double srcRankDeltaPerWeight;
+        private double weightSum;
+        private final HugeRelationshipConsumer weightReader = this::readWeight;
+        private final HugeRelationshipConsumer weightedConsumer = this::acceptWeighted;
 
         ComputeStep(
                 double dampingFactor,
                 HugeRelationshipIterator relationshipIterator,
                 HugeDegrees degrees,
+                HugeRelationshipWeights weights,
+                DoubleArray weightSums,
+                DoubleArray teleport,
+                double teleportScale,
                 AllocationTracker tracker,
                 int partitionSize,
                 long startNode) {
@@ -571,6 +715,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             this.alpha = 1.0 - dampingFactor;
             this.relationshipIterator = relationshipIterator.concurrentCopy();
             this.degrees = degrees;
+            this.weights = weights;
+            this.weightSums = weightSums;
+            this.teleport = teleport;
+            this.teleportScale = teleportScale;
             this.tracker = tracker;
             this.partitionSize = partitionSize;
             this.startNode = startNode;
@@ -607,13 +755,50 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
             tracker.add(sizeOfDoubleArray(partitionSize) << 1);
             double[] partitionRank = new double[partitionSize];
-            Arrays.fill(partitionRank, alpha);
+            if (teleport != null) {
+                double scaledAlpha = alpha * teleportScale;
+                for (int i = 0; i < partitionSize; i++) {
+                    partitionRank[i] = scaledAlpha * positive(teleport.get(startNode + i));
+                }
+            } else {
+                Arrays.fill(partitionRank, alpha);
+            }
 
             this.pageRank = partitionRank;
             this.deltas = Arrays.copyOf(partitionRank, partitionSize);
+
+            if (weights != null) {
+                initializeWeights();
+            }
+        }
+
+        private void initializeWeights() {
+            long relationshipCount = 0L;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                relationshipCount += (long) degrees.degree(nodeId, Direction.OUTGOING);
+            }
+            relationshipWeights = DoubleArray.newArray(relationshipCount, tracker);
+            relationshipIndex = 0L;
+            HugeRelationshipIterator rels = this.relationshipIterator;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                weightSum = 0.0;
+                rels.forEachRelationship(nodeId, Direction.OUTGOING, weightReader);
+                weightSums.set(nodeId, weightSum);
+            }
+        }
+
+        private boolean readWeight(long sourceNodeId, long targetNodeId) {
+            double weight = positive(weights.weightOf(sourceNodeId, targetNodeId));
+            relationshipWeights.set(relationshipIndex++, weight);
+            weightSum += weight;
+            return true;
         }
 
         private void singleIteration() {
+            if (relationshipWeights != null) {
+                singleWeightedIteration();
+                return;
+            }
             long startNode = this.startNode;
             long endNode = this.endNode;
             HugeRelationshipIterator rels = this.relationshipIterator;
@@ -629,6 +814,23 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             }
         }
 
+        private void singleWeightedIteration() {
+            long startNode = this.startNode;
+            long endNode = this.endNode;
+            HugeRelationshipIterator rels = this.relationshipIterator;
+            relationshipIndex = 0L;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double delta = deltas[(int) (nodeId - startNode)];
+                double weightSum = weightSums.get(nodeId);
+                if (delta > 0 && weightSum > 0) {
+                    srcRankDeltaPerWeight = 100_000 * (delta / weightSum);
+                    rels.forEachRelationship(nodeId, Direction.OUTGOING, weightedConsumer);
+                } else {
+                    relationshipIndex += (long) degrees.degree(nodeId, Direction.OUTGOING);
+                }
+            }
+        }
+
         @Override
         public boolean accept(
                 long sourceNodeId,
@@ -640,6 +842,17 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             return true;
         }
 
+        private boolean acceptWeighted(
+                long sourceNodeId,
+                long targetNodeId) {
+            int rankDelta = (int) (srcRankDeltaPerWeight * relationshipWeights.get(relationshipIndex++));
+            if (rankDelta != 0) {
+                int idx = binaryLookup(targetNodeId, starts);
+                nextScores[idx][(int) (targetNodeId - starts[idx])] += rankDelta;
+            }
+            return true;
+        }
+
         void prepareNextIteration(int[][] prevScores) {
             this.prevScores = prevScores;
         }
@@ -652,6 +865,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             int[][] prevScores = this.prevScores;
 
             int length = prevScores[0].length;
+            double residual = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = 0;
                 for (int j = 0; j < scoreDim; j++) {
@@ -662,6 +876,15 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
+                residual += Math.abs(delta);
+            }
+            this.residual = residual;
+        }
+
+        private void release() {
+            if (relationshipWeights != null) {
+                tracker.remove(relationshipWeights.release());
+                relationshipWeights = null;
             }
         }
 
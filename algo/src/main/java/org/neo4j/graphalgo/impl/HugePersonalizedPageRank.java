@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayDeque;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.EpochBitSet;
+import org.neo4j.graphalgo.core.utils.paged.EpochDoubleArray;
+import org.neo4j.graphalgo.core.utils.queue.LongMinPriorityQueue;
+import org.neo4j.graphdb.Direction;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Personalized PageRank (random walk with restart) from a set of source
+ * nodes using the forward push algorithm of Andersen, Chung and Lang [1].
+ * <p>
+ * Every node has an estimate and a residual. Initially the sources share
+ * a residual of 1. Pushing a node moves {@code 1 - dampingFactor} of its
+ * residual into its estimate and spreads the rest evenly over its
+ * neighbours. Only nodes whose residual exceeds {@code tolerance * degree}
+ * are pushed, so the search stays in the neighbourhood of the sources and
+ * its work is bounded by {@code 1 / (tolerance * (1 - dampingFactor))}
+ * independent of the size of the graph. Residual mass of nodes without
+ * relationships teleports back to the sources.
+ * <p>
+ * The per node state resets in constant time between calls to
+ * {@link #compute(double, double, long...)}, one instance can answer many
+ * queries with varying damping factors and tolerances. It uses its own
+ * relationship iterator and must not be shared between threads.
+ * <p>
+ * [1]: <a href="http://www.math.ucsd.edu/~fan/wp/localpartition.pdf">Local Graph Partitioning using PageRank Vectors</a>
+ */
+public final class HugePersonalizedPageRank extends Algorithm<HugePersonalizedPageRank> {
+
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    // log the progress every n pushes
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    private HugeGraph graph;
+    private HugeRelationshipIterator iterator;
+    private final Direction direction;
+    private final AllocationTracker tracker;
+    private double alpha;
+    private double tolerance;
+
+    private EpochDoubleArray estimates;
+    private EpochDoubleArray residuals;
+    private EpochBitSet queued;
+    private final LongArrayDeque queue = new LongArrayDeque();
+    // nodes with an estimate, in order of their first push
+    private final LongArrayList touched = new LongArrayList();
+    private final LongArrayList sources = new LongArrayList();
+    private long pushes;
+
+    public HugePersonalizedPageRank(
+            HugeGraph graph,
+            Direction direction,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.iterator = graph.concurrentCopy();
+        this.direction = direction;
+        this.tracker = tracker;
+        final long nodeCount = graph.nodeCount();
+        this.estimates = EpochDoubleArray.newArray(nodeCount, 0.0, tracker);
+        this.residuals = EpochDoubleArray.newArray(nodeCount, 0.0, tracker);
+        this.queued = EpochBitSet.newBitSet(nodeCount, tracker);
+    }
+
+    /**
+     * compute the personalized page rank of the given sources. Unknown
+     * node ids are ignored.
+     *
+     * @param dampingFactor probability to follow a relationship, in [0, 1)
+     * @param tolerance      minimum residual per relationship to push a node
+     * @param sourceNodes    original neo4j ids of the source nodes
+     * @return itself
+     */
+    public HugePersonalizedPageRank compute(double dampingFactor, double tolerance, long... sourceNodes) {
+        if (dampingFactor < 0.0 || dampingFactor >= 1.0) {
+            throw new IllegalArgumentException("dampingFactor must be in [0, 1) but was " + dampingFactor);
+        }
+        if (tolerance <= 0.0) {
+            throw new IllegalArgumentException("tolerance must be positive but was " + tolerance);
+        }
+        reset();
+        this.alpha = 1.0 - dampingFactor;
+        this.tolerance = tolerance;
+        for (long sourceNode : sourceNodes) {
+            final long source = graph.toHugeMappedNodeId(sourceNode);
+            // the sparse id map yields 0 for unknown ids on allocated pages
+            if (source >= 0L && graph.toOriginalNodeId(source) == sourceNode && queued.tryPut(source)) {
+                sources.add(source);
+                queue.addLast(source);
+            }
+        }
+        if (sources.isEmpty()) {
+            return this;
+        }
+        final double share = 1.0 / sources.size();
+        for (int i = 0; i < sources.size(); i++) {
+            residuals.set(sources.get(i), share);
+        }
+        push();
+        return this;
+    }
+
+    private void push() {
+        while (!queue.isEmpty() && running()) {
+            final long node = queue.removeFirst();
+            queued.remove(node);
+            final double residual = residuals.get(node);
+            final int degree = graph.degree(node, direction);
+            if (residual < tolerance * Math.max(1, degree)) {
+                continue;
+            }
+            if (!estimates.contains(node)) {
+                touched.add(node);
+            }
+            estimates.set(node, estimates.get(node) + alpha * residual);
+            residuals.set(node, 0.0);
+            final double remaining = (1.0 - alpha) * residual;
+            if (degree == 0) {
+                final double share = remaining / sources.size();
+                for (int i = 0; i < sources.size(); i++) {
+                    addResidual(sources.get(i), share);
+                }
+            } else {
+                final double share = remaining / degree;
+                iterator.forEachRelationship(node, direction, (source, target) -> {
+                    addResidual(target, share);
+                    return true;
+                });
+            }
+            if (++pushes % PROGRESS_INTERVAL == 0) {
+                getProgressLogger().logProgress(touched.size(), graph.nodeCount());
+            }
+        }
+    }
+
+    private void addResidual(long node, double value) {
+        final double residual = residuals.get(node) + value;
+        residuals.set(node, residual);
+        if (residual >= tolerance * Math.max(1, graph.degree(node, direction)) && queued.tryPut(node)) {
+            queue.addLast(node);
+        }
+    }
+
+    private void reset() {
+        estimates.reset();
+        residuals.reset();
+        queued.clear();
+        queue.clear();
+        touched.clear();
+        sources.clear();
+        pushes = 0L;
+    }
+
+    /**
+     * @return the score of a mapped node id, 0 if the push never reached it
+     */
+    public double score(long node) {
+        return estimates.get(node);
+    }
+
+    /**
+     * number of nodes with a score
+     */
+    public int touchedNodes() {
+        return touched.size();
+    }
+
+    /**
+     * number of push operations of the last computation
+     */
+    public long pushes() {
+        return pushes;
+    }
+
+    /**
+     * mapped ids of the nodes with the highest scores in descending order
+     *
+     * @param limit maximum number of nodes, all scored nodes if &lt;= 0
+     */
+    public long[] topNodes(int limit) {
+        final int size = limit <= 0 ? touched.size() : Math.min(limit, touched.size());
+        final LongMinPriorityQueue top = new LongMinPriorityQueue(size + 1);
+        for (int i = 0; i < touched.size(); i++) {
+            final long node = touched.get(i);
+            top.add(node, estimates.get(node));
+            if (top.size() > size) {
+                top.pop();
+            }
+        }
+        final long[] nodes = new long[top.size()];
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            nodes[i] = top.pop();
+        }
+        return nodes;
+    }
+
+    /**
+     * stream the highest scores, node ids are original neo4j ids
+     */
+    public Stream<Result> resultStream(int limit) {
+        return LongStream.of(topNodes(limit))
+                .mapToObj(node -> new Result(graph.toOriginalNodeId(node), estimates.get(node)));
+    }
+
+    @Override
+    public HugePersonalizedPageRank me() {
+        return this;
+    }
+
+    @Override
+    public HugePersonalizedPageRank release() {
+        if (estimates != null) {
+            tracker.remove(estimates.release());
+            tracker.remove(residuals.release());
+            tracker.remove(queued.release());
+        }
+        estimates = null;
+        residuals = null;
+        queued = null;
+        graph = null;
+        iterator = null;
+        return this;
+    }
+
+    public static final class Result {
+        public final long nodeId;
+        public final double score;
+
+        public Result(long nodeId, double score) {
+            this.nodeId = nodeId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphdb.Direction;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Base class for shortest path searches between a start and a goal node
+ * on a HugeGraph.
+ * <p>
+ * Implementations keep their nodeCount sized state between calls to
+ * {@link #compute(long, long)} and only reset what the previous search
+ * touched, so one instance can answer many queries without allocating.
+ * An instance uses its own relationship iterator and must not be shared
+ * between threads, concurrent queries need one instance per thread.
+ */
+public abstract class HugePointToPointSearch<ME extends HugePointToPointSearch<ME>> extends Algorithm<ME> {
+
+    public static final double NO_PATH_FOUND = ShortestPathDijkstra.NO_PATH_FOUND;
+
+    protected HugeGraph graph;
+    protected HugeRelationshipIterator iterator;
+    protected final Direction direction;
+
+    // mapped ids of the path from start to goal (inclusive)
+    private final LongArrayList path = new LongArrayList();
+    // cost to reach each node of the path from the start node
+    private final DoubleArrayList pathCosts = new DoubleArrayList();
+    private double totalCost = NO_PATH_FOUND;
+
+    protected HugePointToPointSearch(HugeGraph graph, Direction direction) {
+        this.graph = graph;
+        this.iterator = graph.concurrentCopy();
+        this.direction = direction;
+    }
+
+    /**
+     * compute the shortest path between startNode and goalNode
+     *
+     * @param startNode the start node id (original neo4j id)
+     * @param goalNode  the goal node id (original neo4j id)
+     * @return itself
+     */
+    public ME compute(long startNode, long goalNode) {
+        path.clear();
+        pathCosts.clear();
+        totalCost = NO_PATH_FOUND;
+        reset();
+        final long start = mappedId(startNode);
+        final long goal = mappedId(goalNode);
+        if (start != -1L && goal != -1L) {
+            search(start, goal);
+        }
+        return me();
+    }
+
+    private long mappedId(long nodeId) {
+        final long mappedId = graph.toHugeMappedNodeId(nodeId);
+        // the sparse id map yields 0 for unknown ids on allocated pages
+        if (mappedId < 0L || graph.toOriginalNodeId(mappedId) != nodeId) {
+            return -1L;
+        }
+        return mappedId;
+    }
+
+    /**
+     * run the search on mapped ids and report the path using
+     * {@link #addToPath(long, double)}
+     */
+    protected abstract void search(long start, long goal);
+
+    /**
+     * restore the state of a previous search
+     */
+    protected abstract void reset();
+
+    /**
+     * append the next node of the path, must be called from start to goal
+     */
+    protected final void addToPath(long node, double cost) {
+        path.add(node);
+        pathCosts.add(cost);
+        totalCost = cost;
+    }
+
+    /**
+     * get the distance sum of the path
+     *
+     * @return sum of weights between start and goal or
+     * {@link #NO_PATH_FOUND} if the goal is unreachable
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * return the number of nodes the path consists of
+     */
+    public int getPathLength() {
+        return path.size();
+    }
+
+    /**
+     * @return original node ids of the path from start to goal
+     */
+    public long[] getPath() {
+        final long[] nodes = new long[path.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.toOriginalNodeId(path.get(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * @return stream of path nodes and their cost from the start node
+     */
+    public Stream<ShortestPathDijkstra.Result> resultStream() {
+        return IntStream.range(0, path.size())
+                .mapToObj(i -> new ShortestPathDijkstra.Result(
+                        graph.toOriginalNodeId(path.get(i)),
+                        pathCosts.get(i)));
+    }
+
+    @Override
+    public ME release() {
+        graph = null;
+        iterator = null;
+        return me();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.EpochDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.EpochLongArray;
+import org.neo4j.graphalgo.core.utils.queue.HugeDaryHeap;
+
+/**
+ * Distances, predecessors and the priority queue of one direction of a
+ * point to point search over a HugeGraph.
+ * <p>
+ * The nodeCount sized arrays are allocated once and are epoch stamped,
+ * so {@link #reset()} takes constant time instead of refilling the whole
+ * arrays, only the queue is cleared in O(queue size). A state is not
+ * thread safe, concurrent searches need a state each.
+ */
+public final class HugeSearchState {
+
+    public static final long NO_PREDECESSOR = -1L;
+
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    private EpochDoubleArray distances;
+    private EpochLongArray predecessors;
+    private HugeDaryHeap queue;
+    private int touched;
+
+    public HugeSearchState(long nodeCount, AllocationTracker tracker) {
+        this.tracker = tracker;
+        this.nodeCount = nodeCount;
+        this.distances = EpochDoubleArray.newArray(nodeCount, Double.POSITIVE_INFINITY, tracker);
+        this.predecessors = EpochLongArray.newArray(nodeCount, NO_PREDECESSOR, tracker);
+        this.queue = new HugeDaryHeap(nodeCount, tracker);
+    }
+
+    public static long estimateMemoryUsage(long nodeCount) {
+        return EpochDoubleArray.estimateMemoryUsage(nodeCount)
+                + EpochLongArray.estimateMemoryUsage(nodeCount)
+                + HugeDaryHeap.estimateMemoryUsage(nodeCount);
+    }
+
+    /**
+     * @return the number of nodes this state has been allocated for
+     */
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * set the start node of the search
+     */
+    public void start(long node) {
+        relax(node, NO_PREDECESSOR, 0.0, 0.0);
+    }
+
+    /**
+     * lower the distance of node if the given distance is smaller
+     * than the current one
+     *
+     * @param priority the queue priority, the distance itself for dijkstra
+     * @return true if the distance has been lowered
+     */
+    public boolean relax(long node, long predecessor, double distance, double priority) {
+        final double current = distances.get(node);
+        if (distance >= current) {
+            return false;
+        }
+        distances.set(node, distance);
+        if (current == Double.POSITIVE_INFINITY) {
+            touched++;
+        }
+        predecessors.set(node, predecessor);
+        queue.offer(node, priority);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * @return the lowest priority in the queue, infinity if empty
+     */
+    public double topPriority() {
+        return queue.isEmpty() ? Double.POSITIVE_INFINITY : queue.topCost();
+    }
+
+    /**
+     * removes the node with the lowest priority
+     */
+    public long pop() {
+        return queue.pop();
+    }
+
+    public double distance(long node) {
+        return distances.get(node);
+    }
+
+    public long predecessor(long node) {
+        return predecessors.get(node);
+    }
+
+    /**
+     * @return number of nodes reached since the last reset
+     */
+    public int touchedCount() {
+        return touched;
+    }
+
+    /**
+     * restore the initial state
+     */
+    public void reset() {
+        distances.reset();
+        predecessors.reset();
+        queue.clear();
+        touched = 0;
+    }
+
+    public void release() {
+        if (distances == null) {
+            return;
+        }
+        tracker.remove(distances.release());
+        tracker.remove(predecessors.release());
+        queue.release();
+        distances = null;
+        predecessors = null;
+        queue = null;
+    }
+}
@@ -0,0 +1,395 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectMap;
+import com.carrotsearch.hppc.LongObjectScatterMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.queue.HugeRadixHeap;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * single source shortest paths for the HugeGraph.
+ * <p>
+ * Calculates the minimum distance from a startNode to every other
+ * node in the graph. {@link Double#POSITIVE_INFINITY} is returned
+ * if no path exists between those nodes. Relationship weights must
+ * not be negative.
+ * <p>
+ * Distances and predecessors are kept in paged arrays. By default a
+ * sequential Dijkstra using a {@link HugeRadixHeap} is used. If a delta is
+ * given the parallel Delta-Stepping back end is used instead: nodes are
+ * grouped into buckets of width delta which are processed one after the
+ * other, all relaxations of a bucket run in parallel. Each successful
+ * relaxation is remembered and after the relaxation round the predecessor
+ * of a node is taken from the one relaxation which produced its current
+ * cost, so the predecessors form a tree even with zero weights.
+ */
+public class HugeShortestPaths extends Algorithm<HugeShortestPaths> {
+
+    private static final long NO_PREDECESSOR = -1L;
+    private static final long INFINITY = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+    private static final int MIN_BATCH_SIZE = 10_000;
+    // log the progress every n settled nodes
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    private HugeGraph graph;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    private ExecutorService executorService;
+    private int concurrency = 1;
+    private double delta = Double.NaN;
+
+    private DoubleArray distances;
+    private LongArray predecessors;
+    private HugeRadixHeap queue;
+
+    public HugeShortestPaths(HugeGraph graph, AllocationTracker tracker) {
+        this.graph = graph;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    /**
+     * use the parallel Delta-Stepping back end
+     *
+     * @param delta bucket width, should be in the order of the average relationship weight
+     */
+    public HugeShortestPaths withDeltaStepping(double delta, ExecutorService executorService, int concurrency) {
+        if (!(delta > 0.0)) {
+            throw new IllegalArgumentException("delta must be > 0");
+        }
+        this.delta = delta;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * compute the shortest paths from startNode
+     *
+     * @param startNode the start node id (original neo4j id)
+     * @return itself
+     */
+    public HugeShortestPaths compute(long startNode) {
+        final long startNodeId = graph.toHugeMappedNodeId(startNode);
+        if (distances == null) {
+            distances = DoubleArray.newArray(nodeCount, tracker);
+            predecessors = LongArray.newArray(nodeCount, tracker);
+        }
+        distances.fill(Double.POSITIVE_INFINITY);
+        predecessors.fill(NO_PREDECESSOR);
+        if (startNodeId == -1L) {
+            return this;
+        }
+        if (Double.isNaN(delta)) {
+            dijkstra(startNodeId);
+        } else {
+            deltaStepping(startNodeId);
+        }
+        return this;
+    }
+
+    private void dijkstra(long startNode) {
+        if (queue == null) {
+            queue = new HugeRadixHeap(nodeCount, tracker);
+        }
+        // a terminated run may have left nodes in the queue
+        queue.clear();
+        distances.set(startNode, 0.0);
+        queue.add(startNode, 0.0);
+        long settled = 0L;
+        while (!queue.isEmpty() && running()) {
+            final long node = queue.pop();
+            final double sourceCost = distances.get(node);
+            graph.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                final double cost = sourceCost + graph.weightOf(source, target);
+                if (cost < distances.get(target)) {
+                    distances.set(target, cost);
+                    predecessors.set(target, source);
+                    queue.offer(target, cost);
+                }
+                return true;
+            });
+            if (++settled % PROGRESS_INTERVAL == 0) {
+                getProgressLogger().logProgress(settled, nodeCount);
+            }
+        }
+    }
+
+    private void deltaStepping(long startNode) {
+        final PagedAtomicLongArray costs = PagedAtomicLongArray.newArray(nodeCount, tracker);
+        forEachBatch((start, end) -> {
+            for (long node = start; node < end; node++) {
+                costs.set(node, INFINITY);
+            }
+        });
+        costs.set(startNode, key(0.0));
+
+        final List<BucketTask> tasks = new ArrayList<>(concurrency);
+        final List<Runnable> predecessorTasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            final BucketTask task = new BucketTask(costs);
+            tasks.add(task);
+            predecessorTasks.add(task::assignPredecessors);
+        }
+        LongArrayList frontier = new LongArrayList();
+        frontier.add(startNode);
+        long bucket = 0L;
+        while (running()) {
+            final int size = frontier.size();
+            final int batchSize = Math.max(1, (size + concurrency - 1) / concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                tasks.get(i).init(frontier, bucket, i * batchSize, Math.min(size, (i + 1) * batchSize));
+            }
+            run(tasks);
+            run(predecessorTasks);
+            // continue with the lowest non-empty bucket, which might be the current one
+            long next = Long.MAX_VALUE;
+            for (BucketTask task : tasks) {
+                for (LongCursor cursor : task.bins.keys()) {
+                    next = Math.min(next, cursor.value);
+                }
+            }
+            if (next == Long.MAX_VALUE) {
+                break;
+            }
+            frontier = new LongArrayList();
+            for (BucketTask task : tasks) {
+                final LongArrayList bin = task.bins.remove(next);
+                if (bin != null) {
+                    frontier.addAll(bin);
+                }
+            }
+            bucket = next;
+        }
+
+        forEachBatch((start, end) -> {
+            for (long node = start; node < end; node++) {
+                distances.set(node, Double.longBitsToDouble(costs.get(node)));
+            }
+        });
+        tracker.remove(costs.release());
+    }
+
+    private long bucketOf(double cost) {
+        return (long) (cost / delta);
+    }
+
+    private static long key(double cost) {
+        return Double.doubleToLongBits(cost);
+    }
+
+    /**
+     * @return mapped-id to distance array
+     */
+    public DoubleArray getDistances() {
+        return distances;
+    }
+
+    /**
+     * @return mapped-id to mapped-id of the previous node on a shortest path,
+     * -1 for the start node and unreachable nodes
+     */
+    public LongArray getPredecessors() {
+        return predecessors;
+    }
+
+    /**
+     * @return a stream of [nodeId, min-distance]-pairs from
+     * start node to each other node
+     */
+    public Stream<ShortestPaths.Result> resultStream() {
+        return LongStream.range(0L, nodeCount)
+                .mapToObj(node -> new ShortestPaths.Result(
+                        graph.toOriginalNodeId(node),
+                        distances.get(node)));
+    }
+
+    /**
+     * @return a stream of result batches with at most batchSize entries each
+     */
+    public Stream<ResultBatch> resultBatches(int batchSize) {
+        final long batches = ParallelUtil.threadSize(batchSize, nodeCount);
+        return LongStream.range(0L, batches).mapToObj(batch -> {
+            final long start = batch * batchSize;
+            final int length = (int) Math.min(batchSize, nodeCount - start);
+            final ResultBatch result = new ResultBatch(length);
+            for (int i = 0; i < length; i++) {
+                result.nodeIds[i] = graph.toOriginalNodeId(start + i);
+                result.distances[i] = distances.get(start + i);
+            }
+            return result;
+        });
+    }
+
+    private void forEachBatch(BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        run(tasks);
+    }
+
+    private void run(Collection<? extends Runnable> tasks) {
+        if (executorService == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executorService);
+    }
+
+    @Override
+    public HugeShortestPaths me() {
+        return this;
+    }
+
+    @Override
+    public HugeShortestPaths release() {
+        graph = null;
+        if (distances != null) {
+            tracker.remove(distances.release());
+            tracker.remove(predecessors.release());
+        }
+        if (queue != null) {
+            queue.release();
+        }
+        distances = null;
+        predecessors = null;
+        queue = null;
+        return this;
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+
+    /**
+     * relaxes all relationships of its share of the current bucket and
+     * collects the updated nodes in local bins by their new bucket
+     */
+    private final class BucketTask implements Runnable {
+        private final PagedAtomicLongArray costs;
+        private final HugeRelationshipIterator iterator;
+        private final LongObjectMap<LongArrayList> bins = new LongObjectScatterMap<>();
+        // (target, source, cost) of each successful relaxation of the round
+        private final LongArrayList relaxed = new LongArrayList();
+        private LongArrayList frontier;
+        private long bucket;
+        private int start;
+        private int end;
+
+        private BucketTask(PagedAtomicLongArray costs) {
+            this.costs = costs;
+            this.iterator = graph.concurrentCopy();
+        }
+
+        void init(LongArrayList frontier, long bucket, int start, int end) {
+            this.frontier = frontier;
+            this.bucket = bucket;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            for (int i = start; i < end; i++) {
+                final long node = frontier.get(i);
+                final double sourceCost = Double.longBitsToDouble(costs.get(node));
+                // the node has already been processed in a lower bucket
+                if (bucketOf(sourceCost) != bucket) {
+                    continue;
+                }
+                iterator.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                    final double cost = sourceCost + graph.weightOf(source, target);
+                    if (costs.min(target, key(cost))) {
+                        relaxed.add(target, source, key(cost));
+                        final long targetBucket = bucketOf(cost);
+                        LongArrayList bin = bins.get(targetBucket);
+                        if (bin == null) {
+                            bin = new LongArrayList();
+                            bins.put(targetBucket, bin);
+                        }
+                        bin.add(target);
+                    }
+                    return true;
+                });
+            }
+        }
+
+        /**
+         * Runs after all relaxations of the round. Costs only decrease
+         * strictly, so exactly one relaxation matches the current cost
+         * of a node and its source got its cost before the node.
+         */
+        void assignPredecessors() {
+            final long[] buffer = relaxed.buffer;
+            final int size = relaxed.size();
+            for (int i = 0; i < size; i += 3) {
+                final long target = buffer[i];
+                if (costs.get(target) == buffer[i + 2]) {
+                    predecessors.set(target, buffer[i + 1]);
+                }
+            }
+            relaxed.clear();
+        }
+    }
+
+    /**
+     * node ids (original neo4j ids) and their distances
+     */
+    public static final class ResultBatch {
+        public final long[] nodeIds;
+        public final double[] distances;
+
+        ResultBatch(int size) {
+            nodeIds = new long[size];
+            distances = new double[size];
+        }
+
+        public int size() {
+            return nodeIds.length;
+        }
+    }
+}
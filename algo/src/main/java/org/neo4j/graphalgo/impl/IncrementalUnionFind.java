@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.dss.HashDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Incremental UnionFind:
+ * <p>
+ * Updates the weakly connected components of a previous run, whose set
+ * ids are stored in a node property (the seed), with the relationships
+ * created since then. New relationships are identified either by an id
+ * watermark, i.e. all relationships with an id at or above the high id
+ * of the previous run, or by a numeric relationship property such as a
+ * creation timestamp. The property filter still reads every relationship
+ * from its watermark on, with a watermark of 0 it scans the whole
+ * relationship store.
+ * <p>
+ * Only the new relationships are read. Their end nodes are resolved to
+ * their seed and the seeds are united in a {@link HashDisjointSetStruct},
+ * nodes without a seed take part as singletons. A parallel scan over the
+ * nodes afterwards collects those whose set changed: members of merged
+ * sets, new nodes which joined an existing set and new nodes which need
+ * a new set id. Only these nodes have to be written back.
+ * <p>
+ * Merged sets keep the smallest seed. Sets without any seed get new ids
+ * above the largest existing seed. Note that the id watermark misses new
+ * relationships which reused the id of a deleted one.
+ */
+public final class IncrementalUnionFind extends Algorithm<IncrementalUnionFind> {
+
+    // number of relationship ids per scanned range
+    private static final int RELATIONSHIP_RANGE = 1 << 16;
+
+    private final GraphDatabaseAPI api;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final int labelId;
+    private final int relationshipTypeId;
+    private final int seedPropertyId;
+
+    private HashDisjointSetStruct dss;
+    private long relationshipCount;
+    private long nodeCount;
+    private long newSets;
+    private long nextRelationshipId;
+    private long changedCount;
+    private LongArray changedNodes;
+    private LongArray changedSets;
+
+    /**
+     * @param label        the label of the nodes or null for all nodes
+     * @param relationship the relationship type or null for all types
+     * @param seedProperty the node property holding the set ids of the previous run
+     */
+    public IncrementalUnionFind(
+            GraphDatabaseAPI api,
+            String label,
+            String relationship,
+            String seedProperty,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.api = api;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        final ThreadToStatementContextBridge bridge = api.getDependencyResolver()
+                .resolveDependency(ThreadToStatementContextBridge.class);
+        try (Transaction tx = api.beginTx();
+             Statement statement = bridge.get()) {
+            final ReadOperations readOp = statement.readOperations();
+            labelId = isEmpty(label)
+                    ? ReadOperations.ANY_LABEL
+                    : readOp.labelGetForName(label);
+            relationshipTypeId = isEmpty(relationship)
+                    ? ReadOperations.ANY_RELATIONSHIP_TYPE
+                    : readOp.relationshipTypeGetForName(relationship);
+            seedPropertyId = readOp.propertyKeyGetForName(seedProperty);
+            tx.success();
+        }
+    }
+
+    /**
+     * process all relationships with an id at or above the given one
+     *
+     * @param sinceRelationshipId the {@link #nextRelationshipId()} of the previous run
+     */
+    public IncrementalUnionFind compute(long sinceRelationshipId) {
+        return compute(Math.max(0L, sinceRelationshipId), StatementConstants.NO_SUCH_PROPERTY_KEY, 0.0);
+    }
+
+    /**
+     * process all relationships with an id at or above the given one whose
+     * property is at least the given value. All relationships from
+     * sinceRelationshipId on are read to check the property, pass 0 only if
+     * a scan of the whole relationship store is acceptable.
+     *
+     * @param sinceProperty       the numeric relationship property, e.g. a creation timestamp
+     * @param since               the lower bound (inclusive)
+     * @param sinceRelationshipId the lowest relationship id to read, e.g. the {@link #nextRelationshipId()} of an earlier run
+     */
+    public IncrementalUnionFind compute(String sinceProperty, double since, long sinceRelationshipId) {
+        final ThreadToStatementContextBridge bridge = api.getDependencyResolver()
+                .resolveDependency(ThreadToStatementContextBridge.class);
+        final int propertyId;
+        try (Transaction tx = api.beginTx();
+             Statement statement = bridge.get()) {
+            propertyId = statement.readOperations().propertyKeyGetForName(sinceProperty);
+            tx.success();
+        }
+        if (propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            // no relationship has the property, only unseeded nodes may change
+            return compute(Long.MAX_VALUE, propertyId, since);
+        }
+        return compute(Math.max(0L, sinceRelationshipId), propertyId, since);
+    }
+
+    private IncrementalUnionFind compute(long fromId, int sincePropertyId, double since) {
+        final long highId = ParallelNodeScan.highId(api, IdType.RELATIONSHIP);
+        if (highId < 0L) {
+            throw new IllegalStateException("Unable to determine the relationship high id");
+        }
+        nextRelationshipId = highId;
+        dss = new HashDisjointSetStruct();
+
+        final List<LongArrayList> seedPairs = scanRelationships(
+                Math.min(fromId, highId),
+                highId,
+                sincePropertyId,
+                since);
+        relationshipCount = 0L;
+        for (LongArrayList pairs : seedPairs) {
+            final long[] buffer = pairs.buffer;
+            for (int i = 0; i < pairs.size(); i += 2) {
+                dss.union(buffer[i], buffer[i + 1]);
+            }
+            relationshipCount += pairs.size() / 2;
+        }
+        getProgressLogger().logProgress(0.5);
+        if (!running()) {
+            return this;
+        }
+        dss.compress();
+        collectChanges();
+        getProgressLogger().logProgress(1.0);
+        return this;
+    }
+
+    private List<LongArrayList> scanRelationships(
+            long fromId,
+            long highId,
+            int sincePropertyId,
+            double since) {
+        final int rangeCount = Math.toIntExact(ParallelUtil.threadSize(RELATIONSHIP_RANGE, highId - fromId));
+        final AtomicLong nextRange = new AtomicLong();
+        final List<LongArrayList> result = new ArrayList<>(concurrency);
+        final List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < Math.min(Math.max(1, concurrency), rangeCount); i++) {
+            final LongArrayList pairs = new LongArrayList();
+            result.add(pairs);
+            tasks.add(new RelationshipTask(fromId, highId, rangeCount, nextRange, sincePropertyId, since, pairs));
+        }
+        ParallelUtil.run(tasks, executor);
+        return result;
+    }
+
+    private void collectChanges() {
+        final long highId = ParallelNodeScan.highId(api);
+        final List<ChangeCollector> collectors = ParallelNodeScan.visit(
+                api,
+                labelId,
+                Math.max(0L, highId),
+                executor,
+                concurrency,
+                ChangeCollector::new);
+
+        // sets without any seed get new ids above the largest seed
+        long maxSeed = -1L;
+        final LongHashSet freshRoots = new LongHashSet();
+        long count = 0L;
+        nodeCount = 0L;
+        for (ChangeCollector collector : collectors) {
+            maxSeed = Math.max(maxSeed, collector.maxSeed);
+            nodeCount += collector.nodeCount;
+            count += collector.nodes.size();
+            final long[] sets = collector.sets.buffer;
+            for (int i = 0; i < collector.sets.size(); i++) {
+                if (sets[i] < 0L) {
+                    freshRoots.add(sets[i]);
+                }
+            }
+        }
+        final long[] roots = freshRoots.toArray();
+        // sort by node id for deterministic set ids
+        Arrays.sort(roots);
+        final LongLongHashMap newSetIds = new LongLongHashMap(roots.length);
+        for (int i = 0; i < roots.length; i++) {
+            newSetIds.put(roots[roots.length - 1 - i], maxSeed + 1 + i);
+        }
+        newSets = roots.length;
+
+        changedCount = count;
+        changedNodes = LongArray.newArray(count, tracker);
+        changedSets = LongArray.newArray(count, tracker);
+        long index = 0L;
+        for (ChangeCollector collector : collectors) {
+            final long[] nodes = collector.nodes.buffer;
+            final long[] sets = collector.sets.buffer;
+            for (int i = 0; i < collector.nodes.size(); i++, index++) {
+                changedNodes.set(index, nodes[i]);
+                changedSets.set(index, sets[i] < 0L ? newSetIds.get(sets[i]) : sets[i]);
+            }
+        }
+    }
+
+    /**
+     * number of processed new relationships
+     */
+    public long relationshipCount() {
+        return relationshipCount;
+    }
+
+    /**
+     * number of scanned nodes
+     */
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * number of sets which have been merged into others, including singletons of unseeded nodes
+     */
+    public long mergedSets() {
+        return dss.unionCount();
+    }
+
+    /**
+     * number of sets with a new set id
+     */
+    public long newSets() {
+        return newSets;
+    }
+
+    /**
+     * the relationship high id at the start of the computation, use it as
+     * the watermark of the next run
+     */
+    public long nextRelationshipId() {
+        return nextRelationshipId;
+    }
+
+    /**
+     * number of nodes whose set id changed
+     */
+    public long changedCount() {
+        return changedCount;
+    }
+
+    /**
+     * the original node id of the changed node with the given index
+     */
+    public long changedNode(long index) {
+        return changedNodes.get(index);
+    }
+
+    /**
+     * the new set ids of the changed nodes, indexed like {@link #changedNode(long)}
+     */
+    public LongArray changedSets() {
+        return changedSets;
+    }
+
+    /**
+     * stream the new set id of all changed nodes
+     */
+    public Stream<DisjointSetStruct.Result> resultStream() {
+        return LongStream.range(0L, changedCount)
+                .mapToObj(i -> new DisjointSetStruct.Result(
+                        changedNodes.get(i),
+                        changedSets.get(i)));
+    }
+
+    @Override
+    public IncrementalUnionFind me() {
+        return this;
+    }
+
+    @Override
+    public IncrementalUnionFind release() {
+        if (changedNodes != null) {
+            tracker.remove(changedNodes.release());
+            tracker.remove(changedSets.release());
+        }
+        changedNodes = null;
+        changedSets = null;
+        dss = null;
+        return this;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * the seed of a node or the complement of its id if it has none,
+     * so unseeded nodes never collide with a seed
+     */
+    private long seedOf(ReadOperations readOp, long nodeId) throws EntityNotFoundException {
+        if (seedPropertyId != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            final Object value = readOp.nodeGetProperty(nodeId, seedPropertyId);
+            if (value instanceof Number) {
+                final long seed = ((Number) value).longValue();
+                if (seed >= 0L) {
+                    return seed;
+                }
+            }
+        }
+        return ~nodeId;
+    }
+
+    private boolean hasLabel(ReadOperations readOp, long nodeId) throws EntityNotFoundException {
+        return labelId == ReadOperations.ANY_LABEL || readOp.nodeHasLabel(nodeId, labelId);
+    }
+
+    /**
+     * collects the seed pairs of the new relationships of a range of relationship ids
+     */
+    private final class RelationshipTask extends StatementTask<Void, EntityNotFoundException> {
+        private final long fromId;
+        private final long highId;
+        private final int rangeCount;
+        private final AtomicLong nextRange;
+        private final int sincePropertyId;
+        private final double since;
+        private final LongArrayList pairs;
+
+        private RelationshipTask(
+                long fromId,
+                long highId,
+                int rangeCount,
+                AtomicLong nextRange,
+                int sincePropertyId,
+                double since,
+                LongArrayList pairs) {
+            super(api);
+            this.fromId = fromId;
+            this.highId = highId;
+            this.rangeCount = rangeCount;
+            this.nextRange = nextRange;
+            this.sincePropertyId = sincePropertyId;
+            this.since = since;
+            this.pairs = pairs;
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            final long[] ends = new long[3];
+            long range;
+            while ((range = nextRange.getAndIncrement()) < rangeCount && running()) {
+                final long start = fromId + range * RELATIONSHIP_RANGE;
+                final long end = Math.min(highId, start + RELATIONSHIP_RANGE);
+                for (long relId = start; relId < end; relId++) {
+                    try {
+                        ends[0] = -1L;
+                        readOp.relationshipVisit(relId, (id, type, source, target) -> {
+                            if (relationshipTypeId == ReadOperations.ANY_RELATIONSHIP_TYPE
+                                    || type == relationshipTypeId) {
+                                ends[0] = source;
+                                ends[1] = target;
+                            }
+                        });
+                        if (ends[0] == -1L || !isNew(readOp, relId)) {
+                            continue;
+                        }
+                        if (hasLabel(readOp, ends[0]) && hasLabel(readOp, ends[1])) {
+                            pairs.add(seedOf(readOp, ends[0]), seedOf(readOp, ends[1]));
+                        }
+                    } catch (EntityNotFoundException e) {
+                        // unused or concurrently deleted id
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean isNew(ReadOperations readOp, long relId) throws EntityNotFoundException {
+            if (sincePropertyId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                return true;
+            }
+            final Object value = readOp.relationshipGetProperty(relId, sincePropertyId);
+            return value instanceof Number && ((Number) value).doubleValue() >= since;
+        }
+    }
+
+    /**
+     * collects the nodes whose set id differs from their seed
+     */
+    private final class ChangeCollector implements ParallelNodeScan.NodeVisitor {
+        private final LongArrayList nodes = new LongArrayList();
+        private final LongArrayList sets = new LongArrayList();
+        private long maxSeed = -1L;
+        private long nodeCount;
+
+        @Override
+        public boolean visit(ReadOperations readOp, long nodeId) throws EntityNotFoundException {
+            if ((++nodeCount & 0xFFFFL) == 0L && !running()) {
+                return false;
+            }
+            final long seed = seedOf(readOp, nodeId);
+            final long root = dss.root(seed);
+            if (seed >= 0L) {
+                maxSeed = Math.max(maxSeed, seed);
+            }
+            if (root != seed || root < 0L) {
+                nodes.add(nodeId);
+                sets.add(root);
+            }
+            return true;
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import com.carrotsearch.hppc.DoubleArrayList;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntDoubleHashMap;
 import com.carrotsearch.hppc.IntDoubleScatterMap;
@@ -50,6 +51,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     private int[] labels;
     private long ranIterations;
     private boolean didConverge;
+    private double[] residuals = new double[0];
 
     public LabelPropagation(
             HeavyGraph graph,
@@ -73,6 +75,41 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             Direction direction,
             long maxIterations,
             boolean randomizeOrder) {
+        return compute(direction, maxIterations, randomizeOrder, 0.0);
+    }
+
+    /**
+     * run at most {@code maxIterations} iterations, stops as soon as no label changes
+     * or the fraction of nodes that changed their label in an iteration is below the tolerance
+     */
+    public LabelPropagation compute(
+            Direction direction,
+            long maxIterations,
+            boolean randomizeOrder,
+            double tolerance) {
+        return compute(direction, maxIterations, randomizeOrder, false, tolerance);
+    }
+
+    /**
+     * Synchronous label propagation. Every iteration reads the labels of the
+     * previous iteration from one buffer and writes the new labels into another,
+     * nodes are visited in order and ties are broken by the smallest label.
+     * The result therefore does not depend on thread scheduling.
+     * Only batches that changed a label are computed again in the next iteration.
+     */
+    public LabelPropagation computeSynchronous(
+            Direction direction,
+            long maxIterations,
+            double tolerance) {
+        return compute(direction, maxIterations, false, true, tolerance);
+    }
+
+    private LabelPropagation compute(
+            Direction direction,
+            long maxIterations,
+            boolean randomizeOrder,
+            boolean synchronous,
+            double tolerance) {
         if (maxIterations <= 0) {
             throw new IllegalArgumentException("Must iterate at least 1 time");
         }
@@ -97,12 +134,38 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 ),
                 executor);
 
+        // the labels of the last iteration and the labels of the current iteration,
+        // which are the same array unless the updates are synchronous
+        final int[][] buffers = synchronous
+                ? new int[][]{labels, labels.clone()}
+                : new int[][]{labels, labels};
         for (int i = 0, l = computeSteps.size(); i < l; i++) {
-            computeSteps.set(i, ((InitStep) computeSteps.get(i)).computeStep());
+            computeSteps.set(i, ((InitStep) computeSteps.get(i)).computeStep(buffers, synchronous));
         }
 
-        for (long i = 0L; i < maxIterations; i++) {
+        final DoubleArrayList residuals = new DoubleArrayList();
+        boolean belowTolerance = false;
+        for (long i = 0L; i < maxIterations && running(); i++) {
             ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
+            if (synchronous) {
+                int[] written = buffers[1];
+                buffers[1] = buffers[0];
+                buffers[0] = written;
+            }
+            // reduce the number of changed labels of all batches
+            long changes = 0L;
+            for (Runnable computeStep : computeSteps) {
+                changes += ((ComputeStep) computeStep).changes;
+            }
+            if (changes == 0L) {
+                break;
+            }
+            double residual = (double) changes / (double) nodeCount;
+            residuals.add(residual);
+            if (residual < tolerance) {
+                belowTolerance = true;
+                break;
+            }
         }
 
         long maxIteration = 0;
@@ -116,8 +179,10 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             step.release();
         }
 
+        labels = buffers[0];
         ranIterations = maxIteration;
-        didConverge = converged;
+        didConverge = converged || belowTolerance;
+        this.residuals = residuals.toArray();
 
         return this;
     }
@@ -130,6 +195,13 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return didConverge;
     }
 
+    /**
+     * @return the fraction of nodes that changed their label, for every iteration that changed a label
+     */
+    public double[] residuals() {
+        return residuals;
+    }
+
     public int[] labels() {
         return labels;
     }
@@ -201,10 +273,11 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             }
         }
 
-        private ComputeStep computeStep() {
+        private ComputeStep computeStep(int[][] buffers, boolean synchronous) {
             return new ComputeStep(
                     graph,
-                    existingLabels,
+                    buffers,
+                    synchronous,
                     direction,
                     randomizeOrder,
                     progressLogger,
@@ -215,25 +288,32 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     private static final class ComputeStep implements Runnable, RelationshipConsumer {
 
         private final HeavyGraph graph;
-        private final int[] existingLabels;
+        private final int[][] buffers;
+        private final boolean synchronous;
         private final Direction direction;
         private final ProgressLogger progressLogger;
         private final PrimitiveIntIterable nodes;
         private final int maxNode;
         private final IntDoubleHashMap votes;
 
+        private int[] existingLabels;
+        private int[] newLabels;
+
         private boolean didChange = true;
         private long iteration = 0L;
+        private long changes = 0L;
 
         private ComputeStep(
                 HeavyGraph graph,
-                int[] existingLabels,
+                int[][] buffers,
+                boolean synchronous,
                 Direction direction,
                 boolean randomizeOrder,
                 ProgressLogger progressLogger,
                 PrimitiveIntIterable nodes) {
             this.graph = graph;
-            this.existingLabels = existingLabels;
+            this.buffers = buffers;
+            this.synchronous = synchronous;
             this.direction = direction;
             this.progressLogger = progressLogger;
             this.nodes = RandomlySwitchingIterable.of(randomizeOrder, nodes);
@@ -243,8 +323,11 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
 
         @Override
         public void run() {
+            changes = 0L;
             if (this.didChange) {
                 iteration++;
+                existingLabels = buffers[0];
+                newLabels = buffers[1];
                 PrimitiveIntIterator iterator = nodes.iterator();
                 boolean didChange = false;
                 while (iterator.hasNext()) {
@@ -264,16 +347,21 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             graph.forEachRelationship(nodeId, direction, this);
             double weight = Double.NEGATIVE_INFINITY;
             for (IntDoubleCursor vote : votes) {
-                if (weight < vote.value) {
+                if (weight < vote.value || (synchronous && weight == vote.value && vote.key < partition)) {
                     weight = vote.value;
                     partition = vote.key;
                 }
             }
             progressLogger.logProgress(nodeId, maxNode);
             if (partition != previous) {
-                existingLabels[nodeId] = partition;
+                newLabels[nodeId] = partition;
+                changes++;
                 return true;
             }
+            if (synchronous) {
+                // the other buffer holds the label of an older iteration
+                newLabels[nodeId] = partition;
+            }
             return didChange;
         }
 
@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.ParallelResultStream;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
@@ -29,7 +30,6 @@ import org.neo4j.graphdb.Direction;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.LongToIntFunction;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -58,11 +58,13 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
     public MSClosenessCentrality compute() {
 
         final ProgressLogger progressLogger = getProgressLogger();
+        // every consumed source node is one reached pair of nodes
+        final long pairs = (long) nodeCount * (nodeCount - 1);
 
         final BfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             int len = sourceNodeIds.size();
             farness.addAndGet(nodeId, len * depth);
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            progressLogger.addProgress(len, pairs);
         };
 
         new MultiSourceBFS(graph, graph, Direction.OUTGOING, consumer)
@@ -74,10 +76,12 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
     @Override
     public Stream<Result> resultStream() {
         final double k = nodeCount - 1;
-        return IntStream.range(0, nodeCount)
-                .mapToObj(nodeId -> new Result(
-                        graph.toOriginalNodeId(nodeId),
-                        centrality(farness.get(nodeId), k)));
+        return ParallelResultStream.of(
+                nodeCount,
+                nodeId -> graph.toOriginalNodeId((int) nodeId),
+                nodeId -> centrality(farness.get((int) nodeId), k))
+                .parallel(executorService, concurrency)
+                .stream(Result::new);
     }
 
     @Override
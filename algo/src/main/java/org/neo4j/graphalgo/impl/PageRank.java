@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl;
 
+import com.carrotsearch.hppc.DoubleArrayList;
 import com.carrotsearch.hppc.IntArrayList;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.Degrees;
@@ -158,11 +159,30 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
      */
     @Override
     public PageRank compute(int iterations) {
-        assert iterations >= 1;
-        computeSteps.run(iterations);
+        return compute(iterations, 0.0);
+    }
+
+    /**
+     * compute pageRank for at most n iterations, stops early once
+     * the residual of an iteration drops below the tolerance
+     */
+    @Override
+    public PageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps.residuals.size();
+    }
+
+    @Override
+    public double[] residuals() {
+        return computeSteps.residuals.toArray();
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -312,6 +332,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int concurrency;
         private List<ComputeStep> steps;
         private final ExecutorService pool;
+        private final DoubleArrayList residuals;
         private int[][][] scores;
 
         private ComputeSteps(
@@ -322,6 +343,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             this.concurrency = concurrency;
             this.steps = steps;
             this.pool = pool;
+            this.residuals = new DoubleArrayList();
             int stepSize = steps.size();
             scores = new int[stepSize][][];
             Arrays.setAll(scores, i -> new int[stepSize][]);
@@ -341,7 +363,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             return new PartitionedPrimitiveDoubleArrayResult(results, firstStep.starts);
         }
 
-        private void run(int iterations) {
+        private void run(int iterations, double tolerance) {
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
             for (int i = 0; i < iterations && running(); i++) {
@@ -350,7 +372,26 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                 synchronizeScores();
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                double residual = residual();
+                residuals.add(residual);
+                if (residual < tolerance) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * the mean absolute change of the scores in the last iteration,
+         * reduced from the L1 norms of all partitions
+         */
+        private double residual() {
+            double sum = 0.0;
+            long nodeCount = 0L;
+            for (ComputeStep step : steps) {
+                sum += step.residual;
+                nodeCount += (long) step.partitionSize;
             }
+            return nodeCount > 0L ? sum / (double) nodeCount : 0.0;
         }
 
         private void synchronizeScores() {
@@ -405,6 +446,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int endNode;
 
         private int srcRankDelta = 0;
+        private double residual;
 
         ComputeStep(
                 double dampingFactor,
@@ -507,13 +549,16 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             double[] pageRank = this.pageRank;
 
             int length = allScores.length;
+            double residual = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = allScores[i];
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
+                residual += Math.abs(delta);
                 allScores[i] = 0;
             }
+            this.residual = residual;
         }
 
     }
@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 
 import java.util.concurrent.ExecutorService;
 
@@ -28,6 +29,23 @@ public interface PageRankAlgorithm {
 
     PageRankAlgorithm compute(int iterations);
 
+    /**
+     * compute at most {@code maxIterations} iterations and stop as soon as
+     * the residual of an iteration is below the tolerance
+     */
+    PageRankAlgorithm compute(int maxIterations, double tolerance);
+
+    /**
+     * @return the number of iterations that actually ran
+     */
+    int iterations();
+
+    /**
+     * @return the residual of every iteration that ran, that is the
+     * mean absolute change of the scores (the L1 norm divided by the node count)
+     */
+    double[] residuals();
+
     PageRankResult result();
 
     Algorithm<?> algorithm();
@@ -88,4 +106,40 @@ public interface PageRankAlgorithm {
                 graph,
                 dampingFactor);
     }
+
+    /**
+     * weighted page rank, only available for a {@link HugeGraph}
+     *
+     * @param weighted whether to distribute the rank in proportion to the relationship weights
+     * @param teleport the teleport weight of every node or {@code null} for a uniform teleport
+     */
+    static PageRankAlgorithm of(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            ExecutorService pool,
+            int concurrency,
+            int batchSize,
+            boolean weighted,
+            DoubleArray teleport) {
+        if (!weighted && teleport == null) {
+            return of(tracker, graph, dampingFactor, pool, concurrency, batchSize);
+        }
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("weighted page rank requires a huge graph");
+        }
+        HugeGraph huge = (HugeGraph) graph;
+        return new HugePageRank(
+                pool,
+                concurrency,
+                batchSize,
+                tracker,
+                huge,
+                huge,
+                huge,
+                huge,
+                dampingFactor,
+                weighted ? huge : null,
+                teleport);
+    }
 }
@@ -21,9 +21,11 @@ package org.neo4j.graphalgo.impl;
 import com.carrotsearch.hppc.*;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.EpochBitSet;
+import org.neo4j.graphalgo.core.utils.paged.EpochDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.EpochLongArray;
 import org.neo4j.graphalgo.core.utils.queue.IntPriorityQueue;
-import org.neo4j.graphalgo.core.utils.queue.SharedIntPriorityQueue;
-import org.neo4j.graphalgo.core.utils.traverse.SimpleBitSet;
 import org.neo4j.graphdb.Direction;
 
 import java.util.stream.Stream;
@@ -35,6 +37,10 @@ import java.util.stream.StreamSupport;
  * The algorithm computes a (there might be more then one) shortest path
  * between a given start and target-NodeId. It returns result tuples of
  * [nodeId, distance] of each node in the path.
+ * <p>
+ * The per node state is kept in epoch stamped arrays which are reset in
+ * constant time, repeated calls to compute only pay for the nodes they
+ * actually visit.
  */
 public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
 
@@ -44,15 +50,15 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     private Graph graph;
 
     // node to cost map
-    private IntDoubleMap costs;
+    private EpochDoubleArray costs;
     // next node priority queue
     private IntPriorityQueue queue;
     // auxiliary path map
-    private IntIntMap path;
+    private EpochLongArray path;
     // path map (stores the resulting shortest path)
     private IntArrayDeque finalPath;
     // visited set
-    private SimpleBitSet visited;
+    private EpochBitSet visited;
     private final int nodeCount;
     // overall cost of the path
     private double totalCost;
@@ -61,13 +67,25 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     public ShortestPathDijkstra(Graph graph) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
-        costs = new IntDoubleScatterMap(nodeCount);
-        queue = SharedIntPriorityQueue.min(
-                nodeCount,
-                costs,
-                Double.MAX_VALUE);
-        path = new IntIntScatterMap(nodeCount);
-        visited = new SimpleBitSet(nodeCount);
+        costs = EpochDoubleArray.newArray(nodeCount, Double.MAX_VALUE, AllocationTracker.EMPTY);
+        queue = new IntPriorityQueue() {
+            @Override
+            protected boolean lessThan(int a, int b) {
+                return costs.get(a) < costs.get(b);
+            }
+
+            @Override
+            protected void addCost(int element, double cost) {
+                // costs are maintained by the algorithm
+            }
+
+            @Override
+            protected double cost(int element) {
+                return costs.get(element);
+            }
+        };
+        path = EpochLongArray.newArray(nodeCount, PATH_END, AllocationTracker.EMPTY);
+        visited = EpochBitSet.newBitSet(nodeCount, AllocationTracker.EMPTY);
         finalPath = new IntArrayDeque();
         progressLogger = getProgressLogger();
     }
@@ -86,17 +104,17 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
 
         int node = graph.toMappedNodeId(startNode);
         int goal = graph.toMappedNodeId(goalNode);
-        costs.put(node, 0.0);
+        costs.set(node, 0.0);
         queue.add(node, 0.0);
         run(goal, direction);
-        if (!path.containsKey(goal)) {
+        if (!path.contains(goal)) {
             return this;
         }
         totalCost = costs.get(goal);
         int last = goal;
         while (last != PATH_END) {
             finalPath.addFirst(last);
-            last = path.getOrDefault(last, PATH_END);
+            last = (int) path.get(last);
         }
         return this;
     }
@@ -141,7 +159,7 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
             }
 
             visited.put(node);
-            double costs = this.costs.getOrDefault(node, Double.MAX_VALUE);
+            double costs = this.costs.get(node);
             graph.forEachRelationship(
                     node,
                     direction, (source, target, relId, weight) -> {
@@ -156,10 +174,10 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     }
 
     private void updateCosts(int source, int target, double newCosts) {
-        double oldCosts = costs.getOrDefault(target, Double.MAX_VALUE);
+        double oldCosts = costs.get(target);
         if (newCosts < oldCosts) {
-            costs.put(target, newCosts);
-            path.put(target, source);
+            costs.set(target, newCosts);
+            path.set(target, source);
         }
     }
 
@@ -182,8 +200,8 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     private void reset() {
         visited.clear();
         queue.clear();
-        costs.clear();
-        path.clear();
+        costs.reset();
+        path.reset();
         finalPath.clear();
         totalCost = NO_PATH_FOUND;
     }
@@ -79,7 +79,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
         graph.release();
 
         if (configuration.isWriteFlag()) {
-            uf.write(builder::timeWrite, graph, dssResult, configuration);
+            builder.withWriteCounts(uf.write(builder::timeWrite, graph, dssResult, configuration));
         }
 
         return Stream.of(builder
@@ -170,17 +170,17 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 this);
     }
 
-    private void write(
+    private Exporter write(
             Supplier<ProgressTimer> timer,
             Graph graph,
             DSSResult struct,
             ProcedureConfiguration configuration) {
         try (ProgressTimer ignored = timer.get()) {
-            write(graph, struct, configuration);
+            return write(graph, struct, configuration);
         }
     }
 
-    private void write(
+    private Exporter write(
             Graph graph,
             DSSResult struct,
             ProcedureConfiguration configuration) {
@@ -191,12 +191,14 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                         Pools.DEFAULT,
                         configuration.getConcurrency(),
                         TerminationFlag.wrap(transaction))
+                .skipUnchanged(configuration.getWriteTolerance())
                 .build();
         if (struct.hugeStruct != null) {
             write(exporter, struct.hugeStruct, configuration);
         } else {
             write(exporter, struct.struct, configuration);
         }
+        return exporter;
     }
 
     @Override
@@ -22,6 +22,7 @@ import com.carrotsearch.hppc.IntArrayDeque;
 import com.carrotsearch.hppc.IntStack;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.ParallelResultStream;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.container.Paths;
 import org.neo4j.graphalgo.impl.Algorithm;
@@ -32,7 +33,6 @@ import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -110,11 +110,12 @@ public class ParallelBetweennessCentrality extends Algorithm<ParallelBetweenness
      * @return stream if Results
      */
     public Stream<BetweennessCentrality.Result> resultStream() {
-        return IntStream.range(0, nodeCount)
-                .mapToObj(nodeId ->
-                        new BetweennessCentrality.Result(
-                                graph.toOriginalNodeId(nodeId),
-                                centrality.get(nodeId)));
+        return ParallelResultStream.of(
+                nodeCount,
+                nodeId -> graph.toOriginalNodeId((int) nodeId),
+                nodeId -> centrality.get((int) nodeId))
+                .parallel(executorService, concurrency)
+                .stream(BetweennessCentrality.Result::new);
     }
 
     @Override
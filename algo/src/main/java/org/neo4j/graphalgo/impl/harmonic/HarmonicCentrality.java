@@ -56,9 +56,11 @@ public class HarmonicCentrality extends Algorithm<HarmonicCentrality> implements
 
     public HarmonicCentrality compute() {
         final ProgressLogger progressLogger = getProgressLogger();
+        // every consumed source node is one reached pair of nodes
+        final long pairs = (long) nodeCount * (nodeCount - 1);
         final BfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             inverseFarness.add(nodeId, sourceNodeIds.size() * (1.0 / depth));
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            progressLogger.addProgress(sourceNodeIds.size(), pairs);
         };
         new MultiSourceBFS(graph, graph, Direction.BOTH, consumer)
                 .run(concurrency, executorService);
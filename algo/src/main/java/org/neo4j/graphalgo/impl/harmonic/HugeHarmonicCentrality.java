@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.impl.harmonic;
 
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelResultStream;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
@@ -30,7 +31,6 @@ import org.neo4j.graphalgo.impl.msbfs.HugeMultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 
 import java.util.concurrent.ExecutorService;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -58,10 +58,12 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
 
     public HugeHarmonicCentrality compute() {
         final ProgressLogger progressLogger = getProgressLogger();
+        // every consumed source node is one reached pair of nodes
+        final long pairs = (long) nodeCount * (nodeCount - 1);
         final HugeBfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             final double len = sourceNodeIds.size();
             inverseFarness.add(nodeId, len * (1.0 / depth));
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            progressLogger.addProgress(sourceNodeIds.size(), pairs);
         };
 
         new HugeMultiSourceBFS(
@@ -76,10 +78,12 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
     }
 
     public Stream<Result> resultStream() {
-        return LongStream.range(0, nodeCount)
-                .mapToObj(nodeId -> new Result(
-                        graph.toOriginalNodeId(nodeId),
-                        inverseFarness.get(nodeId) / (double)(nodeCount - 1)));
+        return ParallelResultStream.of(
+                nodeCount,
+                graph::toOriginalNodeId,
+                nodeId -> inverseFarness.get(nodeId) / (double) (nodeCount - 1))
+                .parallel(executorService, concurrency)
+                .stream(Result::new);
     }
 
     public void export(final String propertyName, final Exporter exporter) {
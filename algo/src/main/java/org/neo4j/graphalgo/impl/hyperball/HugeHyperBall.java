@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.hyperball;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * HyperBall: approximate neighbourhood function, closeness and harmonic
+ * centrality for the HugeGraph.
+ * <p>
+ * Each node keeps a HyperLogLog counter with {@code 2^precision} registers
+ * which approximates the ball of nodes within distance t. Registers are
+ * one byte wide and packed eight to a long into paged arrays. In iteration
+ * t the counter of each node is unioned with the counters of its neighbours
+ * from iteration t-1 (double buffered, in parallel). Only neighbours whose
+ * counter changed in the previous iteration are merged. The iteration stops
+ * once no counter changes anymore.
+ * <p>
+ * The growth of a counter from t-1 to t estimates the number of nodes at
+ * distance exactly t which gives farness (sum of t * delta) and harmonic
+ * centrality (sum of delta / t). The sum over all counters is the
+ * neighbourhood function of the graph from which the effective diameter
+ * is derived. The relative standard error of each counter is about
+ * {@code 1.04 / sqrt(2^precision)}.
+ * <p>
+ * The direction denotes which neighbours are pulled. Using
+ * {@link Direction#INCOMING} counts all nodes which reach a node, like the
+ * multi source BFS based closeness centrality does.
+ */
+public class HugeHyperBall extends Algorithm<HugeHyperBall> {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+    public static final int DEFAULT_PRECISION = 6;
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final double[] INVERSE_POWERS_OF_TWO = new double[65];
+
+    static {
+        for (int i = 0; i < INVERSE_POWERS_OF_TWO.length; i++) {
+            INVERSE_POWERS_OF_TWO[i] = Math.scalb(1.0, -i);
+        }
+    }
+
+    private HugeGraph graph;
+    private final Direction direction;
+    private final int precision;
+    private final int registers;
+    private final int wordsPerNode;
+    private final double alphaMM;
+    private final int maxIterations;
+    private ExecutorService executorService;
+    private final int concurrency;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+
+    private LongArray current;
+    private LongArray next;
+    // iteration in which the counter of a node changed last
+    private LongArray changedIn;
+    private DoubleArray counts;
+    private DoubleArray farness;
+    private DoubleArray harmonic;
+    private final DoubleArrayList neighbourhoodFunction = new DoubleArrayList();
+    private int iterations;
+
+    public HugeHyperBall(
+            HugeGraph graph,
+            Direction direction,
+            int precision,
+            int maxIterations,
+            ExecutorService executorService,
+            int concurrency,
+            AllocationTracker tracker) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format(
+                    "precision must be between %d and %d but was %d",
+                    MIN_PRECISION,
+                    MAX_PRECISION,
+                    precision));
+        }
+        this.graph = graph;
+        this.direction = direction;
+        this.precision = precision;
+        this.registers = 1 << precision;
+        this.wordsPerNode = registers >>> 3;
+        this.alphaMM = alpha(registers) * registers * registers;
+        this.maxIterations = maxIterations;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.nodeCount = graph.nodeCount();
+        this.tracker = tracker;
+    }
+
+    /**
+     * estimated memory usage of the counters and results in bytes
+     */
+    public static long estimateMemoryUsage(long nodeCount, int precision) {
+        final long words = nodeCount * ((1L << precision) >>> 3);
+        return 2L * LongArray.estimateMemoryUsage(words)
+                + LongArray.estimateMemoryUsage(nodeCount)
+                + 3L * DoubleArray.estimateMemoryUsage(nodeCount);
+    }
+
+    public HugeHyperBall compute() {
+        final long words = nodeCount * wordsPerNode;
+        current = LongArray.newArray(words, tracker);
+        next = LongArray.newArray(words, tracker);
+        changedIn = LongArray.newArray(nodeCount, tracker);
+        counts = DoubleArray.newArray(nodeCount, tracker);
+        farness = DoubleArray.newArray(nodeCount, tracker);
+        harmonic = DoubleArray.newArray(nodeCount, tracker);
+        neighbourhoodFunction.clear();
+
+        final DoubleAdder sum = new DoubleAdder();
+        forEachBatch((start, end) -> {
+            final long[] counter = new long[wordsPerNode];
+            for (long node = start; node < end; node++) {
+                final long hash = hash(node);
+                final int register = (int) (hash >>> (64 - precision));
+                final int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+                counter[register >>> 3] = (long) rank << ((register & 7) << 3);
+                final long offset = node * wordsPerNode;
+                for (int i = 0; i < wordsPerNode; i++) {
+                    current.set(offset + i, counter[i]);
+                    counter[i] = 0L;
+                }
+                changedIn.set(node, 0L);
+                final double count = estimate(current, offset);
+                counts.set(node, count);
+                sum.add(count);
+            }
+        });
+        neighbourhoodFunction.add(sum.sum());
+
+        final ProgressLogger progressLogger = getProgressLogger();
+        final AtomicLong changed = new AtomicLong();
+        for (iterations = 1; iterations <= maxIterations && running(); iterations++) {
+            final int t = iterations;
+            changed.set(0L);
+            sum.reset();
+            forEachBatch((start, end) -> {
+                final HugeRelationshipIterator iterator = graph.concurrentCopy();
+                final long[] counter = new long[wordsPerNode];
+                long localChanges = 0L;
+                double localDelta = 0.0;
+                for (long node = start; node < end; node++) {
+                    final long offset = node * wordsPerNode;
+                    for (int i = 0; i < wordsPerNode; i++) {
+                        counter[i] = current.get(offset + i);
+                    }
+                    // nodes of this iteration may already be stamped with t which
+                    // merges an unchanged counter, that is wasted work but still correct
+                    iterator.forEachRelationship(node, direction, (s, target) -> {
+                        if (changedIn.get(target) >= t - 1) {
+                            union(counter, current, target * wordsPerNode);
+                        }
+                        return true;
+                    });
+                    boolean modified = false;
+                    for (int i = 0; i < wordsPerNode; i++) {
+                        modified |= counter[i] != current.get(offset + i);
+                        next.set(offset + i, counter[i]);
+                    }
+                    if (!modified) {
+                        continue;
+                    }
+                    changedIn.set(node, t);
+                    final double count = estimate(next, offset);
+                    final double delta = count - counts.get(node);
+                    counts.set(node, count);
+                    farness.addTo(node, t * delta);
+                    harmonic.addTo(node, delta / t);
+                    localDelta += delta;
+                    localChanges++;
+                }
+                changed.addAndGet(localChanges);
+                sum.add(localDelta);
+            });
+            progressLogger.logProgress(t, maxIterations);
+            if (changed.get() == 0L) {
+                break;
+            }
+            neighbourhoodFunction.add(neighbourhoodFunction.get(neighbourhoodFunction.size() - 1) + sum.sum());
+            final LongArray tmp = current;
+            current = next;
+            next = tmp;
+        }
+        iterations = neighbourhoodFunction.size() - 1;
+
+        tracker.remove(current.release());
+        tracker.remove(next.release());
+        tracker.remove(changedIn.release());
+        current = null;
+        next = null;
+        changedIn = null;
+        return this;
+    }
+
+    /**
+     * number of iterations until all counters have been stable
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * estimated neighbourhood function, the value at index t is the
+     * number of pairs of nodes within distance t
+     */
+    public double[] neighbourhoodFunction() {
+        return neighbourhoodFunction.toArray();
+    }
+
+    /**
+     * the interpolated distance within which 90% of all
+     * reachable pairs of nodes lie
+     */
+    public double effectiveDiameter() {
+        return effectiveDiameter(0.9);
+    }
+
+    public double effectiveDiameter(double alpha) {
+        final double[] function = neighbourhoodFunction();
+        final double target = alpha * function[function.length - 1];
+        int t = 0;
+        while (function[t] < target) {
+            t++;
+        }
+        if (t == 0) {
+            return 0.0;
+        }
+        return (t - 1) + (target - function[t - 1]) / (function[t] - function[t - 1]);
+    }
+
+    /**
+     * estimated number of nodes within reach, including the node itself
+     */
+    public double reachable(long node) {
+        return counts.get(node);
+    }
+
+    public double farness(long node) {
+        return farness.get(node);
+    }
+
+    /**
+     * closeness centrality normalized like the exact implementation
+     */
+    public double closeness(long node) {
+        final double f = farness.get(node);
+        return f > 0 ? (nodeCount - 1) / f : 0.0;
+    }
+
+    public double harmonic(long node) {
+        return harmonic.get(node) / (nodeCount - 1);
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public long toOriginalNodeId(long node) {
+        return graph.toOriginalNodeId(node);
+    }
+
+    private static void union(long[] counter, LongArray other, long offset) {
+        for (int i = 0; i < counter.length; i++) {
+            counter[i] = max(counter[i], other.get(offset + i));
+        }
+    }
+
+    /**
+     * broadword maximum of eight packed bytes, register values never exceed 127
+     */
+    static long max(long x, long y) {
+        final long greaterOrEqual = (((y | HIGH_BITS) - x) & HIGH_BITS) >>> 7;
+        final long mask = greaterOrEqual * 0xFFL;
+        return (y & mask) | (x & ~mask);
+    }
+
+    private double estimate(LongArray counter, long offset) {
+        double sum = 0.0;
+        int zeros = 0;
+        for (int i = 0; i < wordsPerNode; i++) {
+            long word = counter.get(offset + i);
+            for (int b = 0; b < 8; b++) {
+                final int value = (int) (word & 0xFFL);
+                sum += INVERSE_POWERS_OF_TWO[value];
+                if (value == 0) {
+                    zeros++;
+                }
+                word >>>= 8;
+            }
+        }
+        final double estimate = alphaMM / sum;
+        if (zeros > 0 && estimate <= 2.5 * registers) {
+            return registers * Math.log((double) registers / zeros);
+        }
+        return estimate;
+    }
+
+    private static double alpha(int registers) {
+        switch (registers) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / registers);
+        }
+    }
+
+    private static long hash(long value) {
+        // finalizer of MurmurHash3
+        long h = value + 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e87f5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void forEachBatch(BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executorService);
+    }
+
+    @Override
+    public HugeHyperBall me() {
+        return this;
+    }
+
+    @Override
+    public HugeHyperBall release() {
+        graph = null;
+        executorService = null;
+        if (counts != null) {
+            tracker.remove(counts.release());
+            tracker.remove(farness.release());
+            tracker.remove(harmonic.release());
+            counts = null;
+            farness = null;
+            harmonic = null;
+        }
+        return this;
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.hyperball;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.MSBFSCCAlgorithm;
+import org.neo4j.graphalgo.impl.MSClosenessCentrality;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongToIntFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Approximate closeness centrality based on {@link HugeHyperBall}.
+ * <p>
+ * Counts the nodes reaching each node, the graph has to be
+ * loaded with {@link Direction#INCOMING} relationships.
+ */
+public class HyperBallClosenessCentrality extends MSBFSCCAlgorithm<HyperBallClosenessCentrality> {
+
+    private HugeHyperBall hyperBall;
+
+    public HyperBallClosenessCentrality(
+            HugeGraph graph,
+            int precision,
+            int maxIterations,
+            AllocationTracker tracker,
+            int concurrency,
+            ExecutorService executorService) {
+        hyperBall = new HugeHyperBall(
+                graph,
+                Direction.INCOMING,
+                precision,
+                maxIterations,
+                executorService,
+                concurrency,
+                tracker);
+    }
+
+    @Override
+    public HyperBallClosenessCentrality compute() {
+        hyperBall
+                .withProgressLogger(getProgressLogger())
+                .withTerminationFlag(getTerminationFlag())
+                .compute();
+        return this;
+    }
+
+    public HugeHyperBall hyperBall() {
+        return hyperBall;
+    }
+
+    @Override
+    public Stream<MSClosenessCentrality.Result> resultStream() {
+        final HugeHyperBall hb = hyperBall;
+        return LongStream.range(0L, hb.nodeCount())
+                .mapToObj(nodeId -> new MSClosenessCentrality.Result(
+                        hb.toOriginalNodeId(nodeId),
+                        hb.closeness(nodeId)));
+    }
+
+    @Override
+    public LongToIntFunction farness() {
+        final HugeHyperBall hb = hyperBall;
+        return nodeId -> (int) Math.round(hb.farness(nodeId));
+    }
+
+    @Override
+    public void export(String propertyName, Exporter exporter) {
+        exporter.write(
+                propertyName,
+                hyperBall,
+                (PropertyTranslator.OfDouble<HugeHyperBall>) HugeHyperBall::closeness);
+    }
+
+    @Override
+    public HyperBallClosenessCentrality me() {
+        return this;
+    }
+
+    @Override
+    public HyperBallClosenessCentrality release() {
+        hyperBall.release();
+        hyperBall = null;
+        return this;
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl.louvain;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -33,16 +34,29 @@ public interface LouvainAlgorithm {
 
     int getCommunityCount() ;
 
+    /**
+     * number of aggregation levels, single level algorithms have one
+     */
+    default int getLevels() {
+        return 1;
+    }
+
     Stream<Result> resultStream();
 
     class Result {
 
         public final long nodeId;
         public final long community;
+        public final List<Long> communities;
 
         public Result(long nodeId, int community) {
+            this(nodeId, community, null);
+        }
+
+        public Result(long nodeId, long community, List<Long> communities) {
             this.nodeId = nodeId;
             this.community = community;
+            this.communities = communities;
         }
 
         @Override
@@ -50,6 +64,7 @@ public interface LouvainAlgorithm {
             return "Result{" +
                     "nodeId=" + nodeId +
                     ", community=" + community +
+                    ", communities=" + communities +
                     '}';
         }
     }
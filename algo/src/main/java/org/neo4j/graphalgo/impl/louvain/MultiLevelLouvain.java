@@ -0,0 +1,615 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Weighted, multi-level Louvain with a Leiden style refinement.
+ * <p>
+ * Every level runs three phases on the current level graph:
+ * <ol>
+ * <li>local moving: nodes are moved in parallel into the neighbouring community
+ * with the largest modularity gain until no node moves or maxIterations is reached</li>
+ * <li>refinement: each community is split into well connected sub communities.
+ * They start as singletons and a node only joins a sub community of its own
+ * community which it is connected to, so no community ends up disconnected</li>
+ * <li>aggregation: the refined communities become the nodes of a new compressed
+ * {@link HugeGraph} with the summed weights between them, the communities
+ * of the local moving phase are its initial partition</li>
+ * </ol>
+ * The communities of every level are kept for the original nodes. The working
+ * arrays are allocated once for the input graph and reused by all following
+ * levels since the level graphs only shrink.
+ */
+public class MultiLevelLouvain extends Algorithm<MultiLevelLouvain> implements LouvainAlgorithm {
+
+    private HugeGraph root;
+    private ExecutorService pool;
+    private final int concurrency;
+    private final int maxIterations;
+    private final int maxLevels;
+    private final boolean weighted;
+    private final AllocationTracker tracker;
+    private final long rootNodeCount;
+
+    // level node to community
+    private LongArray community;
+    // level node to refined community
+    private LongArray refined;
+    // dense ids and insertion cursors
+    private LongArray dense;
+    // level nodes grouped by (refined) community
+    private LongArray members;
+    private LongArray memberOffsets;
+    // root node to level node
+    private LongArray rootToLevel;
+    // weighted degree
+    private DoubleArray nodeWeight;
+    // community weight
+    private PagedAtomicDoubleArray communityWeight;
+    // refined community weight, weight into the rest of the community and size
+    private DoubleArray refinedWeight;
+    private DoubleArray refinedExternal;
+    private IntArray refinedSize;
+
+    // m = sum of all weights * 2
+    private double m2;
+    private int iterations;
+    private final List<LongArray> levels = new ArrayList<>();
+    private final LongArrayList communityCounts = new LongArrayList();
+
+    public MultiLevelLouvain(
+            HugeGraph graph,
+            ExecutorService pool,
+            int concurrency,
+            int maxIterations,
+            int maxLevels,
+            boolean weighted,
+            AllocationTracker tracker) {
+        this.root = graph;
+        this.pool = pool;
+        this.concurrency = concurrency;
+        this.maxIterations = maxIterations;
+        this.maxLevels = Math.max(1, maxLevels);
+        this.weighted = weighted;
+        this.tracker = tracker;
+        this.rootNodeCount = graph.nodeCount();
+    }
+
+    @Override
+    public MultiLevelLouvain compute() {
+        allocate();
+        HugeGraph graph = root;
+        boolean levelWeighted = weighted;
+        long nodeCount = rootNodeCount;
+        m2 = initNodeWeights(graph, nodeCount, levelWeighted);
+        for (long node = 0L; node < nodeCount; node++) {
+            community.set(node, node);
+            rootToLevel.set(node, node);
+        }
+        iterations = 0;
+        for (int level = 0; level < maxLevels && running(); level++) {
+            initCommunityWeights(nodeCount);
+            final long moves = moveNodes(graph, nodeCount, levelWeighted);
+            final long communityCount = renumber(community, nodeCount);
+            if (level == 0 || moves > 0) {
+                recordLevel(communityCount);
+            }
+            getProgressLogger().logProgress(level + 1, maxLevels);
+            if (level + 1 == maxLevels || !running()) {
+                break;
+            }
+            refine(graph, nodeCount, communityCount, levelWeighted);
+            final long refinedCount = renumber(refined, nodeCount);
+            if (refinedCount == nodeCount || (moves == 0 && refinedCount == communityCount)) {
+                break;
+            }
+            final HugeGraph next = aggregate(graph, nodeCount, refinedCount, levelWeighted);
+            for (long node = 0L; node < nodeCount; node++) {
+                dense.set(refined.get(node), community.get(node));
+            }
+            for (long node = 0L; node < refinedCount; node++) {
+                community.set(node, dense.get(node));
+            }
+            runBatches(rootNodeCount, (start, end) -> {
+                for (long node = start; node < end; node++) {
+                    rootToLevel.set(node, refined.get(rootToLevel.get(node)));
+                }
+            });
+            if (graph != root) {
+                graph.release();
+            }
+            graph = next;
+            levelWeighted = true;
+            nodeCount = refinedCount;
+            initNodeWeights(graph, nodeCount, true);
+        }
+        if (graph != root) {
+            graph.release();
+        }
+        releaseWorkingArrays();
+        return this;
+    }
+
+    /**
+     * moves nodes into the neighbouring community with the best modularity
+     * gain, returns the number of moves over all iterations
+     */
+    private long moveNodes(HugeGraph graph, long nodeCount, boolean weighted) {
+        long moves = 0L;
+        for (int i = 0; i < maxIterations && running(); i++) {
+            iterations++;
+            final AtomicLong iterationMoves = new AtomicLong();
+            runBatches(nodeCount, (start, end) -> {
+                final HugeRelationshipIterator rels = graph.concurrentCopy();
+                final LongDoubleHashMap neighbours = new LongDoubleHashMap();
+                long localMoves = 0L;
+                for (long node = start; node < end; node++) {
+                    if (moveNode(graph, rels, node, neighbours, weighted)) {
+                        localMoves++;
+                    }
+                }
+                iterationMoves.addAndGet(localMoves);
+            });
+            moves += iterationMoves.get();
+            if (iterationMoves.get() == 0L) {
+                break;
+            }
+        }
+        return moves;
+    }
+
+    private boolean moveNode(
+            HugeGraph graph,
+            HugeRelationshipIterator rels,
+            long node,
+            LongDoubleHashMap neighbours,
+            boolean weighted) {
+        final long current = community.get(node);
+        final double k = nodeWeight.get(node);
+        neighbours.clear();
+        rels.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+            if (s != t) {
+                neighbours.addTo(community.get(t), weight(graph, weighted, s, t));
+            }
+            return true;
+        });
+        long best = current;
+        double bestGain = neighbours.getOrDefault(current, 0.0) - k * (communityWeight.get(current) - k) / m2;
+        for (LongDoubleCursor cursor : neighbours) {
+            if (cursor.key == current) {
+                continue;
+            }
+            final double gain = cursor.value - k * communityWeight.get(cursor.key) / m2;
+            if (gain > bestGain || (gain == bestGain && best != current && cursor.key < best)) {
+                bestGain = gain;
+                best = cursor.key;
+            }
+        }
+        if (best == current) {
+            return false;
+        }
+        communityWeight.add(current, -k);
+        communityWeight.add(best, k);
+        community.set(node, best);
+        return true;
+    }
+
+    /**
+     * splits every community into well connected sub communities by merging
+     * singletons into connected sub communities of the same community
+     */
+    private void refine(HugeGraph graph, long nodeCount, long communityCount, boolean weighted) {
+        group(community, nodeCount, communityCount);
+        for (long node = 0L; node < nodeCount; node++) {
+            refined.set(node, node);
+            refinedWeight.set(node, nodeWeight.get(node));
+            refinedSize.set(node, 1);
+        }
+        runBatches(communityCount, (start, end) -> {
+            final HugeRelationshipIterator rels = graph.concurrentCopy();
+            final LongDoubleHashMap neighbours = new LongDoubleHashMap();
+            for (long c = start; c < end; c++) {
+                refineCommunity(graph, rels, c, neighbours, weighted);
+            }
+        });
+    }
+
+    private void refineCommunity(
+            HugeGraph graph,
+            HugeRelationshipIterator rels,
+            long c,
+            LongDoubleHashMap neighbours,
+            boolean weighted) {
+        final long from = memberOffsets.get(c);
+        final long to = memberOffsets.get(c + 1);
+        if (to - from < 2L) {
+            return;
+        }
+        double total = 0.0;
+        final double[] internal = {0.0};
+        for (long i = from; i < to; i++) {
+            final long node = members.get(i);
+            total += nodeWeight.get(node);
+            internal[0] = 0.0;
+            rels.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                if (s != t && community.get(t) == c) {
+                    internal[0] += weight(graph, weighted, s, t);
+                }
+                return true;
+            });
+            refinedExternal.set(node, internal[0]);
+        }
+        for (long i = from; i < to; i++) {
+            final long node = members.get(i);
+            if (refinedSize.get(node) != 1) {
+                continue;
+            }
+            final double k = nodeWeight.get(node);
+            final double kIn = refinedExternal.get(node);
+            if (kIn < k * (total - k) / m2) {
+                continue;
+            }
+            neighbours.clear();
+            rels.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                if (s != t && community.get(t) == c) {
+                    neighbours.addTo(refined.get(t), weight(graph, weighted, s, t));
+                }
+                return true;
+            });
+            long best = -1L;
+            double bestGain = 0.0;
+            double bestWeight = 0.0;
+            for (LongDoubleCursor cursor : neighbours) {
+                final double tot = refinedWeight.get(cursor.key);
+                if (refinedExternal.get(cursor.key) < tot * (total - tot) / m2) {
+                    continue;
+                }
+                final double gain = cursor.value - k * tot / m2;
+                if (gain >= 0.0 && (best == -1L || gain > bestGain || (gain == bestGain && cursor.key < best))) {
+                    best = cursor.key;
+                    bestGain = gain;
+                    bestWeight = cursor.value;
+                }
+            }
+            if (best != -1L) {
+                refined.set(node, best);
+                refinedSize.set(node, 0);
+                refinedSize.set(best, refinedSize.get(best) + 1);
+                refinedWeight.addTo(best, k);
+                refinedExternal.addTo(best, kIn - 2.0 * bestWeight);
+            }
+        }
+    }
+
+    /**
+     * builds the graph of the refined communities, the weight between two of
+     * them is the sum of the weights of their members and each of them has a
+     * self loop with the weight of its internal relationships
+     */
+    private HugeGraph aggregate(HugeGraph graph, long nodeCount, long refinedCount, boolean weighted) {
+        group(refined, nodeCount, refinedCount);
+        final HugeGraphBuilder builder = new HugeGraphBuilder(refinedCount, 1.0, tracker);
+        runBatches(refinedCount, (start, end) -> {
+            final HugeGraphBuilder.Batch batch = builder.newBatch();
+            final HugeRelationshipIterator rels = graph.concurrentCopy();
+            final LongDoubleHashMap neighbours = new LongDoubleHashMap();
+            long[] targets = new long[0];
+            double[] weights = new double[0];
+            for (long node = start; node < end; node++) {
+                neighbours.clear();
+                for (long i = memberOffsets.get(node); i < memberOffsets.get(node + 1); i++) {
+                    rels.forEachRelationship(members.get(i), Direction.OUTGOING, (s, t) -> {
+                        neighbours.addTo(refined.get(t), weight(graph, weighted, s, t));
+                        return true;
+                    });
+                }
+                final int degree = neighbours.size();
+                if (targets.length < degree) {
+                    targets = new long[degree];
+                    weights = new double[degree];
+                }
+                int index = 0;
+                for (LongDoubleCursor cursor : neighbours) {
+                    targets[index] = cursor.key;
+                    weights[index++] = cursor.value;
+                }
+                batch.add(node, targets, weights, degree);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * sorts the level nodes by their community into members
+     */
+    private void group(LongArray communities, long nodeCount, long communityCount) {
+        for (long c = 0L; c <= communityCount; c++) {
+            memberOffsets.set(c, 0L);
+        }
+        for (long node = 0L; node < nodeCount; node++) {
+            memberOffsets.addTo(communities.get(node) + 1, 1L);
+        }
+        for (long c = 0L; c < communityCount; c++) {
+            memberOffsets.addTo(c + 1, memberOffsets.get(c));
+            dense.set(c, memberOffsets.get(c));
+        }
+        for (long node = 0L; node < nodeCount; node++) {
+            final long c = communities.get(node);
+            members.set(dense.get(c), node);
+            dense.addTo(c, 1L);
+        }
+    }
+
+    /**
+     * maps the community ids to [0, count) in order of their first
+     * occurrence, returns the number of communities
+     */
+    private long renumber(LongArray communities, long nodeCount) {
+        for (long node = 0L; node < nodeCount; node++) {
+            dense.set(node, -1L);
+        }
+        long count = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            final long c = communities.get(node);
+            long id = dense.get(c);
+            if (id == -1L) {
+                dense.set(c, id = count++);
+            }
+            communities.set(node, id);
+        }
+        return count;
+    }
+
+    private void recordLevel(long communityCount) {
+        final LongArray communities = LongArray.newArray(rootNodeCount, tracker);
+        runBatches(rootNodeCount, (start, end) -> {
+            for (long node = start; node < end; node++) {
+                communities.set(node, community.get(rootToLevel.get(node)));
+            }
+        });
+        levels.add(communities);
+        communityCounts.add(communityCount);
+    }
+
+    private double initNodeWeights(HugeGraph graph, long nodeCount, boolean weighted) {
+        final DoubleAdder total = new DoubleAdder();
+        runBatches(nodeCount, (start, end) -> {
+            final HugeRelationshipIterator rels = graph.concurrentCopy();
+            final double[] sum = {0.0};
+            double batchSum = 0.0;
+            for (long node = start; node < end; node++) {
+                sum[0] = 0.0;
+                rels.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    sum[0] += weight(graph, weighted, s, t);
+                    return true;
+                });
+                nodeWeight.set(node, sum[0]);
+                batchSum += sum[0];
+            }
+            total.add(batchSum);
+        });
+        return total.doubleValue();
+    }
+
+    private void initCommunityWeights(long nodeCount) {
+        for (long node = 0L; node < nodeCount; node++) {
+            communityWeight.set(node, 0.0);
+        }
+        runBatches(nodeCount, (start, end) -> {
+            for (long node = start; node < end; node++) {
+                communityWeight.add(community.get(node), nodeWeight.get(node));
+            }
+        });
+    }
+
+    private static double weight(HugeGraph graph, boolean weighted, long source, long target) {
+        return weighted ? graph.weightOf(source, target) : 1.0;
+    }
+
+    private void runBatches(long nodeCount, BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(
+                nodeCount,
+                concurrency,
+                ParallelUtil.DEFAULT_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                pool);
+    }
+
+    private void allocate() {
+        community = LongArray.newArray(rootNodeCount, tracker);
+        refined = LongArray.newArray(rootNodeCount, tracker);
+        dense = LongArray.newArray(rootNodeCount, tracker);
+        members = LongArray.newArray(rootNodeCount, tracker);
+        memberOffsets = LongArray.newArray(rootNodeCount + 1, tracker);
+        rootToLevel = LongArray.newArray(rootNodeCount, tracker);
+        nodeWeight = DoubleArray.newArray(rootNodeCount, tracker);
+        communityWeight = PagedAtomicDoubleArray.newArray(rootNodeCount, tracker);
+        refinedWeight = DoubleArray.newArray(rootNodeCount, tracker);
+        refinedExternal = DoubleArray.newArray(rootNodeCount, tracker);
+        refinedSize = IntArray.newArray(rootNodeCount, tracker);
+    }
+
+    private void releaseWorkingArrays() {
+        if (community == null) {
+            return;
+        }
+        tracker.remove(community.release());
+        tracker.remove(refined.release());
+        tracker.remove(dense.release());
+        tracker.remove(members.release());
+        tracker.remove(memberOffsets.release());
+        tracker.remove(rootToLevel.release());
+        tracker.remove(nodeWeight.release());
+        tracker.remove(communityWeight.release());
+        tracker.remove(refinedWeight.release());
+        tracker.remove(refinedExternal.release());
+        tracker.remove(refinedSize.release());
+        community = null;
+        refined = null;
+        dense = null;
+        members = null;
+        memberOffsets = null;
+        rootToLevel = null;
+        nodeWeight = null;
+        communityWeight = null;
+        refinedWeight = null;
+        refinedExternal = null;
+        refinedSize = null;
+    }
+
+    /**
+     * communities of every level, indexed by the original graph's node ids
+     */
+    public LongArray[] getCommunitiesByLevel() {
+        return levels.toArray(new LongArray[0]);
+    }
+
+    /**
+     * community ids of a node from the first to the last level
+     */
+    public long[] getCommunities(long nodeId) {
+        final long[] communities = new long[levels.size()];
+        for (int level = 0; level < communities.length; level++) {
+            communities[level] = levels.get(level).get(nodeId);
+        }
+        return communities;
+    }
+
+    /**
+     * community ids of the last level
+     */
+    public LongArray getFinalCommunities() {
+        return levels.get(levels.size() - 1);
+    }
+
+    @Override
+    public int[] getCommunityIds() {
+        final LongArray communities = getFinalCommunities();
+        final int[] ids = new int[Math.toIntExact(rootNodeCount)];
+        for (int node = 0; node < ids.length; node++) {
+            ids[node] = (int) communities.get(node);
+        }
+        return ids;
+    }
+
+    @Override
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public int getCommunityCount() {
+        return Math.toIntExact(communityCounts.get(communityCounts.size() - 1));
+    }
+
+    @Override
+    public int getLevels() {
+        return levels.size();
+    }
+
+    /**
+     * number of communities of every level
+     */
+    public long[] getCommunityCounts() {
+        return communityCounts.toArray();
+    }
+
+    @Override
+    public Stream<Result> resultStream() {
+        final LongArray communities = getFinalCommunities();
+        return LongStream.range(0, rootNodeCount)
+                .mapToObj(node -> new Result(
+                        root.toOriginalNodeId(node),
+                        communities.get(node),
+                        LongStream.of(getCommunities(node)).boxed().collect(Collectors.toList())));
+    }
+
+    @Override
+    public MultiLevelLouvain me() {
+        return this;
+    }
+
+    @Override
+    public MultiLevelLouvain release() {
+        releaseWorkingArrays();
+        for (LongArray level : levels) {
+            tracker.remove(level.release());
+        }
+        levels.clear();
+        root = null;
+        pool = null;
+        return this;
+    }
+
+    @FunctionalInterface
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+
+    /**
+     * writes the community ids of all levels as an array property
+     */
+    public static final class CommunitiesTranslator implements PropertyTranslator<MultiLevelLouvain> {
+
+        public static final CommunitiesTranslator INSTANCE = new CommunitiesTranslator();
+
+        @Override
+        public DefinedProperty toProperty(int propertyId, MultiLevelLouvain data, long nodeId) {
+            return DefinedProperty.longArrayProperty(propertyId, data.getCommunities(nodeId));
+        }
+    }
+}
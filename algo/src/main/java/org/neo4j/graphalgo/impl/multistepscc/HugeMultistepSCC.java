@@ -0,0 +1,533 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongLongMap;
+import com.carrotsearch.hppc.LongLongScatterMap;
+import com.carrotsearch.hppc.LongStack;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.impl.scc.SCCAlgorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Multistep: parallel strongly connected component algorithm for the HugeGraph.
+ * <p>
+ * Follows the same steps as {@link MultistepSCC} but works on long node ids
+ * and keeps all per-node state in paged arrays.
+ * <ul>
+ * <li>Trim: nodes without incoming or outgoing relationships build
+ * a SCC on their own.</li>
+ * <li>Forward-Backward: the SCC of the pivot node (highest product of in- and
+ * out-degree, most likely a member of the giant SCC) is the intersection of its
+ * descendant and its predecessor set. Both sets are computed by a level
+ * synchronous BFS which expands each frontier in parallel.</li>
+ * <li>Coloring: the highest node id is propagated along outgoing relationships
+ * until no color changes anymore. Every node that kept its own color is the root of
+ * a SCC, which consists of the nodes with the same color that reach the root. The
+ * backward searches for different colors are independent and run in parallel.
+ * Coloring is repeated until at most {@code cutOff} nodes are left or a round
+ * assigns less than {@code cutOff} nodes.</li>
+ * <li>Tarjan: the remaining nodes are processed by a sequential iterative Tarjan.</li>
+ * </ul>
+ * The graph must be loaded with incoming and outgoing relationships.
+ * <p>
+ * More Info:
+ * <p>
+ * http://www.sandia.gov/~srajama/publications/BFS_and_Coloring.pdf
+ * https://www.osti.gov/scitech/servlets/purl/1115145
+ */
+public class HugeMultistepSCC extends Algorithm<HugeMultistepSCC> implements SCCAlgorithm {
+
+    private static final long UNASSIGNED = -1L;
+    private static final int FORWARD = 1;
+    private static final int BACKWARD = 2;
+    private static final int MIN_BATCH_SIZE = 10_000;
+    // tarjan actions
+    private static final long VISIT = 0L;
+    private static final long VISITEDGE = 1L;
+    private static final long POSTVISIT = 2L;
+
+    private HugeGraph graph;
+    private final ExecutorService executorService;
+    private final int concurrency;
+    private final long cutOff;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    // map nodeId -> setId, UNASSIGNED as long as the node is part of the search space
+    private LongArray connectedComponents;
+    // FW/BW flags during forward-backward, round stamps during coloring
+    private PagedAtomicIntegerArray marks;
+    private PagedAtomicLongArray colors;
+
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong setCount = new AtomicLong();
+    private final LongAccumulator minSetSize = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxSetSize = new LongAccumulator(Math::max, 0L);
+
+    public HugeMultistepSCC(
+            HugeGraph graph,
+            ExecutorService executorService,
+            int concurrency,
+            long cutOff,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.cutOff = cutOff;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        connectedComponents = LongArray.newArray(nodeCount, tracker);
+    }
+
+    public HugeMultistepSCC compute() {
+        connectedComponents.fill(UNASSIGNED);
+        assigned.set(0L);
+        setCount.set(0L);
+        minSetSize.reset();
+        maxSetSize.reset();
+        // V <- simpleTrim (V)
+        trim();
+        logProgress();
+        // SCC of the pivot, most likely the biggest one
+        if (running() && remaining() > 0L) {
+            forwardBackward();
+            logProgress();
+        }
+        // coloring until cutoff threshold is reached or a round does not
+        // make enough progress, e.g. on long chains of small sets
+        long progress = cutOff;
+        while (running() && remaining() > cutOff && progress >= cutOff) {
+            final long before = assigned.get();
+            coloring();
+            progress = assigned.get() - before;
+            logProgress();
+        }
+        // remaining nodes below threshold, do sequential tarjan
+        if (running() && remaining() > 0L) {
+            tarjan();
+        }
+        return this;
+    }
+
+    @Override
+    public LongArray getConnectedComponents() {
+        return connectedComponents;
+    }
+
+    @Override
+    public Stream<SCCAlgorithm.StreamResult> resultStream() {
+        return LongStream.range(0, nodeCount)
+                .filter(node -> connectedComponents.get(node) != UNASSIGNED)
+                .mapToObj(node -> new SCCAlgorithm.StreamResult(
+                        graph.toOriginalNodeId(node),
+                        connectedComponents.get(node)));
+    }
+
+    @Override
+    public long getSetCount() {
+        return setCount.get();
+    }
+
+    @Override
+    public long getMinSetSize() {
+        return setCount.get() == 0L ? 0L : minSetSize.get();
+    }
+
+    @Override
+    public long getMaxSetSize() {
+        return maxSetSize.get();
+    }
+
+    @Override
+    public HugeMultistepSCC me() {
+        return this;
+    }
+
+    @Override
+    public HugeMultistepSCC release() {
+        graph = null;
+        connectedComponents = null;
+        releaseMarks();
+        releaseColors();
+        return this;
+    }
+
+    /**
+     * assigns every node without incoming or outgoing relationships to its own set
+     */
+    private void trim() {
+        forEachBatch((start, end) -> {
+            long trimmed = 0L;
+            for (long node = start; node < end; node++) {
+                if (graph.degree(node, Direction.INCOMING) == 0 || graph.degree(node, Direction.OUTGOING) == 0) {
+                    connectedComponents.set(node, node);
+                    ++trimmed;
+                }
+            }
+            if (trimmed > 0L) {
+                setCount.addAndGet(trimmed);
+                minSetSize.accumulate(1L);
+                maxSetSize.accumulate(1L);
+                assigned.addAndGet(trimmed);
+            }
+        });
+    }
+
+    private void forwardBackward() {
+        final long root = pivot();
+        marks = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
+        // D <- BFS( G(V,E(V)), v)
+        marks.set(root, FORWARD);
+        bfs(root, Direction.OUTGOING, node -> isActive(node) && addMark(node, FORWARD));
+        // ST <- BFS( G(V, E'(V)), v) restricted to D
+        addMark(root, BACKWARD);
+        bfs(root, Direction.INCOMING, node -> (marks.get(node) & FORWARD) != 0 && addMark(node, BACKWARD));
+        // SCC <- D & ST
+        final AtomicLong size = new AtomicLong();
+        forEachBatch((start, end) -> {
+            long found = 0L;
+            for (long node = start; node < end; node++) {
+                if (marks.get(node) == (FORWARD | BACKWARD)) {
+                    connectedComponents.set(node, root);
+                    ++found;
+                }
+            }
+            size.addAndGet(found);
+        });
+        releaseMarks();
+        processSCC(size.get());
+    }
+
+    private void coloring() {
+        colors = PagedAtomicLongArray.newArray(nodeCount, tracker);
+        marks = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
+        // every remaining node starts with its own id as color
+        List<LongArrayList> frontier = collectActive(node -> {
+            colors.set(node, node);
+            return true;
+        });
+        // propagate the highest color along outgoing relationships
+        int round = 0;
+        while (!frontier.isEmpty() && running()) {
+            final int stamp = ++round;
+            frontier = expand(frontier, (iterator, node, next) -> {
+                final long color = colors.get(node);
+                iterator.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    if (isActive(t) && colors.max(t, color) && claim(t, stamp)) {
+                        next.add(t);
+                    }
+                    return true;
+                });
+            });
+        }
+        releaseMarks();
+        // SCC(c) <- PREDECESSOR( V(c), c) for every root c
+        final List<LongArrayList> roots = collectActive(node -> colors.get(node) == node);
+        final Collection<Runnable> tasks = new ArrayList<>();
+        for (LongArrayList batch : roots) {
+            tasks.add(() -> {
+                final HugeRelationshipIterator iterator = graph.concurrentCopy();
+                final LongArrayList queue = new LongArrayList();
+                for (int i = 0; i < batch.size(); i++) {
+                    predecessors(iterator, batch.get(i), queue);
+                }
+            });
+        }
+        run(tasks);
+        releaseColors();
+    }
+
+    /**
+     * collects all nodes of the given color that reach the root and assigns them to its set
+     */
+    private void predecessors(HugeRelationshipIterator iterator, long root, LongArrayList queue) {
+        queue.clear();
+        queue.add(root);
+        connectedComponents.set(root, root);
+        for (int i = 0; i < queue.size(); i++) {
+            iterator.forEachRelationship(queue.get(i), Direction.INCOMING, (s, t) -> {
+                if (isActive(t) && colors.get(t) == root) {
+                    connectedComponents.set(t, root);
+                    queue.add(t);
+                }
+                return true;
+            });
+        }
+        processSCC(queue.size());
+    }
+
+    /**
+     * sequential iterative tarjan on the remaining nodes
+     */
+    private void tarjan() {
+        final LongLongMap index = new LongLongScatterMap();
+        final LongStack stack = new LongStack();
+        final LongStack boundaries = new LongStack();
+        final LongStack todo = new LongStack();
+        for (long start = 0L; start < nodeCount && running(); start++) {
+            if (!isActive(start) || index.containsKey(start)) {
+                continue;
+            }
+            todo.push(start, VISIT);
+            while (!todo.isEmpty()) {
+                final long action = todo.pop();
+                final long node = todo.pop();
+                if (action == VISIT) {
+                    final long stackSize = stack.size();
+                    index.put(node, stackSize);
+                    stack.push(node);
+                    boundaries.push(stackSize);
+                    todo.push(node, POSTVISIT);
+                    graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                        todo.push(t, VISITEDGE);
+                        return true;
+                    });
+                } else if (action == VISITEDGE) {
+                    // nodes that are already part of a set are ignored
+                    if (!isActive(node)) {
+                        continue;
+                    }
+                    if (!index.containsKey(node)) {
+                        todo.push(node, VISIT);
+                    } else {
+                        final long nodeIndex = index.get(node);
+                        while (nodeIndex < boundaries.peek()) {
+                            boundaries.pop();
+                        }
+                    }
+                } else if (boundaries.peek() == index.get(node)) {
+                    boundaries.pop();
+                    long element;
+                    long elementCount = 0L;
+                    do {
+                        element = stack.pop();
+                        connectedComponents.set(element, node);
+                        elementCount++;
+                    } while (element != node);
+                    processSCC(elementCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * node with highest product of in- and out-degree
+     */
+    private long pivot() {
+        final long[] best = {UNASSIGNED, -1L};
+        forEachBatch((start, end) -> {
+            long pivot = UNASSIGNED;
+            long product = -1L;
+            for (long node = start; node < end; node++) {
+                if (isActive(node)) {
+                    final long p = (long) graph.degree(node, Direction.OUTGOING) * graph.degree(node, Direction.INCOMING);
+                    if (p > product) {
+                        product = p;
+                        pivot = node;
+                    }
+                }
+            }
+            synchronized (best) {
+                if (product > best[1]) {
+                    best[0] = pivot;
+                    best[1] = product;
+                }
+            }
+        });
+        return best[0];
+    }
+
+    /**
+     * level synchronous BFS, every level is expanded in parallel
+     *
+     * @param claim tests a reached node and returns true if it has not been visited before
+     */
+    private void bfs(long root, Direction direction, LongPredicate claim) {
+        final LongArrayList start = new LongArrayList();
+        start.add(root);
+        List<LongArrayList> frontier = new ArrayList<>();
+        frontier.add(start);
+        while (!frontier.isEmpty() && running()) {
+            frontier = expand(frontier, (iterator, node, next) ->
+                    iterator.forEachRelationship(node, direction, (s, t) -> {
+                        if (claim.test(t)) {
+                            next.add(t);
+                        }
+                        return true;
+                    }));
+        }
+    }
+
+    /**
+     * splits the frontier into batches, expands them in parallel and returns the next frontier
+     */
+    private List<LongArrayList> expand(List<LongArrayList> frontier, Expansion expansion) {
+        long size = 0L;
+        for (LongArrayList nodes : frontier) {
+            size += nodes.size();
+        }
+        final int batchSize = (int) ParallelUtil.adjustBatchSize(size, concurrency, MIN_BATCH_SIZE, Integer.MAX_VALUE);
+        final List<LongArrayList> next = new ArrayList<>();
+        final Collection<Runnable> tasks = new ArrayList<>();
+        for (LongArrayList nodes : frontier) {
+            for (int offset = 0; offset < nodes.size(); offset += batchSize) {
+                final int from = offset;
+                final int to = Math.min(nodes.size(), offset + batchSize);
+                final LongArrayList local = new LongArrayList();
+                next.add(local);
+                tasks.add(() -> {
+                    final HugeRelationshipIterator iterator = graph.concurrentCopy();
+                    for (int i = from; i < to; i++) {
+                        expansion.expand(iterator, nodes.get(i), local);
+                    }
+                });
+            }
+        }
+        run(tasks);
+        next.removeIf(LongArrayList::isEmpty);
+        return next;
+    }
+
+    /**
+     * collects all remaining nodes that match the predicate, one list per batch
+     */
+    private List<LongArrayList> collectActive(LongPredicate predicate) {
+        final List<LongArrayList> result = new ArrayList<>();
+        forEachBatch((start, end) -> {
+            final LongArrayList nodes = new LongArrayList();
+            for (long node = start; node < end; node++) {
+                if (isActive(node) && predicate.test(node)) {
+                    nodes.add(node);
+                }
+            }
+            if (!nodes.isEmpty()) {
+                synchronized (result) {
+                    result.add(nodes);
+                }
+            }
+        });
+        return result;
+    }
+
+    private void forEachBatch(BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        run(tasks);
+    }
+
+    private void run(Collection<Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executorService);
+    }
+
+    private boolean isActive(long node) {
+        return connectedComponents.get(node) == UNASSIGNED;
+    }
+
+    private boolean addMark(long node, int flag) {
+        int current;
+        while (((current = marks.get(node)) & flag) == 0) {
+            if (marks.cas(node, current, current | flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean claim(long node, int stamp) {
+        int current;
+        while ((current = marks.get(node)) != stamp) {
+            if (marks.cas(node, current, stamp)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void processSCC(long size) {
+        if (size == 0L) {
+            return;
+        }
+        setCount.incrementAndGet();
+        minSetSize.accumulate(size);
+        maxSetSize.accumulate(size);
+        assigned.addAndGet(size);
+    }
+
+    private long remaining() {
+        return nodeCount - assigned.get();
+    }
+
+    private void logProgress() {
+        getProgressLogger().logProgress(assigned.get(), nodeCount);
+    }
+
+    private void releaseMarks() {
+        if (marks != null) {
+            tracker.remove(marks.release());
+            marks = null;
+        }
+    }
+
+    private void releaseColors() {
+        if (colors != null) {
+            tracker.remove(colors.release());
+            colors = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+
+    @FunctionalInterface
+    private interface Expansion {
+        void expand(HugeRelationshipIterator iterator, long node, LongArrayList next);
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.spanningTrees;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel minimum/maximum weight spanning forest algorithm (Borůvka)
+ * for the HugeGraph.
+ * <p>
+ * Each round every node looks for its lightest relationship to another
+ * tree. The lightest of those becomes the candidate of the tree and
+ * all candidates are joined in parallel using a lock-free union-find.
+ * Rounds are repeated until no tree has a relationship to another tree,
+ * which happens after at most log(nodeCount) rounds. Ties are broken by
+ * the node ids of the relationship so that the result is a forest.
+ * <p>
+ * Unlike {@link Prim} the whole graph is covered, one tree per
+ * connected component. The graph is expected to be loaded undirected.
+ */
+public class HugeBoruvka extends Algorithm<HugeBoruvka> {
+
+    private static final long NONE = -1L;
+    private static final int MIN_BATCH_SIZE = 10_000;
+
+    private HugeGraph graph;
+    private final ExecutorService executorService;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    private HugeSpanningForest spanningForest;
+
+    public HugeBoruvka(
+            HugeGraph graph,
+            ExecutorService executorService,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    public HugeBoruvka computeMinimumSpanningForest() {
+        spanningForest = boruvka(1.0);
+        return this;
+    }
+
+    public HugeBoruvka computeMaximumSpanningForest() {
+        spanningForest = boruvka(-1.0);
+        return this;
+    }
+
+    public HugeSpanningForest getSpanningForest() {
+        return spanningForest;
+    }
+
+    /**
+     * @param sign 1.0 for minimum, -1.0 for maximum (weights are negated)
+     */
+    private HugeSpanningForest boruvka(double sign) {
+        final PagedAtomicDisjointSetStruct trees = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        // lightest relationship of each node to another tree
+        final LongArray bestTarget = LongArray.newArray(nodeCount, tracker);
+        final DoubleArray bestWeight = DoubleArray.newArray(nodeCount, tracker);
+        // node with the lightest relationship per tree, only set for roots
+        final PagedAtomicLongArray candidates = PagedAtomicLongArray.newArray(nodeCount, tracker);
+        // the resulting forest, has at most nodeCount - 1 relationships
+        final LongArray sources = LongArray.newArray(nodeCount, tracker);
+        final LongArray targets = LongArray.newArray(nodeCount, tracker);
+        final DoubleArray weights = DoubleArray.newArray(nodeCount, tracker);
+        final AtomicLong relationshipCount = new AtomicLong();
+
+        forEachBatch((start, end) -> {
+            for (long node = start; node < end; node++) {
+                candidates.set(node, NONE);
+            }
+        });
+
+        long merged;
+        do {
+            final long before = relationshipCount.get();
+            // find candidate relationship for each tree
+            forEachBatch((start, end) -> {
+                final HugeRelationshipIterator iterator = graph.concurrentCopy();
+                final Best best = new Best();
+                for (long node = start; node < end; node++) {
+                    final long tree = trees.find(node);
+                    best.reset();
+                    iterator.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                        if (s != t && trees.find(t) != tree) {
+                            best.offer(s, t, sign * graph.weightOf(s, t));
+                        }
+                        return true;
+                    });
+                    if (best.target == NONE) {
+                        continue;
+                    }
+                    bestTarget.set(node, best.target);
+                    bestWeight.set(node, best.weight);
+                    // publish as candidate of the tree if lighter than the current one
+                    long current = candidates.get(tree);
+                    while (current == NONE || isLighter(
+                            node, best.target, best.weight,
+                            current, bestTarget.get(current), bestWeight.get(current))) {
+                        if (candidates.cas(tree, current, node)) {
+                            break;
+                        }
+                        current = candidates.get(tree);
+                    }
+                }
+            });
+            // join trees along their candidates
+            forEachBatch((start, end) -> {
+                for (long tree = start; tree < end; tree++) {
+                    final long node = candidates.get(tree);
+                    if (node == NONE) {
+                        continue;
+                    }
+                    candidates.set(tree, NONE);
+                    final long target = bestTarget.get(node);
+                    // both trees might have chosen the same relationship
+                    if (trees.union(node, target)) {
+                        final long index = relationshipCount.getAndIncrement();
+                        sources.set(index, node);
+                        targets.set(index, target);
+                        weights.set(index, sign * bestWeight.get(node));
+                    }
+                }
+            });
+            merged = relationshipCount.get() - before;
+            getProgressLogger().logProgress(relationshipCount.get(), Math.max(1L, nodeCount - 1L));
+        } while (merged > 0L && running());
+
+        tracker.remove(bestTarget.release());
+        tracker.remove(bestWeight.release());
+        tracker.remove(candidates.release());
+
+        final LongArray components = LongArray.newArray(nodeCount, tracker);
+        forEachBatch((start, end) -> {
+            for (long node = start; node < end; node++) {
+                components.set(node, trees.find(node));
+            }
+        });
+        tracker.remove(trees.release());
+
+        return new HugeSpanningForest(
+                nodeCount,
+                relationshipCount.get(),
+                components,
+                sources,
+                targets,
+                weights);
+    }
+
+    /**
+     * total order of relationships by weight, then by their node ids regardless of the direction
+     */
+    static boolean isLighter(long s1, long t1, double w1, long s2, long t2, double w2) {
+        if (w1 != w2) {
+            return w1 < w2;
+        }
+        final long min1 = Math.min(s1, t1);
+        final long min2 = Math.min(s2, t2);
+        if (min1 != min2) {
+            return min1 < min2;
+        }
+        return Math.max(s1, t1) < Math.max(s2, t2);
+    }
+
+    private void forEachBatch(BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executorService);
+    }
+
+    @Override
+    public HugeBoruvka me() {
+        return this;
+    }
+
+    @Override
+    public HugeBoruvka release() {
+        graph = null;
+        spanningForest = null;
+        return this;
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+
+    private static final class Best {
+        private long source;
+        private long target;
+        private double weight;
+
+        void reset() {
+            source = NONE;
+            target = NONE;
+            weight = Double.MAX_VALUE;
+        }
+
+        void offer(long s, long t, double w) {
+            if (target == NONE || isLighter(s, t, w, source, target, weight)) {
+                source = s;
+                target = t;
+                weight = w;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.spanningTrees;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedSimpleBitSet;
+import org.neo4j.graphalgo.core.utils.queue.LongPriorityQueue;
+import org.neo4j.graphalgo.impl.Algorithm;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel k-spanning-tree algorithm for the HugeGraph.
+ * <p>
+ * Computes the minimum (maximum) spanning forest using {@link HugeBoruvka}
+ * and splits the tree of the start node into k trees by removing its k-1
+ * most expensive (cheapest) relationships. Each thread selects the
+ * candidates of its own share of the relationships, the partial
+ * selections are merged afterwards. The remaining relationships of the
+ * tree are joined in parallel to build the partitions.
+ * <p>
+ * Nodes outside of the tree of the start node form a partition on their own,
+ * the same way {@link KSpanningTree} handles them.
+ */
+public class HugeKSpanningTree extends Algorithm<HugeKSpanningTree> {
+
+    private static final int MIN_BATCH_SIZE = 10_000;
+
+    private HugeGraph graph;
+    private final ExecutorService executorService;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+
+    private LongArray partitions;
+    private long effectiveNodeCount;
+
+    public HugeKSpanningTree(
+            HugeGraph graph,
+            ExecutorService executorService,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    public HugeKSpanningTree compute(long startNode, long k, boolean max) {
+        final HugeBoruvka boruvka = new HugeBoruvka(graph, executorService, concurrency, tracker)
+                .withProgressLogger(getProgressLogger())
+                .withTerminationFlag(getTerminationFlag());
+        final HugeSpanningForest forest = max
+                ? boruvka.computeMaximumSpanningForest().getSpanningForest()
+                : boruvka.computeMinimumSpanningForest().getSpanningForest();
+        boruvka.release();
+
+        final long tree = forest.componentOf(startNode);
+        final long relationshipCount = forest.relationshipCount();
+        effectiveNodeCount = forest.treeSize(startNode);
+
+        final PagedSimpleBitSet cut = selectCut(forest, tree, Math.max(0L, k - 1L), max);
+
+        final PagedAtomicDisjointSetStruct trees = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        forEachBatch(relationshipCount, (start, end) -> {
+            for (long rel = start; rel < end; rel++) {
+                final long source = forest.source(rel);
+                if (!cut.contains(rel) && forest.componentOf(source) == tree) {
+                    trees.union(source, forest.target(rel));
+                }
+            }
+        });
+        tracker.remove(cut.release());
+        forest.release(tracker);
+
+        partitions = LongArray.newArray(nodeCount, tracker);
+        forEachBatch(nodeCount, (start, end) -> {
+            for (long node = start; node < end; node++) {
+                partitions.set(node, trees.find(node));
+            }
+        });
+        tracker.remove(trees.release());
+        return this;
+    }
+
+    /**
+     * @return set of relationship indices which must be removed from the tree
+     */
+    private PagedSimpleBitSet selectCut(HugeSpanningForest forest, long tree, long cutCount, boolean max) {
+        final long relationshipCount = forest.relationshipCount();
+        final PagedSimpleBitSet cut = PagedSimpleBitSet.newBitSet(Math.max(1L, relationshipCount), tracker);
+        if (cutCount == 0L) {
+            return cut;
+        }
+        final int capacity = Math.toIntExact(Math.min(cutCount, relationshipCount));
+        // keeps the relationships with the highest cost, the cheapest one on top
+        final LongPriorityQueue selected = LongPriorityQueue.min(capacity);
+        forEachBatch(relationshipCount, (start, end) -> {
+            final LongPriorityQueue local = LongPriorityQueue.min(capacity);
+            for (long rel = start; rel < end; rel++) {
+                if (forest.componentOf(forest.source(rel)) == tree) {
+                    offer(local, capacity, rel, max ? -forest.weight(rel) : forest.weight(rel));
+                }
+            }
+            synchronized (selected) {
+                while (!local.isEmpty()) {
+                    final double cost = local.topCost();
+                    offer(selected, capacity, local.pop(), cost);
+                }
+            }
+        });
+        while (!selected.isEmpty()) {
+            cut.put(selected.pop());
+        }
+        return cut;
+    }
+
+    private static void offer(LongPriorityQueue queue, int capacity, long rel, double cost) {
+        if (queue.size() < capacity) {
+            queue.add(rel, cost);
+        } else if (cost > queue.topCost()) {
+            queue.pop();
+            queue.add(rel, cost);
+        }
+    }
+
+    private void forEachBatch(long count, BatchTask task) {
+        final long batchSize = ParallelUtil.adjustBatchSize(count, concurrency, MIN_BATCH_SIZE);
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                count,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                getTerminationFlag(),
+                executorService);
+    }
+
+    /**
+     * @return partition id of each node, the lowest node id in its tree
+     */
+    public LongArray getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return number of nodes in the tree of the start node
+     */
+    public long getEffectiveNodeCount() {
+        return effectiveNodeCount;
+    }
+
+    @Override
+    public HugeKSpanningTree me() {
+        return this;
+    }
+
+    @Override
+    public HugeKSpanningTree release() {
+        graph = null;
+        partitions = null;
+        return this;
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.spanningTrees;
+
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+
+/**
+ * Minimum or maximum weight spanning forest of a HugeGraph as computed
+ * by {@link HugeBoruvka}. Holds the relationships of the forest and the
+ * tree (component) each node belongs to.
+ */
+public final class HugeSpanningForest {
+
+    private final long nodeCount;
+    private final long relationshipCount;
+    private LongArray components;
+    private LongArray sources;
+    private LongArray targets;
+    private DoubleArray weights;
+
+    HugeSpanningForest(
+            long nodeCount,
+            long relationshipCount,
+            LongArray components,
+            LongArray sources,
+            LongArray targets,
+            DoubleArray weights) {
+        this.nodeCount = nodeCount;
+        this.relationshipCount = relationshipCount;
+        this.components = components;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return number of relationships in the whole forest
+     */
+    public long relationshipCount() {
+        return relationshipCount;
+    }
+
+    public long source(long relationship) {
+        return sources.get(relationship);
+    }
+
+    public long target(long relationship) {
+        return targets.get(relationship);
+    }
+
+    public double weight(long relationship) {
+        return weights.get(relationship);
+    }
+
+    /**
+     * @return id of the tree the node belongs to, the lowest node id in that tree
+     */
+    public long componentOf(long node) {
+        return components.get(node);
+    }
+
+    /**
+     * @return number of nodes in the tree of the given node
+     */
+    public long treeSize(long node) {
+        final long component = components.get(node);
+        long size = 1L;
+        for (long i = 0L; i < relationshipCount; i++) {
+            if (components.get(sources.get(i)) == component) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return sum of all relationship weights in the forest
+     */
+    public double totalWeight() {
+        double sum = 0.0;
+        for (long i = 0L; i < relationshipCount; i++) {
+            sum += weights.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * iterates over all relationships in the tree of the given node
+     */
+    public void forEachInTree(long node, HugeRelationshipConsumer consumer) {
+        final long component = components.get(node);
+        for (long i = 0L; i < relationshipCount; i++) {
+            final long source = sources.get(i);
+            if (components.get(source) == component
+                    && !consumer.accept(source, targets.get(i))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * iterates over all relationships of the forest
+     */
+    public void forEach(HugeRelationshipConsumer consumer) {
+        for (long i = 0L; i < relationshipCount; i++) {
+            if (!consumer.accept(sources.get(i), targets.get(i))) {
+                return;
+            }
+        }
+    }
+
+    public void release(AllocationTracker tracker) {
+        tracker.remove(components.release());
+        tracker.remove(sources.release());
+        tracker.remove(targets.release());
+        tracker.remove(weights.release());
+        components = null;
+        sources = null;
+        targets = null;
+        weights = null;
+    }
+}
@@ -118,7 +118,7 @@ public class KSpanningTree extends Algorithm<KSpanningTree> {
         public Result(long loadMillis,
                       long computeMillis,
                       long writeMillis,
-                      int effectiveNodeCount) {
+                      long effectiveNodeCount) {
             this.loadMillis = loadMillis;
             this.computeMillis = computeMillis;
             this.writeMillis = writeMillis;
@@ -128,9 +128,9 @@ public class KSpanningTree extends Algorithm<KSpanningTree> {
 
     public static class Builder extends AbstractResultBuilder<Result> {
 
-        protected int effectiveNodeCount;
+        protected long effectiveNodeCount;
 
-        public Builder withEffectiveNodeCount(int effectiveNodeCount) {
+        public Builder withEffectiveNodeCount(long effectiveNodeCount) {
             this.effectiveNodeCount = effectiveNodeCount;
             return this;
         }
@@ -118,32 +118,42 @@ public class Prim extends Algorithm<Prim> {
         public final long computeMillis;
         public final long writeMillis;
         public final long effectiveNodeCount;
+        public final long relationshipsWritten;
 
         public Result(long loadMillis,
                       long computeMillis,
                       long writeMillis,
-                      int effectiveNodeCount) {
+                      long effectiveNodeCount,
+                      long relationshipsWritten) {
             this.loadMillis = loadMillis;
             this.computeMillis = computeMillis;
             this.writeMillis = writeMillis;
             this.effectiveNodeCount = effectiveNodeCount;
+            this.relationshipsWritten = relationshipsWritten;
         }
     }
 
     public static class Builder extends AbstractResultBuilder<Result> {
 
-        protected int effectiveNodeCount;
+        protected long effectiveNodeCount;
+        protected long relationshipsWritten;
 
-        public Builder withEffectiveNodeCount(int effectiveNodeCount) {
+        public Builder withEffectiveNodeCount(long effectiveNodeCount) {
             this.effectiveNodeCount = effectiveNodeCount;
             return this;
         }
 
+        public Builder withRelationshipsWritten(long relationshipsWritten) {
+            this.relationshipsWritten = relationshipsWritten;
+            return this;
+        }
+
         public Result build() {
             return new Result(loadDuration,
                     evalDuration,
                     writeDuration,
-                    effectiveNodeCount);
+                    effectiveNodeCount,
+                    relationshipsWritten);
         }
     }
 
@@ -19,6 +19,10 @@
 package org.neo4j.graphalgo.results;
 
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.write.Exporter;
+
+import java.util.function.LongConsumer;
 
 /**
  * @author mknblch
@@ -28,6 +32,9 @@ public abstract class AbstractResultBuilder<R> {
     protected long loadDuration = -1;
     protected long evalDuration = -1;
     protected long writeDuration = -1;
+    protected long written = -1;
+    protected long skipped = -1;
+    protected Job job;
 
     public AbstractResultBuilder withLoadDuration(long loadDuration) {
         this.loadDuration = loadDuration;
@@ -44,16 +51,45 @@ public abstract class AbstractResultBuilder<R> {
         return this;
     }
 
+    /**
+     * take the number of written and skipped properties from the exporter
+     */
+    public AbstractResultBuilder withWriteCounts(Exporter exporter) {
+        this.written = exporter.writtenCount();
+        this.skipped = exporter.skippedCount();
+        return this;
+    }
+
+    /**
+     * record the timed phases at the job as well
+     */
+    public AbstractResultBuilder withJob(Job job) {
+        this.job = job;
+        return this;
+    }
+
     public ProgressTimer timeLoad() {
-        return ProgressTimer.start(this::withLoadDuration);
+        return time("load", this::withLoadDuration);
     }
 
     public ProgressTimer timeEval() {
-        return ProgressTimer.start(this::withEvalDuration);
+        return time("compute", this::withEvalDuration);
     }
 
     public ProgressTimer timeWrite() {
-        return ProgressTimer.start(this::withWriteDuration);
+        return time("write", this::withWriteDuration);
+    }
+
+    protected ProgressTimer time(String phase, LongConsumer onStop) {
+        final Job job = this.job;
+        if (job == null) {
+            return ProgressTimer.start(onStop);
+        }
+        job.startPhase(phase);
+        return ProgressTimer.start(duration -> {
+            job.endPhase();
+            onStop.accept(duration);
+        });
     }
 
     public void timeLoad(Runnable runnable) {
@@ -27,15 +27,18 @@ public class CentralityProcResult {
     public final Long computeMillis;
     public final Long writeMillis;
     public final Long nodes;
+    public final Double effectiveDiameter;
 
     private CentralityProcResult(Long loadMillis,
                                  Long computeMillis,
                                  Long writeMillis,
-                                 Long nodes) {
+                                 Long nodes,
+                                 Double effectiveDiameter) {
         this.loadMillis = loadMillis;
         this.computeMillis = computeMillis;
         this.writeMillis = writeMillis;
         this.nodes = nodes;
+        this.effectiveDiameter = effectiveDiameter;
     }
 
     public static Builder builder() {
@@ -48,17 +51,27 @@ public class CentralityProcResult {
         private double centralityMin = -1;
         private double centralityMax = -1;
         private double centralitySum = -1;
+        private Double effectiveDiameter = null;
 
         public Builder withNodeCount(long nodes) {
             this.nodes = nodes;
             return this;
         }
 
+        /**
+         * only known for the HyperBall approximation
+         */
+        public Builder withEffectiveDiameter(double effectiveDiameter) {
+            this.effectiveDiameter = effectiveDiameter;
+            return this;
+        }
+
         public CentralityProcResult build() {
             return new CentralityProcResult(loadDuration,
                     evalDuration,
                     writeDuration,
-                    nodes);
+                    nodes,
+                    effectiveDiameter);
         }
     }
 }
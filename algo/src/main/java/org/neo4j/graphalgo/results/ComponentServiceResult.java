@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+import org.neo4j.graphalgo.impl.ComponentService;
+
+/**
+ * state of a {@link ComponentService}
+ */
+public class ComponentServiceResult {
+
+    public final String graph;
+    public final boolean running;
+    public final long nodes;
+    public final long newNodes;
+    public final long newNodeCapacity;
+    public final long relationships;
+    public final long mergedSets;
+    public final long dropped;
+    public final long flushes;
+    public final long written;
+    public final long millis;
+
+    private ComponentServiceResult(ComponentService service, long millis) {
+        this.graph = service.graphName();
+        this.running = service.isRunning();
+        this.nodes = service.nodeCount();
+        this.newNodes = service.newNodes();
+        this.newNodeCapacity = service.newNodeCapacity();
+        this.relationships = service.relationships();
+        this.mergedSets = service.mergedSets();
+        this.dropped = service.dropped();
+        this.flushes = service.flushes();
+        this.written = service.written();
+        this.millis = millis;
+    }
+
+    public static ComponentServiceResult of(ComponentService service, long millis) {
+        return new ComponentServiceResult(service, millis);
+    }
+}
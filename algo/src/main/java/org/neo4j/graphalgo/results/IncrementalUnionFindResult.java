@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class IncrementalUnionFindResult {
+
+    public final Long computeMillis;
+    public final Long writeMillis;
+    public final Long nodes;
+    public final Long relationships;
+    public final Long mergedSets;
+    public final Long newSets;
+    public final Long changed;
+    public final Long written;
+    public final Long nextRelationshipId;
+
+    private IncrementalUnionFindResult(
+            Long computeMillis,
+            Long writeMillis,
+            Long nodes,
+            Long relationships,
+            Long mergedSets,
+            Long newSets,
+            Long changed,
+            Long written,
+            Long nextRelationshipId) {
+        this.computeMillis = computeMillis;
+        this.writeMillis = writeMillis;
+        this.nodes = nodes;
+        this.relationships = relationships;
+        this.mergedSets = mergedSets;
+        this.newSets = newSets;
+        this.changed = changed;
+        this.written = written;
+        this.nextRelationshipId = nextRelationshipId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractResultBuilder<IncrementalUnionFindResult> {
+
+        private long nodes = 0;
+        private long relationships = 0;
+        private long mergedSets = 0;
+        private long newSets = 0;
+        private long changed = 0;
+        private long nextRelationshipId = 0;
+
+        public Builder withNodeCount(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withRelationshipCount(long relationships) {
+            this.relationships = relationships;
+            return this;
+        }
+
+        public Builder withMergedSets(long mergedSets) {
+            this.mergedSets = mergedSets;
+            return this;
+        }
+
+        public Builder withNewSets(long newSets) {
+            this.newSets = newSets;
+            return this;
+        }
+
+        public Builder withChanged(long changed) {
+            this.changed = changed;
+            return this;
+        }
+
+        public Builder withNextRelationshipId(long nextRelationshipId) {
+            this.nextRelationshipId = nextRelationshipId;
+            return this;
+        }
+
+        public IncrementalUnionFindResult build() {
+            return new IncrementalUnionFindResult(
+                    evalDuration,
+                    writeDuration,
+                    nodes,
+                    relationships,
+                    mergedSets,
+                    newSets,
+                    changed,
+                    written,
+                    nextRelationshipId);
+        }
+    }
+}
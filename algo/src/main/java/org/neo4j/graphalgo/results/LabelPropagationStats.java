@@ -18,11 +18,17 @@
  */
 package org.neo4j.graphalgo.results;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class LabelPropagationStats {
 
     public final long nodes, iterations, loadMillis, computeMillis, writeMillis;
     public final boolean write, didConverge;
     public final String weightProperty, partitionProperty;
+    public final List<Double> residuals;
 
     public LabelPropagationStats(
             final long nodes,
@@ -33,7 +39,8 @@ public class LabelPropagationStats {
             final boolean write,
             final boolean didConverge,
             final String weightProperty,
-            final String partitionProperty) {
+            final String partitionProperty,
+            final List<Double> residuals) {
         this.nodes = nodes;
         this.iterations = iterations;
         this.loadMillis = loadMillis;
@@ -43,6 +50,7 @@ public class LabelPropagationStats {
         this.didConverge = didConverge;
         this.weightProperty = weightProperty;
         this.partitionProperty = partitionProperty;
+        this.residuals = residuals;
     }
 
     public static class Builder extends AbstractResultBuilder<LabelPropagationStats> {
@@ -53,6 +61,7 @@ public class LabelPropagationStats {
         private boolean write;
         private String weightProperty;
         private String partitionProperty;
+        private List<Double> residuals = Collections.emptyList();
 
         public Builder nodes(final long nodes) {
             this.nodes = nodes;
@@ -69,6 +78,11 @@ public class LabelPropagationStats {
             return this;
         }
 
+        public Builder residuals(final double[] residuals) {
+            this.residuals = Arrays.stream(residuals).boxed().collect(Collectors.toList());
+            return this;
+        }
+
         public Builder write(final boolean write) {
             this.write = write;
             return this;
@@ -94,7 +108,8 @@ public class LabelPropagationStats {
                     write,
                     didConverge,
                     weightProperty,
-                    partitionProperty);
+                    partitionProperty,
+                    residuals);
         }
     }
 }
@@ -18,6 +18,11 @@
  */
 package org.neo4j.graphalgo.results;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author mknblch
  */
@@ -29,14 +34,22 @@ public class LouvainResult {
     public final long nodes;
     public final long iterations;
     public final long communityCount;
+    public final long levels;
+    public final List<Long> communityCounts;
+    public final long written;
+    public final long skipped;
 
-    private LouvainResult(long loadMillis, long computeMillis, long writeMillis, long nodes, long iterations, long communityCount) {
+    private LouvainResult(long loadMillis, long computeMillis, long writeMillis, long nodes, long iterations, long communityCount, long levels, List<Long> communityCounts, long written, long skipped) {
         this.loadMillis = loadMillis;
         this.computeMillis = computeMillis;
         this.writeMillis = writeMillis;
         this.nodes = nodes;
         this.iterations = iterations;
         this.communityCount = communityCount;
+        this.levels = levels;
+        this.communityCounts = communityCounts;
+        this.written = written;
+        this.skipped = skipped;
     }
 
     public static Builder builder() {
@@ -48,6 +61,8 @@ public class LouvainResult {
         private long nodes = 0;
         private long communityCount = 0;
         private long iterations = 1;
+        private long levels = 1;
+        private List<Long> communityCounts = Collections.emptyList();
 
         public Builder withIterations(long iterations) {
             this.iterations = iterations;
@@ -59,13 +74,23 @@ public class LouvainResult {
             return this;
         }
 
+        public Builder withLevels(long levels) {
+            this.levels = levels;
+            return this;
+        }
+
+        public Builder withCommunityCounts(long[] communityCounts) {
+            this.communityCounts = Arrays.stream(communityCounts).boxed().collect(Collectors.toList());
+            return this;
+        }
+
         public Builder withNodeCount(long nodes) {
             this.nodes = nodes;
             return this;
         }
 
         public LouvainResult build() {
-            return new LouvainResult(loadDuration, evalDuration, writeDuration, nodes, iterations, communityCount);
+            return new LouvainResult(loadDuration, evalDuration, writeDuration, nodes, iterations, communityCount, levels, communityCounts, written, skipped);
         }
     }
 }
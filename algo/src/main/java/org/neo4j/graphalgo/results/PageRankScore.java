@@ -18,8 +18,14 @@
  */
 package org.neo4j.graphalgo.results;
 
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphdb.Node;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class PageRankScore {
 
     public final long nodeId;
@@ -35,10 +41,11 @@ public class PageRankScore {
     // TODO: return number of relationships as well
     //  the Graph API doesn't expose this value yet
     public static final class Stats {
-        public final long nodes, iterations, loadMillis, computeMillis, writeMillis;
+        public final long nodes, iterations, loadMillis, computeMillis, writeMillis, written, skipped, exportMillis, exportFiles;
         public final double dampingFactor;
-        public final boolean write;
+        public final boolean write, didConverge;
         public final String writeProperty;
+        public final List<Double> residuals;
 
         Stats(
                 long nodes,
@@ -46,17 +53,29 @@ public class PageRankScore {
                 long loadMillis,
                 long computeMillis,
                 long writeMillis,
+                long written,
+                long skipped,
+                long exportMillis,
+                long exportFiles,
                 double dampingFactor,
                 boolean write,
-                String writeProperty) {
+                String writeProperty,
+                boolean didConverge,
+                List<Double> residuals) {
             this.nodes = nodes;
             this.iterations = iterations;
             this.loadMillis = loadMillis;
             this.computeMillis = computeMillis;
             this.writeMillis = writeMillis;
+            this.written = written;
+            this.skipped = skipped;
+            this.exportMillis = exportMillis;
+            this.exportFiles = exportFiles;
             this.dampingFactor = dampingFactor;
             this.write = write;
             this.writeProperty = writeProperty;
+            this.didConverge = didConverge;
+            this.residuals = residuals;
         }
 
         public static final class Builder extends AbstractResultBuilder<Stats> {
@@ -65,6 +84,10 @@ public class PageRankScore {
             private double dampingFactor;
             private boolean write;
             private String writeProperty;
+            private long exportFiles;
+            private long exportDuration = -1;
+            private boolean didConverge;
+            private List<Double> residuals = Collections.emptyList();
 
             public Builder withNodes(long nodes) {
                 this.nodes = nodes;
@@ -91,6 +114,25 @@ public class PageRankScore {
                 return this;
             }
 
+            public Builder withDidConverge(boolean didConverge) {
+                this.didConverge = didConverge;
+                return this;
+            }
+
+            public Builder withResiduals(double[] residuals) {
+                this.residuals = Arrays.stream(residuals).boxed().collect(Collectors.toList());
+                return this;
+            }
+
+            public Builder withExportFiles(long exportFiles) {
+                this.exportFiles = exportFiles;
+                return this;
+            }
+
+            public ProgressTimer timeExport() {
+                return time("export", duration -> this.exportDuration = duration);
+            }
+
             public PageRankScore.Stats build() {
                 return new PageRankScore.Stats(
                         nodes,
@@ -98,9 +140,15 @@ public class PageRankScore {
                         loadDuration,
                         evalDuration,
                         writeDuration,
+                        written,
+                        skipped,
+                        exportDuration,
+                        exportFiles,
                         dampingFactor,
                         write,
-                        writeProperty);
+                        writeProperty,
+                        didConverge,
+                        residuals);
             }
         }
     }
@@ -28,13 +28,17 @@ public class UnionFindResult {
     public final Long writeMillis;
     public final Long nodes;
     public final Long setCount;
+    public final Long written;
+    public final Long skipped;
 
-    private UnionFindResult(Long loadMillis, Long computeMillis, Long writeMillis, Long nodes, Long setCount) {
+    private UnionFindResult(Long loadMillis, Long computeMillis, Long writeMillis, Long nodes, Long setCount, Long written, Long skipped) {
         this.loadMillis = loadMillis;
         this.computeMillis = computeMillis;
         this.writeMillis = writeMillis;
         this.nodes = nodes;
         this.setCount = setCount;
+        this.written = written;
+        this.skipped = skipped;
     }
 
     public static Builder builder() {
@@ -57,7 +61,7 @@ public class UnionFindResult {
         }
 
         public UnionFindResult build() {
-            return new UnionFindResult(loadDuration, evalDuration, writeDuration, nodes, setCount);
+            return new UnionFindResult(loadDuration, evalDuration, writeDuration, nodes, setCount, written, skipped);
         }
     }
 }
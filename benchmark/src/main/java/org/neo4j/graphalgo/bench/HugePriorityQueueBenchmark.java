@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.queue.HugeDaryHeap;
+import org.neo4j.graphalgo.core.utils.queue.HugeIndexedPriorityQueue;
+import org.neo4j.graphalgo.core.utils.queue.HugeRadixHeap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dijkstra on a random graph with each of the indexed heaps.
+ * <p>
+ * Run with
+ * {@code mvn -PBenchmark -pl benchmark -am package -DskipTests && java -jar benchmark/target/benchmark.jar HugePriorityQueueBenchmark}
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HugePriorityQueueBenchmark {
+
+    @Param({"100000", "1000000"})
+    int nodeCount;
+
+    @Param({"8"})
+    int degree;
+
+    private int[] targets;
+    private double[] weights;
+    private double[] distances;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42L);
+        targets = new int[nodeCount * degree];
+        weights = new double[nodeCount * degree];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = random.nextInt(nodeCount);
+            weights[i] = random.nextDouble() * 100.0;
+        }
+        distances = new double[nodeCount];
+    }
+
+    @Benchmark
+    public double _01_daryHeap() {
+        return dijkstra(new HugeDaryHeap(nodeCount, AllocationTracker.EMPTY));
+    }
+
+    @Benchmark
+    public double _02_binaryHeap() {
+        return dijkstra(new HugeDaryHeap(nodeCount, 2, AllocationTracker.EMPTY));
+    }
+
+    @Benchmark
+    public double _03_radixHeap() {
+        return dijkstra(new HugeRadixHeap(nodeCount, AllocationTracker.EMPTY));
+    }
+
+    private double dijkstra(HugeIndexedPriorityQueue queue) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[0] = 0.0;
+        queue.add(0L, 0.0);
+        while (!queue.isEmpty()) {
+            final int node = (int) queue.pop();
+            final double cost = distances[node];
+            for (int i = node * degree, end = i + degree; i < end; i++) {
+                final double next = cost + weights[i];
+                if (next < distances[targets[i]]) {
+                    distances[targets[i]] = next;
+                    queue.offer(targets[i], next);
+                }
+            }
+        }
+        queue.release();
+        return distances[nodeCount - 1];
+    }
+}
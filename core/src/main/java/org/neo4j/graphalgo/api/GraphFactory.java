@@ -27,10 +27,12 @@ import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.huge.HugeIdMap;
 import org.neo4j.graphalgo.core.huge.HugeNodeImporter;
+import org.neo4j.graphalgo.core.huge.HugeNodeOrdering;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -79,6 +81,8 @@ public abstract class GraphFactory {
     protected IdMap loadIdMap() throws EntityNotFoundException {
         final NodeImporter nodeImporter = new NodeImporter(
                 api,
+                threadPool,
+                setup.concurrency(),
                 progress,
                 dimensions.nodeCount(),
                 dimensions.labelId());
@@ -86,13 +90,21 @@ public abstract class GraphFactory {
     }
 
     protected HugeIdMap loadHugeIdMap(AllocationTracker tracker) throws EntityNotFoundException {
+        // a label usually covers only a part of the id space, use the
+        // succinct mapping unless disabled or the nodes are going to be reordered
+        final boolean succinct = setup.succinctIdMap
+                && dimensions.labelId() != ReadOperations.ANY_LABEL
+                && setup.reorder == HugeNodeOrdering.NONE;
         final HugeNodeImporter nodeImporter = new HugeNodeImporter(
                 api,
+                threadPool,
+                setup.concurrency(),
                 tracker,
                 progress,
                 dimensions.hugeNodeCount(),
                 dimensions.allNodesCount(),
-                dimensions.labelId());
+                dimensions.labelId(),
+                succinct);
         return nodeImporter.call();
     }
 
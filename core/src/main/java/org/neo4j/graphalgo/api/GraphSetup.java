@@ -18,12 +18,14 @@
  */
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.huge.HugeNodeOrdering;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.NullLog;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -81,6 +83,10 @@ public class GraphSetup {
     public final boolean sort;
     // in/out adjacencies are allowed to be merged into an undirected view of the graph
     public final boolean loadAsUndirected;
+    // relabel nodes after import for better locality (huge graph only)
+    public final HugeNodeOrdering reorder;
+    // map the ids of label filtered graphs with a rank/select bit set (huge graph only)
+    public final boolean succinctIdMap;
 
     /**
      * main ctor
@@ -100,6 +106,8 @@ public class GraphSetup {
      * @param batchSize batch size for parallel loading
      * @param accumulateWeights true if relationship-weights should be summed within the loader
      * @param sort
+     * @param reorder node ordering to apply after import
+     * @param succinctIdMap whether label filtered graphs may use the rank/select id map
      */
     public GraphSetup(
             String startLabel,
@@ -121,6 +129,8 @@ public class GraphSetup {
             long logMillis,
             boolean sort,
             boolean loadAsUndirected,
+            HugeNodeOrdering reorder,
+            boolean succinctIdMap,
             AllocationTracker tracker,
             String name) {
 
@@ -144,6 +154,8 @@ public class GraphSetup {
         this.logMillis = logMillis;
         this.sort = sort;
         this.loadAsUndirected = loadAsUndirected;
+        this.reorder = reorder == null ? HugeNodeOrdering.NONE : reorder;
+        this.succinctIdMap = succinctIdMap;
         this.tracker = tracker;
         this.name = name;
     }
@@ -171,6 +183,8 @@ public class GraphSetup {
         this.logMillis = -1;
         this.sort = false;
         this.loadAsUndirected = false;
+        this.reorder = HugeNodeOrdering.NONE;
+        this.succinctIdMap = true;
         this.tracker = AllocationTracker.EMPTY;
     }
 
@@ -200,6 +214,8 @@ public class GraphSetup {
         this.logMillis = -1;
         this.sort = false;
         this.loadAsUndirected = false;
+        this.reorder = HugeNodeOrdering.NONE;
+        this.succinctIdMap = true;
         this.tracker = AllocationTracker.EMPTY;
     }
 
@@ -233,4 +249,26 @@ public class GraphSetup {
     public boolean loadAnyRelationshipType() {
         return relationshipType == null;
     }
+
+    /**
+     * @return true if more than one relationship type was given in the form of {@code 'TYPE1|TYPE2'}
+     */
+    public boolean loadMultipleRelationshipTypes() {
+        return !loadAnyRelationshipType() && splitRelationshipTypes(relationshipType).length > 1;
+    }
+
+    /**
+     * splits a relationship type expression of the form {@code 'TYPE1|TYPE2'} into its type names.
+     * Blank names are ignored.
+     */
+    public static String[] splitRelationshipTypes(String relationshipType) {
+        if (relationshipType == null) {
+            return new String[0];
+        }
+        return Arrays.stream(relationshipType.split("\\|"))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
 }
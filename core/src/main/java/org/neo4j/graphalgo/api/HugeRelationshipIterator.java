@@ -42,6 +42,18 @@ public interface HugeRelationshipIterator {
         forEachRelationship(nodeId, Direction.OUTGOING, consumer);
     }
 
+    /**
+     * Iterates only over relationships of the given type. Only supported by
+     * graphs that have been loaded with several relationship types.
+     */
+    default void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeRelationshipConsumer consumer) {
+        throw new UnsupportedOperationException("Not implemented");
+    }
+
     /**
      * @return a copy of this iterator that reuses new cursors internally,
      * so that iterations happen independent from other iterations.
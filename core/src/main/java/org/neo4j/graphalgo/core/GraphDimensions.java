@@ -25,6 +25,8 @@ import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.Arrays;
+
 public final class GraphDimensions extends StatementTask<GraphDimensions, RuntimeException> {
     private final GraphSetup setup;
 
@@ -33,6 +35,8 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
     private long maxRelCount;
     private int labelId;
     private int[] relationId;
+    private String[] relationshipTypes;
+    private int[] relationshipTypeIds;
     private int weightId;
     private int relWeightId;
     private int nodeWeightId;
@@ -69,6 +73,21 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         return relationId;
     }
 
+    /**
+     * @return the names of the relationship types that exist in the database,
+     * if more than one type was requested using {@code 'TYPE1|TYPE2'}; {@code null} otherwise
+     */
+    public String[] relationshipTypes() {
+        return relationshipTypes;
+    }
+
+    /**
+     * @return the type ids matching {@link #relationshipTypes()}; {@code null} if only a single type was requested
+     */
+    public int[] relationshipTypeIds() {
+        return relationshipTypeIds;
+    }
+
     public int weightId() {
         return weightId;
     }
@@ -91,7 +110,12 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         labelId = setup.loadAnyLabel()
                 ? ReadOperations.ANY_LABEL
                 : readOp.labelGetForName(setup.startLabel);
-        if (!setup.loadAnyRelationshipType()) {
+        String[] typeNames = setup.loadAnyRelationshipType()
+                ? null
+                : GraphSetup.splitRelationshipTypes(setup.relationshipType);
+        if (typeNames != null && typeNames.length > 1) {
+            loadRelationshipTypes(readOp, typeNames);
+        } else if (!setup.loadAnyRelationshipType()) {
             int relId = readOp.relationshipTypeGetForName(setup.relationshipType);
             if (relId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
                 relationId = new int[]{relId};
@@ -111,10 +135,37 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
                 : readOp.propertyKeyGetForName(setup.nodePropertyName);
         nodeCount = readOp.countsForNode(labelId);
         allNodesCount = readOp.nodesGetCount();
-        maxRelCount = Math.max(
-                readOp.countsForRelationshipWithoutTxState(labelId, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0], ReadOperations.ANY_LABEL),
-                readOp.countsForRelationshipWithoutTxState(ReadOperations.ANY_LABEL, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0], labelId)
-        );
+        if (relationshipTypeIds != null) {
+            maxRelCount = 0L;
+            for (int typeId : relationshipTypeIds) {
+                maxRelCount += maxRelCount(readOp, typeId);
+            }
+        } else {
+            maxRelCount = maxRelCount(readOp, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0]);
+        }
         return this;
     }
+
+    private void loadRelationshipTypes(ReadOperations readOp, String[] typeNames) {
+        String[] names = new String[typeNames.length];
+        int[] ids = new int[typeNames.length];
+        int found = 0;
+        for (String typeName : typeNames) {
+            int relId = readOp.relationshipTypeGetForName(typeName);
+            if (relId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
+                names[found] = typeName;
+                ids[found] = relId;
+                ++found;
+            }
+        }
+        relationshipTypes = Arrays.copyOf(names, found);
+        relationshipTypeIds = Arrays.copyOf(ids, found);
+    }
+
+    private long maxRelCount(ReadOperations readOp, int typeId) {
+        return Math.max(
+                readOp.countsForRelationshipWithoutTxState(labelId, typeId, ReadOperations.ANY_LABEL),
+                readOp.countsForRelationshipWithoutTxState(ReadOperations.ANY_LABEL, typeId, labelId)
+        );
+    }
 }
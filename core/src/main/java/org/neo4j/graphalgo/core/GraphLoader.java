@@ -21,6 +21,8 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeNodeOrdering;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
@@ -82,6 +84,8 @@ public class GraphLoader {
     private AllocationTracker tracker = AllocationTracker.EMPTY;
     private boolean sort = false;
     private boolean loadAsUndirected = false;
+    private HugeNodeOrdering reorder = HugeNodeOrdering.NONE;
+    private boolean succinctIdMap = true;
 
     /**
      * Creates a new serial GraphLoader.
@@ -139,6 +143,26 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Relabel the nodes after import according to the given ordering.
+     * Only supported by the {@link HugeGraphFactory}, other graphs ignore this setting.
+     */
+    public GraphLoader withReordering(HugeNodeOrdering reorder) {
+        this.reorder = Objects.requireNonNull(reorder);
+        return this;
+    }
+
+    /**
+     * Map the ids of label filtered graphs with a rank/select bit set of about
+     * 1.13 bits per node id of the store plus 1/16 bit per loaded node instead
+     * of a sparse array of 8 bytes per id in every touched page. Lookups are slower. Enabled by default,
+     * only supported by the {@link HugeGraphFactory} and ignored if the nodes are reordered.
+     */
+    public GraphLoader withSuccinctIdMap(boolean succinctIdMap) {
+        this.succinctIdMap = succinctIdMap;
+        return this;
+    }
+
     /**
      * Use the given {@link AllocationTracker} to track memory allocations during loading.
      * Can be null, in which case no tracking happens. The same effect can be
@@ -507,6 +531,8 @@ public class GraphLoader {
                 logMillis,
                 sort,
                 loadAsUndirected,
+                reorder,
+                succinctIdMap,
                 tracker,
                 name);
 
@@ -567,6 +593,8 @@ public class GraphLoader {
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
+                .withReordering(config.getReordering())
+                .withSuccinctIdMap(config.isSuccinctIdMap())
                 .withParams(config.getParams());
     }
 }
@@ -26,11 +26,13 @@ import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.BatchNodeIterable;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
 import java.util.function.IntPredicate;
 
 /**
@@ -64,6 +66,23 @@ public final class IdMap implements IdMapping, NodeIterator, BatchNodeIterable {
         iter = new IdIterator();
     }
 
+    /**
+     * build the map from a parallel node scan. The mapped ids are
+     * copied in parallel, only the reverse hash map is filled by the
+     * calling thread.
+     */
+    public static IdMap of(ParallelNodeScan scan, ExecutorService executor, int concurrency) {
+        final int nodeCount = Math.toIntExact(scan.nodeCount());
+        final long[] graphIds = new long[nodeCount];
+        scan.forEachRange(executor, concurrency, (firstMappedId, nodeIds, length) ->
+                System.arraycopy(nodeIds, 0, graphIds, (int) firstMappedId, length));
+        final LongIntMap nodeToGraphIds = new LongIntHashMap((int) Math.ceil(nodeCount / 0.99), 0.99);
+        for (int i = 0; i < nodeCount; i++) {
+            nodeToGraphIds.put(graphIds[i], i);
+        }
+        return new IdMap(graphIds, nodeToGraphIds);
+    }
+
     public PrimitiveIntIterator iterator() {
         return iter.reset(nextGraphId);
     }
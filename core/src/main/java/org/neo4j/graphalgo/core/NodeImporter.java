@@ -21,13 +21,20 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.concurrent.ExecutorService;
+
 public final class NodeImporter extends StatementTask<IdMap, EntityNotFoundException> {
+    private final GraphDatabaseAPI api;
+    private final ExecutorService executor;
+    private final int concurrency;
     private final ImportProgress progress;
     private final int nodeCount;
     private final int labelId;
@@ -37,12 +44,42 @@ public final class NodeImporter extends StatementTask<IdMap, EntityNotFoundExcep
             ImportProgress progress,
             int nodeCount,
             int labelId) {
+        this(api, null, 1, progress, nodeCount, labelId);
+    }
+
+    public NodeImporter(
+            GraphDatabaseAPI api,
+            ExecutorService executor,
+            int concurrency,
+            ImportProgress progress,
+            int nodeCount,
+            int labelId) {
         super(api);
+        this.api = api;
+        this.executor = executor;
+        this.concurrency = concurrency;
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.labelId = labelId;
     }
 
+    /**
+     * scans the node store in parallel if an executor is given and the
+     * scan pays off, otherwise iterates all nodes in a single transaction
+     */
+    @Override
+    public IdMap call() throws EntityNotFoundException {
+        if (ParallelUtil.canRunInParallel(executor)) {
+            final long highId = ParallelNodeScan.highId(api);
+            if (ParallelNodeScan.isWorthwhile(concurrency, labelId, nodeCount, highId)) {
+                final IdMap mapping = IdMap.of(ParallelNodeScan.scan(api, labelId, highId, progress, executor, concurrency), executor, concurrency);
+                progress.resetForRelationships();
+                return mapping;
+            }
+        }
+        return super.call();
+    }
+
     @Override
     public IdMap apply(final Statement statement) throws
             EntityNotFoundException {
@@ -24,6 +24,7 @@ import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeNodeOrdering;
 import org.neo4j.graphalgo.core.lightweight.LightGraph;
 import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
 import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
@@ -32,6 +33,8 @@ import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
 import org.neo4j.graphalgo.core.utils.Directions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.scheduler.Priority;
+import org.neo4j.graphalgo.core.write.FileExporter;
 import org.neo4j.graphdb.Direction;
 
 import java.util.*;
@@ -210,6 +213,36 @@ public class ProcedureConfiguration {
         return get(ProcedureConstants.STATS_FLAG, defaultValue);
     }
 
+    /**
+     * tolerance for skipping the write of unchanged values. Only set
+     * if skipUnchanged is activated, 0 compares values for equality.
+     *
+     * @return the tolerance or -1 if every value has to be written
+     */
+    public double getWriteTolerance() {
+        if (!get(ProcedureConstants.SKIP_UNCHANGED_FLAG, false)) {
+            return -1.0;
+        }
+        return Math.max(0.0, getNumber(ProcedureConstants.WRITE_TOLERANCE, 0.0).doubleValue());
+    }
+
+    /**
+     * directory for exporting the results into local files
+     */
+    public Optional<String> getExportPath() {
+        return getString(ProcedureConstants.EXPORT_PATH);
+    }
+
+    public FileExporter.Format getExportFormat() {
+        return FileExporter.Format.parse(getString(
+                ProcedureConstants.EXPORT_FORMAT,
+                ProcedureConstants.EXPORT_FORMAT_DEFAULT));
+    }
+
+    public boolean isExportCompressed() {
+        return get(ProcedureConstants.EXPORT_COMPRESSED_FLAG, false);
+    }
+
     public boolean hasWeightProperty() {
         return containsKeys(ProcedureConstants.PROPERTY_PARAM);
     }
@@ -258,6 +291,36 @@ public class ProcedureConfiguration {
         return getConcurrency(Pools.DEFAULT_CONCURRENCY);
     }
 
+    /**
+     * return the node ordering to apply after loading a huge graph
+     *
+     * @return the ordering, {@link HugeNodeOrdering#NONE} if not set
+     */
+    public HugeNodeOrdering getReordering() {
+        return HugeNodeOrdering.parse(getString(ProcedureConstants.REORDER, ProcedureConstants.REORDER_DEFAULT));
+    }
+
+    /**
+     * return whether label filtered huge graphs may use the succinct id map
+     *
+     * @return true if not set
+     */
+    public boolean isSuccinctIdMap() {
+        return get(ProcedureConstants.SUCCINCT_ID_MAP, true);
+    }
+
+    /**
+     * return the scheduling priority of the query
+     *
+     * @param defaultValue the priority if not set
+     * @return the priority class
+     */
+    public Priority getPriority(Priority defaultValue) {
+        return getString(ProcedureConstants.PRIORITY)
+                .map(Priority::parse)
+                .orElse(defaultValue);
+    }
+
     public String getDirectionName() {
         return getDirectionName(ProcedureConstants.DIRECTION_DEFAULT);
     }
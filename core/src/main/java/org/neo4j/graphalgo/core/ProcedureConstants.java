@@ -43,6 +43,18 @@ public class ProcedureConstants {
 
     public static final String STATS_FLAG = "stats";
 
+    public static final String SKIP_UNCHANGED_FLAG = "skipUnchanged";
+
+    public static final String WRITE_TOLERANCE = "writeTolerance";
+
+    public static final String EXPORT_PATH = "exportPath";
+
+    public static final String EXPORT_FORMAT = "exportFormat";
+
+    public static final String EXPORT_FORMAT_DEFAULT = "csv";
+
+    public static final String EXPORT_COMPRESSED_FLAG = "exportCompressed";
+
     public static final double DEFAULT_PROPERTY_VALUE_DEFAULT = 1.0;
 
     public static final String ITERATIONS_PARAM = "iterations";
@@ -61,4 +73,12 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String REORDER = "reorder";
+
+    public static final String REORDER_DEFAULT = "none";
+
+    public static final String SUCCINCT_ID_MAP = "succinctIdMap";
+
+    public static final String PRIORITY = "priority";
+
 }
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DeltaEncoding;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.RankSelectBitSet;
+
+import java.util.Arrays;
+
+/**
+ * Builds an undirected {@link HugeGraph} from adjacency lists that are computed
+ * in memory instead of being imported from the database, e.g. the community
+ * graph of an aggregation step.
+ * <p>
+ * The layout is the one the loader uses for undirected graphs: every node has a
+ * single sorted and delta-encoded outgoing list that contains both directions
+ * of each relationship. Node ids are their own original ids and weights which
+ * differ from the default weight are kept in a {@link HugeWeightMap}.
+ * <p>
+ * Every thread has to use its own {@link Batch}, and every node may only be
+ * added once.
+ */
+public final class HugeGraphBuilder {
+
+    private final long nodeCount;
+    private final double defaultWeight;
+    private final AllocationTracker tracker;
+    private final LongArray offsets;
+    private final ByteArray adjacency;
+    private final HugeWeightMap weights;
+
+    public HugeGraphBuilder(long nodeCount, double defaultWeight, AllocationTracker tracker) {
+        this.nodeCount = nodeCount;
+        this.defaultWeight = defaultWeight;
+        this.tracker = tracker;
+        this.offsets = LongArray.newArray(nodeCount, tracker);
+        this.adjacency = ByteArray.newArray(0, tracker);
+        this.weights = new HugeWeightMap(nodeCount, defaultWeight, tracker);
+    }
+
+    public Batch newBatch() {
+        return new Batch(adjacency.newAllocator());
+    }
+
+    public HugeGraph build() {
+        final RankSelectBitSet originalIds = RankSelectBitSet.newBitSet(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            originalIds.set(node);
+        }
+        originalIds.build();
+        return new HugeGraphImpl(
+                tracker,
+                new HugeIdMap(originalIds),
+                weights,
+                null,
+                adjacency,
+                null,
+                offsets
+        );
+    }
+
+    public final class Batch {
+        private final ByteArray.LocalAllocator allocator;
+
+        private Batch(ByteArray.LocalAllocator allocator) {
+            this.allocator = allocator;
+            allocator.prepare();
+        }
+
+        /**
+         * adds the relationships of one node, the targets are sorted in place
+         * and must not contain duplicates
+         */
+        public void add(long node, long[] targets, double[] targetWeights, int degree) {
+            if (degree == 0) {
+                return;
+            }
+            for (int i = 0; i < degree; i++) {
+                if (targetWeights[i] != defaultWeight) {
+                    weights.put(node, targets[i], targetWeights[i]);
+                }
+            }
+            Arrays.sort(targets, 0, degree);
+
+            long requiredSize = 4L;
+            long prev = 0L;
+            for (int i = 0; i < degree; i++) {
+                long target = targets[i];
+                targets[i] = target - prev;
+                requiredSize += DeltaEncoding.vSize(targets[i]);
+                prev = target;
+            }
+
+            offsets.set(node, allocator.allocate(requiredSize));
+            ByteArray.BulkAdder adder = allocator.adder;
+            adder.addUnsignedInt(degree);
+            for (int i = 0; i < degree; i++) {
+                adder.addVLong(targets[i]);
+            }
+        }
+    }
+}
@@ -66,17 +66,51 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph importGraph() throws EntityNotFoundException {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker;
-        HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
+        String[] relationshipTypes = dimensions.relationshipTypes();
+        if (relationshipTypes != null && setup.reorder != HugeNodeOrdering.NONE) {
+            throw new IllegalArgumentException(
+                    "Reordering is not supported when loading multiple relationship types");
+        }
         HugeIdMap mapping = loadHugeIdMap(tracker);
-        HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        HugeGraph graph;
+        if (relationshipTypes != null) {
+            graph = loadRelationshipTypes(dimensions, relationshipTypes, mapping, concurrency, tracker, progress);
+        } else {
+            HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
+            graph = loadRelationships(dimensions, mapping, weights, dimensions.relationId(), concurrency, tracker, progress);
+        }
         progressLogger.logDone(tracker);
         return graph;
     }
 
-    private HugeGraph loadRelationships(
+    private HugeGraph loadRelationshipTypes(
+            GraphDimensions dimensions,
+            String[] relationshipTypes,
+            HugeIdMap mapping,
+            int concurrency,
+            AllocationTracker tracker,
+            ImportProgress progress) {
+        int[] typeIds = dimensions.relationshipTypeIds();
+        HugeGraphImpl[] graphs = new HugeGraphImpl[typeIds.length];
+        for (int i = 0; i < typeIds.length; i++) {
+            HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
+            graphs[i] = loadRelationships(
+                    dimensions,
+                    mapping,
+                    weights,
+                    new int[]{typeIds[i]},
+                    concurrency,
+                    tracker,
+                    progress);
+        }
+        return new HugeMultiTypeGraph(mapping, relationshipTypes, graphs, setup.relationDefaultWeight);
+    }
+
+    private HugeGraphImpl loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
             HugeWeightMapping weights,
+            int[] relationId,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
@@ -85,13 +119,13 @@ public final class HugeGraphFactory extends GraphFactory {
                     dimensions,
                     mapping,
                     weights,
+                    relationId,
                     concurrency,
                     tracker,
                     progress);
         }
 
         final long nodeCount = dimensions.hugeNodeCount();
-        final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
 
         LongArray inOffsets = null;
@@ -133,7 +167,7 @@ public final class HugeGraphFactory extends GraphFactory {
             ParallelUtil.run(Arrays.asList(tasks), threadPool);
         }
 
-        return new HugeGraphImpl(
+        return buildGraph(
                 tracker,
                 mapping,
                 weights,
@@ -144,15 +178,15 @@ public final class HugeGraphFactory extends GraphFactory {
         );
     }
 
-    private HugeGraph loadUndirectedRelationships(
+    private HugeGraphImpl loadUndirectedRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
             HugeWeightMapping weights,
+            int[] relationId,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
         final long nodeCount = dimensions.hugeNodeCount();
-        final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
 
         LongArray offsets = LongArray.newArray(nodeCount, tracker);
@@ -177,7 +211,7 @@ public final class HugeGraphFactory extends GraphFactory {
         ));
         ParallelUtil.run(Arrays.asList(tasks), threadPool);
 
-        return new HugeGraphImpl(
+        return buildGraph(
                 tracker,
                 mapping,
                 weights,
@@ -188,6 +222,39 @@ public final class HugeGraphFactory extends GraphFactory {
         );
     }
 
+    private HugeGraphImpl buildGraph(
+            AllocationTracker tracker,
+            HugeIdMap mapping,
+            HugeWeightMapping weights,
+            ByteArray inAdjacency,
+            ByteArray outAdjacency,
+            LongArray inOffsets,
+            LongArray outOffsets) {
+        if (setup.reorder == HugeNodeOrdering.NONE || mapping.nodeCount() == 0L) {
+            return new HugeGraphImpl(
+                    tracker,
+                    mapping,
+                    weights,
+                    inAdjacency,
+                    outAdjacency,
+                    inOffsets,
+                    outOffsets
+            );
+        }
+        return new HugeGraphReorderer(
+                mapping,
+                weights,
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets,
+                threadPool,
+                setup.concurrency(),
+                tracker,
+                log
+        ).reorder(setup.reorder);
+    }
+
     @FunctionalInterface
     private interface RelationshipLoader {
         void apply(long neoId, long nodeId) throws EntityNotFoundException;
@@ -0,0 +1,354 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DeltaEncoding;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.logging.Log;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * Applies a {@link HugeNodeOrdering} to freshly imported graph data.
+ * <p>
+ * The id map, the compressed adjacency lists and the relationship weights
+ * are rewritten in parallel batches over the new id space. Every batch
+ * reads the old adjacency of the nodes it is responsible for, translates
+ * the targets into new ids, sorts and delta-encodes them again into its
+ * own region of the new {@link ByteArray}.
+ */
+final class HugeGraphReorderer {
+
+    private final HugeIdMap idMap;
+    private final HugeWeightMapping weights;
+    private final ByteArray inAdjacency;
+    private final ByteArray outAdjacency;
+    private final LongArray inOffsets;
+    private final LongArray outOffsets;
+    private final boolean isBoth;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final Log log;
+
+    HugeGraphReorderer(
+            HugeIdMap idMap,
+            HugeWeightMapping weights,
+            ByteArray inAdjacency,
+            ByteArray outAdjacency,
+            LongArray inOffsets,
+            LongArray outOffsets,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            Log log) {
+        this.idMap = idMap;
+        this.weights = weights;
+        this.inAdjacency = inAdjacency;
+        this.outAdjacency = outAdjacency;
+        this.inOffsets = inOffsets;
+        this.outOffsets = outOffsets;
+        this.isBoth = inAdjacency != null && outAdjacency != null;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.log = log;
+    }
+
+    long nodeCount() {
+        return idMap.nodeCount();
+    }
+
+    /**
+     * sum of the degrees over all loaded directions
+     */
+    int degree(long node) {
+        return degree(node, inOffsets, inAdjacency) + degree(node, outOffsets, outAdjacency);
+    }
+
+    NeighbourCursor newNeighbourCursor() {
+        return new NeighbourCursor();
+    }
+
+    HugeGraphImpl reorder(HugeNodeOrdering ordering) {
+        final long nodeCount = nodeCount();
+        final ProgressTimer orderTimer = ProgressTimer.start();
+        final LongArray newToOld = ordering.newToOld(this, executor, concurrency, tracker);
+        final LongArray oldToNew = LongArray.newArray(nodeCount, tracker);
+        runBatches(nodeCount, (start, end) -> {
+            for (long newId = start; newId < end; newId++) {
+                oldToNew.set(newToOld.get(newId), newId);
+            }
+        });
+        orderTimer.stop();
+
+        final ProgressTimer idMapTimer = ProgressTimer.start();
+        final LongArray newGraphIds = LongArray.newArray(nodeCount, tracker);
+        runBatches(nodeCount, (start, end) -> {
+            for (long newId = start; newId < end; newId++) {
+                idMap.relabel(newToOld.get(newId), newId, newGraphIds);
+            }
+        });
+        final HugeIdMap newIdMap = idMap.withGraphIds(newGraphIds, tracker);
+        idMapTimer.stop();
+
+        final ProgressTimer adjacencyTimer = ProgressTimer.start();
+        final AtomicLong bytesBefore = new AtomicLong();
+        final AtomicLong bytesAfter = new AtomicLong();
+        LongArray newInOffsets = null;
+        ByteArray newInAdjacency = null;
+        LongArray newOutOffsets = null;
+        ByteArray newOutAdjacency = null;
+        if (inAdjacency != null) {
+            newInOffsets = LongArray.newArray(nodeCount, tracker);
+            newInAdjacency = ByteArray.newArray(0, tracker);
+            rewriteAdjacency(inOffsets, inAdjacency, newInOffsets, newInAdjacency, newToOld, oldToNew, bytesBefore, bytesAfter);
+        }
+        if (outAdjacency != null) {
+            newOutOffsets = LongArray.newArray(nodeCount, tracker);
+            newOutAdjacency = ByteArray.newArray(0, tracker);
+            rewriteAdjacency(outOffsets, outAdjacency, newOutOffsets, newOutAdjacency, newToOld, oldToNew, bytesBefore, bytesAfter);
+        }
+        adjacencyTimer.stop();
+
+        final ProgressTimer weightsTimer = ProgressTimer.start();
+        final HugeWeightMapping newWeights = rewriteWeights(newToOld, oldToNew);
+        weightsTimer.stop();
+
+        log.info(
+                "Reordering [%s]: ordering %d ms, id map %d ms, adjacency %d ms, weights %d ms, encoded adjacency %s -> %s",
+                ordering,
+                orderTimer.getDuration(),
+                idMapTimer.getDuration(),
+                adjacencyTimer.getDuration(),
+                weightsTimer.getDuration(),
+                humanReadable(bytesBefore.get()),
+                humanReadable(bytesAfter.get()));
+
+        release(newToOld, oldToNew);
+        return new HugeGraphImpl(
+                tracker,
+                newIdMap,
+                newWeights,
+                newInAdjacency,
+                newOutAdjacency,
+                newInOffsets,
+                newOutOffsets
+        );
+    }
+
+    private void rewriteAdjacency(
+            LongArray offsets,
+            ByteArray adjacency,
+            LongArray newOffsets,
+            ByteArray newAdjacency,
+            LongArray newToOld,
+            LongArray oldToNew,
+            AtomicLong bytesBefore,
+            AtomicLong bytesAfter) {
+        runBatches(nodeCount(), (start, end) -> {
+            ByteArray.LocalAllocator allocator = newAdjacency.newAllocator();
+            allocator.prepare();
+            ByteArray.DeltaCursor cursor = adjacency.newCursor();
+            long[] targets = new long[0];
+            long before = 0L;
+            long after = 0L;
+            for (long newId = start; newId < end; newId++) {
+                long offset = offsets.get(newToOld.get(newId));
+                if (offset == 0L) {
+                    continue;
+                }
+                adjacency.deltaCursor(cursor, offset);
+                int degree = cursor.cost();
+                if (targets.length < degree) {
+                    targets = new long[ArrayUtil.oversize(degree, Long.BYTES)];
+                }
+                long prev = 0L;
+                for (int i = 0; i < degree; i++) {
+                    long target = cursor.nextVLong();
+                    before += DeltaEncoding.vSize(target - prev);
+                    prev = target;
+                    targets[i] = oldToNew.get(target);
+                }
+                Arrays.sort(targets, 0, degree);
+
+                long requiredSize = 4L;
+                prev = 0L;
+                for (int i = 0; i < degree; i++) {
+                    long target = targets[i];
+                    targets[i] = target - prev;
+                    requiredSize += DeltaEncoding.vSize(targets[i]);
+                    prev = target;
+                }
+                before += 4L;
+                after += requiredSize;
+
+                newOffsets.set(newId, allocator.allocate(requiredSize));
+                ByteArray.BulkAdder adder = allocator.adder;
+                adder.addUnsignedInt(degree);
+                for (int i = 0; i < degree; i++) {
+                    adder.addVLong(targets[i]);
+                }
+            }
+            bytesBefore.addAndGet(before);
+            bytesAfter.addAndGet(after);
+        });
+    }
+
+    /**
+     * Weights are keyed by {@code (source, target)} in graph ids and by
+     * {@code (min, max)} if both directions are loaded.
+     * Every batch only writes keys whose first component lies within its own range,
+     * so that no two threads write into the same nested map.
+     */
+    private HugeWeightMapping rewriteWeights(LongArray newToOld, LongArray oldToNew) {
+        if (!(weights instanceof HugeWeightMap)) {
+            return weights;
+        }
+        final HugeWeightMap oldWeights = (HugeWeightMap) weights;
+        final double defaultValue = oldWeights.defaultValue();
+        final HugeWeightMap newWeights = new HugeWeightMap(nodeCount(), defaultValue, tracker);
+        runBatches(nodeCount(), (start, end) -> {
+            NeighbourCursor cursor = newNeighbourCursor();
+            for (long newId = start; newId < end; newId++) {
+                long oldId = newToOld.get(newId);
+                cursor.init(oldId);
+                while (cursor.hasNext()) {
+                    long oldTarget = cursor.next();
+                    long newTarget = oldToNew.get(oldTarget);
+                    if (isBoth && newTarget < newId) {
+                        continue;
+                    }
+                    double weight = isBoth && oldTarget < oldId
+                            ? oldWeights.weight(oldTarget, oldId)
+                            : oldWeights.weight(oldId, oldTarget);
+                    if (weight != defaultValue) {
+                        newWeights.put(newId, newTarget, weight);
+                    }
+                }
+            }
+        });
+        tracker.remove(oldWeights.release());
+        return newWeights;
+    }
+
+    private void release(LongArray newToOld, LongArray oldToNew) {
+        tracker.remove(newToOld.release());
+        tracker.remove(oldToNew.release());
+        if (inAdjacency != null) {
+            tracker.remove(inAdjacency.release());
+            tracker.remove(inOffsets.release());
+        }
+        if (outAdjacency != null) {
+            tracker.remove(outAdjacency.release());
+            tracker.remove(outOffsets.release());
+        }
+    }
+
+    void runBatches(long nodeCount, BatchTask task) {
+        long batchSize = ParallelUtil.adjustBatchSize(
+                nodeCount,
+                concurrency,
+                ParallelUtil.DEFAULT_BATCH_SIZE);
+        Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> task.run(start, start + length));
+        ParallelUtil.runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
+    }
+
+    private static int degree(long node, LongArray offsets, ByteArray adjacency) {
+        if (offsets == null) {
+            return 0;
+        }
+        long offset = offsets.get(node);
+        return offset == 0L ? 0 : adjacency.getInt(offset);
+    }
+
+    @FunctionalInterface
+    interface BatchTask {
+        void run(long start, long end);
+    }
+
+    /**
+     * Iterates the targets of all loaded directions of a node, including duplicates
+     * between incoming and outgoing lists. Not thread-safe.
+     */
+    final class NeighbourCursor {
+        private final ByteArray.DeltaCursor inCursor;
+        private final ByteArray.DeltaCursor outCursor;
+        private ByteArray.DeltaCursor current;
+        private boolean inPending;
+        private long node;
+
+        private NeighbourCursor() {
+            inCursor = inAdjacency != null ? inAdjacency.newCursor() : null;
+            outCursor = outAdjacency != null ? outAdjacency.newCursor() : null;
+        }
+
+        void init(long node) {
+            this.node = node;
+            current = null;
+            inPending = false;
+            long offset;
+            if (outCursor != null && (offset = outOffsets.get(node)) != 0L) {
+                current = outAdjacency.deltaCursor(outCursor, offset);
+                inPending = inCursor != null;
+            } else if (inCursor != null && (offset = inOffsets.get(node)) != 0L) {
+                current = inAdjacency.deltaCursor(inCursor, offset);
+            }
+        }
+
+        boolean hasNext() {
+            if (current == null) {
+                return false;
+            }
+            if (current.hasNextVLong()) {
+                return true;
+            }
+            if (inPending) {
+                inPending = false;
+                long offset = inOffsets.get(node);
+                if (offset != 0L) {
+                    current = inAdjacency.deltaCursor(inCursor, offset);
+                    return current.hasNextVLong();
+                }
+            }
+            return false;
+        }
+
+        long next() {
+            return current.nextVLong();
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.graphalgo.core.utils.paged.RankSelectBitSet;
 import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 
 import java.util.Collection;
@@ -35,6 +36,12 @@ import java.util.function.LongPredicate;
 /**
  * This is basically a long to int mapper. It sorts the id's in ascending order so its
  * guaranteed that there is no ID greater then nextGraphId / capacity
+ * <p>
+ * The mapping is either backed by a dense and a sparse array or, if created with
+ * {@link #HugeIdMap(RankSelectBitSet)}, by a succinct bit set over the original ids.
+ * The latter uses about 1.13 bits per original id plus 1/16 bit per mapped node
+ * instead of 8 bytes per touched page entry, mapped ids are the rank and original
+ * ids the select of the bit set.
  */
 public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBatchNodeIterable {
 
@@ -46,6 +53,7 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
     private long nextGraphId;
     private LongArray graphIds;
     private SparseLongArray nodeToGraphIds;
+    private final RankSelectBitSet originalIds;
 
     /**
      * initialize the map with maximum node capacity
@@ -53,6 +61,7 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
     HugeIdMap(long capacity, long fullCapacity, AllocationTracker tracker) {
         graphIds = LongArray.newArray(capacity, tracker);
         nodeToGraphIds = SparseLongArray.newArray(fullCapacity, tracker);
+        originalIds = null;
     }
 
     HugeIdMap(
@@ -62,6 +71,15 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         nextGraphId = capacity;
         graphIds = denseGraphMap;
         nodeToGraphIds = sparseOriginalMap;
+        originalIds = null;
+    }
+
+    /**
+     * initialize the map from a built bit set of the original ids
+     */
+    HugeIdMap(RankSelectBitSet originalIds) {
+        this.nextGraphId = originalIds.cardinality();
+        this.originalIds = originalIds;
     }
 
     void add(long longValue) {
@@ -70,19 +88,63 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         graphIds.set(internalId, longValue);
     }
 
+    /**
+     * Moves the node with graph id {@code oldId} to {@code newId} in the given
+     * dense mapping and updates the sparse reverse mapping in place.
+     * Different threads may relabel disjoint sets of nodes concurrently.
+     */
+    void relabel(long oldId, long newId, LongArray newGraphIds) {
+        assertNotSuccinct();
+        long originalId = graphIds.get(oldId);
+        newGraphIds.set(newId, originalId);
+        nodeToGraphIds.set(originalId, newId);
+    }
+
+    /**
+     * Returns a mapping that uses the given dense mapping, which must have been
+     * completely filled by {@link #relabel(long, long, LongArray)}.
+     * This mapping is not usable afterwards.
+     */
+    HugeIdMap withGraphIds(LongArray newGraphIds, AllocationTracker tracker) {
+        assertNotSuccinct();
+        tracker.remove(graphIds.release());
+        graphIds = null;
+        return new HugeIdMap(nextGraphId, newGraphIds, nodeToGraphIds);
+    }
+
+    private void assertNotSuccinct() {
+        if (originalIds != null) {
+            throw new IllegalStateException("Succinct id mappings cannot be reordered");
+        }
+    }
+
     @Override
     public long toHugeMappedNodeId(long nodeId) {
+        if (originalIds != null) {
+            return originalIds.get(nodeId) ? originalIds.rank(nodeId) : NOT_FOUND;
+        }
+        if (nodeId < 0 || nodeId >= nodeToGraphIds.capacity()) {
+            return NOT_FOUND;
+        }
         return nodeToGraphIds.get(nodeId);
     }
 
     @Override
     public long toOriginalNodeId(long nodeId) {
+        if (originalIds != null) {
+            return originalIds.select(nodeId);
+        }
         return graphIds.get(nodeId);
     }
 
     @Override
     public boolean contains(final long nodeId) {
-        return nodeToGraphIds.contains(nodeId);
+        if (originalIds != null) {
+            return originalIds.get(nodeId);
+        }
+        return nodeId >= 0
+                && nodeId < nodeToGraphIds.capacity()
+                && nodeToGraphIds.contains(nodeId);
     }
 
     @Override
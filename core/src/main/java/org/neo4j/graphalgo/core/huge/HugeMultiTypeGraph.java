@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongPredicate;
+
+/**
+ * A HugeGraph that holds the relationships of several types.
+ * <p>
+ * Every type is stored in its own {@link HugeGraphImpl} – with its own offsets,
+ * adjacency and weights – while all of them share one {@link HugeIdMap}.
+ * Iterating the graph visits the union of all types, one type after the other.
+ * A single type or a subset of types can be selected with
+ * {@link #withRelationshipTypes(String...)} without loading the graph again.
+ * <p>
+ * When a relationship exists for more than one type, it will be visited once per type.
+ */
+public final class HugeMultiTypeGraph implements HugeGraph {
+
+    private final HugeIdMap idMapping;
+    private final String[] types;
+    private final HugeGraphImpl[] graphs;
+    private final double defaultWeight;
+
+    HugeMultiTypeGraph(
+            final HugeIdMap idMapping,
+            final String[] types,
+            final HugeGraphImpl[] graphs,
+            final double defaultWeight) {
+        this.idMapping = idMapping;
+        this.types = types;
+        this.graphs = graphs;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * @return the names of the loaded relationship types
+     */
+    public String[] relationshipTypes() {
+        return types.clone();
+    }
+
+    /**
+     * Returns a view on the given relationship types, sharing all data with this graph.
+     * The types may also be given in the form of {@code 'TYPE1|TYPE2'}.
+     *
+     * @throws IllegalArgumentException if any of the types has not been loaded
+     */
+    public HugeGraph withRelationshipTypes(String... relationshipTypes) {
+        String[] selected = Arrays.stream(relationshipTypes)
+                .flatMap(type -> Arrays.stream(GraphSetup.splitRelationshipTypes(type)))
+                .distinct()
+                .toArray(String[]::new);
+        if (selected.length == 1) {
+            return graphs[typeIndex(selected[0])];
+        }
+        HugeGraphImpl[] selectedGraphs = new HugeGraphImpl[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            selectedGraphs[i] = graphs[typeIndex(selected[i])];
+        }
+        return new HugeMultiTypeGraph(idMapping, selected, selectedGraphs, defaultWeight);
+    }
+
+    @Override
+    public long nodeCount() {
+        return idMapping.nodeCount();
+    }
+
+    @Override
+    public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
+        return idMapping.hugeBatchIterables(batchSize);
+    }
+
+    @Override
+    public void forEachNode(LongPredicate consumer) {
+        idMapping.forEachNode(consumer);
+    }
+
+    @Override
+    public PrimitiveLongIterator hugeNodeIterator() {
+        return idMapping.hugeNodeIterator();
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        return idMapping.toHugeMappedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long vertexId) {
+        return idMapping.toOriginalNodeId(vertexId);
+    }
+
+    @Override
+    public boolean contains(final long nodeId) {
+        return idMapping.contains(nodeId);
+    }
+
+    /**
+     * Returns the weight of the first type that has a non-default weight for
+     * the given relationship. Prefer the weighted iteration, which reports
+     * the weight of every relationship per type.
+     */
+    @Override
+    public double weightOf(final long sourceNodeId, final long targetNodeId) {
+        for (HugeGraphImpl graph : graphs) {
+            double weight = graph.weightOf(sourceNodeId, targetNodeId);
+            if (weight != defaultWeight) {
+                return weight;
+            }
+        }
+        return defaultWeight;
+    }
+
+    @Override
+    public int degree(final long node, final Direction direction) {
+        int degree = 0;
+        for (HugeGraphImpl graph : graphs) {
+            degree += graph.degree(node, direction);
+        }
+        return degree;
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            HugeRelationshipConsumer consumer) {
+        if (graphs.length == 1) {
+            graphs[0].forEachRelationship(nodeId, direction, consumer);
+            return;
+        }
+        StopTracking tracking = new StopTracking(consumer);
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, tracking);
+            if (tracking.stopped) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeRelationshipConsumer consumer) {
+        graphs[typeIndex(relationshipType)].forEachRelationship(nodeId, direction, consumer);
+    }
+
+    @Override
+    public void forEachRelationship(
+            int nodeId,
+            Direction direction,
+            RelationshipConsumer consumer) {
+        boolean[] stopped = {false};
+        RelationshipConsumer tracking = (s, t, r) -> {
+            if (consumer.accept(s, t, r)) {
+                return true;
+            }
+            stopped[0] = true;
+            return false;
+        };
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, tracking);
+            if (stopped[0]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRelationship(
+            int nodeId,
+            Direction direction,
+            WeightedRelationshipConsumer consumer) {
+        boolean[] stopped = {false};
+        WeightedRelationshipConsumer tracking = (s, t, r, w) -> {
+            if (consumer.accept(s, t, r, w)) {
+                return true;
+            }
+            stopped[0] = true;
+            return false;
+        };
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, tracking);
+            if (stopped[0]) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * O(n) !
+     */
+    @Override
+    public boolean exists(long sourceNodeId, long targetNodeId, Direction direction) {
+        for (HugeGraphImpl graph : graphs) {
+            if (graph.exists(sourceNodeId, targetNodeId, direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        return exists((long) sourceNodeId, (long) targetNodeId, direction);
+    }
+
+    @Override
+    public HugeGraph concurrentCopy() {
+        HugeGraphImpl[] copies = new HugeGraphImpl[graphs.length];
+        for (int i = 0; i < graphs.length; i++) {
+            copies[i] = (HugeGraphImpl) graphs[i].concurrentCopy();
+        }
+        return new HugeMultiTypeGraph(idMapping, types, copies, defaultWeight);
+    }
+
+    /**
+     * Intersection is only supported on a single relationship type,
+     * select one with {@link #withRelationshipTypes(String...)} first.
+     */
+    @Override
+    public HugeRelationshipIntersect intersectionCopy() {
+        if (graphs.length == 1) {
+            return graphs[0].intersectionCopy();
+        }
+        throw new UnsupportedOperationException(
+                "Intersection over multiple relationship types is not supported");
+    }
+
+    @Override
+    public void release() {
+        for (HugeGraphImpl graph : graphs) {
+            graph.release();
+        }
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.canRelease(canRelease);
+        }
+    }
+
+    private int typeIndex(String relationshipType) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].equals(relationshipType)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "Relationship type '%s' has not been loaded, available types: %s",
+                relationshipType,
+                Arrays.toString(types)));
+    }
+
+    private static final class StopTracking implements HugeRelationshipConsumer {
+        private final HugeRelationshipConsumer delegate;
+        private boolean stopped;
+
+        private StopTracking(HugeRelationshipConsumer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            if (delegate.accept(sourceNodeId, targetNodeId)) {
+                return true;
+            }
+            stopped = true;
+            return false;
+        }
+    }
+}
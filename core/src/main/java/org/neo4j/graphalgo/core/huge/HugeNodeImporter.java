@@ -20,19 +20,30 @@ package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.RankSelectBitSet;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.concurrent.ExecutorService;
+
 public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFoundException> {
+    private final GraphDatabaseAPI api;
+    private final ExecutorService executor;
+    private final int concurrency;
     private final AllocationTracker tracker;
     private final ImportProgress progress;
     private final long nodeCount;
     private final long allNodesCount;
     private final int labelId;
+    private final boolean succinct;
 
     public HugeNodeImporter(
             GraphDatabaseAPI api,
@@ -41,21 +52,96 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
             long nodeCount,
             long allNodesCount,
             int labelId) {
+        this(api, null, 1, tracker, progress, nodeCount, allNodesCount, labelId, false);
+    }
+
+    /**
+     * @param succinct build a {@link RankSelectBitSet} backed mapping instead
+     *                 of the dense and sparse arrays, the mapping can not be reordered
+     */
+    public HugeNodeImporter(
+            GraphDatabaseAPI api,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            ImportProgress progress,
+            long nodeCount,
+            long allNodesCount,
+            int labelId,
+            boolean succinct) {
         super(api);
+        this.api = api;
+        this.executor = executor;
+        this.concurrency = concurrency;
         this.tracker = tracker;
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.allNodesCount = allNodesCount;
         this.labelId = labelId;
+        this.succinct = succinct;
+    }
+
+    /**
+     * scans the node store in parallel if an executor is given and the
+     * scan pays off, otherwise iterates all nodes in a single transaction
+     */
+    @Override
+    public HugeIdMap call() throws EntityNotFoundException {
+        if (ParallelUtil.canRunInParallel(executor)) {
+            final long highId = ParallelNodeScan.highId(api);
+            if (ParallelNodeScan.isWorthwhile(concurrency, labelId, nodeCount, highId)) {
+                return parallelImport(highId);
+            }
+        }
+        return super.call();
+    }
+
+    private HugeIdMap parallelImport(long highId) {
+        final ParallelNodeScan scan = ParallelNodeScan.scan(api, labelId, highId, progress, executor, concurrency);
+        if (succinct) {
+            final RankSelectBitSet originalIds = RankSelectBitSet.newBitSet(highId, tracker);
+            // ranges are word aligned, every word is written by one thread only
+            scan.forEachRange(executor, concurrency, (firstMappedId, nodeIds, length) -> {
+                for (int i = 0; i < length; i++) {
+                    originalIds.set(nodeIds[i]);
+                }
+            });
+            originalIds.build();
+            progress.resetForRelationships();
+            return new HugeIdMap(originalIds);
+        }
+        final LongArray graphIds = LongArray.newArray(scan.nodeCount(), tracker);
+        final SparseLongArray nodeToGraphIds = SparseLongArray.newArray(highId, tracker);
+        // ranges are page aligned, every sparse page is written by one thread only
+        scan.forEachRange(executor, concurrency, (firstMappedId, nodeIds, length) -> {
+            for (int i = 0; i < length; i++) {
+                graphIds.set(firstMappedId + i, nodeIds[i]);
+                nodeToGraphIds.set(nodeIds[i], firstMappedId + i);
+            }
+        });
+        progress.resetForRelationships();
+        return new HugeIdMap(scan.nodeCount(), graphIds, nodeToGraphIds);
     }
 
     @Override
     public HugeIdMap apply(final Statement statement) throws EntityNotFoundException {
-        final HugeIdMap mapping = new HugeIdMap(nodeCount, allNodesCount, tracker);
+        // node ids are bounded by the high id, not by the node count if nodes were deleted
+        final long capacity = Math.max(allNodesCount, ParallelNodeScan.highId(api));
         final ReadOperations readOp = statement.readOperations();
         final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
                 ? readOp.nodesGetAll()
                 : readOp.nodesGetForLabel(labelId);
+        if (succinct) {
+            final RankSelectBitSet originalIds = RankSelectBitSet.newBitSet(capacity, tracker);
+            while (nodeIds.hasNext()) {
+                originalIds.set(nodeIds.next());
+                progress.nodeProgress();
+            }
+            originalIds.build();
+            progress.resetForRelationships();
+            return new HugeIdMap(originalIds);
+        }
+        final HugeIdMap mapping = new HugeIdMap(nodeCount, capacity, tracker);
         while (nodeIds.hasNext()) {
             mapping.add(nodeIds.next());
             progress.nodeProgress();
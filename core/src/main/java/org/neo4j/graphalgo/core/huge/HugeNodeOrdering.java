@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedSimpleBitSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategies to relabel the nodes of a {@link org.neo4j.graphalgo.api.HugeGraph}
+ * after import, so that nodes that are accessed together are stored close to each other.
+ * <p>
+ * Node ids are assigned in store-scan order during import, which places
+ * neighbours far apart from each other. This leads to large deltas in the
+ * compressed adjacency and random access into score arrays of algorithms.
+ * A reordering computes a permutation {@code newId -> oldId} that is then
+ * applied to the id map and the adjacency by {@link HugeGraphReorderer}.
+ */
+public enum HugeNodeOrdering {
+
+    /**
+     * Keep the import order.
+     */
+    NONE {
+        @Override
+        LongArray newToOld(
+                HugeGraphReorderer graph,
+                ExecutorService executor,
+                int concurrency,
+                AllocationTracker tracker) {
+            throw new UnsupportedOperationException("NONE does not reorder");
+        }
+    },
+
+    /**
+     * Order nodes by descending degree, so that hub nodes and their scores
+     * are packed together in the first pages.
+     * Runs as a parallel, stable counting sort where all degrees of at least
+     * {@link #MAX_DEGREE_BUCKET} share the first bucket.
+     */
+    DEGREE {
+        @Override
+        LongArray newToOld(
+                HugeGraphReorderer graph,
+                ExecutorService executor,
+                int concurrency,
+                AllocationTracker tracker) {
+            final long nodeCount = graph.nodeCount();
+            final long batchSize = ParallelUtil.adjustBatchSize(
+                    nodeCount,
+                    concurrency,
+                    ParallelUtil.DEFAULT_BATCH_SIZE);
+            final List<DegreeHistogram> tasks = new ArrayList<>();
+            for (long start = 0L; start < nodeCount; start += batchSize) {
+                tasks.add(new DegreeHistogram(
+                        graph,
+                        start,
+                        Math.min(nodeCount, start + batchSize)));
+            }
+            ParallelUtil.runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
+
+            // exclusive prefix sum in bucket-major, partition-minor order
+            // keeps the sort stable across partitions
+            long offset = 0L;
+            for (int bucket = 0; bucket <= MAX_DEGREE_BUCKET; bucket++) {
+                for (DegreeHistogram task : tasks) {
+                    long count = task.histogram[bucket];
+                    task.histogram[bucket] = offset;
+                    offset += count;
+                }
+            }
+
+            final LongArray newToOld = LongArray.newArray(nodeCount, tracker);
+            for (DegreeHistogram task : tasks) {
+                task.scatterInto(newToOld);
+            }
+            ParallelUtil.runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
+            return newToOld;
+        }
+    },
+
+    /**
+     * Breadth-first (Cuthill–McKee style) ordering over the undirected view of the graph.
+     * Every component is traversed starting from its smallest old id and
+     * nodes are numbered in the order they are discovered, so that neighbours
+     * receive nearby ids. The traversal itself is sequential, the rewrite of
+     * the graph happens in parallel.
+     */
+    BFS {
+        @Override
+        LongArray newToOld(
+                HugeGraphReorderer graph,
+                ExecutorService executor,
+                int concurrency,
+                AllocationTracker tracker) {
+            final long nodeCount = graph.nodeCount();
+            // the order itself is used as the BFS queue
+            final LongArray newToOld = LongArray.newArray(nodeCount, tracker);
+            final PagedSimpleBitSet visited = PagedSimpleBitSet.newBitSet(nodeCount, tracker);
+            final HugeGraphReorderer.NeighbourCursor cursor = graph.newNeighbourCursor();
+            long tail = 0L;
+            for (long seed = 0L; seed < nodeCount; seed++) {
+                if (visited.contains(seed)) {
+                    continue;
+                }
+                visited.put(seed);
+                long head = tail;
+                newToOld.set(tail++, seed);
+                while (head < tail) {
+                    final long node = newToOld.get(head++);
+                    cursor.init(node);
+                    while (cursor.hasNext()) {
+                        final long target = cursor.next();
+                        if (!visited.contains(target)) {
+                            visited.put(target);
+                            newToOld.set(tail++, target);
+                        }
+                    }
+                }
+            }
+            tracker.remove(visited.release());
+            return newToOld;
+        }
+    };
+
+    /**
+     * Degrees of at least this value are not distinguished by {@link #DEGREE}.
+     */
+    static final int MAX_DEGREE_BUCKET = (1 << 12) - 1;
+
+    /**
+     * Compute the permutation {@code newId -> oldId} for the given graph.
+     */
+    abstract LongArray newToOld(
+            HugeGraphReorderer graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker);
+
+    public static HugeNodeOrdering parse(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown reordering: " + name);
+        }
+    }
+
+    private static final class DegreeHistogram implements Runnable {
+        private final HugeGraphReorderer graph;
+        private final long start;
+        private final long end;
+        private final long[] histogram;
+        private LongArray newToOld;
+
+        private DegreeHistogram(HugeGraphReorderer graph, long start, long end) {
+            this.graph = graph;
+            this.start = start;
+            this.end = end;
+            this.histogram = new long[MAX_DEGREE_BUCKET + 1];
+        }
+
+        void scatterInto(LongArray newToOld) {
+            this.newToOld = newToOld;
+        }
+
+        @Override
+        public void run() {
+            if (newToOld == null) {
+                for (long node = start; node < end; node++) {
+                    histogram[bucket(node)]++;
+                }
+            } else {
+                for (long node = start; node < end; node++) {
+                    newToOld.set(histogram[bucket(node)]++, node);
+                }
+            }
+        }
+
+        private int bucket(long node) {
+            return MAX_DEGREE_BUCKET - Math.min(graph.degree(node), MAX_DEGREE_BUCKET);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeBatchNodeIterable;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.StatementApi;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reads a numeric node property of all nodes of a {@link HugeGraph}
+ * into a {@link DoubleArray} indexed by the mapped node id.
+ * <p>
+ * The huge graph does not load node properties by itself. The nodes are
+ * read in batches of mapped ids, every batch in its own transaction.
+ */
+public final class HugeNodeProperties {
+
+    private HugeNodeProperties() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @param property     the property key
+     * @param defaultValue the value of nodes without a numeric property
+     */
+    public static DoubleArray load(
+            GraphDatabaseAPI api,
+            HugeGraph graph,
+            String property,
+            double defaultValue,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        final DoubleArray values = DoubleArray.newArray(graph.nodeCount(), tracker);
+        final int propertyId = new StatementApi(api) {}.applyInTransaction(
+                statement -> statement.readOperations().propertyKeyGetForName(property));
+        if (propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            values.fill(defaultValue);
+            return values;
+        }
+        final int batchSize = (int) ParallelUtil.adjustBatchSize(
+                graph.nodeCount(),
+                concurrency,
+                ParallelUtil.DEFAULT_BATCH_SIZE,
+                Integer.MAX_VALUE);
+        ParallelUtil.readParallel(
+                concurrency,
+                batchSize,
+                (HugeBatchNodeIterable) graph,
+                (offset, nodeIds) -> new PropertyReader(api, graph, nodeIds, propertyId, defaultValue, values),
+                executor);
+        return values;
+    }
+
+    private static final class PropertyReader extends StatementTask<Void, EntityNotFoundException> {
+        private final HugeGraph graph;
+        private final PrimitiveLongIterable nodeIds;
+        private final int propertyId;
+        private final double defaultValue;
+        private final DoubleArray values;
+
+        private PropertyReader(
+                GraphDatabaseAPI api,
+                HugeGraph graph,
+                PrimitiveLongIterable nodeIds,
+                int propertyId,
+                double defaultValue,
+                DoubleArray values) {
+            super(api);
+            this.graph = graph;
+            this.nodeIds = nodeIds;
+            this.propertyId = propertyId;
+            this.defaultValue = defaultValue;
+            this.values = values;
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            final PrimitiveLongIterator nodes = nodeIds.iterator();
+            while (nodes.hasNext()) {
+                final long nodeId = nodes.next();
+                final Object value = readOp.nodeGetProperty(
+                        graph.toOriginalNodeId(nodeId),
+                        propertyId);
+                values.set(nodeId, value instanceof Number
+                        ? ((Number) value).doubleValue()
+                        : defaultValue);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loadgraph;
+
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A pool of reusable per query states bound to a graph loaded by name.
+ * <p>
+ * Repeated queries against a named graph can borrow a state (e.g. the
+ * nodeCount sized arrays of a search) instead of allocating a new one.
+ * A borrowed state is used by one thread only and must be given back
+ * with {@link #release(Object)}. Up to {@code maxIdle} states are kept,
+ * additional ones are disposed. All pools of a graph are disposed by a
+ * {@link LoadGraphFactory#onRemove(String, Runnable)} listener when the
+ * graph is removed.
+ */
+public final class GraphStatePool<T> {
+
+    public static final int DEFAULT_MAX_IDLE = Pools.DEFAULT_CONCURRENCY;
+
+    private static final Map<String, Map<String, GraphStatePool<?>>> POOLS = new ConcurrentHashMap<>();
+
+    private final Supplier<T> factory;
+    private final Consumer<T> disposer;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private volatile boolean closed;
+
+    private GraphStatePool(Supplier<T> factory, Consumer<T> disposer, int maxIdle) {
+        this.factory = factory;
+        this.disposer = disposer;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * get or create the pool for the given key of a loaded graph
+     *
+     * @param graphName name of the loaded graph
+     * @param key       identifies the kind of state, the same key must always be used with the same state type
+     * @param factory   creates a new state
+     * @param disposer  frees a state which is no longer pooled
+     */
+    public static <T> GraphStatePool<T> of(
+            String graphName,
+            String key,
+            Supplier<T> factory,
+            Consumer<T> disposer) {
+        return of(graphName, key, factory, disposer, DEFAULT_MAX_IDLE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> GraphStatePool<T> of(
+            String graphName,
+            String key,
+            Supplier<T> factory,
+            Consumer<T> disposer,
+            int maxIdle) {
+        if (!LoadGraphFactory.check(graphName)) {
+            throw new IllegalArgumentException("Graph " + graphName + " is not loaded");
+        }
+        return (GraphStatePool<T>) POOLS
+                .computeIfAbsent(graphName, name -> {
+                    LoadGraphFactory.onRemove(name, () -> removeAll(name));
+                    return new ConcurrentHashMap<>();
+                })
+                .computeIfAbsent(key, k -> new GraphStatePool<>(factory, disposer, maxIdle));
+    }
+
+    /**
+     * dispose all pools of the given graph
+     */
+    private static void removeAll(String graphName) {
+        final Map<String, GraphStatePool<?>> pools = POOLS.remove(graphName);
+        if (pools != null) {
+            pools.values().forEach(GraphStatePool::close);
+        }
+    }
+
+    /**
+     * @return an idle state or a new one if none is available
+     */
+    public T acquire() {
+        final T state = idle.poll();
+        if (state != null) {
+            idleCount.decrementAndGet();
+            reused.incrementAndGet();
+            return state;
+        }
+        created.incrementAndGet();
+        return factory.get();
+    }
+
+    /**
+     * give a state back to the pool
+     */
+    public void release(T state) {
+        if (closed) {
+            disposer.accept(state);
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            disposer.accept(state);
+            return;
+        }
+        idle.offer(state);
+        if (closed) {
+            // the graph has been removed concurrently
+            drain();
+        }
+    }
+
+    /**
+     * @return number of states created by this pool
+     */
+    public long created() {
+        return created.get();
+    }
+
+    /**
+     * @return number of times an idle state has been handed out again
+     */
+    public long reused() {
+        return reused.get();
+    }
+
+    /**
+     * @return number of states waiting to be reused
+     */
+    public int idle() {
+        return Math.max(0, idleCount.get());
+    }
+
+    private void close() {
+        closed = true;
+        drain();
+    }
+
+    private void drain() {
+        T state;
+        while ((state = idle.poll()) != null) {
+            disposer.accept(state);
+        }
+    }
+}
@@ -21,15 +21,19 @@ package org.neo4j.graphalgo.core.loadgraph;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.huge.HugeMultiTypeGraph;
 import org.neo4j.graphalgo.core.neo4jview.GraphView;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class LoadGraphFactory extends GraphFactory {
 
     private final static ConcurrentHashMap<String, Graph> graphs = new ConcurrentHashMap<>();
+    private final static ConcurrentHashMap<String, List<Runnable>> removeListeners = new ConcurrentHashMap<>();
 
     public LoadGraphFactory(
             final GraphDatabaseAPI api,
@@ -39,7 +43,12 @@ public final class LoadGraphFactory extends GraphFactory {
 
     @Override
     public Graph build() {
-        return get(setup.name);
+        Graph graph = get(setup.name);
+        if (graph instanceof HugeMultiTypeGraph && !setup.loadAnyRelationshipType()
+                && !setup.relationshipType.trim().isEmpty()) {
+            return ((HugeMultiTypeGraph) graph).withRelationshipTypes(setup.relationshipType);
+        }
+        return graph;
     }
 
     public static void set(String name, Graph graph) {
@@ -63,6 +72,10 @@ public final class LoadGraphFactory extends GraphFactory {
     public static boolean remove(String name) {
         if (name == null) return false;
         Graph graph = graphs.remove(name);
+        final List<Runnable> listeners = removeListeners.remove(name);
+        if (listeners != null) {
+            listeners.forEach(Runnable::run);
+        }
         if (graph!=null) {
             graph.canRelease(true);
             graph.release();
@@ -71,6 +84,17 @@ public final class LoadGraphFactory extends GraphFactory {
         return false;
     }
 
+    /**
+     * registers a callback which is run once when the graph is removed,
+     * before the graph itself is released
+     */
+    public static void onRemove(String name, Runnable listener) {
+        if (!check(name)) {
+            throw new IllegalArgumentException("Graph name " + name + " is not loaded");
+        }
+        removeListeners.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
     public static String getType(String name) {
         if (name == null) return null;
         Graph graph = graphs.get(name);
@@ -23,6 +23,8 @@ import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Transaction;
@@ -39,6 +41,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
 import java.util.function.*;
 
 /**
@@ -68,6 +71,18 @@ public class GraphView implements Graph {
             String relation,
             String propertyName,
             double propertyDefaultWeight) {
+        this(db, direction, label, relation, propertyName, propertyDefaultWeight, null, 1);
+    }
+
+    public GraphView(
+            GraphDatabaseAPI db,
+            Direction direction,
+            String label,
+            String relation,
+            String propertyName,
+            double propertyDefaultWeight,
+            ExecutorService executor,
+            int concurrency) {
         this.db = db;
         contextBridge = db.getDependencyResolver()
                 .resolveDependency(ThreadToStatementContextBridge.class);
@@ -80,13 +95,19 @@ public class GraphView implements Graph {
             relationTypeId = read.relationshipTypeGetForName(relation);
             propertyKey = read.propertyKeyGetForName(propertyName);
         });
-        idMapping = createIdMapping();
+        idMapping = createIdMapping(executor, concurrency);
     }
 
-    private IdMapping createIdMapping() {
+    private IdMapping createIdMapping(ExecutorService executor, int concurrency) {
         if (labelId == StatementConstants.NO_SUCH_LABEL) return new DirectIdMapping(nodeCount);
+        if (ParallelUtil.canRunInParallel(executor)) {
+            final long highId = ParallelNodeScan.highId(db);
+            if (ParallelNodeScan.isWorthwhile(concurrency, labelId, nodeCount, highId)) {
+                final ParallelNodeScan scan = ParallelNodeScan.scan(db, labelId, highId, executor, concurrency);
+                return IdMap.of(scan, executor, concurrency);
+            }
+        }
         IdMap idMap = new IdMap(nodeCount);
-        // TODO parallelize?
         withinTransaction(read -> {
             PrimitiveLongIterator it = read.nodesGetForLabel(labelId);
             while (it.hasNext()) {
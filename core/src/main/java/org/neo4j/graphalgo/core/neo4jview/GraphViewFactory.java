@@ -47,6 +47,8 @@ public final class GraphViewFactory extends GraphFactory {
                 setup.startLabel,
                 setup.relationshipType,
                 setup.relationWeightPropertyName,
-                setup.relationDefaultWeight);
+                setup.relationDefaultWeight,
+                setup.executor,
+                setup.concurrency());
     }
 }
@@ -0,0 +1,351 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Parallel scan of the node store for building id maps.
+ * <p>
+ * The node id space is split into ranges which are scanned by
+ * {@code concurrency} threads, each within its own transaction. Every
+ * range collects the ids of the existing nodes (with the label, if any)
+ * in ascending order. A prefix sum over the counts yields the first
+ * mapped id of each range so that the id maps can be filled in parallel
+ * afterwards. The mapped ids are dense and in the same ascending order
+ * as the single threaded scan produces them.
+ * <p>
+ * Ranges are aligned to the page size of the paged arrays, so each page
+ * of a sparse original to mapped id array is written by one range only.
+ */
+public final class ParallelNodeScan {
+
+    // align ranges to the pages of LongArray and SparseLongArray
+    public static final int RANGE_ALIGNMENT = PageUtil.pageSizeFor(Long.BYTES);
+    // upper bound of ids per range to keep the buffers small
+    private static final long MAX_RANGE_SIZE = (long) RANGE_ALIGNMENT << 12;
+    // ranges per thread for balancing dense and sparse parts of the store
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final long highId;
+    private final long[][] ids;
+    private final int[] counts;
+    private final long[] offsets;
+    private final long nodeCount;
+
+    private ParallelNodeScan(long highId, long[][] ids, int[] counts) {
+        this.highId = highId;
+        this.ids = ids;
+        this.counts = counts;
+        this.offsets = new long[counts.length];
+        long offset = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            offsets[i] = offset;
+            offset += counts[i];
+        }
+        this.nodeCount = offset;
+    }
+
+    /**
+     * Decides whether a parallel scan pays off. Scanning all ids for a
+     * label only beats the single threaded label index scan if the label
+     * covers a sufficient part of the store.
+     *
+     * @param concurrency the number of scanning threads
+     * @param labelId     the label or {@link ReadOperations#ANY_LABEL}
+     * @param nodeCount   the number of nodes with the label
+     * @param highId      the size of the node id space, see {@link #highId(GraphDatabaseAPI)}
+     */
+    public static boolean isWorthwhile(int concurrency, int labelId, long nodeCount, long highId) {
+        if (concurrency <= 1 || highId <= RANGE_ALIGNMENT) {
+            return false;
+        }
+        return labelId == ReadOperations.ANY_LABEL || nodeCount >= highId / concurrency;
+    }
+
+    /**
+     * @return the upper bound of all node ids in use or -1 if unknown
+     */
+    public static long highId(GraphDatabaseAPI api) {
+        return highId(api, IdType.NODE);
+    }
+
+    /**
+     * @return the upper bound of all ids of the given type in use or -1 if unknown
+     */
+    public static long highId(GraphDatabaseAPI api, IdType idType) {
+        try {
+            return api.getDependencyResolver()
+                    .resolveDependency(IdGeneratorFactory.class)
+                    .get(idType)
+                    .getHighId();
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Visit all nodes (with the label, if any) with the given concurrency
+     * without collecting their ids. Every scanning thread gets its own
+     * visitor from the supplier, the visitors are returned afterwards.
+     */
+    public static <V extends NodeVisitor> List<V> visit(
+            GraphDatabaseAPI api,
+            int labelId,
+            long highId,
+            ExecutorService executor,
+            int concurrency,
+            Supplier<V> visitors) {
+        final long rangeSize = rangeSize(highId, concurrency);
+        final int rangeCount = Math.toIntExact(ParallelUtil.threadSize(rangeSize, highId));
+        final AtomicInteger nextRange = new AtomicInteger();
+        final List<V> result = new ArrayList<>(concurrency);
+        final List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < Math.max(1, Math.min(concurrency, rangeCount)); i++) {
+            final V visitor = visitors.get();
+            result.add(visitor);
+            tasks.add(new VisitTask(api, labelId, highId, rangeSize, rangeCount, nextRange, visitor));
+        }
+        ParallelUtil.run(tasks, executor);
+        return result;
+    }
+
+    public static ParallelNodeScan scan(
+            GraphDatabaseAPI api,
+            int labelId,
+            long highId,
+            ExecutorService executor,
+            int concurrency) {
+        return scan(api, labelId, highId, null, executor, concurrency);
+    }
+
+    /**
+     * scan the node ids in {@code [0, highId)} with the given concurrency
+     *
+     * @param progress receives one progress event per found node, may be null
+     */
+    public static ParallelNodeScan scan(
+            GraphDatabaseAPI api,
+            int labelId,
+            long highId,
+            ImportProgress progress,
+            ExecutorService executor,
+            int concurrency) {
+        final long rangeSize = rangeSize(highId, concurrency);
+        final int rangeCount = Math.toIntExact(ParallelUtil.threadSize(rangeSize, highId));
+        final long[][] ids = new long[rangeCount][];
+        final int[] counts = new int[rangeCount];
+        final AtomicInteger nextRange = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < Math.min(concurrency, rangeCount); i++) {
+            tasks.add(new ScanTask(api, labelId, highId, rangeSize, nextRange, ids, counts, progress));
+        }
+        ParallelUtil.run(tasks, executor);
+        return new ParallelNodeScan(highId, ids, counts);
+    }
+
+    static long rangeSize(long highId, int concurrency) {
+        final long target = ParallelUtil.threadSize(
+                Math.max(1, concurrency) * RANGES_PER_THREAD,
+                highId);
+        final long aligned = ParallelUtil.threadSize(RANGE_ALIGNMENT, target) * RANGE_ALIGNMENT;
+        return Math.max(RANGE_ALIGNMENT, Math.min(MAX_RANGE_SIZE, aligned));
+    }
+
+    /**
+     * the size of the scanned id space, sufficient as capacity of a sparse id map
+     */
+    public long highId() {
+        return highId;
+    }
+
+    /**
+     * number of found nodes
+     */
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * hand the found ids of all ranges to the consumer, in parallel
+     */
+    public void forEachRange(ExecutorService executor, int concurrency, RangeConsumer consumer) {
+        final AtomicInteger nextRange = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < Math.min(Math.max(1, concurrency), ids.length); i++) {
+            tasks.add(() -> {
+                int range;
+                while ((range = nextRange.getAndIncrement()) < ids.length) {
+                    consumer.accept(offsets[range], ids[range], counts[range]);
+                }
+            });
+        }
+        ParallelUtil.run(tasks, executor);
+    }
+
+    /**
+     * Visitor of single nodes, see {@link #visit(GraphDatabaseAPI, int, long, ExecutorService, int, Supplier)}
+     */
+    public interface NodeVisitor {
+        /**
+         * @param readOp  the read operations of the scanning transaction
+         * @param nodeId  the id of an existing node
+         * @return false to stop the scan of this visitor
+         */
+        boolean visit(ReadOperations readOp, long nodeId) throws EntityNotFoundException;
+    }
+
+    /**
+     * Consumer of the nodes of one range.
+     */
+    public interface RangeConsumer {
+        /**
+         * @param firstMappedId the mapped id of the first node
+         * @param nodeIds       the original ids in ascending order
+         * @param length        the number of valid ids in the array
+         */
+        void accept(long firstMappedId, long[] nodeIds, int length);
+    }
+
+    private static final class ScanTask extends StatementTask<Void, EntityNotFoundException> {
+        private final int labelId;
+        private final long highId;
+        private final long rangeSize;
+        private final AtomicInteger nextRange;
+        private final long[][] ids;
+        private final int[] counts;
+        private final ImportProgress progress;
+
+        private ScanTask(
+                GraphDatabaseAPI api,
+                int labelId,
+                long highId,
+                long rangeSize,
+                AtomicInteger nextRange,
+                long[][] ids,
+                int[] counts,
+                ImportProgress progress) {
+            super(api);
+            this.labelId = labelId;
+            this.highId = highId;
+            this.rangeSize = rangeSize;
+            this.nextRange = nextRange;
+            this.ids = ids;
+            this.counts = counts;
+            this.progress = progress;
+        }
+
+        @Override
+        public Void apply(final Statement statement) {
+            final ReadOperations readOp = statement.readOperations();
+            int range;
+            while ((range = nextRange.getAndIncrement()) < ids.length) {
+                final LongArrayList found = new LongArrayList();
+                final long start = range * rangeSize;
+                final long end = Math.min(highId, start + rangeSize);
+                for (long nodeId = start; nodeId < end; nodeId++) {
+                    if (matches(readOp, nodeId)) {
+                        found.add(nodeId);
+                        if (progress != null) {
+                            progress.nodeProgress();
+                        }
+                    }
+                }
+                // the buffer may be larger than the number of ids, avoid the copy
+                ids[range] = found.buffer;
+                counts[range] = found.size();
+            }
+            return null;
+        }
+
+        private boolean matches(ReadOperations readOp, long nodeId) {
+            return ParallelNodeScan.matches(readOp, labelId, nodeId);
+        }
+    }
+
+    private static final class VisitTask extends StatementTask<Void, EntityNotFoundException> {
+        private final int labelId;
+        private final long highId;
+        private final long rangeSize;
+        private final int rangeCount;
+        private final AtomicInteger nextRange;
+        private final NodeVisitor visitor;
+
+        private VisitTask(
+                GraphDatabaseAPI api,
+                int labelId,
+                long highId,
+                long rangeSize,
+                int rangeCount,
+                AtomicInteger nextRange,
+                NodeVisitor visitor) {
+            super(api);
+            this.labelId = labelId;
+            this.highId = highId;
+            this.rangeSize = rangeSize;
+            this.rangeCount = rangeCount;
+            this.nextRange = nextRange;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            int range;
+            while ((range = nextRange.getAndIncrement()) < rangeCount) {
+                final long start = range * rangeSize;
+                final long end = Math.min(highId, start + rangeSize);
+                for (long nodeId = start; nodeId < end; nodeId++) {
+                    if (matches(readOp, labelId, nodeId) && !visitor.visit(readOp, nodeId)) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static boolean matches(ReadOperations readOp, int labelId, long nodeId) {
+        if (!readOp.nodeExists(nodeId)) {
+            return false;
+        }
+        if (labelId == ReadOperations.ANY_LABEL) {
+            return true;
+        }
+        try {
+            return readOp.nodeHasLabel(nodeId, labelId);
+        } catch (EntityNotFoundException e) {
+            // deleted concurrently
+            return false;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.helpers.Exceptions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams one value per node, e.g. a centrality score, as result rows.
+ * <p>
+ * Instead of resolving the original node id and creating a result for
+ * every node on the consuming thread, worker threads fill primitive row
+ * buffers of {@link #BATCH_SIZE} nodes each. Buffers are handed over in
+ * node order through a bounded window of at most twice the concurrency,
+ * so only rows which are actually consumed are boxed into results and
+ * memory stays bounded regardless of the node count. Consumed buffers are
+ * reused.
+ * <p>
+ * Rows can be filtered by a minimum value and restricted to the
+ * {@code k} highest values. The top-k are selected by bounded heaps per
+ * node range which are merged at the end, the rows are then streamed by
+ * descending value, ties by ascending node id.
+ *
+ * <pre>
+ * ParallelResultStream.of(nodeCount, graph::toOriginalNodeId, scores::get)
+ *     .withThreshold(0.5)
+ *     .parallel(Pools.DEFAULT, concurrency)
+ *     .stream(Result::new);
+ * </pre>
+ */
+public final class ParallelResultStream {
+
+    public static final int BATCH_SIZE = 8192;
+
+    /**
+     * creates a result row on the consuming thread
+     */
+    @FunctionalInterface
+    public interface RowMapper<R> {
+        R apply(long originalNodeId, double value);
+    }
+
+    private final long nodeCount;
+    private final LongUnaryOperator toOriginalId;
+    private final LongToDoubleFunction values;
+    private double threshold = Double.NaN;
+    private int topK = -1;
+    private ExecutorService executor;
+    private int concurrency = 1;
+
+    private ParallelResultStream(
+            long nodeCount,
+            LongUnaryOperator toOriginalId,
+            LongToDoubleFunction values) {
+        this.nodeCount = nodeCount;
+        this.toOriginalId = toOriginalId;
+        this.values = values;
+    }
+
+    /**
+     * @param nodeCount    number of nodes
+     * @param toOriginalId maps a node id in [0, nodeCount) to its original id
+     * @param values       the value of a node, must be safe to be called concurrently
+     */
+    public static ParallelResultStream of(
+            long nodeCount,
+            LongUnaryOperator toOriginalId,
+            LongToDoubleFunction values) {
+        return new ParallelResultStream(nodeCount, toOriginalId, values);
+    }
+
+    /**
+     * only stream nodes whose value is at least the given threshold, NaN to stream all
+     */
+    public ParallelResultStream withThreshold(double threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * only stream the k nodes with the highest values, ordered by value, negative to stream all
+     */
+    public ParallelResultStream withTopK(int topK) {
+        this.topK = topK;
+        return this;
+    }
+
+    public ParallelResultStream parallel(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    public <R> Stream<R> stream(RowMapper<R> mapper) {
+        if (topK >= 0) {
+            final long[] nodes = topKNodes();
+            return StreamSupport.stream(Spliterators.spliterator(
+                    new TopKIterator<>(nodes, mapper),
+                    nodes.length,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+        final RowIterator<R> iterator = isParallel()
+                ? new ParallelRowIterator<>(mapper)
+                : new RowIterator<>(mapper);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * selects the nodes with the {@code k} highest values which pass the threshold
+     *
+     * @return node ids in [0, nodeCount) ordered by descending value, ties by ascending node id
+     */
+    public long[] topKNodes() {
+        final int k = (int) Math.min(Math.max(0, topK), nodeCount);
+        if (k == 0) {
+            return new long[0];
+        }
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, BATCH_SIZE);
+        final List<TopKHeap> heaps = new ArrayList<>();
+        final Collection<Runnable> tasks = LazyBatchCollection.of(
+                nodeCount,
+                batchSize,
+                (start, length) -> () -> {
+                    final TopKHeap heap = new TopKHeap(k);
+                    final long end = start + length;
+                    for (long node = start; node < end; node++) {
+                        final double value = values.applyAsDouble(node);
+                        if (accept(value)) {
+                            heap.offer(node, value);
+                        }
+                    }
+                    synchronized (heaps) {
+                        heaps.add(heap);
+                    }
+                });
+        if (isParallel()) {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    tasks,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    TerminationFlag.RUNNING_TRUE,
+                    executor);
+        } else {
+            tasks.forEach(Runnable::run);
+        }
+        final TopKHeap merged = new TopKHeap(k);
+        for (TopKHeap heap : heaps) {
+            for (int i = 0; i < heap.size; i++) {
+                merged.offer(heap.nodes[i], heap.values[i]);
+            }
+        }
+        return merged.drainDescending();
+    }
+
+    private boolean isParallel() {
+        return executor != null && concurrency > 1 && nodeCount > BATCH_SIZE;
+    }
+
+    private boolean accept(double value) {
+        return Double.isNaN(threshold) || value >= threshold;
+    }
+
+    private long batchCount() {
+        return ParallelUtil.threadSize(BATCH_SIZE, nodeCount);
+    }
+
+    /**
+     * fills the rows of the given batch, runs on a worker thread
+     */
+    private Rows fill(long batch, Rows rows) {
+        final long start = batch * BATCH_SIZE;
+        final long end = Math.min(nodeCount, start + BATCH_SIZE);
+        int size = 0;
+        for (long node = start; node < end; node++) {
+            final double value = values.applyAsDouble(node);
+            if (accept(value)) {
+                rows.nodes[size] = toOriginalId.applyAsLong(node);
+                rows.values[size] = value;
+                size++;
+            }
+        }
+        rows.size = size;
+        return rows;
+    }
+
+    private static final class Rows {
+        private final long[] nodes = new long[BATCH_SIZE];
+        private final double[] values = new double[BATCH_SIZE];
+        private int size;
+    }
+
+    /**
+     * fills the buffers on the consuming thread
+     */
+    private class RowIterator<R> implements Iterator<R> {
+
+        private final RowMapper<R> mapper;
+        final long batches = batchCount();
+        long nextBatch;
+        Rows rows;
+        private int index;
+
+        RowIterator(RowMapper<R> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (rows == null || index >= rows.size) {
+                if (nextBatch >= batches) {
+                    return false;
+                }
+                rows = nextRows(rows);
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int i = index++;
+            return mapper.apply(rows.nodes[i], rows.values[i]);
+        }
+
+        Rows nextRows(Rows consumed) {
+            return fill(nextBatch++, consumed == null ? new Rows() : consumed);
+        }
+
+        void close() {
+        }
+    }
+
+    /**
+     * fills the buffers on worker threads, keeps a bounded window of
+     * batches in flight and hands them over in order
+     */
+    private final class ParallelRowIterator<R> extends RowIterator<R> {
+
+        private final int window = concurrency * 2;
+        private final Queue<Future<Rows>> pending = new ArrayDeque<>(window);
+        private final Queue<Rows> free = new ConcurrentLinkedQueue<>();
+        private long submitted;
+
+        ParallelRowIterator(RowMapper<R> mapper) {
+            super(mapper);
+        }
+
+        @Override
+        Rows nextRows(Rows consumed) {
+            if (consumed != null) {
+                free.add(consumed);
+            }
+            while (pending.size() < window && submitted < batches) {
+                final long batch = submitted++;
+                pending.add(executor.submit(() -> {
+                    final Rows rows = free.poll();
+                    return fill(batch, rows == null ? new Rows() : rows);
+                }));
+            }
+            nextBatch++;
+            try {
+                return pending.remove().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                close();
+                throw Exceptions.launderedException(e.getCause());
+            }
+        }
+
+        @Override
+        void close() {
+            Future<Rows> future;
+            while ((future = pending.poll()) != null) {
+                future.cancel(false);
+            }
+            submitted = batches;
+            nextBatch = batches;
+        }
+    }
+
+    private final class TopKIterator<R> implements Iterator<R> {
+
+        private final long[] nodes;
+        private final RowMapper<R> mapper;
+        private int index;
+
+        private TopKIterator(long[] nodes, RowMapper<R> mapper) {
+            this.nodes = nodes;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < nodes.length;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final long node = nodes[index++];
+            return mapper.apply(toOriginalId.applyAsLong(node), values.applyAsDouble(node));
+        }
+    }
+
+    /**
+     * bounded binary min-heap of (node, value) pairs, the root is the worst entry
+     */
+    static final class TopKHeap {
+
+        private final long[] nodes;
+        private final double[] values;
+        private int size;
+
+        TopKHeap(int capacity) {
+            nodes = new long[capacity];
+            values = new double[capacity];
+        }
+
+        void offer(long node, double value) {
+            if (size < nodes.length) {
+                nodes[size] = node;
+                values[size] = value;
+                up(size++);
+            } else if (worse(nodes[0], values[0], node, value)) {
+                nodes[0] = node;
+                values[0] = value;
+                down(0);
+            }
+        }
+
+        /**
+         * empties the heap
+         *
+         * @return the nodes, best first
+         */
+        long[] drainDescending() {
+            final long[] result = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = nodes[0];
+                size--;
+                nodes[0] = nodes[size];
+                values[0] = values[size];
+                down(0);
+            }
+            return result;
+        }
+
+        /**
+         * lower values are worse, NaN is the worst, equal values prefer the lower node id
+         */
+        private static boolean worse(long n1, double v1, long n2, double v2) {
+            final int c = Double.compare(v1, v2);
+            if (Double.isNaN(v1) != Double.isNaN(v2)) {
+                return Double.isNaN(v1);
+            }
+            return c < 0 || (c == 0 && n1 > n2);
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (!worse(nodes[i], values[i], nodes[parent], values[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                final int right = left + 1;
+                int worst = left;
+                if (right < size && worse(nodes[right], values[right], nodes[left], values[left])) {
+                    worst = right;
+                }
+                if (!worse(nodes[worst], values[worst], nodes[i], values[i])) {
+                    break;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            final long n = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = n;
+            final double v = values[i];
+            values[i] = values[j];
+            values[j] = v;
+        }
+    }
+}
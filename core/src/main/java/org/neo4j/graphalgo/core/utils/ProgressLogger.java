@@ -49,6 +49,14 @@ public interface ProgressLogger {
         logProgress(percentDone, NO_MESSAGE);
     }
 
+    /**
+     * report an amount of work done since the last call out of an
+     * expected total. Meant for hot loops, implementations must not
+     * log or read the clock here. Does nothing by default.
+     */
+    default void addProgress(long delta, long total) {
+    }
+
     default void logDone() {
         logDone(NO_MESSAGE);
     }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.dss;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+/**
+ * Disjoint-set-struct over arbitrary long keys.
+ * <p>
+ * Unlike {@link DisjointSetStruct} it does not need a capacity and only
+ * stores the keys which have been united with another key, every other
+ * key is a singleton. This makes it suitable for merging a small number
+ * of existing sets, e.g. the component ids of a previous run.
+ * <p>
+ * The root of each set is its smallest key in unsigned order, so
+ * non-negative keys are always preferred over negative keys and the
+ * result does not depend on the order of the unions.
+ * <p>
+ * The struct is not thread safe. After {@link #compress()} concurrent
+ * calls to {@link #root(long)} are safe as long as no union happens.
+ */
+public final class HashDisjointSetStruct {
+
+    // only non-root keys are stored
+    private final LongLongHashMap parent = new LongLongHashMap();
+    private long unions;
+
+    /**
+     * find the root of the set of p with path compression
+     */
+    public long find(long p) {
+        long root = p;
+        long next;
+        while ((next = parent.getOrDefault(root, root)) != root) {
+            root = next;
+        }
+        while (p != root) {
+            next = parent.get(p);
+            parent.put(p, root);
+            p = next;
+        }
+        return root;
+    }
+
+    /**
+     * union the sets of p and q
+     *
+     * @return true if p and q were in different sets
+     */
+    public boolean union(long p, long q) {
+        final long pSet = find(p);
+        final long qSet = find(q);
+        if (pSet == qSet) {
+            return false;
+        }
+        if (Long.compareUnsigned(pSet, qSet) < 0) {
+            parent.put(qSet, pSet);
+        } else {
+            parent.put(pSet, qSet);
+        }
+        unions++;
+        return true;
+    }
+
+    /**
+     * let every stored key point to its root directly
+     */
+    public HashDisjointSetStruct compress() {
+        final LongArrayList keys = new LongArrayList(parent.size());
+        for (LongCursor cursor : parent.keys()) {
+            keys.add(cursor.value);
+        }
+        for (LongCursor cursor : keys) {
+            find(cursor.value);
+        }
+        return this;
+    }
+
+    /**
+     * the root of p without modifying the struct, only valid after {@link #compress()}
+     */
+    public long root(long p) {
+        return parent.getOrDefault(p, p);
+    }
+
+    /**
+     * the number of successful unions, i.e. the number of sets which have been merged into others
+     */
+    public long unionCount() {
+        return unions;
+    }
+
+    /**
+     * the number of non-root keys
+     */
+    public int size() {
+        return parent.size();
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.logging.Log;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A running algorithm, export or load registered at the {@link JobRegistry}.
+ * <p>
+ * Workers report progress either as a fraction using
+ * {@link #logProgress(double, Supplier)} or as an amount of work using
+ * {@link #addProgress(long, long)}. Both are cheap: the work is added to a
+ * striped counter and the fraction is only written if it advanced by at
+ * least 0.1%. Neither reads the clock nor logs, this is done by the sampler
+ * thread of the registry which also derives the rate from the counter.
+ */
+public final class Job implements ProgressLogger, AutoCloseable {
+
+    public static final long DEFAULT_LOG_INTERVAL_MILLIS = 10_000L;
+
+    private static final double MIN_PERCENT_STEP = 0.001;
+
+    private final long id;
+    private final String name;
+    private final Log log;
+    private final AllocationTracker tracker;
+    private final long logIntervalMillis;
+    private final long startNanos;
+
+    private final LongAdder work = new LongAdder();
+    private volatile long totalWork;
+    private volatile double percent;
+    private volatile Supplier<String> message = NO_MESSAGE;
+
+    // guarded by this
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    private volatile String phase;
+    private long phaseStartNanos;
+
+    // only accessed by the sampler
+    private long lastSampleNanos;
+    private long lastSampleWork;
+    private long lastLogNanos;
+    private volatile double rate;
+
+    private volatile boolean done;
+
+    Job(long id, String name, Log log, AllocationTracker tracker, long logIntervalMillis) {
+        this.id = id;
+        this.name = name;
+        this.log = log;
+        this.tracker = tracker;
+        this.logIntervalMillis = logIntervalMillis;
+        this.startNanos = System.nanoTime();
+        this.lastSampleNanos = startNanos;
+        this.lastLogNanos = startNanos;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * ends the current phase and starts a new one
+     */
+    public synchronized void startPhase(String phase) {
+        endPhase();
+        this.phase = phase;
+        phaseStartNanos = System.nanoTime();
+    }
+
+    public synchronized void endPhase() {
+        if (phase != null) {
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStartNanos);
+            phaseMillis.merge(phase, millis, Long::sum);
+            phase = null;
+        }
+    }
+
+    /**
+     * the current phase or null
+     */
+    public String phase() {
+        return phase;
+    }
+
+    /**
+     * durations of all finished phases in milliseconds, in order of appearance
+     */
+    public synchronized Map<String, Long> phaseMillis() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phaseMillis));
+    }
+
+    @Override
+    public void addProgress(long delta, long total) {
+        work.add(delta);
+        if (totalWork != total) {
+            totalWork = total;
+        }
+    }
+
+    @Override
+    public void logProgress(double percentDone, Supplier<String> msg) {
+        if (percentDone >= percent + MIN_PERCENT_STEP) {
+            percent = percentDone;
+            message = msg;
+        }
+    }
+
+    @Override
+    public void logDone(Supplier<String> msg) {
+        percent = 1.0;
+        message = msg;
+        done = true;
+        doLog(100, msg);
+    }
+
+    /**
+     * progress between 0 and 1
+     */
+    public double progress() {
+        if (done) {
+            return 1.0;
+        }
+        final long total = totalWork;
+        final double counted = total > 0 ? Math.min(1.0, (double) work.sum() / total) : 0.0;
+        return Math.max(percent, counted);
+    }
+
+    /**
+     * work done so far, as reported by {@link #addProgress(long, long)}
+     */
+    public long work() {
+        return work.sum();
+    }
+
+    /**
+     * work per second as seen by the last sample
+     */
+    public double rate() {
+        return rate;
+    }
+
+    public long runningMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * tracked memory in bytes or -1 if the memory is not tracked
+     */
+    public long memoryUsage() {
+        return AllocationTracker.isTracking(tracker) ? tracker.tracked() : -1L;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * ends the current phase, logs completion and removes the job from the registry
+     */
+    @Override
+    public void close() {
+        endPhase();
+        if (!done) {
+            logDone(message);
+        }
+        JobRegistry.remove(this);
+    }
+
+    void sample(long nanos) {
+        final long currentWork = work.sum();
+        final long elapsed = nanos - lastSampleNanos;
+        if (elapsed > 0) {
+            rate = (currentWork - lastSampleWork) * 1e9 / elapsed;
+        }
+        lastSampleWork = currentWork;
+        lastSampleNanos = nanos;
+        if (!done && TimeUnit.NANOSECONDS.toMillis(nanos - lastLogNanos) >= logIntervalMillis) {
+            lastLogNanos = nanos;
+            doLog((int) (progress() * 100), message);
+        }
+    }
+
+    private void doLog(int percent, Supplier<String> msgFactory) {
+        String message = msgFactory != ProgressLogger.NO_MESSAGE ? msgFactory.get() : null;
+        if (message == null || message.isEmpty()) {
+            log.info("[job-%d] %s %d%%", id, name, percent);
+        } else {
+            log.info("[job-%d] %s %d%% %s", id, name, percent, message);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.NullLog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of all running {@link Job}s.
+ * <p>
+ * A single daemon thread samples all registered jobs in a fixed
+ * interval. It computes their rates and logs their progress so
+ * that the workers never have to.
+ */
+public final class JobRegistry {
+
+    public static final long SAMPLE_INTERVAL_MILLIS = 1_000L;
+
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final Map<Long, Job> JOBS = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService sampler;
+
+    private JobRegistry() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static Job start(String name, Log log) {
+        return start(name, log, AllocationTracker.EMPTY);
+    }
+
+    public static Job start(String name, Log log, AllocationTracker tracker) {
+        return start(name, log, tracker, Job.DEFAULT_LOG_INTERVAL_MILLIS);
+    }
+
+    public static Job start(String name, Log log, AllocationTracker tracker, long logIntervalMillis) {
+        final Job job = new Job(
+                IDS.incrementAndGet(),
+                name,
+                log == null ? NullLog.getInstance() : log,
+                tracker == null ? AllocationTracker.EMPTY : tracker,
+                logIntervalMillis);
+        JOBS.put(job.id(), job);
+        ensureSampler();
+        return job;
+    }
+
+    /**
+     * all running jobs ordered by their start
+     */
+    public static List<Job> jobs() {
+        final List<Job> jobs = new ArrayList<>(JOBS.values());
+        jobs.sort(Comparator.comparingLong(Job::id));
+        return jobs;
+    }
+
+    /**
+     * samples all jobs immediately
+     */
+    public static void sample() {
+        final long nanos = System.nanoTime();
+        for (Job job : JOBS.values()) {
+            synchronized (job) {
+                job.sample(nanos);
+            }
+        }
+    }
+
+    static void remove(Job job) {
+        JOBS.remove(job.id());
+    }
+
+    private static void ensureSampler() {
+        if (sampler == null) {
+            synchronized (JobRegistry.class) {
+                if (sampler == null) {
+                    final ScheduledExecutorService service =
+                            Executors.newSingleThreadScheduledExecutor(NamedThreadFactory.daemon("algo-jobs"));
+                    service.scheduleAtFixedRate(
+                            () -> {
+                                // an exception would cancel all further samples
+                                try {
+                                    sample();
+                                } catch (RuntimeException ignored) {
+                                }
+                            },
+                            SAMPLE_INTERVAL_MILLIS,
+                            SAMPLE_INTERVAL_MILLIS,
+                            TimeUnit.MILLISECONDS);
+                    sampler = service;
+                }
+            }
+        }
+    }
+}
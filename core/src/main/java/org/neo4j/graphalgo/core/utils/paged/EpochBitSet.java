@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+/**
+ * A paged bit set which can be cleared in constant time.
+ * <p>
+ * Every slot stores the epoch in which it has been set. A slot is only
+ * contained if its epoch matches the current one, so {@link #clear()}
+ * just advances the epoch. Only when the epoch overflows, after about
+ * 2^31 clears, the tags are zeroed. Not thread safe.
+ */
+public final class EpochBitSet {
+
+    private IntArray epochs;
+    private int epoch = 1;
+
+    public static long estimateMemoryUsage(long size) {
+        return IntArray.estimateMemoryUsage(size);
+    }
+
+    public static EpochBitSet newBitSet(long size, AllocationTracker tracker) {
+        return new EpochBitSet(IntArray.newArray(size, tracker));
+    }
+
+    private EpochBitSet(IntArray epochs) {
+        this.epochs = epochs;
+    }
+
+    public boolean contains(long index) {
+        return epochs.get(index) == epoch;
+    }
+
+    public void put(long index) {
+        epochs.set(index, epoch);
+    }
+
+    /**
+     * add the index if not yet contained
+     *
+     * @return true if the index has been added
+     */
+    public boolean tryPut(long index) {
+        return epochs.set(index, epoch) != epoch;
+    }
+
+    public void remove(long index) {
+        epochs.set(index, 0);
+    }
+
+    /**
+     * remove all indices in O(1)
+     */
+    public void clear() {
+        epoch = nextEpoch(epoch, epochs);
+    }
+
+    /**
+     * @return the number of bytes freed
+     */
+    public long release() {
+        final long freed = epochs.release();
+        epochs = null;
+        return freed;
+    }
+
+    /**
+     * advance the epoch and zero the tags on overflow
+     */
+    static int nextEpoch(int epoch, IntArray epochs) {
+        if (epoch == Integer.MAX_VALUE) {
+            epochs.fill(0);
+            return 1;
+        }
+        return epoch + 1;
+    }
+}
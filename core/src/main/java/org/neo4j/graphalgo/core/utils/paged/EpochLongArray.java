@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+/**
+ * A paged long array which can be reset to its default value in constant time.
+ * <p>
+ * Every slot carries the epoch of its last write. Slots written in an
+ * earlier epoch read as the default value, so {@link #reset()} just
+ * advances the epoch instead of refilling the values. This makes it
+ * suitable for per query state of searches that only touch a small part
+ * of the graph. Not thread safe.
+ */
+public final class EpochLongArray {
+
+    private final long defaultValue;
+    private IntArray epochs;
+    private LongArray values;
+    private int epoch = 1;
+
+    public static long estimateMemoryUsage(long size) {
+        return IntArray.estimateMemoryUsage(size) + LongArray.estimateMemoryUsage(size);
+    }
+
+    public static EpochLongArray newArray(long size, long defaultValue, AllocationTracker tracker) {
+        return new EpochLongArray(
+                IntArray.newArray(size, tracker),
+                LongArray.newArray(size, tracker),
+                defaultValue);
+    }
+
+    private EpochLongArray(IntArray epochs, LongArray values, long defaultValue) {
+        this.epochs = epochs;
+        this.values = values;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the value or the default value if it has not been set since the last reset
+     */
+    public long get(long index) {
+        return epochs.get(index) == epoch ? values.get(index) : defaultValue;
+    }
+
+    public void set(long index, long value) {
+        epochs.set(index, epoch);
+        values.set(index, value);
+    }
+
+    /**
+     * @return true if the value has been set since the last reset
+     */
+    public boolean contains(long index) {
+        return epochs.get(index) == epoch;
+    }
+
+    public long defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * restore the default value of all slots in O(1)
+     */
+    public void reset() {
+        epoch = EpochBitSet.nextEpoch(epoch, epochs);
+    }
+
+    /**
+     * @return the number of bytes freed
+     */
+    public long release() {
+        final long freed = epochs.release() + values.release();
+        epochs = null;
+        values = null;
+        return freed;
+    }
+}
@@ -197,7 +197,7 @@ public final class LongArray extends PagedDataStructure<long[]> {
 
         @Override
         public long toLong(final LongArray data, final long nodeId) {
-            return data.get((int) nodeId);
+            return data.get(nodeId);
         }
     }
 
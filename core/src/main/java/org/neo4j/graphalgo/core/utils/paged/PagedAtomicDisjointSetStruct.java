@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+/**
+ * Lock-free disjoint set structure for long node ids.
+ * <p>
+ * {@link #union(long, long)} and {@link #find(long)} can be called
+ * concurrently. Roots are linked by id (the higher id is attached to the
+ * lower one) using CAS, {@link #find(long)} compresses paths by halving.
+ * The set id of each node is the lowest node id of its set once all
+ * unions are done.
+ *
+ * @see PagedDisjointSetStruct
+ */
+public final class PagedAtomicDisjointSetStruct {
+
+    private PagedAtomicLongArray parent;
+    private final long capacity;
+
+    public PagedAtomicDisjointSetStruct(long capacity, AllocationTracker tracker) {
+        parent = PagedAtomicLongArray.newArray(capacity, tracker);
+        this.capacity = capacity;
+        reset(0L, capacity);
+    }
+
+    /**
+     * turns every node in [start, end) into a set of its own
+     */
+    public PagedAtomicDisjointSetStruct reset(long start, long end) {
+        for (long node = start; node < end; ++node) {
+            parent.set(node, node);
+        }
+        return this;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long find(long p) {
+        long pv;
+        while ((pv = parent.get(p)) != p) {
+            final long gp = parent.get(pv);
+            // path halving, fails harmlessly if p has been moved meanwhile
+            parent.cas(p, pv, gp);
+            p = gp;
+        }
+        return p;
+    }
+
+    public boolean connected(long p, long q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) {
+                return true;
+            }
+            // p may have been linked between both finds
+            if (parent.get(p) == p) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * joins the sets of p and q
+     *
+     * @return true if both have been in different sets, false otherwise
+     */
+    public boolean union(long p, long q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) {
+                return false;
+            }
+            if (p < q) {
+                final long t = p;
+                p = q;
+                q = t;
+            }
+            if (parent.cas(p, p, q)) {
+                return true;
+            }
+        }
+    }
+
+    public long release() {
+        long freed = parent.release();
+        parent = null;
+        return freed;
+    }
+}
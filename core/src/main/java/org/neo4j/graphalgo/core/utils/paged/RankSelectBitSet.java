@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+/**
+ * Bit set over a large id space with rank and select support.
+ * <p>
+ * The bits are stored as plain words. After all bits are set,
+ * {@link #build()} creates a rank directory with the number of set bits
+ * before every block of {@value #BLOCK_WORDS} words and samples the
+ * block of every {@value #SELECT_SAMPLE}th set bit. The directory adds
+ * 0.125 bits per id and the samples 1/16 bit per set bit to the bitmap,
+ * i.e. about 1.13 bits per id plus 1/16 bit per set bit in total.
+ * <p>
+ * {@link #rank(long)} counts the set bits before an index with one
+ * directory lookup and at most {@value #BLOCK_WORDS} popcounts.
+ * {@link #select(long)} finds the n-th set bit by binary searching the
+ * directory between two samples.
+ * <p>
+ * Setting bits in different words is thread safe, bits within the same
+ * word must be set by one thread.
+ */
+public final class RankSelectBitSet {
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = (1 << WORD_SHIFT) - 1;
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_SHIFT = WORD_SHIFT + 3;
+    private static final int SELECT_SAMPLE = 1024;
+    private static final int SELECT_SHIFT = Integer.numberOfTrailingZeros(SELECT_SAMPLE);
+
+    private final long capacity;
+    private final long numWords;
+    private final long numBlocks;
+    private final AllocationTracker tracker;
+
+    private LongArray words;
+    private LongArray blockRanks;
+    private LongArray selectSamples;
+    private long cardinality = -1L;
+
+    /**
+     * upper bound of the memory usage, assuming all bits are set
+     */
+    public static long estimateMemoryUsage(long capacity) {
+        return estimateMemoryUsage(capacity, capacity);
+    }
+
+    /**
+     * @param cardinality the number of set bits
+     */
+    public static long estimateMemoryUsage(long capacity, long cardinality) {
+        final long numWords = (capacity + WORD_MASK) >>> WORD_SHIFT;
+        final long numBlocks = (numWords + BLOCK_WORDS - 1) / BLOCK_WORDS;
+        final long numSamples = (cardinality + SELECT_SAMPLE - 1) >>> SELECT_SHIFT;
+        return LongArray.estimateMemoryUsage(Math.max(1L, numWords))
+                + LongArray.estimateMemoryUsage(numBlocks)
+                + LongArray.estimateMemoryUsage(Math.max(1L, numSamples));
+    }
+
+    public static RankSelectBitSet newBitSet(long capacity, AllocationTracker tracker) {
+        return new RankSelectBitSet(capacity, tracker);
+    }
+
+    private RankSelectBitSet(long capacity, AllocationTracker tracker) {
+        this.capacity = capacity;
+        this.tracker = tracker;
+        this.numWords = (capacity + WORD_MASK) >>> WORD_SHIFT;
+        this.numBlocks = (numWords + BLOCK_WORDS - 1) / BLOCK_WORDS;
+        this.words = LongArray.newArray(Math.max(1L, numWords), tracker);
+    }
+
+    /**
+     * the size of the id space
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * the number of set bits, only available after {@link #build()}
+     */
+    public long cardinality() {
+        assert cardinality >= 0 : "bit set not built";
+        return cardinality;
+    }
+
+    public void set(long index) {
+        assert index < capacity;
+        assert cardinality < 0 : "bit set already built";
+        final long word = index >>> WORD_SHIFT;
+        words.set(word, words.get(word) | (1L << index));
+    }
+
+    public boolean get(long index) {
+        return index >= 0 && index < capacity
+                && (words.get(index >>> WORD_SHIFT) & (1L << index)) != 0L;
+    }
+
+    /**
+     * creates the rank directory and the select samples,
+     * no bits may be set afterwards
+     */
+    public void build() {
+        blockRanks = LongArray.newArray(Math.max(1L, numBlocks), tracker);
+        long count = 0L;
+        for (long block = 0L; block < numBlocks; block++) {
+            blockRanks.set(block, count);
+            final long end = Math.min(numWords, (block + 1) * BLOCK_WORDS);
+            for (long word = block * BLOCK_WORDS; word < end; word++) {
+                count += Long.bitCount(words.get(word));
+            }
+        }
+        cardinality = count;
+
+        selectSamples = LongArray.newArray(Math.max(1L, (count + SELECT_SAMPLE - 1) >>> SELECT_SHIFT), tracker);
+        long nextSample = 0L;
+        long sample = 0L;
+        for (long block = 0L; block < numBlocks && nextSample < count; block++) {
+            final long blockEnd = block + 1 < numBlocks ? blockRanks.get(block + 1) : count;
+            // a block may contain several sampled bits
+            while (nextSample < blockEnd) {
+                selectSamples.set(sample++, block);
+                nextSample += SELECT_SAMPLE;
+            }
+        }
+    }
+
+    /**
+     * @return the number of set bits in {@code [0, index)}
+     */
+    public long rank(long index) {
+        assert cardinality >= 0 : "bit set not built";
+        if (index >= capacity) {
+            return cardinality;
+        }
+        final long word = index >>> WORD_SHIFT;
+        final long block = index >>> BLOCK_SHIFT;
+        long rank = blockRanks.get(block);
+        for (long w = block * BLOCK_WORDS; w < word; w++) {
+            rank += Long.bitCount(words.get(w));
+        }
+        return rank + Long.bitCount(words.get(word) & ((1L << index) - 1L));
+    }
+
+    /**
+     * @return the index of the set bit with the given rank, or -1 if there is none
+     */
+    public long select(long rank) {
+        assert cardinality >= 0 : "bit set not built";
+        if (rank < 0L || rank >= cardinality) {
+            return -1L;
+        }
+        final long sample = rank >>> SELECT_SHIFT;
+        long lo = selectSamples.get(sample);
+        long hi = (rank | (SELECT_SAMPLE - 1)) + 1 < cardinality
+                ? selectSamples.get(sample + 1)
+                : numBlocks - 1;
+        // find the last block that starts at or before the rank
+        while (lo < hi) {
+            final long mid = (lo + hi + 1) >>> 1;
+            if (blockRanks.get(mid) <= rank) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        long remaining = rank - blockRanks.get(lo);
+        long word = lo * BLOCK_WORDS;
+        long bits = words.get(word);
+        int count;
+        while (remaining >= (count = Long.bitCount(bits))) {
+            remaining -= count;
+            bits = words.get(++word);
+        }
+        for (; remaining > 0; remaining--) {
+            bits &= bits - 1L;
+        }
+        return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * @return the number of freed bytes
+     */
+    public long release() {
+        long freed = words.release();
+        if (blockRanks != null) {
+            freed += blockRanks.release();
+            freed += selectSamples.release();
+        }
+        words = null;
+        blockRanks = null;
+        selectSamples = null;
+        return freed;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+
+/**
+ * An indexed d-ary min heap. A higher arity makes the heap flatter which
+ * speeds up add and decrease-key at the cost of more comparisons per pop,
+ * a good fit for Dijkstra-like algorithms which decrease far more keys
+ * than they pop. Positions are stored with an offset of one so that the
+ * zero filled pages mean "not contained".
+ */
+public final class HugeDaryHeap implements HugeIndexedPriorityQueue {
+
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final AllocationTracker tracker;
+    private LongArray heap;
+    private LongArray positions;
+    private DoubleArray costs;
+    private long size;
+
+    public HugeDaryHeap(long capacity, AllocationTracker tracker) {
+        this(capacity, DEFAULT_ARITY, tracker);
+    }
+
+    public HugeDaryHeap(long capacity, int arity, AllocationTracker tracker) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2");
+        }
+        this.arity = arity;
+        this.tracker = tracker;
+        this.heap = LongArray.newArray(capacity, tracker);
+        this.positions = LongArray.newArray(capacity, tracker);
+        this.costs = DoubleArray.newArray(capacity, tracker);
+    }
+
+    public static long estimateMemoryUsage(long capacity) {
+        return shallowSizeOfInstance(HugeDaryHeap.class)
+                + 2L * LongArray.estimateMemoryUsage(capacity)
+                + DoubleArray.estimateMemoryUsage(capacity);
+    }
+
+    @Override
+    public void add(long id, double cost) {
+        assert !contains(id) : "id " + id + " is already contained";
+        costs.set(id, cost);
+        siftUp(size++, id, cost);
+    }
+
+    @Override
+    public void decreaseKey(long id, double cost) {
+        assert contains(id) && cost <= costs.get(id) : "cannot decrease key of " + id;
+        costs.set(id, cost);
+        siftUp(positions.get(id) - 1L, id, cost);
+    }
+
+    @Override
+    public boolean offer(long id, double cost) {
+        final long position = positions.get(id);
+        if (position == 0L) {
+            costs.set(id, cost);
+            siftUp(size++, id, cost);
+            return true;
+        }
+        if (cost < costs.get(id)) {
+            costs.set(id, cost);
+            siftUp(position - 1L, id, cost);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return positions.get(id) != 0L;
+    }
+
+    @Override
+    public double cost(long id) {
+        return costs.get(id);
+    }
+
+    @Override
+    public long top() {
+        return size == 0L ? NONE : heap.get(0L);
+    }
+
+    @Override
+    public double topCost() {
+        return costs.get(heap.get(0L));
+    }
+
+    @Override
+    public long pop() {
+        if (size == 0L) {
+            return NONE;
+        }
+        final long top = heap.get(0L);
+        positions.set(top, 0L);
+        if (--size > 0L) {
+            final long last = heap.get(size);
+            siftDown(0L, last, costs.get(last));
+        }
+        return top;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (long i = 0L; i < size; i++) {
+            positions.set(heap.get(i), 0L);
+        }
+        size = 0L;
+    }
+
+    @Override
+    public void release() {
+        tracker.remove(heap.release());
+        tracker.remove(positions.release());
+        tracker.remove(costs.release());
+        heap = null;
+        positions = null;
+        costs = null;
+        size = 0L;
+    }
+
+    private void siftUp(long index, long id, double cost) {
+        while (index > 0L) {
+            final long parentIndex = (index - 1L) / arity;
+            final long parent = heap.get(parentIndex);
+            if (costs.get(parent) <= cost) {
+                break;
+            }
+            place(index, parent);
+            index = parentIndex;
+        }
+        place(index, id);
+    }
+
+    private void siftDown(long index, long id, double cost) {
+        while (true) {
+            final long first = index * arity + 1L;
+            if (first >= size) {
+                break;
+            }
+            final long end = Math.min(first + arity, size);
+            long minIndex = first;
+            long minId = heap.get(first);
+            double minCost = costs.get(minId);
+            for (long child = first + 1L; child < end; child++) {
+                final long childId = heap.get(child);
+                final double childCost = costs.get(childId);
+                if (childCost < minCost) {
+                    minIndex = child;
+                    minId = childId;
+                    minCost = childCost;
+                }
+            }
+            if (minCost >= cost) {
+                break;
+            }
+            place(index, minId);
+            index = minIndex;
+        }
+        place(index, id);
+    }
+
+    private void place(long index, long id) {
+        heap.set(index, id);
+        positions.set(id, index + 1L);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+/**
+ * A min priority queue for long ids in {@code [0, capacity)} with double
+ * costs. The position of every id is tracked so that the cost of a queued
+ * id can be decreased in place instead of adding a duplicate entry.
+ * Storage is paged and allocated once for the capacity.
+ */
+public interface HugeIndexedPriorityQueue {
+
+    long NONE = -1L;
+
+    /**
+     * adds an id which is not yet contained
+     */
+    void add(long id, double cost);
+
+    /**
+     * lowers the cost of a contained id
+     */
+    void decreaseKey(long id, double cost);
+
+    /**
+     * adds the id or lowers its cost if the given cost is lower
+     *
+     * @return true if the queue changed
+     */
+    default boolean offer(long id, double cost) {
+        if (!contains(id)) {
+            add(id, cost);
+            return true;
+        }
+        if (cost < cost(id)) {
+            decreaseKey(id, cost);
+            return true;
+        }
+        return false;
+    }
+
+    boolean contains(long id);
+
+    /**
+     * @return the cost of a contained id
+     */
+    double cost(long id);
+
+    /**
+     * @return the id with the lowest cost or {@link #NONE} if empty
+     */
+    long top();
+
+    /**
+     * @return the lowest cost, undefined if empty
+     */
+    double topCost();
+
+    /**
+     * removes the id with the lowest cost
+     *
+     * @return the id or {@link #NONE} if empty
+     */
+    long pop();
+
+    long size();
+
+    default boolean isEmpty() {
+        return size() == 0L;
+    }
+
+    /**
+     * removes all ids, takes time linear in the size
+     */
+    void clear();
+
+    /**
+     * releases all buffers, the queue can no longer be used afterwards
+     */
+    void release();
+}
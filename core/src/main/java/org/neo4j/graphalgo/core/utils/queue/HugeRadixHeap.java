@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+
+/**
+ * An indexed monotone radix heap for non-negative costs.
+ * <p>
+ * Costs must never be lower than the last popped cost, which holds for
+ * label setting algorithms like Dijkstra. Non-negative doubles keep their
+ * order when compared by {@link Double#doubleToLongBits(double)}, ids are
+ * kept in 65 buckets by the highest bit in which their key differs from the
+ * last popped key. Only the lowest non-empty bucket is ever redistributed,
+ * so each id moves at most 64 times, independent of the queue size.
+ * <p>
+ * The slot of every id within its bucket is tracked, so decrease-key swaps
+ * the id out of its bucket and appends it to the new one in constant time
+ * instead of adding a duplicate. The bucket of an id is not stored, it
+ * follows from its key and the last popped key.
+ * <p>
+ * Slots are stored with an offset of one so that the zero filled pages
+ * mean "not contained". A single bucket holds at most 2^31 ids.
+ */
+public final class HugeRadixHeap implements HugeIndexedPriorityQueue {
+
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final AllocationTracker tracker;
+    private final LongArrayList[] buckets;
+    private LongArray keys;
+    private LongArray slots;
+    private long last;
+    private long size;
+
+    public HugeRadixHeap(long capacity, AllocationTracker tracker) {
+        this.tracker = tracker;
+        this.buckets = new LongArrayList[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongArrayList();
+        }
+        this.keys = LongArray.newArray(capacity, tracker);
+        this.slots = LongArray.newArray(capacity, tracker);
+    }
+
+    /**
+     * memory usage without the buckets, which hold at most capacity ids in total
+     */
+    public static long estimateMemoryUsage(long capacity) {
+        return shallowSizeOfInstance(HugeRadixHeap.class)
+                + 2L * LongArray.estimateMemoryUsage(capacity);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cost is less than the last popped cost
+     */
+    @Override
+    public void add(long id, double cost) {
+        assert !contains(id) : "id " + id + " is already contained";
+        final long key = key(cost);
+        keys.set(id, key);
+        append(id, bucket(key));
+        ++size;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cost is less than the last popped cost
+     */
+    @Override
+    public void decreaseKey(long id, double cost) {
+        assert contains(id) && cost <= cost(id) : "cannot decrease key of " + id;
+        final long key = key(cost);
+        remove(id, bucket(keys.get(id)));
+        keys.set(id, key);
+        append(id, bucket(key));
+    }
+
+    @Override
+    public boolean offer(long id, double cost) {
+        final long key = key(cost);
+        if (slots.get(id) == 0L) {
+            keys.set(id, key);
+            append(id, bucket(key));
+            ++size;
+            return true;
+        }
+        final long current = keys.get(id);
+        if (key < current) {
+            remove(id, bucket(current));
+            keys.set(id, key);
+            append(id, bucket(key));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return slots.get(id) != 0L;
+    }
+
+    @Override
+    public double cost(long id) {
+        return Double.longBitsToDouble(keys.get(id));
+    }
+
+    @Override
+    public long top() {
+        if (size == 0L) {
+            return NONE;
+        }
+        pull();
+        final LongArrayList bucket = buckets[0];
+        return bucket.get(bucket.size() - 1);
+    }
+
+    @Override
+    public double topCost() {
+        return cost(top());
+    }
+
+    @Override
+    public long pop() {
+        if (size == 0L) {
+            return NONE;
+        }
+        pull();
+        final LongArrayList bucket = buckets[0];
+        final int index = bucket.size() - 1;
+        final long id = bucket.get(index);
+        bucket.elementsCount = index;
+        slots.set(id, 0L);
+        --size;
+        return id;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (LongArrayList bucket : buckets) {
+            final long[] ids = bucket.buffer;
+            for (int i = 0, n = bucket.size(); i < n; i++) {
+                slots.set(ids[i], 0L);
+            }
+            bucket.clear();
+        }
+        last = 0L;
+        size = 0L;
+    }
+
+    @Override
+    public void release() {
+        tracker.remove(keys.release());
+        tracker.remove(slots.release());
+        keys = null;
+        slots = null;
+        for (LongArrayList bucket : buckets) {
+            bucket.release();
+        }
+        size = 0L;
+    }
+
+    private long key(double cost) {
+        // adding 0.0 turns -0.0 into 0.0
+        final long key = Double.doubleToLongBits(cost + 0.0);
+        if (key < last) {
+            throw new IllegalArgumentException(
+                    "cost " + cost + " is less than the last popped cost " + Double.longBitsToDouble(last));
+        }
+        return key;
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void append(long id, int bucket) {
+        final LongArrayList ids = buckets[bucket];
+        slots.set(id, ids.size() + 1L);
+        ids.add(id);
+    }
+
+    /**
+     * fills the slot of the id with the last id of its bucket
+     */
+    private void remove(long id, int bucket) {
+        final LongArrayList ids = buckets[bucket];
+        final int slot = (int) (slots.get(id) - 1L);
+        final int lastSlot = ids.size() - 1;
+        final long moved = ids.buffer[lastSlot];
+        ids.buffer[slot] = moved;
+        slots.set(moved, slot + 1L);
+        ids.elementsCount = lastSlot;
+        slots.set(id, 0L);
+    }
+
+    /**
+     * make sure bucket 0 is not empty by redistributing the lowest non-empty bucket
+     */
+    private void pull() {
+        if (!buckets[0].isEmpty()) {
+            return;
+        }
+        int bucket = 1;
+        while (buckets[bucket].isEmpty()) {
+            ++bucket;
+        }
+        final LongArrayList ids = buckets[bucket];
+        final long[] buffer = ids.buffer;
+        final int count = ids.size();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, keys.get(buffer[i]));
+        }
+        last = min;
+        // all ids move into lower buckets, so the buffer is not modified while iterating
+        ids.elementsCount = 0;
+        for (int i = 0; i < count; i++) {
+            final long id = buffer[i];
+            append(id, bucket(keys.get(id)));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.scheduler;
+
+import java.util.Locale;
+
+/**
+ * Priority classes of the {@link QueryScheduler}. Every class has its
+ * own worker pool, a limit of concurrently running jobs and a cap of
+ * the concurrency a single job may use so that long running analytics
+ * can never block short, latency sensitive queries.
+ */
+public enum Priority {
+
+    /**
+     * short queries like point to point searches. Many of them may run
+     * side by side but each one only gets a small share of the workers.
+     */
+    INTERACTIVE(1.0, 4.0, 0.25),
+
+    /**
+     * the default for all algorithms
+     */
+    NORMAL(1.0, 1.0, 1.0),
+
+    /**
+     * long running global analytics. Restricted to half of the cores.
+     */
+    BATCH(0.5, 0.5, 1.0);
+
+    private final double threadShare;
+    private final double jobsPerThread;
+    private final double jobShare;
+
+    Priority(double threadShare, double jobsPerThread, double jobShare) {
+        this.threadShare = threadShare;
+        this.jobsPerThread = jobsPerThread;
+        this.jobShare = jobShare;
+    }
+
+    /**
+     * number of worker threads of this class
+     */
+    public int parallelism(int cores) {
+        return Math.max(1, (int) (cores * threadShare));
+    }
+
+    /**
+     * number of jobs which may run at the same time
+     */
+    public int maxRunning(int cores) {
+        return Math.max(1, (int) (parallelism(cores) * jobsPerThread));
+    }
+
+    /**
+     * maximum concurrency of a single job
+     */
+    public int maxJobConcurrency(int cores) {
+        return Math.max(1, (int) (parallelism(cores) * jobShare));
+    }
+
+    public static Priority parse(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return NORMAL;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority: " + name);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.scheduler;
+
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for many concurrent algorithm calls on shared graphs.
+ * <p>
+ * Every {@link Priority} owns a work stealing pool and a limit of jobs
+ * which may run at the same time. A job first waits in its class until
+ * a slot is free and then gets a {@link Ticket} with an executor that
+ * never runs more than the granted concurrency of tasks at once. Tasks
+ * of all admitted jobs of a class are interleaved in FIFO order on the
+ * same workers, so no single job is able to starve the others and a
+ * batch computation never blocks interactive queries.
+ */
+public final class QueryScheduler {
+
+    public static final QueryScheduler DEFAULT = new QueryScheduler(Pools.DEFAULT_CONCURRENCY);
+
+    private static final long POLL_INTERVAL_MILLIS = 10L;
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+
+    public QueryScheduler(int cores) {
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane(priority, Math.max(1, cores)));
+        }
+    }
+
+    /**
+     * waits until the job may run in its priority class.
+     *
+     * @param priority        the priority class
+     * @param concurrency     the desired concurrency, capped by the class
+     * @param terminationFlag aborts waiting if the query gets terminated
+     * @return the ticket which has to be closed after the job finished
+     */
+    public Ticket admit(Priority priority, int concurrency, TerminationFlag terminationFlag) {
+        final Lane lane = lanes.get(priority);
+        final long start = System.nanoTime();
+        lane.queued.incrementAndGet();
+        try {
+            while (!lane.slots.tryAcquire(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!terminationFlag.running()) {
+                    lane.cancelled.incrementAndGet();
+                    throw new IllegalStateException(
+                            "Query terminated while waiting in " + lane.name + " queue");
+                }
+            }
+        } catch (InterruptedException e) {
+            lane.cancelled.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting in " + lane.name + " queue", e);
+        } finally {
+            lane.queued.decrementAndGet();
+        }
+        final long waitNanos = System.nanoTime() - start;
+        lane.admitted(waitNanos);
+        final int granted = Math.max(1, Math.min(concurrency, lane.maxJobConcurrency));
+        return new Ticket(lane, new QuotaExecutor(lane.pool, granted), waitNanos);
+    }
+
+    /**
+     * current queueing metrics of all priority classes
+     */
+    public List<QueueStats> stats() {
+        final List<QueueStats> stats = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes.values()) {
+            stats.add(new QueueStats(lane));
+        }
+        return stats;
+    }
+
+    /**
+     * stops all workers, only meant for schedulers created by tests
+     */
+    public void shutdown() {
+        for (Lane lane : lanes.values()) {
+            lane.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Grant to run one job. Closing the ticket frees the slot and
+     * rejects all further tasks of the job.
+     */
+    public static final class Ticket implements AutoCloseable {
+
+        private final Lane lane;
+        private final QuotaExecutor executor;
+        private final long waitNanos;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Ticket(Lane lane, QuotaExecutor executor, long waitNanos) {
+            this.lane = lane;
+            this.executor = executor;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * executor for all parallel tasks of the job
+         */
+        public ExecutorService executor() {
+            return executor;
+        }
+
+        /**
+         * the concurrency the job is allowed to use
+         */
+        public int concurrency() {
+            return executor.quota();
+        }
+
+        public Priority priority() {
+            return lane.priority;
+        }
+
+        public long waitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                executor.shutdown();
+                lane.completed();
+            }
+        }
+    }
+
+    /**
+     * snapshot of the queueing metrics of one priority class
+     */
+    public static final class QueueStats {
+        public final Priority priority;
+        public final int parallelism;
+        public final int maxRunning;
+        public final int maxJobConcurrency;
+        public final int running;
+        public final int queued;
+        public final long admitted;
+        public final long completed;
+        public final long cancelled;
+        public final double avgWaitMillis;
+        public final double maxWaitMillis;
+        public final int activeThreads;
+        public final long queuedTasks;
+        public final long steals;
+
+        private QueueStats(Lane lane) {
+            this.priority = lane.priority;
+            this.parallelism = lane.pool.getParallelism();
+            this.maxRunning = lane.maxRunning;
+            this.maxJobConcurrency = lane.maxJobConcurrency;
+            this.running = lane.running.get();
+            this.queued = lane.queued.get();
+            this.admitted = lane.admitted.get();
+            this.completed = lane.completed.get();
+            this.cancelled = lane.cancelled.get();
+            this.avgWaitMillis = admitted == 0
+                    ? 0.0
+                    : lane.totalWaitNanos.get() / 1e6 / admitted;
+            this.maxWaitMillis = lane.maxWaitNanos.get() / 1e6;
+            this.activeThreads = lane.pool.getActiveThreadCount();
+            this.queuedTasks = lane.pool.getQueuedTaskCount() + lane.pool.getQueuedSubmissionCount();
+            this.steals = lane.pool.getStealCount();
+        }
+    }
+
+    private static final class Lane {
+        private final Priority priority;
+        private final String name;
+        private final int maxRunning;
+        private final int maxJobConcurrency;
+        private final ForkJoinPool pool;
+        private final Semaphore slots;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Lane(Priority priority, int cores) {
+            this.priority = priority;
+            this.name = priority.name().toLowerCase(Locale.ROOT);
+            this.maxRunning = priority.maxRunning(cores);
+            this.maxJobConcurrency = priority.maxJobConcurrency(cores);
+            this.slots = new Semaphore(maxRunning, true);
+            this.pool = new ForkJoinPool(
+                    priority.parallelism(cores),
+                    threadFactory("algo-" + name),
+                    null,
+                    true);
+        }
+
+        private void admitted(long waitNanos) {
+            running.incrementAndGet();
+            admitted.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        private void completed() {
+            running.decrementAndGet();
+            completed.incrementAndGet();
+            slots.release();
+        }
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory(String prefix) {
+        final AtomicInteger ids = new AtomicInteger();
+        return pool -> {
+            final ForkJoinWorkerThread thread =
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + "-" + ids.incrementAndGet());
+            return thread;
+        };
+    }
+}
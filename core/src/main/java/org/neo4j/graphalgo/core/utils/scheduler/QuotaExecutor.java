@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor view on a shared worker pool which runs at most {@code quota}
+ * tasks of one job at the same time. Additional tasks are queued locally
+ * and handed to the pool whenever one of the running tasks finishes, so
+ * a single job can never occupy more than its share of the workers.
+ * <p>
+ * Shutting the executor down only affects the tasks of this job, the
+ * underlying pool keeps running.
+ */
+final class QuotaExecutor extends AbstractExecutorService {
+
+    private final Executor pool;
+    private final int quota;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile boolean shutdown;
+
+    QuotaExecutor(Executor pool, int quota) {
+        this.pool = pool;
+        this.quota = Math.max(1, quota);
+    }
+
+    int quota() {
+        return quota;
+    }
+
+    /**
+     * number of tasks which currently occupy a worker
+     */
+    int running() {
+        return running.get();
+    }
+
+    /**
+     * number of tasks waiting for a free slot of the quota
+     */
+    int pending() {
+        return pending.size();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("job already finished");
+        }
+        unfinished.incrementAndGet();
+        pending.add(command);
+        drain();
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            final int current = running.get();
+            if (current >= quota) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            final Runnable next = pending.poll();
+            if (next == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                pool.execute(() -> runTask(next));
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                done();
+                throw e;
+            }
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            running.decrementAndGet();
+            done();
+            drain();
+        }
+    }
+
+    private void done() {
+        if (unfinished.decrementAndGet() == 0) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final List<Runnable> dropped = new ArrayList<>();
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            dropped.add(task);
+            done();
+        }
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        return dropped;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && unfinished.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!isTerminated()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+        return true;
+    }
+}
@@ -25,12 +25,15 @@ import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
-import org.neo4j.graphalgo.core.utils.ProgressLogger;
-import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.StatementApi;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.TransientFailureException;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.DataWriteOperations;
+import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -40,7 +43,7 @@ import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntFunction;
 import java.util.function.LongUnaryOperator;
 
@@ -48,11 +51,20 @@ public final class Exporter extends StatementApi {
 
     private static final long MIN_BATCH_SIZE = 10_000L;
     private static final long MAX_BATCH_SIZE = 100_000L;
+    private static final int MAX_RETRIES = 10;
+    public static final int DEFAULT_RELATIONSHIP_BATCH_SIZE = 10_000;
     public static final String TASK_EXPORT = "EXPORT";
+    public static final String TASK_RELATIONSHIP_EXPORT = "RELATIONSHIP_EXPORT";
 
     private final TerminationFlag terminationFlag;
     private final ExecutorService executorService;
-    private final ProgressLogger progressLogger;
+    private final Log log;
+    private final long logIntervalMillis;
+    private final double tolerance;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder relationships = new LongAdder();
+    private final int relationshipBatchSize;
     private final int concurrency;
     private final long nodeCount;
     private final LongUnaryOperator toOriginalId;
@@ -68,6 +80,14 @@ public final class Exporter extends StatementApi {
         return new Builder(db, mapping);
     }
 
+    /**
+     * export values of an arbitrary selection of nodes, the translators
+     * are called with the index of the node in {@code [0, nodeCount)}
+     */
+    public static Builder of(GraphDatabaseAPI db, long nodeCount, LongUnaryOperator toOriginalId) {
+        return new Builder(db, nodeCount, toOriginalId);
+    }
+
     public static final class Builder {
 
         private final GraphDatabaseAPI db;
@@ -75,7 +95,10 @@ public final class Exporter extends StatementApi {
         private final long nodeCount;
         private TerminationFlag terminationFlag;
         private ExecutorService executorService;
-        private ProgressLoggerAdapter loggerAdapter;
+        private Log log;
+        private long logIntervalMillis = Job.DEFAULT_LOG_INTERVAL_MILLIS;
+        private double tolerance = -1.0;
+        private int relationshipBatchSize = DEFAULT_RELATIONSHIP_BATCH_SIZE;
         private int concurrency = Pools.DEFAULT_CONCURRENCY;
 
         private Builder(GraphDatabaseAPI db, IdMapping idMapping) {
@@ -92,20 +115,49 @@ public final class Exporter extends StatementApi {
             this.toOriginalId = idMapping::toOriginalNodeId;
         }
 
+        private Builder(GraphDatabaseAPI db, long nodeCount, LongUnaryOperator toOriginalId) {
+            this.db = Objects.requireNonNull(db);
+            this.nodeCount = nodeCount;
+            this.toOriginalId = Objects.requireNonNull(toOriginalId);
+        }
+
         public Builder withLog(Log log) {
-            loggerAdapter = new ProgressLoggerAdapter(Objects.requireNonNull(log), TASK_EXPORT);
+            this.log = Objects.requireNonNull(log);
             return this;
         }
 
         public Builder withLogInterval(long time, TimeUnit unit) {
-            if (loggerAdapter == null) {
+            if (log == null) {
                 throw new IllegalStateException("no logger set");
             }
             final long logTime = unit.toMillis(time);
             if ((int)logTime != logTime) {
                 throw new IllegalArgumentException("timespan too large");
             }
-            loggerAdapter.withLogIntervalMillis((int) logTime);
+            logIntervalMillis = logTime;
+            return this;
+        }
+
+        /**
+         * read the existing value before writing and skip the write if
+         * it did not change. Numbers are compared within the tolerance,
+         * a tolerance of 0 compares all values for equality. A negative
+         * tolerance writes every value without reading (the default).
+         */
+        public Builder skipUnchanged(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * maximum number of relationships created in a single transaction
+         * by {@link #writeRelationships(String, String[], long, RelationshipWriter)}
+         */
+        public Builder withRelationshipBatchSize(int relationshipBatchSize) {
+            if (relationshipBatchSize <= 0) {
+                throw new IllegalArgumentException("relationship batch size must be positive");
+            }
+            this.relationshipBatchSize = relationshipBatchSize;
             return this;
         }
 
@@ -117,13 +169,10 @@ public final class Exporter extends StatementApi {
         }
 
         public Exporter build() {
-            ProgressLogger progressLogger = loggerAdapter == null
-                    ? ProgressLogger.NULL_LOGGER
-                    : loggerAdapter;
             TerminationFlag flag = terminationFlag == null
                     ? TerminationFlag.RUNNING_TRUE
                     : terminationFlag;
-            return new Exporter(db, nodeCount, toOriginalId, flag, progressLogger, concurrency, executorService);
+            return new Exporter(db, nodeCount, toOriginalId, flag, log, logIntervalMillis, tolerance, relationshipBatchSize, concurrency, executorService);
         }
     }
 
@@ -135,19 +184,46 @@ public final class Exporter extends StatementApi {
         void accept(DataWriteOperations ops, int relationshipId, int propertyId) throws KernelException;
     }
 
+    /**
+     * creates relationships between mapped node ids. Property values
+     * are given in the order of the property names passed to
+     * {@link #writeRelationships(String, String[], long, RelationshipWriter)}.
+     */
+    public interface RelationshipCreator {
+        void create(long source, long target) throws KernelException;
+
+        void create(long source, long target, double value) throws KernelException;
+
+        void create(long source, long target, double... values) throws KernelException;
+    }
+
+    /**
+     * emits the relationships of a single element, e.g. the relationships
+     * starting at a node or a single entry of a relationship list
+     */
+    public interface RelationshipWriter {
+        void accept(RelationshipCreator creator, long index) throws KernelException;
+    }
+
     private Exporter(
             GraphDatabaseAPI db,
             long nodeCount,
             LongUnaryOperator toOriginalId,
             TerminationFlag terminationFlag,
-            ProgressLogger log,
+            Log log,
+            long logIntervalMillis,
+            double tolerance,
+            int relationshipBatchSize,
             int concurrency,
             ExecutorService executorService) {
         super(db);
         this.nodeCount = nodeCount;
         this.toOriginalId = toOriginalId;
         this.terminationFlag = terminationFlag;
-        this.progressLogger = log;
+        this.log = log;
+        this.logIntervalMillis = logIntervalMillis;
+        this.tolerance = tolerance;
+        this.relationshipBatchSize = relationshipBatchSize;
         this.concurrency = concurrency;
         this.executorService = executorService;
     }
@@ -196,9 +272,9 @@ public final class Exporter extends StatementApi {
         }
         final WriteConsumer writer = createWriter.apply(propertyId);
         if (ParallelUtil.canRunInParallel(executorService)) {
-            writeParallel(writer);
+            writeParallel((read, ops, nodeId) -> writer.accept(ops, nodeId));
         } else {
-            writeSequential(writer);
+            writeSequential((read, ops, nodeId) -> writer.accept(ops, nodeId));
         }
     }
 
@@ -233,11 +309,166 @@ public final class Exporter extends StatementApi {
         }
     }
 
+    /**
+     * Creates relationships in parallel. The range [0, count) of elements
+     * is partitioned into batches which are written concurrently, every
+     * batch commits a transaction after at most relationshipBatchSize
+     * created relationships. Use the node count and emit the relationships
+     * starting at each node to partition by source node range.
+     *
+     * @param relationshipType type of the created relationships
+     * @param properties       names of the relationship properties
+     * @param count            number of elements
+     * @param writer           emits the relationships of a single element
+     */
+    public void writeRelationships(
+            String relationshipType,
+            String[] properties,
+            long count,
+            RelationshipWriter writer) {
+        final int typeId = getOrCreateRelationshipId(relationshipType);
+        if (typeId == -1) {
+            throw new IllegalStateException("no write relationship type id is set");
+        }
+        final int[] propertyIds = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            propertyIds[i] = getOrCreatePropertyId(properties[i]);
+            if (propertyIds[i] == -1) {
+                throw new IllegalStateException("no write property id is set");
+            }
+        }
+        final long batchSize = ParallelUtil.adjustBatchSize(
+                count,
+                concurrency,
+                MIN_BATCH_SIZE,
+                MAX_BATCH_SIZE);
+        final long before = relationships.sum();
+        final long startTime = System.nanoTime();
+        final Job job = JobRegistry.start(TASK_RELATIONSHIP_EXPORT, log, AllocationTracker.EMPTY, logIntervalMillis);
+        final Collection<Runnable> runnables = LazyBatchCollection.of(
+                count,
+                batchSize,
+                (start, len) -> () -> {
+                    final long end = start + len;
+                    long index = start;
+                    int retries = 0;
+                    while (index < end) {
+                        final BatchedRelationshipCreator creator;
+                        try {
+                            creator = writeRelationshipBatch(typeId, propertyIds, writer, index, end);
+                        } catch (TransientFailureException e) {
+                            // e.g. deadlocks between batches sharing nodes, the batch was rolled back
+                            if (++retries > MAX_RETRIES) {
+                                throw e;
+                            }
+                            continue;
+                        }
+                        relationships.add(creator.created);
+                        job.addProgress(creator.next - index, count);
+                        index = creator.next;
+                    }
+                });
+        try {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    runnables,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    terminationFlag,
+                    executorService
+            );
+        } finally {
+            job.close();
+        }
+        if (log != null) {
+            final long created = relationships.sum() - before;
+            final long millis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            log.info("Wrote %d relationships in %d ms (%d relationships/s)", created, millis, created * 1000L / millis);
+        }
+    }
+
+    private BatchedRelationshipCreator writeRelationshipBatch(
+            int typeId,
+            int[] propertyIds,
+            RelationshipWriter writer,
+            long start,
+            long end) {
+        try {
+            return applyInTransaction(stmt -> {
+                final BatchedRelationshipCreator creator = new BatchedRelationshipCreator(
+                        stmt.dataWriteOperations(),
+                        typeId,
+                        propertyIds);
+                long index = start;
+                while (index < end && creator.created < relationshipBatchSize) {
+                    writer.accept(creator, index++);
+                }
+                creator.next = index;
+                return creator;
+            });
+        } catch (KernelException e) {
+            throw Exceptions.launderedException(e);
+        }
+    }
+
+    private final class BatchedRelationshipCreator implements RelationshipCreator {
+        private final DataWriteOperations ops;
+        private final int typeId;
+        private final int[] propertyIds;
+        private int created;
+        private long next;
+
+        private BatchedRelationshipCreator(DataWriteOperations ops, int typeId, int[] propertyIds) {
+            this.ops = ops;
+            this.typeId = typeId;
+            this.propertyIds = propertyIds;
+        }
+
+        @Override
+        public void create(long source, long target) throws KernelException {
+            createRelationship(source, target);
+        }
+
+        @Override
+        public void create(long source, long target, double value) throws KernelException {
+            checkPropertyCount(1);
+            final long relationshipId = createRelationship(source, target);
+            ops.relationshipSetProperty(relationshipId, DefinedProperty.doubleProperty(propertyIds[0], value));
+        }
+
+        @Override
+        public void create(long source, long target, double... values) throws KernelException {
+            checkPropertyCount(values.length);
+            final long relationshipId = createRelationship(source, target);
+            for (int i = 0; i < values.length; i++) {
+                ops.relationshipSetProperty(relationshipId, DefinedProperty.doubleProperty(propertyIds[i], values[i]));
+            }
+        }
+
+        private void checkPropertyCount(int count) {
+            if (count > propertyIds.length) {
+                throw new IllegalArgumentException(String.format(
+                        "%d property values given but only %d properties were passed to writeRelationships",
+                        count,
+                        propertyIds.length));
+            }
+        }
+
+        private long createRelationship(long source, long target) throws KernelException {
+            ++created;
+            return ops.relationshipCreate(
+                    typeId,
+                    toOriginalId.applyAsLong(source),
+                    toOriginalId.applyAsLong(target));
+        }
+    }
+
     private <T> void writeSequential(
             int propertyId,
             T data,
             PropertyTranslator<T> translator) {
-        writeSequential((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
+        writeSequential((read, ops, offset) -> doWrite(propertyId, data, translator, read, ops, offset));
     }
 
     private <T, U> void writeSequential(
@@ -247,14 +478,14 @@ public final class Exporter extends StatementApi {
             int propertyId2,
             U data2,
             PropertyTranslator<U> translator2) {
-        writeSequential((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
+        writeSequential((read, ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, read, ops, offset));
     }
 
     private <T> void writeParallel(
             int propertyId,
             T data,
             PropertyTranslator<T> translator) {
-        writeParallel((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
+        writeParallel((read, ops, offset) -> doWrite(propertyId, data, translator, read, ops, offset));
     }
 
     private <T, U> void writeParallel(
@@ -264,17 +495,17 @@ public final class Exporter extends StatementApi {
             int propertyId2,
             U data2,
             PropertyTranslator<U> translator2) {
-        writeParallel((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
+        writeParallel((read, ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, read, ops, offset));
     }
 
-    private void writeSequential(WriteConsumer writer) {
-        try {
+    private void writeSequential(NodeWriter writer) {
+        try (Job job = JobRegistry.start(TASK_EXPORT, log, AllocationTracker.EMPTY, logIntervalMillis)) {
             acceptInTransaction(stmt -> {
-                long progress = 0L;
+                ReadOperations read = stmt.readOperations();
                 DataWriteOperations ops = stmt.dataWriteOperations();
                 for (long i = 0L; i < nodeCount; i++) {
-                    writer.accept(ops, i);
-                    progressLogger.logProgress(++progress, nodeCount);
+                    writer.accept(read, ops, i);
+                    job.addProgress(1L, nodeCount);
                 }
             });
         } catch (KernelException e) {
@@ -282,13 +513,13 @@ public final class Exporter extends StatementApi {
         }
     }
 
-    private void writeParallel(WriteConsumer writer) {
+    private void writeParallel(NodeWriter writer) {
         final long batchSize = ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
                 MIN_BATCH_SIZE,
                 MAX_BATCH_SIZE);
-        final AtomicLong progress = new AtomicLong(0L);
+        final Job job = JobRegistry.start(TASK_EXPORT, log, AllocationTracker.EMPTY, logIntervalMillis);
         final Collection<Runnable> runnables = LazyBatchCollection.of(
                 nodeCount,
                 batchSize,
@@ -296,41 +527,43 @@ public final class Exporter extends StatementApi {
                     try {
                         acceptInTransaction(stmt -> {
                             long end = start + len;
+                            ReadOperations read = stmt.readOperations();
                             DataWriteOperations ops = stmt.dataWriteOperations();
                             for (long j = start; j < end; j++) {
-                                writer.accept(ops, j);
-                                progressLogger.logProgress(
-                                        progress.incrementAndGet(),
-                                        nodeCount);
+                                writer.accept(read, ops, j);
                             }
+                            // once per batch, the job is sampled and logged elsewhere
+                            job.addProgress(len, nodeCount);
                         });
                     } catch (KernelException e) {
                         throw Exceptions.launderedException(e);
                     }
                 });
-        ParallelUtil.runWithConcurrency(
-                concurrency,
-                runnables,
-                Integer.MAX_VALUE,
-                10L,
-                TimeUnit.MICROSECONDS,
-                terminationFlag,
-                executorService
-        );
+        try {
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    runnables,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    terminationFlag,
+                    executorService
+            );
+        } finally {
+            job.close();
+        }
     }
 
     private <T> void doWrite(
             int propertyId,
             T data,
             PropertyTranslator<T> trans,
+            ReadOperations read,
             DataWriteOperations ops,
             long nodeId) throws KernelException {
         DefinedProperty prop = trans.toProperty(propertyId, data, nodeId);
         if (prop != null) {
-            ops.nodeSetProperty(
-                    toOriginalId.applyAsLong(nodeId),
-                    prop
-            );
+            setProperty(read, ops, toOriginalId.applyAsLong(nodeId), prop);
         }
     }
 
@@ -341,17 +574,71 @@ public final class Exporter extends StatementApi {
             int propertyId2,
             U data2,
             PropertyTranslator<U> translator2,
+            ReadOperations read,
             DataWriteOperations ops,
             long nodeId) throws KernelException {
         final long originalNodeId = toOriginalId.applyAsLong(nodeId);
         DefinedProperty prop1 = translator1.toProperty(propertyId1, data1, nodeId);
         if (prop1 != null) {
-            ops.nodeSetProperty(originalNodeId, prop1);
+            setProperty(read, ops, originalNodeId, prop1);
         }
         DefinedProperty prop2 = translator2.toProperty(propertyId2, data2, nodeId);
         if (prop2 != null) {
-            ops.nodeSetProperty(originalNodeId, prop2);
+            setProperty(read, ops, originalNodeId, prop2);
+        }
+    }
+
+    private void setProperty(
+            ReadOperations read,
+            DataWriteOperations ops,
+            long originalNodeId,
+            DefinedProperty prop) throws KernelException {
+        if (tolerance >= 0.0 && isUnchanged(read.nodeGetProperty(originalNodeId, prop.propertyKeyId()), prop)) {
+            skipped.increment();
+            return;
+        }
+        ops.nodeSetProperty(originalNodeId, prop);
+        written.increment();
+    }
+
+    private boolean isUnchanged(Object existing, DefinedProperty prop) {
+        if (existing == null) {
+            return false;
         }
+        if (tolerance > 0.0 && existing instanceof Number) {
+            final Object value = prop.value();
+            if (value instanceof Number) {
+                return Math.abs(((Number) existing).doubleValue() - ((Number) value).doubleValue()) <= tolerance;
+            }
+        }
+        return prop.valueEquals(existing);
+    }
+
+    /**
+     * number of properties written by translator based writes
+     */
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    /**
+     * number of properties which have not been written because
+     * they were unchanged, see {@link Builder#skipUnchanged(double)}
+     */
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * number of relationships created by
+     * {@link #writeRelationships(String, String[], long, RelationshipWriter)}
+     */
+    public long relationshipCount() {
+        return relationships.sum();
+    }
+
+    private interface NodeWriter {
+        void accept(ReadOperations read, DataWriteOperations ops, long nodeId) throws KernelException;
     }
 
     private int getOrCreatePropertyId(String propertyName) {
@@ -0,0 +1,590 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes translator backed algorithm results into local files instead
+ * of the graph store. Every batch of nodes is written into its own
+ * file segment ({@code <name>-00000.csv}, {@code <name>-00001.csv}, ...)
+ * so that segments can be written in parallel and consumed independently.
+ * The first column always holds the original node id.
+ * <p>
+ * CSV segments start with a header line. Absent values of optional
+ * translators are written as empty fields.
+ * <p>
+ * Binary segments are columnar and big endian:
+ * <pre>
+ * int    magic ({@link #MAGIC})
+ * byte   version
+ * long   offset of the first row
+ * long   number of rows
+ * int    number of columns
+ * (utf   name, byte type ('L', 'I' or 'D')) per column
+ * the values of the first column, then the values of the second column, ...
+ * </pre>
+ * Absent optional values are written as -1 for ints and NaN for doubles.
+ * <p>
+ * Procedures may only export into the directory configured by
+ * {@link #CONFIG_EXPORT_DIRECTORY} and only if {@link #CONFIG_EXPORT_ENABLED}
+ * is set in the server configuration, see {@link #resolveExportPath(Config, String)}.
+ */
+public final class FileExporter {
+
+    public static final int MAGIC = 0x414C4743;
+    public static final byte VERSION = 1;
+    public static final String TASK_FILE_EXPORT = "FILE_EXPORT";
+    public static final String NODE_ID_COLUMN = "nodeId";
+    public static final String CONFIG_EXPORT_ENABLED = "algo.export.enabled";
+    public static final String CONFIG_EXPORT_DIRECTORY = "algo.export.directory";
+
+    private static final long MIN_SEGMENT_SIZE = 100_000L;
+    private static final long MAX_SEGMENT_SIZE = 10_000_000L;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        CSV("csv"),
+        BINARY("bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        "unknown export format '" + format + "', expected one of " + Arrays.toString(values()));
+            }
+        }
+    }
+
+    private final Path directory;
+    private final Format format;
+    private final boolean compressed;
+    private final long segmentSize;
+    private final long nodeCount;
+    private final LongUnaryOperator toOriginalId;
+    private final TerminationFlag terminationFlag;
+    private final ExecutorService executorService;
+    private final int concurrency;
+    private final Log log;
+
+    /**
+     * resolves a user supplied export path below the export directory
+     * of the server configuration
+     *
+     * @throws IllegalArgumentException if exporting is disabled, no export directory is
+     *                                  configured or the path leaves the export directory
+     */
+    public static Path resolveExportPath(Config config, String path) {
+        final boolean enabled = config.getRaw(CONFIG_EXPORT_ENABLED)
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+        if (!enabled) {
+            throw new IllegalArgumentException(
+                    "exporting into files is disabled, set " + CONFIG_EXPORT_ENABLED + "=true in the server configuration");
+        }
+        final Path root = config.getRaw(CONFIG_EXPORT_DIRECTORY)
+                .map(dir -> Paths.get(dir).toAbsolutePath().normalize())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "no export directory configured, set " + CONFIG_EXPORT_DIRECTORY + " in the server configuration"));
+        final Path relative = Paths.get(path);
+        checkRelative(relative, "export path");
+        final Path resolved = root.resolve(relative).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("export path '" + path + "' is outside of the export directory");
+        }
+        return resolved;
+    }
+
+    private static void checkRelative(Path path, String what) {
+        if (path.isAbsolute() || path.getRoot() != null) {
+            throw new IllegalArgumentException(what + " '" + path + "' must be relative");
+        }
+        for (Path segment : path) {
+            if ("..".equals(segment.toString())) {
+                throw new IllegalArgumentException(what + " '" + path + "' must not contain '..'");
+            }
+        }
+    }
+
+    /**
+     * segment names are plain file names within the export directory
+     */
+    private static void checkName(String name) {
+        if (name == null || name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("invalid export file name '" + name + "'");
+        }
+        checkRelative(Paths.get(name), "export file name");
+    }
+
+    public static Builder of(Graph graph, Path directory) {
+        if (graph instanceof HugeGraph) {
+            return new Builder(directory, (HugeIdMapping) graph);
+        }
+        return new Builder(directory, graph);
+    }
+
+    public static final class Builder {
+
+        private final Path directory;
+        private final long nodeCount;
+        private final LongUnaryOperator toOriginalId;
+        private Format format = Format.CSV;
+        private boolean compressed;
+        private long segmentSize = -1L;
+        private TerminationFlag terminationFlag;
+        private ExecutorService executorService;
+        private int concurrency = Pools.DEFAULT_CONCURRENCY;
+        private Log log;
+
+        private Builder(Path directory, IdMapping idMapping) {
+            Objects.requireNonNull(idMapping);
+            this.directory = Objects.requireNonNull(directory);
+            this.nodeCount = idMapping.nodeCount();
+            this.toOriginalId = (n) -> idMapping.toOriginalNodeId((int) n);
+        }
+
+        private Builder(Path directory, HugeIdMapping idMapping) {
+            Objects.requireNonNull(idMapping);
+            this.directory = Objects.requireNonNull(directory);
+            this.nodeCount = idMapping.nodeCount();
+            this.toOriginalId = idMapping::toOriginalNodeId;
+        }
+
+        public Builder withFormat(Format format) {
+            this.format = Objects.requireNonNull(format);
+            return this;
+        }
+
+        /**
+         * gzip every segment
+         */
+        public Builder compressed(boolean compressed) {
+            this.compressed = compressed;
+            return this;
+        }
+
+        /**
+         * number of rows per segment, by default derived from the
+         * node count and concurrency
+         */
+        public Builder withSegmentSize(long segmentSize) {
+            if (segmentSize <= 0) {
+                throw new IllegalArgumentException("segment size must be positive");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        public Builder withLog(Log log) {
+            this.log = Objects.requireNonNull(log);
+            return this;
+        }
+
+        public Builder parallel(ExecutorService es, int concurrency, TerminationFlag flag) {
+            this.executorService = es;
+            this.concurrency = concurrency;
+            this.terminationFlag = flag;
+            return this;
+        }
+
+        public FileExporter build() {
+            TerminationFlag flag = terminationFlag == null
+                    ? TerminationFlag.RUNNING_TRUE
+                    : terminationFlag;
+            long size = segmentSize > 0
+                    ? segmentSize
+                    : ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_SEGMENT_SIZE, MAX_SEGMENT_SIZE);
+            return new FileExporter(directory, format, compressed, size, nodeCount, toOriginalId, flag, executorService, concurrency, log);
+        }
+    }
+
+    private FileExporter(
+            Path directory,
+            Format format,
+            boolean compressed,
+            long segmentSize,
+            long nodeCount,
+            LongUnaryOperator toOriginalId,
+            TerminationFlag terminationFlag,
+            ExecutorService executorService,
+            int concurrency,
+            Log log) {
+        this.directory = directory;
+        this.format = format;
+        this.compressed = compressed;
+        this.segmentSize = segmentSize;
+        this.nodeCount = nodeCount;
+        this.toOriginalId = toOriginalId;
+        this.terminationFlag = terminationFlag;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.log = log;
+    }
+
+    /**
+     * write the node ids and one value column into segments of the
+     * given name
+     *
+     * @return the written segments in node order
+     */
+    public <T> List<Path> write(
+            String name,
+            String column,
+            T data,
+            PropertyTranslator<T> translator) {
+        return write(name, new Column[]{
+                new NodeIdColumn(toOriginalId),
+                Column.of(column, data, translator)});
+    }
+
+    /**
+     * write the node ids and two value columns into segments of the
+     * given name
+     *
+     * @return the written segments in node order
+     */
+    public <T, U> List<Path> write(
+            String name,
+            String column1,
+            T data1,
+            PropertyTranslator<T> translator1,
+            String column2,
+            U data2,
+            PropertyTranslator<U> translator2) {
+        return write(name, new Column[]{
+                new NodeIdColumn(toOriginalId),
+                Column.of(column1, data1, translator1),
+                Column.of(column2, data2, translator2)});
+    }
+
+    private List<Path> write(String name, Column[] columns) {
+        checkName(name);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final int segments = nodeCount == 0 ? 0 : (int) ParallelUtil.threadSize(segmentSize, nodeCount);
+        final Path[] paths = new Path[segments];
+        try (Job job = JobRegistry.start(TASK_FILE_EXPORT, log, AllocationTracker.EMPTY)) {
+            final Collection<Runnable> tasks = LazyBatchCollection.of(
+                    nodeCount,
+                    segmentSize,
+                    (start, len) -> () -> {
+                        final int segment = (int) (start / segmentSize);
+                        paths[segment] = writeSegment(name, segment, columns, start, len);
+                        job.addProgress(len, nodeCount);
+                    });
+            ParallelUtil.runWithConcurrency(
+                    concurrency,
+                    tasks,
+                    Integer.MAX_VALUE,
+                    10L,
+                    TimeUnit.MICROSECONDS,
+                    terminationFlag,
+                    executorService);
+        }
+        final long written = Arrays.stream(paths).filter(Objects::nonNull).count();
+        if (written < segments) {
+            throw new IllegalStateException(String.format(
+                    "export of '%s' has been terminated after %d of %d segments",
+                    name,
+                    written,
+                    segments));
+        }
+        return Arrays.asList(paths);
+    }
+
+    private Path writeSegment(String name, int segment, Column[] columns, long start, long len) {
+        final Path path = directory.resolve(String.format(
+                "%s-%05d.%s%s",
+                name,
+                segment,
+                format.extension,
+                compressed ? ".gz" : ""));
+        try (OutputStream out = open(path)) {
+            if (format == Format.CSV) {
+                writeCsv(out, columns, start, len);
+            } else {
+                writeBinary(out, columns, start, len);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+
+    private OutputStream open(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (compressed) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    private static void writeCsv(OutputStream stream, Column[] columns, long start, long len) throws IOException {
+        final Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        for (int c = 0; c < columns.length; c++) {
+            if (c > 0) {
+                out.write(',');
+            }
+            out.write(columns[c].name);
+        }
+        out.write('\n');
+        final long end = start + len;
+        for (long node = start; node < end; node++) {
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) {
+                    out.write(',');
+                }
+                columns[c].writeText(out, node);
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static void writeBinary(OutputStream stream, Column[] columns, long start, long len) throws IOException {
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(start);
+        out.writeLong(len);
+        out.writeInt(columns.length);
+        for (Column column : columns) {
+            out.writeUTF(column.name);
+            out.writeByte(column.type);
+        }
+        final long end = start + len;
+        for (Column column : columns) {
+            for (long node = start; node < end; node++) {
+                column.writeBinary(out, node);
+            }
+        }
+        out.flush();
+    }
+
+    private static abstract class Column {
+        final String name;
+        final byte type;
+
+        Column(String name, char type) {
+            this.name = name;
+            this.type = (byte) type;
+        }
+
+        abstract void writeText(Writer out, long node) throws IOException;
+
+        abstract void writeBinary(DataOutputStream out, long node) throws IOException;
+
+        @SuppressWarnings("unchecked")
+        static <T> Column of(String name, T data, PropertyTranslator<T> translator) {
+            if (translator instanceof PropertyTranslator.OfDouble) {
+                return new DoubleColumn<>(name, data, ((PropertyTranslator.OfDouble<T>) translator)::toDouble, false);
+            }
+            if (translator instanceof PropertyTranslator.OfOptionalDouble) {
+                return new DoubleColumn<>(name, data, ((PropertyTranslator.OfOptionalDouble<T>) translator)::toDouble, true);
+            }
+            if (translator instanceof PropertyTranslator.OfInt) {
+                return new IntColumn<>(name, data, ((PropertyTranslator.OfInt<T>) translator)::toInt, false);
+            }
+            if (translator instanceof PropertyTranslator.OfOptionalInt) {
+                return new IntColumn<>(name, data, ((PropertyTranslator.OfOptionalInt<T>) translator)::toInt, true);
+            }
+            if (translator instanceof PropertyTranslator.OfLong) {
+                return new LongColumn<>(name, data, (PropertyTranslator.OfLong<T>) translator);
+            }
+            return new GenericColumn<>(name, data, translator);
+        }
+    }
+
+    private static final class NodeIdColumn extends Column {
+        private final LongUnaryOperator toOriginalId;
+
+        NodeIdColumn(LongUnaryOperator toOriginalId) {
+            super(NODE_ID_COLUMN, 'L');
+            this.toOriginalId = toOriginalId;
+        }
+
+        @Override
+        void writeText(Writer out, long node) throws IOException {
+            out.write(Long.toString(toOriginalId.applyAsLong(node)));
+        }
+
+        @Override
+        void writeBinary(DataOutputStream out, long node) throws IOException {
+            out.writeLong(toOriginalId.applyAsLong(node));
+        }
+    }
+
+    private interface DoubleValue<T> {
+        double toDouble(T data, long nodeId);
+    }
+
+    private static final class DoubleColumn<T> extends Column {
+        private final T data;
+        private final DoubleValue<T> value;
+        private final boolean optional;
+
+        DoubleColumn(String name, T data, DoubleValue<T> value, boolean optional) {
+            super(name, 'D');
+            this.data = data;
+            this.value = value;
+            this.optional = optional;
+        }
+
+        @Override
+        void writeText(Writer out, long node) throws IOException {
+            final double v = value.toDouble(data, node);
+            if (!optional || v >= 0D) {
+                out.write(Double.toString(v));
+            }
+        }
+
+        @Override
+        void writeBinary(DataOutputStream out, long node) throws IOException {
+            final double v = value.toDouble(data, node);
+            out.writeDouble(!optional || v >= 0D ? v : Double.NaN);
+        }
+    }
+
+    private interface IntValue<T> {
+        int toInt(T data, long nodeId);
+    }
+
+    private static final class IntColumn<T> extends Column {
+        private final T data;
+        private final IntValue<T> value;
+        private final boolean optional;
+
+        IntColumn(String name, T data, IntValue<T> value, boolean optional) {
+            super(name, 'I');
+            this.data = data;
+            this.value = value;
+            this.optional = optional;
+        }
+
+        @Override
+        void writeText(Writer out, long node) throws IOException {
+            final int v = value.toInt(data, node);
+            if (!optional || v >= 0) {
+                out.write(Integer.toString(v));
+            }
+        }
+
+        @Override
+        void writeBinary(DataOutputStream out, long node) throws IOException {
+            final int v = value.toInt(data, node);
+            out.writeInt(!optional || v >= 0 ? v : -1);
+        }
+    }
+
+    private static final class LongColumn<T> extends Column {
+        private final T data;
+        private final PropertyTranslator.OfLong<T> translator;
+
+        LongColumn(String name, T data, PropertyTranslator.OfLong<T> translator) {
+            super(name, 'L');
+            this.data = data;
+            this.translator = translator;
+        }
+
+        @Override
+        void writeText(Writer out, long node) throws IOException {
+            out.write(Long.toString(translator.toLong(data, node)));
+        }
+
+        @Override
+        void writeBinary(DataOutputStream out, long node) throws IOException {
+            out.writeLong(translator.toLong(data, node));
+        }
+    }
+
+    /**
+     * fallback for translators which only provide properties, values
+     * are written as doubles in binary segments
+     */
+    private static final class GenericColumn<T> extends Column {
+        private final T data;
+        private final PropertyTranslator<T> translator;
+
+        GenericColumn(String name, T data, PropertyTranslator<T> translator) {
+            super(name, 'D');
+            this.data = data;
+            this.translator = translator;
+        }
+
+        @Override
+        void writeText(Writer out, long node) throws IOException {
+            final DefinedProperty property = translator.toProperty(0, data, node);
+            if (property != null) {
+                out.write(String.valueOf(property.value()));
+            }
+        }
+
+        @Override
+        void writeBinary(DataOutputStream out, long node) throws IOException {
+            final DefinedProperty property = translator.toProperty(0, data, node);
+            final Object value = property == null ? null : property.value();
+            out.writeDouble(value instanceof Number ? ((Number) value).doubleValue() : Double.NaN);
+        }
+    }
+}
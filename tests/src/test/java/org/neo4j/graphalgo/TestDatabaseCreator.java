@@ -24,6 +24,8 @@ import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -34,8 +36,13 @@ import java.util.UUID;
 public class TestDatabaseCreator {
 
     public static GraphDatabaseAPI createTestDatabase() {
+        return createTestDatabase(Collections.emptyMap());
+    }
+
+    public static GraphDatabaseAPI createTestDatabase(Map<String, String> config) {
         return (GraphDatabaseAPI)new TestGraphDatabaseFactory()
                 .newImpermanentDatabaseBuilder(new File(UUID.randomUUID().toString()))
+                .setConfig(config)
                 .newGraphDatabase();
     }
 }
@@ -26,6 +26,7 @@ import org.mockito.AdditionalMatchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.neo4j.graphalgo.ClosenessCentralityProc;
+import org.neo4j.graphalgo.LoadGraphProc;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.helper.graphbuilder.DefaultBuilder;
 import org.neo4j.graphalgo.helper.graphbuilder.GraphBuilder;
@@ -37,7 +38,13 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 
@@ -94,9 +101,9 @@ public class ClosenessCentralityIntegrationTest {
                     center.createRelationshipTo(node, type);
                 });
 
-        db.getDependencyResolver()
-                .resolveDependency(Procedures.class)
-                .registerProcedure(ClosenessCentralityProc.class);
+        final Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(ClosenessCentralityProc.class);
+        procedures.registerProcedure(LoadGraphProc.class);
     }
 
     @AfterClass
@@ -141,6 +148,71 @@ public class ClosenessCentralityIntegrationTest {
         verifyMock();
     }
 
+    @Test
+    public void testApproximateClosenessStream() throws Exception {
+
+        db.execute("CALL algo.closeness.stream('Node', 'TYPE', {approximate:true, precision:12}) YIELD nodeId, centrality")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    consumer.accept(
+                            row.getNumber("nodeId").longValue(),
+                            row.getNumber("centrality").doubleValue());
+                    return true;
+                });
+
+        verify(consumer, times(1)).accept(eq(centerNodeId), AdditionalMatchers.eq(2.0, 0.05));
+        verify(consumer, times(5)).accept(anyLong(), AdditionalMatchers.eq(1.0, 0.05));
+        verify(consumer, times(5)).accept(anyLong(), AdditionalMatchers.eq(0.47, 0.1));
+    }
+
+    @Test(expected = Exception.class)
+    public void testApproximateClosenessRequiresHugeGraph() throws Exception {
+        db.execute("CALL algo.closeness.stream('Node', 'TYPE', {approximate:true, graph:'heavy'}) YIELD nodeId, centrality")
+                .close();
+    }
+
+    @Test
+    public void testApproximateClosenessEffectiveDiameter() throws Exception {
+        final Map<String, Object> approximate = db.execute(
+                "CALL algo.closeness('Node', 'TYPE', {write:false, approximate:true, precision:12}) YIELD effectiveDiameter")
+                .next();
+        final double diameter = ((Number) approximate.get("effectiveDiameter")).doubleValue();
+        assertTrue("diameter " + diameter, diameter > 0.0 && diameter <= 4.0);
+
+        final Map<String, Object> exact = db.execute(
+                "CALL algo.closeness('Node', 'TYPE', {write:false}) YIELD effectiveDiameter")
+                .next();
+        assertNull(exact.get("effectiveDiameter"));
+    }
+
+    @Test
+    public void testApproximateClosenessRejectsNamedHeavyGraph() throws Exception {
+        db.execute("CALL algo.graph.load('heavy-closeness', 'Node', 'TYPE', {graph:'heavy'})").close();
+        try {
+            db.execute("CALL algo.closeness.stream(null, null, {approximate:true, graph:'heavy-closeness'}) YIELD nodeId")
+                    .close();
+            fail("expected an exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("IllegalArgumentException"));
+            assertTrue(e.getMessage(), e.getMessage().contains("huge"));
+        } finally {
+            db.execute("CALL algo.graph.remove('heavy-closeness')").close();
+        }
+    }
+
+    @Test
+    public void testApproximateClosenessOnNamedHugeGraph() throws Exception {
+        db.execute("CALL algo.graph.load('huge-closeness', 'Node', 'TYPE', {graph:'huge', direction:'INCOMING'})").close();
+        try {
+            final Map<String, Object> row = db.execute(
+                    "CALL algo.closeness(null, null, {write:false, approximate:true, graph:'huge-closeness'}) YIELD nodes, effectiveDiameter")
+                    .next();
+            assertEquals(11L, row.get("nodes"));
+            assertTrue(((Number) row.get("effectiveDiameter")).doubleValue() > 0.0);
+        } finally {
+            db.execute("CALL algo.graph.remove('huge-closeness')").close();
+        }
+    }
+
     private void verifyMock() {
         verify(consumer, times(1)).accept(eq(centerNodeId), eq(2.0));
         verify(consumer, times(5)).accept(anyLong(), eq(1.0));
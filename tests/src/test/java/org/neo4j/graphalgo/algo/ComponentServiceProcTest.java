@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.UnionFindFunc;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphalgo.impl.ComponentService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ComponentServiceProcTest {
+
+    private static final String CREATE_GRAPH =
+            "CREATE (nA:Node {name:'a'})\n" +
+            "CREATE (nB:Node {name:'b'})\n" +
+            "CREATE (nC:Node {name:'c'})\n" +
+            "CREATE (nD:Node {name:'d'})\n" +
+            "CREATE (nE:Node {name:'e'})\n" +
+            "CREATE (nF:Node {name:'f'})\n" +
+            "CREATE (nG:Node {name:'g'})\n" +
+            "CREATE (nH:Node {name:'h'})\n" +
+            "CREATE\n" +
+            "  (nA)-[:TYPE]->(nB),\n" +
+            "  (nB)-[:TYPE]->(nC),\n" +
+            "  (nC)-[:TYPE]->(nD),\n" +
+            "  (nE)-[:TYPE]->(nF),\n" +
+            "  (nF)-[:TYPE]->(nG)";
+
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void setup() throws Exception {
+        db = TestDatabaseCreator.createTestDatabase();
+        final Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(UnionFindProc.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        procedures.registerFunction(UnionFindFunc.class);
+        run(CREATE_GRAPH);
+        run("CALL algo.graph.load('cc', 'Node', 'TYPE', {graph:'huge'})");
+        run("CALL algo.unionFind.service.start('cc', {relationship:'TYPE', label:'Node', flushInterval:0})");
+    }
+
+    @After
+    public void tearDown() {
+        run("CALL algo.graph.remove('cc')");
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testInitialComponents() {
+        assertEquals(componentOf("a"), componentOf("d"));
+        assertEquals(componentOf("e"), componentOf("g"));
+        assertNotEquals(componentOf("a"), componentOf("e"));
+        assertNotEquals(componentOf("a"), componentOf("h"));
+        // written on start
+        final Map<String, Object> partitions = partitions();
+        for (String name : new String[]{"a", "b", "c", "d", "e", "f", "g", "h"}) {
+            assertEquals(componentOf(name), partitions.get(name));
+        }
+    }
+
+    @Test
+    public void testCommittedRelationshipsMergeComponents() {
+        final Map<String, Object> before = partitions();
+        run("MATCH (c:Node {name:'c'}), (e:Node {name:'e'}) CREATE (c)-[:TYPE]->(e)");
+        assertEquals(componentOf("a"), componentOf("g"));
+        assertNotEquals(componentOf("a"), componentOf("h"));
+        // not yet flushed
+        assertEquals(before, partitions());
+
+        final Map<String, Object> row = single("CALL algo.unionFind.service.flush('cc')");
+        assertEquals(1L, row.get("relationships"));
+        assertEquals(1L, row.get("mergedSets"));
+        // either {a,b,c,d} or {e,f,g} moved
+        final long written = (long) row.get("written") - 8L;
+        assertEquals(true, written == 3L || written == 4L);
+        final Map<String, Object> after = partitions();
+        assertEquals(after.get("a"), after.get("g"));
+        assertEquals(before.get("h"), after.get("h"));
+        assertEquals(componentOf("a"), after.get("a"));
+
+        // nothing changed since
+        assertEquals(row.get("written"), single("CALL algo.unionFind.service.flush('cc')").get("written"));
+    }
+
+    @Test
+    public void testNewNodesAndFilters() {
+        run("MATCH (h:Node {name:'h'}) CREATE (h)-[:TYPE]->(:Node {name:'i'})");
+        run("MATCH (a:Node {name:'a'}), (h:Node {name:'h'}) CREATE (a)-[:OTHER]->(h)");
+        run("MATCH (a:Node {name:'a'}) CREATE (a)-[:TYPE]->(:Other {name:'x'})");
+
+        assertEquals(componentOf("h"), componentOf("i"));
+        assertNotEquals(componentOf("a"), componentOf("h"));
+        assertNull(componentOf("x"));
+
+        final Map<String, Object> row = single("CALL algo.unionFind.service.stop('cc')");
+        assertEquals(false, row.get("running"));
+        assertEquals(1L, row.get("newNodes"));
+        assertEquals(1L, row.get("relationships"));
+        assertEquals(partitions().get("h"), partitions().get("i"));
+    }
+
+    @Test
+    public void testIdsBetweenLoadedNodesAreNotMapped() {
+        run("CALL algo.graph.remove('cc')");
+        // y lies in the id range of the loaded nodes but is not loaded itself,
+        // reordering keeps the original ids in a sparse, zero filled array
+        run("CREATE (:Other {name:'y'}), (:Node {name:'z'})");
+        run("CALL algo.graph.load('cc', 'Node', 'TYPE', {graph:'huge', reorder:'degree'})");
+        run("CALL algo.unionFind.service.start('cc', {relationship:'TYPE', flushInterval:0})");
+
+        assertNull(componentOf("y"));
+        run("MATCH (y:Other {name:'y'}) CREATE (y)-[:TYPE]->(:Other {name:'w'})");
+
+        assertNotNull(componentOf("y"));
+        assertEquals(componentOf("y"), componentOf("w"));
+        assertNotEquals(componentOf("a"), componentOf("y"));
+        assertNotEquals(componentOf("z"), componentOf("y"));
+        assertNotEquals(componentOf("h"), componentOf("z"));
+    }
+
+    @Test
+    public void testRemovingTheGraphStopsTheService() {
+        final ComponentService service = ComponentService.get("cc");
+        assertNotNull(service);
+        run("CALL algo.graph.remove('cc')");
+        assertEquals(false, service.isRunning());
+        assertNull(ComponentService.get("cc"));
+        // not applied anymore
+        run("MATCH (c:Node {name:'c'}), (e:Node {name:'e'}) CREATE (c)-[:TYPE]->(e)");
+        assertEquals(0L, service.relationships());
+    }
+
+    private Object componentOf(String name) {
+        return single("MATCH (n {name:$name}) RETURN algo.unionFind.componentOf(n) AS component",
+                MapUtil.map("name", name)).get("component");
+    }
+
+    private Map<String, Object> partitions() {
+        final Map<String, Object> partitions = new HashMap<>();
+        db.execute("MATCH (n:Node) RETURN n.name AS name, n.partition AS partition")
+                .accept(row -> {
+                    partitions.put(row.getString("name"), row.get("partition"));
+                    return true;
+                });
+        return partitions;
+    }
+
+    private Map<String, Object> single(String query) {
+        return single(query, MapUtil.map());
+    }
+
+    private Map<String, Object> single(String query, Map<String, Object> params) {
+        try (Result result = db.execute(query, params)) {
+            return result.next();
+        }
+    }
+
+    private void run(String query) {
+        db.execute(query).close();
+    }
+}
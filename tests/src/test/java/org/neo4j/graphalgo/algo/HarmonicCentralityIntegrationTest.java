@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 
@@ -174,6 +175,17 @@ public class HarmonicCentralityIntegrationTest {
         verifyMock();
     }
 
+    @Test
+    public void testApproximateHarmonicEffectiveDiameter() throws Exception {
+        db.execute("CALL algo.harmonic('Node', 'TYPE', {write:false, approximate:true, precision:12}) YIELD effectiveDiameter")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    // every node is a neighbour of the center
+                    final double diameter = row.getNumber("effectiveDiameter").doubleValue();
+                    assertTrue("diameter " + diameter, diameter > 0.0 && diameter <= 2.0);
+                    return true;
+                });
+    }
+
     private void verifyMock() {
         verify(consumer, times(1)).accept(eq(centerNodeId), AdditionalMatchers.eq(1.0, 0.1));
         verify(consumer, times(10)).accept(anyLong(), AdditionalMatchers.eq(0.65, 0.1));
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class IncrementalUnionFindProcTest {
+
+    private static final String CREATE_GRAPH =
+            "CREATE (nA:Node {name:'a'})\n" +
+            "CREATE (nB:Node {name:'b'})\n" +
+            "CREATE (nC:Node {name:'c'})\n" +
+            "CREATE (nD:Node {name:'d'})\n" +
+            "CREATE (nE:Node {name:'e'})\n" +
+            "CREATE (nF:Node {name:'f'})\n" +
+            "CREATE (nG:Node {name:'g'})\n" +
+            "CREATE (nH:Node {name:'h'})\n" +
+            "CREATE (nI:Node {name:'i'})\n" +
+            "CREATE (nJ:Node {name:'j'})\n" +
+            "CREATE\n" +
+            "  (nA)-[:TYPE]->(nB),\n" +
+            "  (nB)-[:TYPE]->(nC),\n" +
+            "  (nC)-[:TYPE]->(nD),\n" +
+            "  (nE)-[:TYPE]->(nF),\n" +
+            "  (nF)-[:TYPE]->(nG),\n" +
+            "  (nH)-[:TYPE]->(nI)";
+
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void setup() throws Exception {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(UnionFindProc.class);
+        run(CREATE_GRAPH);
+        // seed the partitions with a full run
+        run("CALL algo.unionFind('Node', 'TYPE', {write:true, partitionProperty:'partition'})");
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testNothingChanged() {
+        final Map<String, Object> row = incremental("{sinceRelationshipId:$since}", Long.MAX_VALUE);
+        assertEquals(0L, row.get("relationships"));
+        assertEquals(0L, row.get("changed"));
+        assertEquals(10L, row.get("nodes"));
+        assertSameComponents();
+    }
+
+    @Test
+    public void testWatermark() {
+        final Map<String, Object> before = incremental("{sinceRelationshipId:$since}", Long.MAX_VALUE);
+        final long watermark = (long) before.get("nextRelationshipId");
+        final Map<String, Object> partitions = partitions();
+
+        run("MATCH (c:Node {name:'c'}), (e:Node {name:'e'}) CREATE (c)-[:TYPE]->(e)");
+        run("MATCH (j:Node {name:'j'}) CREATE (j)-[:TYPE]->(:Node {name:'k'}), (:Node {name:'l'})");
+
+        final Map<String, Object> row = incremental("{sinceRelationshipId:$since}", watermark);
+        assertEquals(2L, row.get("relationships"));
+        assertEquals(12L, row.get("nodes"));
+        // only l is a new set, k joins the set of j
+        assertEquals(1L, row.get("newSets"));
+        // either {a,b,c,d} or {e,f,g} moved, and the two new nodes
+        final long moved = (long) row.get("changed") - 2L;
+        assertEquals(true, moved == 3L || moved == 4L);
+        assertEquals(row.get("changed"), row.get("written"));
+        // untouched sets keep their id
+        assertEquals(partitions.get("h"), partitions().get("h"));
+        assertEquals(partitions.get("i"), partitions().get("i"));
+        assertSameComponents();
+    }
+
+    @Test
+    public void testTimestampProperty() {
+        run("MATCH (g:Node {name:'g'}), (h:Node {name:'h'}) CREATE (g)-[:TYPE {created:2000}]->(h)");
+        run("MATCH (a:Node {name:'a'}), (j:Node {name:'j'}) CREATE (a)-[:TYPE {created:100}]->(j)");
+
+        final Map<String, Object> row = incremental("{sinceProperty:'created', since:$since}", 1000L);
+        assertEquals(1L, row.get("relationships"));
+        // the old relationship is ignored, j is still a singleton
+        assertEquals(false, partitions().get("a").equals(partitions().get("j")));
+
+        incremental("{sinceProperty:'created', since:$since}", 0L);
+        assertSameComponents();
+    }
+
+    @Test
+    public void testTimestampPropertyFromWatermark() {
+        run("MATCH (g:Node {name:'g'}), (h:Node {name:'h'}) CREATE (g)-[:TYPE {created:2000}]->(h)");
+        final long watermark = (long) incremental("{sinceRelationshipId:$since}", Long.MAX_VALUE)
+                .get("nextRelationshipId");
+        run("MATCH (a:Node {name:'a'}), (j:Node {name:'j'}) CREATE (a)-[:TYPE {created:2000}]->(j)");
+
+        final Map<String, Object> row = incremental(
+                "{sinceProperty:'created', since:1000, sinceRelationshipId:$since}",
+                watermark);
+        // relationships below the watermark are not read
+        assertEquals(1L, row.get("relationships"));
+        final Map<String, Object> partitions = partitions();
+        // the full run wrote ints, the incremental run writes longs
+        assertEquals(((Number) partitions.get("a")).longValue(), ((Number) partitions.get("j")).longValue());
+        assertNotEquals(((Number) partitions.get("g")).longValue(), ((Number) partitions.get("h")).longValue());
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        final Random random = new Random(42L);
+        long watermark = (long) incremental("{sinceRelationshipId:$since}", Long.MAX_VALUE).get("nextRelationshipId");
+        for (int round = 0; round < 5; round++) {
+            try (Transaction tx = db.beginTx()) {
+                for (int i = 0; i < 5; i++) {
+                    db.createNode(() -> "Node").setProperty("name", "n" + round + "_" + i);
+                }
+                final long count = (long) db.execute("MATCH (n:Node) RETURN count(n) AS c").next().get("c");
+                final Object[] nodes = db.execute("MATCH (n:Node) RETURN n").<Node>columnAs("n").stream().toArray();
+                for (int i = 0; i < 3; i++) {
+                    final Node source = (Node) nodes[random.nextInt((int) count)];
+                    final Node target = (Node) nodes[random.nextInt((int) count)];
+                    source.createRelationshipTo(target, () -> "TYPE");
+                }
+                tx.success();
+            }
+            watermark = (long) incremental("{sinceRelationshipId:$since}", watermark).get("nextRelationshipId");
+            assertSameComponents();
+        }
+    }
+
+    private Map<String, Object> incremental(String config, Object since) {
+        final String query = "CALL algo.unionFind.incremental('Node', 'TYPE', " + config + ")";
+        try (Result result = db.execute(query, MapUtil.map("since", since))) {
+            return result.next();
+        }
+    }
+
+    private Map<String, Object> partitions() {
+        final Map<String, Object> partitions = new HashMap<>();
+        db.execute("MATCH (n:Node) RETURN n.name AS name, n.partition AS partition")
+                .accept(row -> {
+                    partitions.put(row.getString("name"), row.get("partition"));
+                    return true;
+                });
+        return partitions;
+    }
+
+    /**
+     * the written partitions must induce the same components as a full run
+     */
+    private void assertSameComponents() {
+        final Map<Long, Long> expected = new HashMap<>();
+        db.execute("CALL algo.unionFind.stream('Node', 'TYPE', {}) YIELD nodeId, setId")
+                .accept(row -> {
+                    expected.put(row.getNumber("nodeId").longValue(), row.getNumber("setId").longValue());
+                    return true;
+                });
+        final Map<Long, Long> actual = new HashMap<>();
+        db.execute("MATCH (n:Node) RETURN id(n) AS id, n.partition AS partition")
+                .accept(row -> {
+                    actual.put(row.getNumber("id").longValue(), row.getNumber("partition").longValue());
+                    return true;
+                });
+        assertEquals(expected.size(), actual.size());
+        final Map<Long, Long> expectedToActual = new HashMap<>();
+        final Map<Long, Long> actualToExpected = new HashMap<>();
+        expected.forEach((node, set) -> {
+            final Long partition = actual.get(node);
+            assertEquals(partition, expectedToActual.computeIfAbsent(set, s -> partition));
+            assertEquals(set, actualToExpected.computeIfAbsent(partition, p -> set));
+        });
+    }
+
+    private void run(String query) {
+        try (Transaction tx = db.beginTx()) {
+            db.execute(query).close();
+            tx.success();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.ClosenessCentralityProc;
+import org.neo4j.graphalgo.JobsProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.core.utils.metrics.Job;
+import org.neo4j.graphalgo.core.utils.metrics.JobRegistry;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobsProcTest {
+
+    @ClassRule
+    public static ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Procedures procedures = DB.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(JobsProc.class);
+        procedures.registerProcedure(ClosenessCentralityProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+        DB.execute("CREATE (a:Node)-[:TYPE]->(b:Node)-[:TYPE]->(c:Node)").close();
+    }
+
+    @Test
+    public void testListRunningJob() throws Exception {
+        try (Job job = JobRegistry.start("running", NullLog.getInstance())) {
+            job.startPhase("compute");
+            job.addProgress(5L, 10L);
+            final List<Map<String, Object>> rows = jobs("running");
+            assertEquals(1, rows.size());
+            final Map<String, Object> row = rows.get(0);
+            assertEquals(job.id(), row.get("id"));
+            assertEquals("compute", row.get("phase"));
+            assertEquals(0.5, (double) row.get("progress"), 1e-9);
+            assertEquals(5L, row.get("work"));
+        }
+        assertTrue(jobs("running").isEmpty());
+    }
+
+    @Test
+    public void testFinishedAlgorithmsAreRemoved() throws Exception {
+        DB.execute("CALL algo.closeness('Node', 'TYPE', {write:true})").close();
+        try (Result result = DB.execute("CALL algo.closeness.stream('Node', 'TYPE')")) {
+            assertEquals(3, result.stream().count());
+        }
+        assertTrue(jobs(ClosenessCentralityProc.TASK_CLOSENESS).isEmpty());
+        assertFalse(jobs(null).stream().anyMatch(row -> "EXPORT".equals(row.get("name"))));
+    }
+
+    @Test
+    public void testQueueMetricsOfPriorityClasses() throws Exception {
+        final long admitted = (long) queue("BATCH").get("admitted");
+        final long normal = (long) queue("NORMAL").get("admitted");
+        DB.execute("CALL algo.pageRank('Node', 'TYPE', {write:false, priority:'batch'})").close();
+        DB.execute("CALL algo.pageRank('Node', 'TYPE', {write:false})").close();
+        DB.execute("CALL algo.pageRank.stream('Node', 'TYPE', {priority:'interactive'})").close();
+
+        final Map<String, Object> batch = queue("BATCH");
+        assertEquals(admitted + 1, batch.get("admitted"));
+        assertEquals(0L, batch.get("running"));
+        assertEquals(0L, batch.get("queued"));
+        assertEquals(normal + 1, queue("NORMAL").get("admitted"));
+        assertTrue((long) queue("INTERACTIVE").get("admitted") >= 1L);
+    }
+
+    private static Map<String, Object> queue(String priority) {
+        try (Result result = DB.execute("CALL algo.jobs.queues()")) {
+            return result.stream()
+                    .filter(row -> priority.equals(row.get("priority")))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+        }
+    }
+
+    private static List<Map<String, Object>> jobs(String name) {
+        try (Result result = DB.execute("CALL algo.jobs()")) {
+            return result.stream()
+                    .filter(row -> name == null || name.equals(row.get("name")))
+                    .collect(Collectors.toList());
+        }
+    }
+}
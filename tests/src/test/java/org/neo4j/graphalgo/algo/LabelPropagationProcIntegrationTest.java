@@ -36,6 +36,7 @@ import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -113,6 +114,33 @@ public class LabelPropagationProcIntegrationTest {
         });
     }
 
+    @Test
+    public void shouldReportResiduals() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {iterations:10,write:false,batchSize:$batchSize,concurrency:$concurrency})";
+
+        runQuery(query, parParams(), row -> {
+            List<?> residuals = (List<?>) row.get("residuals");
+            assertTrue(row.getBoolean("didConverge"));
+            assertFalse(residuals.isEmpty());
+            assertTrue(residuals.size() <= row.getNumber("iterations").intValue());
+            for (Object residual : residuals) {
+                double value = ((Number) residual).doubleValue();
+                assertTrue(value > 0.0 && value <= 1.0);
+            }
+        });
+    }
+
+    @Test
+    public void shouldStopBelowTolerance() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {iterations:10,tolerance:1.0,write:false,batchSize:$batchSize,concurrency:$concurrency})";
+
+        runQuery(query, parParams(), row -> {
+            assertEquals(1, row.getNumber("iterations").intValue());
+            assertEquals(1, ((List<?>) row.get("residuals")).size());
+            assertTrue(row.getBoolean("didConverge"));
+        });
+    }
+
     @Test
     public void shouldRunLabelPropagation() {
         String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {batchSize:$batchSize,concurrency:$concurrency})";
@@ -136,6 +164,19 @@ public class LabelPropagationProcIntegrationTest {
                 assertEquals(2, row.getNumber("partition").intValue()));
     }
 
+    @Test
+    public void shouldRunSynchronously() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {iterations:10,synchronous:true,batchSize:$batchSize,concurrency:$concurrency})";
+        String check = "MATCH (n) WHERE n.id IN [0,1] RETURN n.partition AS partition";
+
+        runQuery(query, parParams(), row -> {
+            assertTrue(row.getBoolean("didConverge"));
+            assertEquals(2, row.getNumber("iterations").intValue());
+        });
+        runQuery(check, row ->
+                assertEquals(2, row.getNumber("partition").intValue()));
+    }
+
     @Test
     public void shouldFallbackToNodeIdsForNonExistingPartitionKey() {
         String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {partitionProperty:'foobar',batchSize:$batchSize,concurrency:$concurrency})";
@@ -50,9 +50,9 @@ public class ListProcTest {
 
     @Test
     public void list() throws Exception {
-        assertEquals(asList("algo.pageRank","algo.pageRank.stream"), listProcs(null));
-        assertEquals(asList("algo.pageRank","algo.pageRank.stream"), listProcs("page"));
-        assertEquals(singletonList("algo.pageRank.stream"), listProcs("stream"));
+        assertEquals(asList("algo.pageRank","algo.pageRank.personalized.stream","algo.pageRank.stream"), listProcs(null));
+        assertEquals(asList("algo.pageRank","algo.pageRank.personalized.stream","algo.pageRank.stream"), listProcs("page"));
+        assertEquals(asList("algo.pageRank.personalized.stream","algo.pageRank.stream"), listProcs("stream"));
         assertEquals(emptyList(), listProcs("foo"));
     }
 
@@ -61,7 +61,7 @@ public class ListProcTest {
     }
     @Test
     public void listEmpty() throws Exception {
-        assertEquals(asList("algo.pageRank","algo.pageRank.stream"),
+        assertEquals(asList("algo.pageRank","algo.pageRank.personalized.stream","algo.pageRank.stream"),
                 DB.execute("CALL algo.list()").<String>columnAs("name").stream().collect(Collectors.toList()));
     }
 }
@@ -25,11 +25,14 @@ import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.LabelPropagationProc;
 import org.neo4j.graphalgo.LoadGraphProc;
 import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.ShortestPathProc;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.lightweight.LightGraph;
+import org.neo4j.graphalgo.core.loadgraph.GraphStatePool;
 import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphView;
+import org.neo4j.graphalgo.impl.HugeAStar;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.helpers.Exceptions;
@@ -46,6 +49,7 @@ import java.util.function.Consumer;
 
 import static java.util.Collections.singletonMap;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(Parameterized.class)
 public class LoadGraphProcIntegrationTest {
@@ -94,6 +98,7 @@ public class LoadGraphProcIntegrationTest {
         procedures.registerProcedure(LoadGraphProc.class);
         procedures.registerProcedure(PageRankProc.class);
         procedures.registerProcedure(LabelPropagationProc.class);
+        procedures.registerProcedure(ShortestPathProc.class);
         db.execute(DB_CYPHER);
     }
 
@@ -158,6 +163,51 @@ public class LoadGraphProcIntegrationTest {
         }
     }
 
+    @Test
+    public void shouldReuseShortestPathStateOfLoadedGraph() {
+        // the backward search of the bidirectional dijkstra needs the incoming relationships
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph,direction:'BOTH'})", singletonMap("graph",graph)).close();
+
+        String algorithm = HugeGraph.TYPE.equals(graph) ? "bidirectional" : "dijkstra";
+        String query = "MATCH (s {id: 0}), (t {id: $target}) " +
+                "CALL algo.shortestPath.stream(s, t, null, {graph:$name, algorithm:$algorithm, direction:'OUTGOING'}) " +
+                "YIELD nodeId, cost RETURN count(*) AS length, max(cost) AS cost";
+        for (int target = 2; target <= 6; target++) {
+            runQuery(query, MapUtil.map("name", "foo", "algorithm", algorithm, "target", target), row -> {
+                assertEquals(2L, row.getNumber("length").longValue());
+                assertEquals(1.0, row.getNumber("cost").doubleValue(), 0.0);
+            });
+        }
+        // not reachable along outgoing relationships
+        runQuery(query, MapUtil.map("name", "foo", "algorithm", algorithm, "target", 7), row -> {
+            assertEquals(0L, row.getNumber("length").longValue());
+        });
+    }
+
+    @Test
+    public void shouldReuseAStarCoordinatesOfLoadedGraph() {
+        assumeTrue(HugeGraph.TYPE.equals(graph));
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+
+        String query = "MATCH (s {id: 0}), (t {id: $target}) " +
+                "CALL algo.shortestPath.stream(s, t, null, {graph:$name, algorithm:'astar', direction:'OUTGOING', " +
+                "latitudeProperty:'lat', longitudeProperty:'lon', distanceUnit:'mi'}) " +
+                "YIELD nodeId, cost RETURN count(*) AS length, max(cost) AS cost";
+        for (int target = 2; target <= 6; target++) {
+            runQuery(query, MapUtil.map("name", "foo", "target", target), row -> {
+                assertEquals(2L, row.getNumber("length").longValue());
+                assertEquals(1.0, row.getNumber("cost").doubleValue(), 0.0);
+            });
+        }
+        final GraphStatePool<Object> coordinates = GraphStatePool.of(
+                "foo",
+                HugeAStar.Haversine.class.getName() + ":lat:lon",
+                () -> null,
+                state -> {});
+        assertEquals(1L, coordinates.created());
+        assertEquals(4L, coordinates.reused());
+    }
+
     @Test
     public void dontDoubleLoad() {
         String call = "CALL algo.graph.load('foo',null,null,{graph:$graph}) yield alreadyLoaded as loaded RETURN loaded";
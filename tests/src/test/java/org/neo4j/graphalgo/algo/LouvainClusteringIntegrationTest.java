@@ -34,10 +34,12 @@ import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Graph:
@@ -206,6 +208,56 @@ public class LouvainClusteringIntegrationTest {
         });
     }
 
+    @Test
+    public void testMultiLevel() {
+        final String cypher = "CALL algo.louvain('Node', 'TYPE', {maxLevels:10, concurrency:1, " +
+                "writeProperty:'levelCommunity', includeIntermediateCommunities:true, intermediateCommunitiesWriteProperty:'levelCommunities'}) " +
+                "YIELD nodes, communityCount, levels, communityCounts";
+
+        final long[] levels = {0L};
+        DB.execute(cypher).accept(row -> {
+            assertEquals("invalid node count", 9, row.getNumber("nodes").longValue());
+            assertEquals("wrong community count", 3, row.getNumber("communityCount").longValue());
+            levels[0] = row.getNumber("levels").longValue();
+            final List<Long> communityCounts = (List<Long>) row.get("communityCounts");
+            assertEquals(levels[0], communityCounts.size());
+            assertEquals(3L, (long) communityCounts.get(communityCounts.size() - 1));
+            return true;
+        });
+        assertTrue(levels[0] >= 1);
+
+        DB.execute("MATCH (n:Node) RETURN n.levelCommunity AS community, n.levelCommunities AS communities").accept(row -> {
+            final long[] communities = (long[]) row.get("communities");
+            assertEquals(levels[0], communities.length);
+            assertEquals(row.getNumber("community").longValue(), communities[communities.length - 1]);
+            return true;
+        });
+    }
+
+    @Test
+    public void testMultiLevelStream() {
+        final String cypher = "CALL algo.louvain.stream('', '', {maxLevels:10, concurrency:1}) " +
+                "YIELD nodeId, community, communities";
+        final IntIntScatterMap testMap = new IntIntScatterMap();
+        DB.execute(cypher).accept(row -> {
+            final List<Long> communities = (List<Long>) row.get("communities");
+            assertEquals(row.getNumber("community").longValue(), (long) communities.get(communities.size() - 1));
+            testMap.addTo(row.getNumber("community").intValue(), 1);
+            return true;
+        });
+        assertEquals(3, testMap.size());
+    }
+
+    @Test
+    public void shouldNotAllowMultiLevelOnHeavyGraph() {
+        try {
+            DB.execute("CALL algo.louvain('', '', {graph:'heavy', maxLevels:2})").close();
+            fail("multi-level louvain should require a huge graph");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("multi-level louvain requires a huge graph"));
+        }
+    }
+
     @Test
     public void shouldNotAllowLightOrKernelGraph() throws Throwable {
         String query = "CALL algo.louvain('', '', {graph:$graph})";
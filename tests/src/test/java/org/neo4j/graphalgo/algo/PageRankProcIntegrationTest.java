@@ -20,10 +20,13 @@ package org.neo4j.graphalgo.algo;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.core.write.FileExporter;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
@@ -33,14 +36,21 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -90,6 +100,9 @@ public class PageRankProcIntegrationTest {
             "  (j)-[:TYPE2{foo:9.5}]->(e),\n" +
             "  (k)-[:TYPE2{foo:4.2}]->(e)\n";
 
+    @ClassRule
+    public static final TemporaryFolder EXPORT_ROOT = new TemporaryFolder();
+
     @AfterClass
     public static void tearDown() throws Exception {
         if (db != null) db.shutdown();
@@ -97,7 +110,10 @@ public class PageRankProcIntegrationTest {
 
     @BeforeClass
     public static void setup() throws KernelException {
-        db = TestDatabaseCreator.createTestDatabase();
+        final Map<String, String> config = new HashMap<>();
+        config.put(FileExporter.CONFIG_EXPORT_ENABLED, "true");
+        config.put(FileExporter.CONFIG_EXPORT_DIRECTORY, EXPORT_ROOT.getRoot().getAbsolutePath());
+        db = TestDatabaseCreator.createTestDatabase(config);
         try (Transaction tx = db.beginTx()) {
             db.execute(DB_CYPHER).close();
             tx.success();
@@ -137,6 +153,7 @@ public class PageRankProcIntegrationTest {
     @Parameterized.Parameter
     public String graphImpl;
 
+
     @Test
     public void testPageRankStream() throws Exception {
         final Map<Long, Double> actual = new HashMap<>();
@@ -149,6 +166,39 @@ public class PageRankProcIntegrationTest {
         assertMapEquals(expected, actual);
     }
 
+    @Test
+    public void testPageRankStreamTopK() throws Exception {
+        final List<Long> actual = new ArrayList<>();
+        runQuery(
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {topK:2, graph:'"+graphImpl+"'}) YIELD nodeId, score",
+                row -> {
+                    final long nodeId = row.getNumber("nodeId").longValue();
+                    assertEquals(expected.get(nodeId), row.getNumber("score").doubleValue(), 0.1);
+                    actual.add(nodeId);
+                });
+
+        assertEquals(Arrays.asList(nodeId("b"), nodeId("c")), actual);
+    }
+
+    @Test
+    public void testPageRankWriteBackTopK() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {topK:2, writeProperty:'topRank', graph:'"+graphImpl+"'}) YIELD written",
+                row -> assertEquals(2L, row.getNumber("written").longValue()));
+
+        try (Transaction tx = db.beginTx()) {
+            for (Long nodeId : expected.keySet()) {
+                final Node node = db.getNodeById(nodeId);
+                if (nodeId == nodeId("b") || nodeId == nodeId("c")) {
+                    assertEquals(expected.get(nodeId), ((Number) node.getProperty("topRank")).doubleValue(), 0.1);
+                } else {
+                    assertFalse(node.hasProperty("topRank"));
+                }
+            }
+            tx.success();
+        }
+    }
+
     @Test
     public void testPageRankWriteBack() throws Exception {
         runQuery(
@@ -164,6 +214,22 @@ public class PageRankProcIntegrationTest {
         assertResult("pagerank");
     }
 
+    @Test
+    public void testPageRankTolerance() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {iterations:100, tolerance:0.0001, graph:'"+graphImpl+"'}) " +
+                        "YIELD iterations, didConverge, residuals",
+                row -> {
+                    List<?> residuals = (List<?>) row.get("residuals");
+                    assertTrue(row.getBoolean("didConverge"));
+                    assertTrue(row.getNumber("iterations").intValue() < 100);
+                    assertEquals(row.getNumber("iterations").intValue(), residuals.size());
+                    assertTrue(((Number) residuals.get(residuals.size() - 1)).doubleValue() < 0.0001);
+                });
+
+        assertResult("pagerank");
+    }
+
     @Test
     public void testPageRankWriteBackUnderDifferentProperty() throws Exception {
         runQuery(
@@ -190,6 +256,47 @@ public class PageRankProcIntegrationTest {
         assertResult("pagerank");
     }
 
+    @Test
+    public void testPageRankExportToFiles() throws Exception {
+        final Path dir = EXPORT_ROOT.getRoot().toPath().resolve("ranks-" + graphImpl);
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {write:false, exportPath:$path, graph:'"+graphImpl+"'}) YIELD write, writeMillis, exportMillis, exportFiles",
+                Collections.singletonMap("path", "ranks-" + graphImpl),
+                row -> {
+                    assertFalse(row.getBoolean("write"));
+                    assertEquals(-1L, row.getNumber("writeMillis").longValue());
+                    assertTrue(row.getNumber("exportMillis").longValue() >= 0L);
+                    assertEquals(1L, row.getNumber("exportFiles").longValue());
+                });
+
+        final List<String> lines = Files.readAllLines(dir.resolve("pagerank-00000.csv"), StandardCharsets.UTF_8);
+        assertEquals("nodeId,score", lines.get(0));
+        final Map<Long, Double> actual = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            final String[] columns = line.split(",");
+            actual.put(Long.parseLong(columns[0]), Double.parseDouble(columns[1]));
+        }
+        assertMapEquals(expected, actual);
+    }
+
+    @Test
+    public void testPageRankExportOutsideOfExportDirectory() throws Exception {
+        final String outside = EXPORT_ROOT.getRoot().getParentFile().getAbsolutePath();
+        for (String config : new String[]{
+                "exportPath:'../ranks'",
+                "exportPath:'" + outside + "'",
+                "exportPath:'ranks', writeProperty:'../pagerank'"}) {
+            try {
+                runQuery(
+                        "CALL algo.pageRank('Label1', 'TYPE1', {write:false, " + config + ", graph:'" + graphImpl + "'}) YIELD exportFiles",
+                        row -> {});
+                fail("exported with " + config);
+            } catch (RuntimeException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("export"));
+            }
+        }
+    }
+
     @Test
     public void testPageRankParallelExecution() throws Exception {
         final Map<Long, Double> actual = new HashMap<>();
@@ -207,7 +314,14 @@ public class PageRankProcIntegrationTest {
     private static void runQuery(
             String query,
             Consumer<Result.ResultRow> check) {
-        try (Result result = db.execute(query)) {
+        runQuery(query, Collections.emptyMap(), check);
+    }
+
+    private static void runQuery(
+            String query,
+            Map<String, Object> params,
+            Consumer<Result.ResultRow> check) {
+        try (Result result = db.execute(query, params)) {
             result.accept(row -> {
                 check.accept(row);
                 return true;
@@ -215,6 +329,14 @@ public class PageRankProcIntegrationTest {
         }
     }
 
+    private static long nodeId(String name) {
+        try (Transaction tx = db.beginTx()) {
+            final long id = db.findNode(Label.label("Label1"), "name", name).getId();
+            tx.success();
+            return id;
+        }
+    }
+
     private void assertResult(final String scoreProperty) {
         try (Transaction tx = db.beginTx()) {
             for (Map.Entry<Long, Double> entry : expected.entrySet()) {
@@ -39,8 +39,13 @@ import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 
@@ -134,6 +139,36 @@ public class ParallelBetweennessCentralityIntegrationTest {
         testBetweennessWrite(cypher);
     }
 
+    @Test
+    public void testTopKStream() throws Exception {
+        for (int concurrency : new int[]{1, 4}) {
+            final List<Long> nodes = new ArrayList<>();
+            db.execute("CALL algo.betweenness.stream('', '', {topK:3, concurrency:$concurrency}) YIELD nodeId, centrality",
+                    Collections.singletonMap("concurrency", concurrency)).accept(row -> {
+                nodes.add(row.getNumber("nodeId").longValue());
+                assertEquals(nodes.size() == 1 ? 25.0 : 6.0, row.getNumber("centrality").doubleValue(), 0.01);
+                return true;
+            });
+            assertEquals(3, nodes.size());
+            assertEquals(centerNodeId, (long) nodes.get(0));
+            // ties ordered by node id
+            assertTrue(nodes.get(1) < nodes.get(2));
+        }
+    }
+
+    @Test
+    public void testTopKWrite() throws Exception {
+        db.execute("CALL algo.betweenness('', '', {concurrency:4, write:true, writeProperty:'topBc', topK:1}) YIELD nodes")
+                .close();
+        final List<Long> written = new ArrayList<>();
+        db.execute("MATCH (n:Node) WHERE exists(n.topBc) RETURN id(n) as id, n.topBc as bc").accept(row -> {
+            written.add(row.getNumber("id").longValue());
+            assertEquals(25.0, row.getNumber("bc").doubleValue(), 0.01);
+            return true;
+        });
+        assertEquals(Collections.singletonList(centerNodeId), written);
+    }
+
     public void testBetweennessWrite(String cypher) {
         db.execute(cypher).accept(row -> {
             assertNotEquals(-1L, row.getNumber("writeMillis").longValue());
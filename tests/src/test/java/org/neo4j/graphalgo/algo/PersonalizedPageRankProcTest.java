@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.loadgraph.GraphStatePool;
+import org.neo4j.graphalgo.impl.HugePersonalizedPageRank;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PersonalizedPageRankProcTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        db = TestDatabaseCreator.createTestDatabase();
+        final Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(PageRankProc.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        db.execute("CREATE (a:User {name:'a'}), (b:User {name:'b'}), (c:User {name:'c'}), " +
+                "(d:User {name:'d'}), (x:User {name:'x'}), (y:User {name:'y'}), " +
+                "(a)-[:LIKES]->(b), (b)-[:LIKES]->(c), (c)-[:LIKES]->(a), (a)-[:LIKES]->(d), " +
+                "(x)-[:LIKES]->(y), (y)-[:LIKES]->(x), " +
+                "(a)-[:KNOWS]->(x), (x)-[:KNOWS]->(a)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testScoresOnlyReachableNodes() throws Exception {
+        final List<String> names = names("MATCH (u:User {name:'a'}) WITH collect(u) AS sources " +
+                "CALL algo.pageRank.personalized.stream(sources, 'User', 'LIKES', {tolerance:1e-9}) " +
+                "YIELD node, score RETURN node.name AS name, score");
+        assertEquals(4, names.size());
+        assertEquals("a", names.get(0));
+        assertTrue(!names.contains("x") && !names.contains("y"));
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        final List<String> names = names("MATCH (u:User {name:'x'}) WITH collect(u) AS sources " +
+                "CALL algo.pageRank.personalized.stream(sources, 'User', 'LIKES', {limit:1}) " +
+                "YIELD node, score RETURN node.name AS name, score");
+        assertEquals(Collections.singletonList("x"), names);
+    }
+
+    @Test
+    public void testNamedGraph() throws Exception {
+        db.execute("CALL algo.graph.load('ppr', 'User', 'LIKES', {graph:'huge', direction:'OUTGOING'})").close();
+        try {
+            final double[] tolerances = {1e-9, 1e-8, 1e-7};
+            for (double tolerance : tolerances) {
+                final List<String> names = names("MATCH (u:User {name:'a'}) WITH collect(u) AS sources " +
+                        "CALL algo.pageRank.personalized.stream(sources, null, null, {graph:'ppr', tolerance:" + tolerance + "}) " +
+                        "YIELD node, score RETURN node.name AS name, score");
+                assertEquals(4, names.size());
+                assertEquals("a", names.get(0));
+            }
+            // one state shared by all tolerances
+            final GraphStatePool<HugePersonalizedPageRank> pool = GraphStatePool.of(
+                    "ppr",
+                    HugePersonalizedPageRank.class.getName() + ":" + Direction.OUTGOING + ":null",
+                    () -> null,
+                    state -> {});
+            assertEquals(1L, pool.created());
+            assertEquals(2L, pool.reused());
+        } finally {
+            db.execute("CALL algo.graph.remove('ppr')").close();
+        }
+    }
+
+    @Test
+    public void testRelationshipTypesOfNamedGraph() throws Exception {
+        db.execute("CALL algo.graph.load('ppr-types', 'User', 'LIKES|KNOWS', {graph:'huge', direction:'OUTGOING'})").close();
+        try {
+            for (int run = 0; run < 2; run++) {
+                final List<String> likes = names("MATCH (u:User {name:'a'}) WITH collect(u) AS sources " +
+                        "CALL algo.pageRank.personalized.stream(sources, null, 'LIKES', {graph:'ppr-types', tolerance:1e-9}) " +
+                        "YIELD node, score RETURN node.name AS name, score");
+                assertEquals(4, likes.size());
+                assertTrue(!likes.contains("x") && !likes.contains("y"));
+
+                final List<String> knows = names("MATCH (u:User {name:'a'}) WITH collect(u) AS sources " +
+                        "CALL algo.pageRank.personalized.stream(sources, null, 'KNOWS', {graph:'ppr-types', tolerance:1e-9}) " +
+                        "YIELD node, score RETURN node.name AS name, score");
+                assertEquals(2, knows.size());
+                assertEquals("a", knows.get(0));
+                assertEquals("x", knows.get(1));
+            }
+        } finally {
+            db.execute("CALL algo.graph.remove('ppr-types')").close();
+        }
+    }
+
+    private static List<String> names(String query) {
+        final List<String> names = new ArrayList<>();
+        double last = Double.MAX_VALUE;
+        try (Result result = db.execute(query)) {
+            while (result.hasNext()) {
+                final Map<String, Object> row = result.next();
+                final double score = (double) row.get("score");
+                assertTrue(score > 0.0 && score <= last);
+                last = score;
+                names.add((String) row.get("name"));
+            }
+        }
+        return names;
+    }
+}
@@ -86,24 +86,29 @@ public class ShortestPathIntegrationTest {
                 .registerProcedure(ShortestPathProc.class);
     }
 
-    @Parameterized.Parameters(name = "{0}")
+    @Parameterized.Parameters(name = "{0}, {1}")
     public static Collection<Object[]> data() {
         return Arrays.asList(
-                new Object[]{"Heavy"},
-                new Object[]{"Light"},
-                new Object[]{"Kernel"}
+                new Object[]{"Heavy", "dijkstra"},
+                new Object[]{"Light", "dijkstra"},
+                new Object[]{"Kernel", "dijkstra"},
+                new Object[]{"Huge", "bidirectional"},
+                new Object[]{"Huge", "astar"}
         );
     }
 
     @Parameterized.Parameter
     public String graphImpl;
 
+    @Parameterized.Parameter(1)
+    public String algorithm;
+
     @Test
     public void testDijkstraStream() throws Exception {
         PathConsumer consumer = mock(PathConsumer.class);
         db.execute(
                 "MATCH (start:Node{type:'start'}), (end:Node{type:'end'}) " +
-                        "CALL algo.shortestPath.stream(start, end, 'cost',{graph:'" + graphImpl + "'}) " +
+                        "CALL algo.shortestPath.stream(start, end, 'cost',{graph:'" + graphImpl + "', algorithm:'" + algorithm + "'}) " +
                         "YIELD nodeId, cost RETURN nodeId, cost")
                 .accept((Result.ResultVisitor<Exception>) row -> {
                     consumer.accept((Long) row.getNumber("nodeId"), (Double) row.getNumber("cost"));
@@ -120,7 +125,7 @@ public class ShortestPathIntegrationTest {
     public void testDijkstra() throws Exception {
         db.execute(
                 "MATCH (start:Node{type:'start'}), (end:Node{type:'end'}) " +
-                        "CALL algo.shortestPath(start, end, 'cost',{graph:'" + graphImpl + "', write:true, writeProperty:'step'}) " +
+                        "CALL algo.shortestPath(start, end, 'cost',{graph:'" + graphImpl + "', algorithm:'" + algorithm + "', write:true, writeProperty:'step'}) " +
                         "YIELD loadMillis, evalMillis, writeMillis, nodeCount, totalCost\n" +
                         "RETURN loadMillis, evalMillis, writeMillis, nodeCount, totalCost")
                 .accept((Result.ResultVisitor<Exception>) row -> {
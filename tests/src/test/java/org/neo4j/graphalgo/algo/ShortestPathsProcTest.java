@@ -113,7 +113,8 @@ public final class ShortestPathsProcTest {
         return Arrays.asList(
                 new Object[]{"Heavy"},
                 new Object[]{"Light"},
-                new Object[]{"Kernel"}
+                new Object[]{"Kernel"},
+                new Object[]{"Huge"}
         );
     }
 
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * (a)-[3.0]->(b), (a)-[1.0]->(c), (d)-[0.0]->(a)
+ */
+public class WeightedPageRankProcTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:'a', prior:2.0})\n" +
+            "CREATE (b:Node {name:'b', prior:1.0})\n" +
+            "CREATE (c:Node {name:'c', prior:0.0})\n" +
+            "CREATE (d:Node {name:'d'})\n" +
+            "CREATE\n" +
+            "  (a)-[:TYPE {amount:3.0}]->(b),\n" +
+            "  (a)-[:TYPE {amount:1.0}]->(c),\n" +
+            "  (d)-[:TYPE {amount:0.0}]->(a)";
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(PageRankProc.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testUnweighted() {
+        final Map<String, Double> scores = stream("{graph:'huge'}");
+        assertEquals(0.2775, scores.get("a"), 1e-3);
+        assertEquals(0.2679, scores.get("b"), 1e-3);
+        assertEquals(0.2679, scores.get("c"), 1e-3);
+        assertEquals(0.15, scores.get("d"), 1e-3);
+    }
+
+    @Test
+    public void testWeighted() {
+        final Map<String, Double> scores = stream("{weightProperty:'amount'}");
+        // d has no positive weight and distributes nothing
+        assertEquals(0.15, scores.get("a"), 1e-3);
+        assertEquals(0.15 + 0.85 * 0.15 * 0.75, scores.get("b"), 1e-3);
+        assertEquals(0.15 + 0.85 * 0.15 * 0.25, scores.get("c"), 1e-3);
+        assertEquals(0.15, scores.get("d"), 1e-3);
+    }
+
+    @Test
+    public void testWeightedParallel() {
+        final Map<String, Double> scores = stream("{weightProperty:'amount', batchSize:1, concurrency:4}");
+        assertEquals(0.15, scores.get("a"), 1e-3);
+        assertEquals(0.15 + 0.85 * 0.15 * 0.75, scores.get("b"), 1e-3);
+        assertEquals(0.15 + 0.85 * 0.15 * 0.25, scores.get("c"), 1e-3);
+        assertEquals(0.15, scores.get("d"), 1e-3);
+    }
+
+    @Test
+    public void testWeightedWithTeleport() {
+        final Map<String, Double> scores = stream("{weightProperty:'amount', teleportProperty:'prior'}");
+        // the priors are scaled to an average of 1: 4 nodes / 3.0 total
+        assertEquals(0.4, scores.get("a"), 1e-3);
+        assertEquals(0.2 + 0.85 * 0.4 * 0.75, scores.get("b"), 1e-3);
+        assertEquals(0.85 * 0.4 * 0.25, scores.get("c"), 1e-3);
+        assertEquals(0.0, scores.get("d"), 1e-3);
+    }
+
+    @Test
+    public void testWeightedWriteBack() {
+        db.execute("CALL algo.pageRank('Node', 'TYPE', {weightProperty:'amount', writeProperty:'weightedRank'}) " +
+                "YIELD nodes RETURN nodes").close();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("MATCH (n:Node) RETURN n.name AS name, n.weightedRank AS rank").accept(row -> {
+                if ("b".equals(row.getString("name"))) {
+                    assertEquals(0.15 + 0.85 * 0.15 * 0.75, row.getNumber("rank").doubleValue(), 1e-3);
+                }
+                return true;
+            });
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testWeightedRequiresHugeGraph() {
+        try {
+            stream("{weightProperty:'amount', graph:'heavy'}");
+            fail("weighted page rank must not run on a heavy graph");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("requires a huge graph"));
+        }
+    }
+
+    private static Map<String, Double> stream(String config) {
+        final Map<String, Double> scores = new HashMap<>();
+        db.execute("CALL algo.pageRank.stream('Node', 'TYPE', " + config + ") YIELD node, score " +
+                "RETURN node.name AS name, score").accept(row -> {
+            scores.put(row.getString("name"), row.getNumber("score").doubleValue());
+            return true;
+        });
+        return scores;
+    }
+}
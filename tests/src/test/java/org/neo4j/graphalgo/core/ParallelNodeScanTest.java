@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
+import org.neo4j.graphalgo.core.utils.ParallelNodeScan;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * compares id maps built by the parallel node scan with the single threaded import
+ */
+@RunWith(Parameterized.class)
+public final class ParallelNodeScanTest {
+
+    private static final int NODE_COUNT = ParallelNodeScan.RANGE_ALIGNMENT * 3 + 42;
+    private static final int CONCURRENCY = 4;
+
+    private static GraphDatabaseAPI db;
+
+    @Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "Heavy"},
+                new Object[]{HugeGraphFactory.class, "Huge"},
+                new Object[]{GraphViewFactory.class, "Kernel"}
+        );
+    }
+
+    @Parameterized.Parameter
+    public Class<? extends GraphFactory> graphImpl;
+
+    @Parameterized.Parameter(1)
+    public String name;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            for (int i = 0; i < NODE_COUNT; i++) {
+                final Node node = db.createNode();
+                if (i % 3 == 0) {
+                    node.addLabel(Label.label("Dense"));
+                }
+                if (i % 50 == 0) {
+                    node.addLabel(Label.label("Sparse"));
+                }
+            }
+            tx.success();
+        }
+        // leave holes in the id space
+        try (Transaction tx = db.beginTx()) {
+            for (int i = 0; i < NODE_COUNT; i += 7) {
+                db.getNodeById(i).delete();
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testHeuristic() {
+        final long highId = ParallelNodeScan.highId(db);
+        assertTrue(highId >= NODE_COUNT);
+        assertTrue(ParallelNodeScan.isWorthwhile(CONCURRENCY, ReadOperations.ANY_LABEL, 0, highId));
+        assertTrue(ParallelNodeScan.isWorthwhile(CONCURRENCY, 0, highId / 3, highId));
+        assertFalse(ParallelNodeScan.isWorthwhile(CONCURRENCY, 0, highId / 50, highId));
+        assertFalse(ParallelNodeScan.isWorthwhile(1, ReadOperations.ANY_LABEL, 0, highId));
+    }
+
+    @Test
+    public void testAllNodes() {
+        assertSameMapping(null);
+    }
+
+    @Test
+    public void testDenseLabel() {
+        assertSameMapping("Dense");
+    }
+
+    @Test
+    public void testSparseLabel() {
+        assertSameMapping("Sparse");
+    }
+
+    private void assertSameMapping(String label) {
+        final Graph expected = load(label, false);
+        final Graph actual = load(label, true);
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (int i = 0; i < expected.nodeCount(); i++) {
+            final long nodeId = expected.toOriginalNodeId(i);
+            assertEquals(nodeId, actual.toOriginalNodeId(i));
+            assertEquals(i, actual.toMappedNodeId(nodeId));
+        }
+    }
+
+    private Graph load(String label, boolean parallel) {
+        final GraphLoader loader = new GraphLoader(db)
+                .withOptionalLabel(label)
+                .withAnyRelationshipType();
+        if (parallel) {
+            loader.withExecutorService(Pools.DEFAULT).withConcurrency(CONCURRENCY);
+        } else {
+            loader.withoutExecutorService().withConcurrency(1);
+        }
+        return loader.load(graphImpl);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.DataWriteOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.TokenWriteOperations;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphReorderingTest {
+
+    private static final int NODES = 2000;
+    private static final int BATCH_SIZE = 100;
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Test
+    public void shouldKeepOutgoingRelationshipsWithDegreeOrder() throws Exception {
+        mkDb();
+        assertSameGraph(HugeNodeOrdering.DEGREE, Direction.OUTGOING, false);
+    }
+
+    @Test
+    public void shouldKeepBothRelationshipsWithBfsOrder() throws Exception {
+        mkDb();
+        assertSameGraph(HugeNodeOrdering.BFS, Direction.BOTH, false);
+    }
+
+    @Test
+    public void shouldKeepUndirectedRelationshipsWithBfsOrder() throws Exception {
+        mkDb();
+        assertSameGraph(HugeNodeOrdering.BFS, Direction.BOTH, true);
+    }
+
+    @Test
+    public void shouldOrderByDescendingDegree() throws Exception {
+        mkDb();
+        HugeGraph graph = load(HugeNodeOrdering.DEGREE, Direction.OUTGOING, false);
+        int prev = Integer.MAX_VALUE;
+        for (long node = 0L; node < graph.nodeCount(); node++) {
+            int degree = graph.degree(node, Direction.OUTGOING);
+            assertTrue(degree <= prev);
+            prev = degree;
+        }
+    }
+
+    @Test
+    public void shouldParseOrderingNames() throws Exception {
+        assertEquals(HugeNodeOrdering.NONE, HugeNodeOrdering.parse(null));
+        assertEquals(HugeNodeOrdering.NONE, HugeNodeOrdering.parse("none"));
+        assertEquals(HugeNodeOrdering.DEGREE, HugeNodeOrdering.parse("degree"));
+        assertEquals(HugeNodeOrdering.BFS, HugeNodeOrdering.parse(" Bfs "));
+    }
+
+    private void assertSameGraph(
+            HugeNodeOrdering ordering,
+            Direction direction,
+            boolean undirected) {
+        HugeGraph expected = load(HugeNodeOrdering.NONE, direction, undirected);
+        HugeGraph actual = load(ordering, direction, undirected);
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        Direction[] directions = undirected || direction != Direction.BOTH
+                ? new Direction[]{Direction.OUTGOING}
+                : new Direction[]{Direction.OUTGOING, Direction.INCOMING};
+
+        expected.forEachNode((long node) -> {
+            long originalId = expected.toOriginalNodeId(node);
+            long reordered = actual.toHugeMappedNodeId(originalId);
+            assertEquals(originalId, actual.toOriginalNodeId(reordered));
+            for (Direction d : directions) {
+                assertEquals(
+                        targets(expected, node, d),
+                        targets(actual, reordered, d));
+            }
+            actual.forEachRelationship(reordered, directions[0], (s, t) -> {
+                long source = actual.toOriginalNodeId(s);
+                long target = actual.toOriginalNodeId(t);
+                double expectedWeight = expected.weightOf(
+                        expected.toHugeMappedNodeId(source),
+                        expected.toHugeMappedNodeId(target));
+                assertEquals(expectedWeight, actual.weightOf(s, t), 1e-6);
+                return true;
+            });
+            return true;
+        });
+    }
+
+    private static LongSet targets(HugeGraph graph, long node, Direction direction) {
+        LongSet targets = new LongHashSet();
+        final long[] last = {-1L};
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            // adjacency must stay sorted for intersections
+            assertTrue(t > last[0]);
+            last[0] = t;
+            targets.add(graph.toOriginalNodeId(t));
+            return true;
+        });
+        return targets;
+    }
+
+    private HugeGraph load(HugeNodeOrdering ordering, Direction direction, boolean undirected) {
+        return (HugeGraph) new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 0)
+                .withDirection(direction)
+                .asUndirected(undirected)
+                .withExecutorService(Pools.DEFAULT)
+                .withBatchSize(BATCH_SIZE)
+                .withReordering(ordering)
+                .load(HugeGraphFactory.class);
+    }
+
+    private void mkDb() {
+        db.executeAndCommit(__ -> {
+            try (Statement st = db.statement()) {
+                TokenWriteOperations token = st.tokenWriteOperations();
+                int type = token.relationshipTypeGetOrCreateForName("TYPE");
+                int key = token.propertyKeyGetOrCreateForName("weight");
+                DataWriteOperations write = st.dataWriteOperations();
+
+                long[] nodeIds = new long[NODES];
+                for (int i = 0; i < NODES; i++) {
+                    nodeIds[i] = write.nodeCreate();
+                }
+                Random random = new Random(42L);
+                for (int i = 0; i < NODES - 1; i++) {
+                    // skewed degrees, so that the degree ordering actually moves nodes
+                    int degree = random.nextInt(1 + (i % 17) * 3);
+                    // only point forward and without parallel relationships,
+                    // so that every weight is unambiguous
+                    LongSet seen = new LongHashSet();
+                    for (int j = 0; j < degree; j++) {
+                        long source = nodeIds[i];
+                        long target = nodeIds[i + 1 + random.nextInt(NODES - i - 1)];
+                        if (!seen.add(target)) {
+                            continue;
+                        }
+                        long rel = write.relationshipCreate(type, source, target);
+                        write.relationshipSetProperty(rel, DefinedProperty.doubleProperty(key, source * NODES + target));
+                    }
+                }
+            } catch (KernelException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
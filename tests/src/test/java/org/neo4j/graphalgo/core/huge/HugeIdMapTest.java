@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeIdMapTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            // every third node has the label
+            for (int i = 0; i < 3000; i++) {
+                final Node node = db.createNode();
+                if (i % 3 == 0) {
+                    node.addLabel(() -> "A");
+                }
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testSuccinctIdMapCanBeDisabled() {
+        final HugeGraph succinct = load(true);
+        final HugeGraph sparse = load(false);
+
+        assertEquals(1000L, succinct.nodeCount());
+        assertEquals(1000L, sparse.nodeCount());
+        for (long nodeId = 0; nodeId < 3000; nodeId++) {
+            final long mapped = succinct.toHugeMappedNodeId(nodeId);
+            if (nodeId % 3 == 0) {
+                assertEquals(mapped, sparse.toHugeMappedNodeId(nodeId));
+                assertEquals(nodeId, sparse.toOriginalNodeId(mapped));
+                assertEquals(nodeId, succinct.toOriginalNodeId(mapped));
+            } else {
+                assertEquals(-1L, mapped);
+                assertEquals(false, sparse.contains(nodeId));
+            }
+        }
+    }
+
+    private static HugeGraph load(boolean succinctIdMap) {
+        return (HugeGraph) new GraphLoader(db)
+                .withLabel("A")
+                .withAnyRelationshipType()
+                .withSuccinctIdMap(succinctIdMap)
+                .load(HugeGraphFactory.class);
+    }
+}
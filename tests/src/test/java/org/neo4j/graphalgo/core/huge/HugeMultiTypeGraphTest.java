@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Arrays;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class HugeMultiTypeGraphTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {id: 0}) " +
+            "CREATE (b:Node {id: 1}) " +
+            "CREATE (c:Node {id: 2}) " +
+            "CREATE (d:Node {id: 3}) " +
+            "CREATE (a)-[:FOLLOWS {w: 1.0}]->(b) " +
+            "CREATE (a)-[:FOLLOWS {w: 2.0}]->(c) " +
+            "CREATE (a)-[:INTERACTS {w: 3.0}]->(d) " +
+            "CREATE (b)-[:INTERACTS {w: 4.0}]->(c) " +
+            "CREATE (a)-[:INTERACTS {w: 5.0}]->(b) " +
+            "CREATE (c)-[:OTHER {w: 6.0}]->(d)";
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    private HugeMultiTypeGraph graph;
+
+    @Before
+    public void setup() {
+        db.execute(DB_CYPHER).close();
+        graph = (HugeMultiTypeGraph) new GraphLoader(db)
+                .withRelationshipType("FOLLOWS|INTERACTS")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LoadGraphFactory.remove("multi");
+    }
+
+    @Test
+    public void shouldLoadAllTypes() throws Exception {
+        assertArrayEquals(new String[]{"FOLLOWS", "INTERACTS"}, graph.relationshipTypes());
+        assertEquals(4L, graph.nodeCount());
+        assertEquals(4, graph.degree(node(0), Direction.OUTGOING));
+        assertArrayEquals(ids(1, 1, 2, 3), targets(graph, 0));
+        assertArrayEquals(ids(), targets(graph, 2));
+    }
+
+    @Test
+    public void shouldFilterByType() throws Exception {
+        HugeGraph follows = graph.withRelationshipTypes("FOLLOWS");
+        assertEquals(4L, follows.nodeCount());
+        assertArrayEquals(ids(1, 2), targets(follows, 0));
+        assertArrayEquals(ids(), targets(follows, 1));
+
+        HugeGraph interacts = graph.withRelationshipTypes("INTERACTS");
+        assertArrayEquals(ids(1, 3), targets(interacts, 0));
+        assertArrayEquals(ids(2), targets(interacts, 1));
+
+        LongArrayList typed = new LongArrayList();
+        graph.forEachRelationship(node(1), Direction.OUTGOING, "INTERACTS", (s, t) -> {
+            typed.add(original(t));
+            return true;
+        });
+        assertArrayEquals(ids(2), sorted(typed.toArray()));
+    }
+
+    @Test
+    public void shouldKeepWeightsPerType() throws Exception {
+        HugeGraph follows = graph.withRelationshipTypes("FOLLOWS");
+        HugeGraph interacts = graph.withRelationshipTypes("INTERACTS");
+        assertEquals(1.0, follows.weightOf(node(0), node(1)), 0.0);
+        assertEquals(5.0, interacts.weightOf(node(0), node(1)), 0.0);
+        assertEquals(4.0, graph.weightOf(node(1), node(2)), 0.0);
+
+        double[] sum = {0.0};
+        graph.forEachRelationship((int) node(0), Direction.OUTGOING, (s, t, r, w) -> {
+            sum[0] += w;
+            return true;
+        });
+        assertEquals(1.0 + 2.0 + 3.0 + 5.0, sum[0], 0.0);
+    }
+
+    @Test
+    public void shouldStopIterationAcrossTypes() throws Exception {
+        int[] visited = {0};
+        graph.forEachRelationship(node(0), Direction.OUTGOING, (s, t) -> ++visited[0] < 3);
+        assertEquals(3, visited[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnTypeThatIsNotLoaded() throws Exception {
+        graph.withRelationshipTypes("OTHER");
+    }
+
+    @Test
+    public void shouldSelectTypesOfNamedGraph() throws Exception {
+        LoadGraphFactory.set("multi", graph);
+        Graph follows = new GraphLoader(db)
+                .withName("multi")
+                .withRelationshipType("FOLLOWS")
+                .load(LoadGraphFactory.class);
+        assertEquals(2, follows.degree((int) node(0), Direction.OUTGOING));
+
+        Graph both = new GraphLoader(db)
+                .withName("multi")
+                .withOptionalRelationshipType(null)
+                .load(LoadGraphFactory.class);
+        assertEquals(4, both.degree((int) node(0), Direction.OUTGOING));
+
+        follows.release();
+        assertEquals(4, graph.degree(node(0), Direction.OUTGOING));
+    }
+
+    private long node(long id) {
+        long[] nodeId = {-1L};
+        db.execute("MATCH (n:Node {id: $id}) RETURN id(n) AS nodeId", singletonMap("id", id))
+                .accept(row -> {
+                    nodeId[0] = row.getNumber("nodeId").longValue();
+                    return false;
+                });
+        return graph.toHugeMappedNodeId(nodeId[0]);
+    }
+
+    private long original(long nodeId) {
+        long[] id = {-1L};
+        db.execute("MATCH (n) WHERE id(n) = $nodeId RETURN n.id AS id",
+                singletonMap("nodeId", graph.toOriginalNodeId(nodeId)))
+                .accept(row -> {
+                    id[0] = row.getNumber("id").longValue();
+                    return false;
+                });
+        return id[0];
+    }
+
+    private long[] targets(HugeGraph g, long id) {
+        LongArrayList targets = new LongArrayList();
+        g.forEachRelationship(node(id), Direction.OUTGOING, (s, t) -> {
+            targets.add(original(t));
+            return true;
+        });
+        return sorted(targets.toArray());
+    }
+
+    private static long[] ids(long... ids) {
+        return ids;
+    }
+
+    private static long[] sorted(long[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
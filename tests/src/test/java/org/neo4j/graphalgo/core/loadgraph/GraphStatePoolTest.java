@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loadgraph;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class GraphStatePoolTest {
+
+    private static final String NAME = "statePoolTest";
+
+    private final List<long[]> disposed = new ArrayList<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        LoadGraphFactory.set(NAME, mock(Graph.class));
+    }
+
+    @After
+    public void tearDown() {
+        LoadGraphFactory.remove(NAME);
+    }
+
+    @Test
+    public void testReusesReleasedStates() throws Exception {
+        final GraphStatePool<long[]> pool = pool(2);
+        final long[] first = pool.acquire();
+        final long[] second = pool.acquire();
+        assertNotSame(first, second);
+        pool.release(first);
+        assertSame(first, pool.acquire());
+        assertEquals(2, pool.created());
+        assertEquals(1, pool.reused());
+        assertEquals(0, pool.idle());
+    }
+
+    @Test
+    public void testSamePoolForSameKey() throws Exception {
+        assertSame(pool(2), pool(2));
+    }
+
+    @Test
+    public void testDisposesStatesAboveMaxIdle() throws Exception {
+        final GraphStatePool<long[]> pool = pool(1);
+        final long[] first = pool.acquire();
+        final long[] second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        assertEquals(1, pool.idle());
+        assertEquals(1, disposed.size());
+        assertSame(second, disposed.get(0));
+    }
+
+    @Test
+    public void testDisposesStatesWhenGraphIsRemoved() throws Exception {
+        final GraphStatePool<long[]> pool = pool(2);
+        final long[] idle = pool.acquire();
+        final long[] borrowed = pool.acquire();
+        pool.release(idle);
+        LoadGraphFactory.remove(NAME);
+        assertEquals(1, disposed.size());
+        // states returned after the removal are disposed as well
+        pool.release(borrowed);
+        assertEquals(2, disposed.size());
+        assertTrue(disposed.contains(borrowed));
+    }
+
+    @Test
+    public void testReloadedGraphGetsNewPools() throws Exception {
+        final GraphStatePool<long[]> pool = pool(2);
+        pool.release(pool.acquire());
+        LoadGraphFactory.remove(NAME);
+        LoadGraphFactory.set(NAME, mock(Graph.class));
+        final GraphStatePool<long[]> reloaded = pool(2);
+        assertNotSame(pool, reloaded);
+        reloaded.release(reloaded.acquire());
+        LoadGraphFactory.remove(NAME);
+        assertEquals(2, disposed.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequiresLoadedGraph() throws Exception {
+        GraphStatePool.of("notLoaded", "key", () -> new long[0], state -> {});
+    }
+
+    private GraphStatePool<long[]> pool(int maxIdle) {
+        return GraphStatePool.of(
+                NAME,
+                "state",
+                () -> new long[created.incrementAndGet()],
+                disposed::add,
+                maxIdle);
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class ParallelResultStreamTest {
+
+    private static ExecutorService executor;
+
+    private final Random random = new Random();
+
+    @BeforeClass
+    public static void setupExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void shouldStreamAllNodesInOrder() {
+        final long nodeCount = between(0, 10 * ParallelResultStream.BATCH_SIZE);
+        final double[] values = values(nodeCount);
+        final List<long[]> expected = LongStream.range(0, nodeCount)
+                .mapToObj(n -> new long[]{n + 42L, Double.doubleToLongBits(values[(int) n])})
+                .collect(Collectors.toList());
+
+        assertRows(expected, ParallelResultStream.of(nodeCount, n -> n + 42L, n -> values[(int) n]));
+        assertRows(expected, ParallelResultStream.of(nodeCount, n -> n + 42L, n -> values[(int) n])
+                .parallel(executor, between(2, 8)));
+    }
+
+    @Test
+    public void shouldFilterByThreshold() {
+        final long nodeCount = between(1, 10 * ParallelResultStream.BATCH_SIZE);
+        final double[] values = values(nodeCount);
+        final double threshold = randomDouble();
+        final List<long[]> expected = LongStream.range(0, nodeCount)
+                .filter(n -> values[(int) n] >= threshold)
+                .mapToObj(n -> new long[]{n, Double.doubleToLongBits(values[(int) n])})
+                .collect(Collectors.toList());
+
+        assertRows(expected, ParallelResultStream.of(nodeCount, n -> n, n -> values[(int) n])
+                .withThreshold(threshold)
+                .parallel(executor, between(2, 8)));
+    }
+
+    @Test
+    public void shouldStopEarly() {
+        final long nodeCount = 100L * ParallelResultStream.BATCH_SIZE;
+        assertEquals(10L, ParallelResultStream.of(nodeCount, n -> n, n -> 1.0)
+                .parallel(executor, 4)
+                .stream((node, value) -> node)
+                .limit(10L)
+                .count());
+    }
+
+    @Test
+    public void shouldSelectTopK() {
+        final long nodeCount = between(1, 10 * ParallelResultStream.BATCH_SIZE);
+        final double[] values = values(nodeCount);
+        // some ties
+        for (int i = 0; i < nodeCount; i += 7) {
+            values[i] = 0.5;
+        }
+        final int k = between(0, 200);
+        final double threshold = randomBoolean() ? Double.NaN : 0.3;
+
+        final long[] expected = LongStream.range(0, nodeCount)
+                .filter(n -> Double.isNaN(threshold) || values[(int) n] >= threshold)
+                .boxed()
+                .sorted((a, b) -> {
+                    final int c = Double.compare(values[(int) (long) b], values[(int) (long) a]);
+                    return c != 0 ? c : Long.compare(a, b);
+                })
+                .limit(k)
+                .mapToLong(n -> n)
+                .toArray();
+
+        final ParallelResultStream serial = ParallelResultStream.of(nodeCount, n -> n, n -> values[(int) n])
+                .withThreshold(threshold)
+                .withTopK(k);
+        assertArrayEquals(expected, serial.topKNodes());
+
+        final long[] streamed = ParallelResultStream.of(nodeCount, n -> n + 1L, n -> values[(int) n])
+                .withThreshold(threshold)
+                .withTopK(k)
+                .parallel(executor, between(2, 8))
+                .stream((node, value) -> {
+                    assertEquals(values[(int) node - 1], value, 0.0);
+                    return node - 1L;
+                })
+                .mapToLong(n -> n)
+                .toArray();
+        assertArrayEquals(expected, streamed);
+    }
+
+    private int between(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    private double randomDouble() {
+        return random.nextDouble();
+    }
+
+    private boolean randomBoolean() {
+        return random.nextBoolean();
+    }
+
+    private double[] values(long nodeCount) {
+        final double[] values = new double[(int) nodeCount];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomDouble();
+        }
+        return values;
+    }
+
+    private static void assertRows(List<long[]> expected, ParallelResultStream stream) {
+        final List<long[]> actual = stream
+                .stream((node, value) -> new long[]{node, Double.doubleToLongBits(value)})
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Arrays.toString(expected.get(i)), Arrays.toString(actual.get(i)));
+        }
+    }
+}
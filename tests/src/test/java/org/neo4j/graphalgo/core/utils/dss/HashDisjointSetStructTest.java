@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.dss;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashDisjointSetStructTest {
+
+    private final HashDisjointSetStruct struct = new HashDisjointSetStruct();
+
+    @Test
+    public void testSingletons() {
+        assertEquals(42L, struct.find(42L));
+        assertEquals(-42L, struct.find(-42L));
+        assertEquals(0, struct.size());
+    }
+
+    @Test
+    public void testUnion() {
+        assertTrue(struct.union(5L, 3L));
+        assertTrue(struct.union(3L, 7L));
+        assertFalse(struct.union(7L, 5L));
+        assertEquals(3L, struct.find(5L));
+        assertEquals(3L, struct.find(7L));
+        assertEquals(2L, struct.unionCount());
+    }
+
+    @Test
+    public void testNonNegativeKeysArePreferred() {
+        struct.union(~10L, ~11L);
+        struct.union(~11L, 100L);
+        struct.union(~12L, ~13L);
+        assertEquals(100L, struct.find(~10L));
+        assertEquals(~13L, struct.find(~12L));
+    }
+
+    @Test
+    public void testRootAfterCompress() {
+        for (long i = 1000L; i > 0L; i--) {
+            struct.union(i, i - 1);
+        }
+        struct.compress();
+        for (long i = 0L; i <= 1000L; i++) {
+            assertEquals(0L, struct.root(i));
+        }
+        assertEquals(1001L, struct.root(1001L));
+    }
+}
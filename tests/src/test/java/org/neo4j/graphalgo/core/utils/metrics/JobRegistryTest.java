@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Level;
+import org.neo4j.logging.NullLog;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JobRegistryTest {
+
+    @Test
+    public void testRegisterAndClose() throws Exception {
+        final Job job = JobRegistry.start("test", NullLog.getInstance());
+        assertTrue(JobRegistry.jobs().contains(job));
+        job.close();
+        assertFalse(JobRegistry.jobs().contains(job));
+        assertTrue(job.isDone());
+        assertEquals(1.0, job.progress(), 0.0);
+    }
+
+    @Test
+    public void testStripedProgressFromManyThreads() throws Exception {
+        try (Job job = JobRegistry.start("test", NullLog.getInstance())) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(Pools.DEFAULT.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        job.addProgress(1L, 8000L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(4000L, job.work());
+            assertEquals(0.5, job.progress(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testPercentProgressOnlyAdvances() throws Exception {
+        try (Job job = JobRegistry.start("test", NullLog.getInstance())) {
+            job.logProgress(0.5);
+            job.logProgress(0.2);
+            assertEquals(0.5, job.progress(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRate() throws Exception {
+        try (Job job = JobRegistry.start("test", NullLog.getInstance())) {
+            JobRegistry.sample();
+            job.addProgress(1000L, 10_000L);
+            Thread.sleep(10L);
+            JobRegistry.sample();
+            assertTrue(job.rate() > 0.0);
+        }
+    }
+
+    @Test
+    public void testPhases() throws Exception {
+        final Job job = JobRegistry.start("test", NullLog.getInstance());
+        job.startPhase("load");
+        assertEquals("load", job.phase());
+        job.startPhase("compute");
+        assertEquals("compute", job.phase());
+        job.close();
+        assertNull(job.phase());
+        final Map<String, Long> phases = job.phaseMillis();
+        assertEquals(2, phases.size());
+        assertTrue(phases.containsKey("load"));
+        assertTrue(phases.containsKey("compute"));
+    }
+
+    @Test
+    public void testMemory() throws Exception {
+        final AllocationTracker tracker = AllocationTracker.create();
+        tracker.add(42L);
+        try (Job job = JobRegistry.start("test", NullLog.getInstance(), tracker)) {
+            assertEquals(42L, job.memoryUsage());
+        }
+        try (Job job = JobRegistry.start("test", NullLog.getInstance())) {
+            assertEquals(-1L, job.memoryUsage());
+        }
+    }
+
+    @Test
+    public void testSamplerLogs() throws Exception {
+        final StringWriter buffer = new StringWriter();
+        final FormattedLog log = FormattedLog
+                .withLogLevel(Level.DEBUG)
+                .withCategory("Test")
+                .toPrintWriter(new PrintWriter(buffer));
+        try (Job job = JobRegistry.start("sampled", log, AllocationTracker.EMPTY, 0L)) {
+            job.logProgress(0.25);
+            JobRegistry.sample();
+            assertTrue(buffer.toString(), buffer.toString().contains("sampled 25%"));
+        }
+        assertTrue(buffer.toString().contains("sampled 100%"));
+    }
+}
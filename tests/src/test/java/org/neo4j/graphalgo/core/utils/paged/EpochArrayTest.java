@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EpochArrayTest {
+
+    private static final long SIZE = 100_000L;
+
+    @Test
+    public void testDoubleArray() throws Exception {
+        final EpochDoubleArray array = EpochDoubleArray.newArray(SIZE, Double.POSITIVE_INFINITY, AllocationTracker.EMPTY);
+        assertEquals(Double.POSITIVE_INFINITY, array.get(SIZE - 1), 0.0);
+        array.set(42L, 1.5);
+        array.set(SIZE - 1, 2.5);
+        assertTrue(array.contains(42L));
+        assertEquals(1.5, array.get(42L), 0.0);
+        assertEquals(2.5, array.get(SIZE - 1), 0.0);
+        array.reset();
+        assertFalse(array.contains(42L));
+        assertEquals(Double.POSITIVE_INFINITY, array.get(42L), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, array.get(SIZE - 1), 0.0);
+        array.set(42L, 3.5);
+        assertEquals(3.5, array.get(42L), 0.0);
+    }
+
+    @Test
+    public void testLongArray() throws Exception {
+        final EpochLongArray array = EpochLongArray.newArray(SIZE, -1L, AllocationTracker.EMPTY);
+        for (long i = 0; i < SIZE; i += 7) {
+            array.set(i, i);
+        }
+        for (int epoch = 0; epoch < 3; epoch++) {
+            array.reset();
+            for (long i = 0; i < SIZE; i++) {
+                assertEquals(-1L, array.get(i));
+            }
+            array.set(epoch, 23L);
+            assertEquals(23L, array.get(epoch));
+        }
+    }
+
+    @Test
+    public void testBitSet() throws Exception {
+        final EpochBitSet set = EpochBitSet.newBitSet(SIZE, AllocationTracker.EMPTY);
+        assertTrue(set.tryPut(7L));
+        assertFalse(set.tryPut(7L));
+        set.put(SIZE - 1);
+        assertTrue(set.contains(SIZE - 1));
+        set.remove(7L);
+        assertFalse(set.contains(7L));
+        set.clear();
+        assertFalse(set.contains(SIZE - 1));
+        assertTrue(set.tryPut(SIZE - 1));
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        final AllocationTracker tracker = AllocationTracker.create();
+        final EpochDoubleArray array = EpochDoubleArray.newArray(SIZE, 0.0, tracker);
+        assertTrue(tracker.tracked() > 0L);
+        tracker.remove(array.release());
+        assertEquals(0L, tracker.tracked());
+    }
+}
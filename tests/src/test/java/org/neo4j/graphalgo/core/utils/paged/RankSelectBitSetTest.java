@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RankSelectBitSetTest extends RandomizedTest {
+
+    @Test
+    public void testEmpty() {
+        final RankSelectBitSet bits = RankSelectBitSet.newBitSet(1000, AllocationTracker.EMPTY);
+        bits.build();
+        assertEquals(0, bits.cardinality());
+        assertEquals(0, bits.rank(0));
+        assertEquals(0, bits.rank(999));
+        assertEquals(-1, bits.select(0));
+        assertFalse(bits.get(42));
+    }
+
+    @Test
+    public void testBoundaries() {
+        final RankSelectBitSet bits = RankSelectBitSet.newBitSet(1025, AllocationTracker.EMPTY);
+        bits.set(0);
+        bits.set(63);
+        bits.set(64);
+        bits.set(511);
+        bits.set(512);
+        bits.set(1024);
+        bits.build();
+        assertEquals(6, bits.cardinality());
+        assertEquals(511, bits.select(3));
+        assertEquals(2, bits.rank(64));
+        assertEquals(5, bits.rank(1024));
+        assertEquals(1024, bits.select(5));
+        assertEquals(-1, bits.select(6));
+        assertFalse(bits.get(1025));
+        assertFalse(bits.get(-1));
+    }
+
+    @Test
+    @Repeat(iterations = 10)
+    public void testRankAndSelect() {
+        final long capacity = between(1, 300_000);
+        // from very sparse to dense, crossing select samples and empty blocks
+        final double density = randomFrom(new Double[]{0.0005, 0.01, 0.3, 0.9});
+        final BitSet expected = new BitSet();
+        final RankSelectBitSet bits = RankSelectBitSet.newBitSet(capacity, AllocationTracker.EMPTY);
+        for (int i = 0; i < capacity; i++) {
+            if (randomDouble() < density) {
+                expected.set(i);
+                bits.set(i);
+            }
+        }
+        bits.build();
+        assertEquals(expected.cardinality(), bits.cardinality());
+        long rank = 0;
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(expected.get(i), bits.get(i));
+            assertEquals(rank, bits.rank(i));
+            if (expected.get(i)) {
+                assertEquals(i, bits.select(rank));
+                rank++;
+            }
+        }
+        assertEquals(rank, bits.rank(capacity));
+    }
+
+    @Test
+    public void testMemoryUsage() {
+        final long capacity = 1L << 24;
+        final RankSelectBitSet bits = RankSelectBitSet.newBitSet(capacity, AllocationTracker.EMPTY);
+        for (long i = 0; i < capacity; i += 3) {
+            bits.set(i);
+        }
+        bits.build();
+        final long estimate = RankSelectBitSet.estimateMemoryUsage(capacity, bits.cardinality());
+        final long used = bits.release();
+        // the estimate includes the array instances themselves
+        assertTrue(estimate >= used && estimate - used < 1024);
+        final double bitsPerId = used * 8.0 / capacity;
+        // 1.125 bits per id and 1/16 bit for each third id, plus partly used pages
+        assertEquals(1.125 + 1.0 / 48.0, bitsPerId, 0.02);
+        assertTrue(RankSelectBitSet.estimateMemoryUsage(capacity) >= estimate);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeIndexedPriorityQueueTest extends RandomizedTest {
+
+    private static final List<LongFunction<HugeIndexedPriorityQueue>> QUEUES = Arrays.asList(
+            capacity -> new HugeDaryHeap(capacity, AllocationTracker.EMPTY),
+            capacity -> new HugeDaryHeap(capacity, 2, AllocationTracker.EMPTY),
+            capacity -> new HugeRadixHeap(capacity, AllocationTracker.EMPTY));
+
+    @Test
+    public void testIsEmpty() throws Exception {
+        for (LongFunction<HugeIndexedPriorityQueue> factory : QUEUES) {
+            final HugeIndexedPriorityQueue queue = factory.apply(10);
+            assertTrue(queue.isEmpty());
+            assertEquals(HugeIndexedPriorityQueue.NONE, queue.top());
+            assertEquals(HugeIndexedPriorityQueue.NONE, queue.pop());
+        }
+    }
+
+    @Test
+    public void testPopsInOrder() throws Exception {
+        for (LongFunction<HugeIndexedPriorityQueue> factory : QUEUES) {
+            final int size = between(100, 1000);
+            final HugeIndexedPriorityQueue queue = factory.apply(size);
+            final double[] costs = new double[size];
+            for (int i = 0; i < size; i++) {
+                costs[i] = randomDouble() * 100.0;
+                queue.add(i, costs[i]);
+            }
+            assertEquals(size, queue.size());
+            final double[] expected = costs.clone();
+            Arrays.sort(expected);
+            for (double cost : expected) {
+                assertEquals(cost, queue.topCost(), 0.0);
+                final long id = queue.pop();
+                assertEquals(cost, costs[(int) id], 0.0);
+                assertFalse(queue.contains(id));
+            }
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testDecreaseKey() throws Exception {
+        for (LongFunction<HugeIndexedPriorityQueue> factory : QUEUES) {
+            final HugeIndexedPriorityQueue queue = factory.apply(5);
+            for (int i = 0; i < 5; i++) {
+                queue.add(i, 10.0 + i);
+            }
+            queue.decreaseKey(4, 1.0);
+            queue.decreaseKey(3, 2.0);
+            assertFalse(queue.offer(3, 5.0));
+            assertTrue(queue.offer(2, 0.5));
+            assertEquals(5, queue.size());
+            assertEquals(2L, queue.pop());
+            assertEquals(4L, queue.pop());
+            assertEquals(3L, queue.pop());
+            assertEquals(0L, queue.pop());
+            assertEquals(1L, queue.pop());
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        for (LongFunction<HugeIndexedPriorityQueue> factory : QUEUES) {
+            final HugeIndexedPriorityQueue queue = factory.apply(100);
+            for (int i = 0; i < 100; i++) {
+                queue.add(i, between(0, 1000));
+            }
+            queue.pop();
+            queue.clear();
+            assertTrue(queue.isEmpty());
+            for (int i = 0; i < 100; i++) {
+                assertFalse(queue.contains(i));
+            }
+            queue.add(42, 1.0);
+            assertEquals(42L, queue.pop());
+        }
+    }
+
+    /**
+     * simulates a label setting algorithm: costs are never lower than
+     * the last popped cost, ids are added, decreased and popped at random
+     */
+    @Test
+    public void testMonotoneOperations() throws Exception {
+        for (LongFunction<HugeIndexedPriorityQueue> factory : QUEUES) {
+            final int capacity = between(100, 2000);
+            final HugeIndexedPriorityQueue queue = factory.apply(capacity);
+            final double[] costs = new double[capacity];
+            final boolean[] contained = new boolean[capacity];
+            double last = 0.0;
+            int size = 0;
+            for (int step = 0; step < capacity * 5; step++) {
+                final int id = between(0, capacity - 1);
+                if (randomBoolean() || size == 0) {
+                    final double cost = last + randomDouble() * 50.0;
+                    final boolean changed = queue.offer(id, cost);
+                    assertEquals(!contained[id] || cost < costs[id], changed);
+                    if (changed) {
+                        size += contained[id] ? 0 : 1;
+                        contained[id] = true;
+                        costs[id] = cost;
+                    }
+                } else {
+                    double min = Double.MAX_VALUE;
+                    for (int i = 0; i < capacity; i++) {
+                        if (contained[i]) {
+                            min = Math.min(min, costs[i]);
+                        }
+                    }
+                    final long popped = queue.pop();
+                    assertTrue(contained[(int) popped]);
+                    assertEquals(min, costs[(int) popped], 0.0);
+                    contained[(int) popped] = false;
+                    last = min;
+                    --size;
+                }
+                assertEquals(size, queue.size());
+            }
+        }
+    }
+
+    @Test
+    public void testRadixHeapInfiniteCosts() throws Exception {
+        final HugeRadixHeap queue = new HugeRadixHeap(4, AllocationTracker.EMPTY);
+        queue.add(3, Double.POSITIVE_INFINITY);
+        queue.add(2, 2.5);
+        queue.add(0, 0.0);
+        queue.add(1, 1.0);
+        for (long expected = 0L; expected < 4L; expected++) {
+            assertEquals(expected, queue.pop());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadixHeapRejectsLowerCosts() throws Exception {
+        final HugeRadixHeap queue = new HugeRadixHeap(3, AllocationTracker.EMPTY);
+        queue.add(0, 5.0);
+        queue.pop();
+        queue.add(1, 4.0);
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.scheduler;
+
+import org.junit.After;
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler.QueueStats;
+import org.neo4j.graphalgo.core.utils.scheduler.QueryScheduler.Ticket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class QuerySchedulerTest {
+
+    private final QueryScheduler scheduler = new QueryScheduler(4);
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testConcurrencyIsCappedByPriority() throws Exception {
+        try (Ticket interactive = scheduler.admit(Priority.INTERACTIVE, 16, TerminationFlag.RUNNING_TRUE);
+             Ticket normal = scheduler.admit(Priority.NORMAL, 16, TerminationFlag.RUNNING_TRUE);
+             Ticket batch = scheduler.admit(Priority.BATCH, 1, TerminationFlag.RUNNING_TRUE)) {
+            assertEquals(1, interactive.concurrency());
+            assertEquals(4, normal.concurrency());
+            assertEquals(1, batch.concurrency());
+        }
+    }
+
+    @Test
+    public void testQuotaLimitsRunningTasks() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (Ticket ticket = scheduler.admit(Priority.NORMAL, 2, TerminationFlag.RUNNING_TRUE)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(ticket.executor().submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    running.decrementAndGet();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(0, running.get());
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testClosedTicketRejectsTasks() throws Exception {
+        final Ticket ticket = scheduler.admit(Priority.NORMAL, 2, TerminationFlag.RUNNING_TRUE);
+        ticket.close();
+        assertFalse(ParallelUtil.canRunInParallel(ticket.executor()));
+        assertTrue(ticket.executor().awaitTermination(1, TimeUnit.SECONDS));
+        try {
+            ticket.executor().execute(() -> {});
+            fail("executor of a closed ticket must reject tasks");
+        } catch (RejectedExecutionException expected) {
+        }
+        // closing twice must not free another slot
+        ticket.close();
+        assertEquals(1L, stats(Priority.NORMAL).completed);
+        assertEquals(0, stats(Priority.NORMAL).running);
+    }
+
+    @Test
+    public void testJobWaitsForFreeSlot() throws Exception {
+        final int maxRunning = Priority.BATCH.maxRunning(4);
+        final List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < maxRunning; i++) {
+            tickets.add(scheduler.admit(Priority.BATCH, 1, TerminationFlag.RUNNING_TRUE));
+        }
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final CompletableFuture<Ticket> waiting = CompletableFuture.supplyAsync(() -> {
+            final Ticket ticket = scheduler.admit(Priority.BATCH, 1, TerminationFlag.RUNNING_TRUE);
+            admitted.countDown();
+            return ticket;
+        });
+        while (stats(Priority.BATCH).queued == 0) {
+            sleep(1);
+        }
+        assertFalse(admitted.await(50, TimeUnit.MILLISECONDS));
+
+        // interactive queries pass while the batch class is full
+        scheduler.admit(Priority.INTERACTIVE, 1, TerminationFlag.RUNNING_TRUE).close();
+
+        tickets.get(0).close();
+        assertTrue(admitted.await(10, TimeUnit.SECONDS));
+        waiting.get().close();
+        for (int i = 1; i < tickets.size(); i++) {
+            tickets.get(i).close();
+        }
+
+        final QueueStats stats = stats(Priority.BATCH);
+        assertEquals(maxRunning + 1, stats.admitted);
+        assertEquals(maxRunning + 1, stats.completed);
+        assertEquals(0, stats.queued);
+        assertTrue(stats.maxWaitMillis >= 50.0);
+        assertEquals(1L, stats(Priority.INTERACTIVE).admitted);
+    }
+
+    @Test
+    public void testTerminatedQueryLeavesQueue() throws Exception {
+        final List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < Priority.BATCH.maxRunning(4); i++) {
+            tickets.add(scheduler.admit(Priority.BATCH, 1, TerminationFlag.RUNNING_TRUE));
+        }
+        try {
+            scheduler.admit(Priority.BATCH, 1, () -> false);
+            fail("terminated query must not be admitted");
+        } catch (IllegalStateException expected) {
+        }
+        final QueueStats stats = stats(Priority.BATCH);
+        assertEquals(1L, stats.cancelled);
+        assertEquals(0, stats.queued);
+        tickets.forEach(Ticket::close);
+    }
+
+    @Test
+    public void testParsePriority() throws Exception {
+        assertEquals(Priority.INTERACTIVE, Priority.parse("interactive"));
+        assertEquals(Priority.BATCH, Priority.parse(" Batch "));
+        assertEquals(Priority.NORMAL, Priority.parse(""));
+        try {
+            Priority.parse("urgent");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals("Unknown priority: urgent", expected.getMessage());
+        }
+    }
+
+    private QueueStats stats(Priority priority) {
+        return scheduler.stats().stream()
+                .filter(s -> s.priority == priority)
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
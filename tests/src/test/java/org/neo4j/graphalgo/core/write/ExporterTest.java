@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExporterTest {
+
+    private static final int NODES = 100;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    private static Graph graph;
+
+    @BeforeClass
+    public static void setup() {
+        try (Transaction tx = DB.beginTx()) {
+            DB.execute("UNWIND range(1, " + NODES + ") AS i CREATE (:Node)").close();
+            tx.success();
+        }
+        graph = new GraphLoader(DB)
+                .withLabel("Node")
+                .withAnyRelationshipType()
+                .load(HeavyGraphFactory.class);
+    }
+
+    @Test
+    public void testWritesEveryValueByDefault() throws Exception {
+        final int[] values = new int[NODES];
+        Arrays.fill(values, 1);
+        final Exporter first = Exporter.of(DB, graph).build();
+        first.write("always", values, IntArrayTranslator.INSTANCE);
+        final Exporter second = Exporter.of(DB, graph).build();
+        second.write("always", values, IntArrayTranslator.INSTANCE);
+        assertEquals(NODES, second.writtenCount());
+        assertEquals(0L, second.skippedCount());
+    }
+
+    @Test
+    public void testSkipsEqualValues() throws Exception {
+        final int[] values = new int[NODES];
+        Arrays.fill(values, 1);
+        final Exporter first = Exporter.of(DB, graph).skipUnchanged(0.0).build();
+        first.write("equal", values, IntArrayTranslator.INSTANCE);
+        assertEquals(NODES, first.writtenCount());
+        assertEquals(0L, first.skippedCount());
+
+        values[0] = 2;
+        values[1] = 2;
+        final Exporter second = Exporter.of(DB, graph)
+                .parallel(Pools.DEFAULT, 4, TerminationFlag.RUNNING_TRUE)
+                .skipUnchanged(0.0)
+                .build();
+        second.write("equal", values, IntArrayTranslator.INSTANCE);
+        assertEquals(2L, second.writtenCount());
+        assertEquals(NODES - 2, second.skippedCount());
+        assertEquals(NODES + 2.0, sum("equal"), 1e-9);
+    }
+
+    @Test
+    public void testSkipsValuesWithinTolerance() throws Exception {
+        final double[] values = new double[NODES];
+        Arrays.fill(values, 1.0);
+        Exporter.of(DB, graph).build().write("tolerance", values, DoubleArrayTranslator.INSTANCE);
+
+        for (int i = 0; i < NODES; i++) {
+            values[i] = i % 2 == 0 ? 1.0 + 1e-9 : 2.0;
+        }
+        final Exporter exporter = Exporter.of(DB, graph).skipUnchanged(1e-6).build();
+        exporter.write("tolerance", values, DoubleArrayTranslator.INSTANCE);
+        assertEquals(NODES / 2, exporter.writtenCount());
+        assertEquals(NODES / 2, exporter.skippedCount());
+        // unchanged values keep their stored value
+        assertEquals(NODES / 2 * 1.0 + NODES / 2 * 2.0, sum("tolerance"), 1e-6);
+    }
+
+    @Test
+    public void testWritesRelationshipsInParallelBatches() throws Exception {
+        final Exporter exporter = Exporter.of(DB, graph)
+                .parallel(Pools.DEFAULT, 4, TerminationFlag.RUNNING_TRUE)
+                .withRelationshipBatchSize(7)
+                .build();
+        // a chain from every node to its successor with two properties
+        exporter.writeRelationships("NEXT", new String[]{"weight", "position"}, NODES - 1, (creator, node) ->
+                creator.create(node, node + 1, node * 2.0, node));
+        assertEquals(NODES - 1, exporter.relationshipCount());
+
+        try (Result result = DB.execute("MATCH (a:Node)-[r:NEXT]->(b:Node) RETURN id(a) AS a, id(b) AS b, r.weight AS weight, r.position AS position")) {
+            int count = 0;
+            while (result.hasNext()) {
+                final Map<String, Object> row = result.next();
+                final long position = ((Number) row.get("position")).longValue();
+                assertEquals(graph.toOriginalNodeId((int) position), ((Number) row.get("a")).longValue());
+                assertEquals(graph.toOriginalNodeId((int) position + 1), ((Number) row.get("b")).longValue());
+                assertEquals(position * 2.0, ((Number) row.get("weight")).doubleValue(), 0.0);
+                count++;
+            }
+            assertEquals(NODES - 1, count);
+        }
+    }
+
+    @Test
+    public void testWritesRelationshipsWithoutProperties() throws Exception {
+        final Exporter exporter = Exporter.of(DB, graph).build();
+        exporter.writeRelationships("PLAIN", new String[0], NODES - 1, (creator, node) ->
+                creator.create(node, node + 1));
+        assertEquals(NODES - 1, exporter.relationshipCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMorePropertyValuesThanProperties() throws Exception {
+        Exporter.of(DB, graph)
+                .build()
+                .writeRelationships("EMPTY", new String[0], 1, (creator, node) ->
+                        creator.create(node, node + 1, 1.0));
+    }
+
+    private static double sum(String property) {
+        return ((Number) DB.execute("MATCH (n:Node) RETURN sum(n." + property + ") AS sum")
+                .next()
+                .get("sum")).doubleValue();
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileExporterTest {
+
+    private static final int NODES = 25;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Graph graph;
+
+    @BeforeClass
+    public static void setup() {
+        try (Transaction tx = DB.beginTx()) {
+            DB.execute("UNWIND range(1, " + NODES + ") AS i CREATE (:Node)").close();
+            tx.success();
+        }
+        graph = new GraphLoader(DB)
+                .withLabel("Node")
+                .withAnyRelationshipType()
+                .load(HeavyGraphFactory.class);
+    }
+
+    @Test
+    public void testCsvSegments() throws Exception {
+        final double[] scores = new double[NODES];
+        final int[] communities = new int[NODES];
+        for (int i = 0; i < NODES; i++) {
+            scores[i] = i / 2.0;
+            communities[i] = i % 3 == 0 ? -1 : i % 3;
+        }
+        final List<Path> files = FileExporter.of(graph, folder.getRoot().toPath())
+                .withSegmentSize(10)
+                .parallel(Pools.DEFAULT, 4, TerminationFlag.RUNNING_TRUE)
+                .build()
+                .write("result",
+                        "score", scores, DoubleArrayTranslator.INSTANCE,
+                        "community", communities, OptionalIntArrayTranslator.INSTANCE);
+
+        assertEquals(3, files.size());
+        assertEquals("result-00000.csv", files.get(0).getFileName().toString());
+        assertEquals("result-00002.csv", files.get(2).getFileName().toString());
+
+        final List<String> rows = new ArrayList<>();
+        for (Path file : files) {
+            final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertEquals("nodeId,score,community", lines.get(0));
+            rows.addAll(lines.subList(1, lines.size()));
+        }
+        assertEquals(NODES, rows.size());
+        for (int i = 0; i < NODES; i++) {
+            final String community = i % 3 == 0 ? "" : String.valueOf(i % 3);
+            assertEquals(graph.toOriginalNodeId(i) + "," + (i / 2.0) + "," + community, rows.get(i));
+        }
+    }
+
+    @Test
+    public void testCompressedBinarySegments() throws Exception {
+        final double[] scores = new double[NODES];
+        for (int i = 0; i < NODES; i++) {
+            scores[i] = i * 1.5;
+        }
+        final List<Path> files = FileExporter.of(graph, folder.getRoot().toPath().resolve("out"))
+                .withFormat(FileExporter.Format.BINARY)
+                .compressed(true)
+                .withSegmentSize(20)
+                .build()
+                .write("scores", "score", scores, DoubleArrayTranslator.INSTANCE);
+
+        assertEquals(
+                "scores-00000.bin.gz,scores-00001.bin.gz",
+                files.stream().map(p -> p.getFileName().toString()).collect(Collectors.joining(",")));
+
+        int node = 0;
+        for (Path file : files) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file));
+                 DataInputStream data = new DataInputStream(in)) {
+                assertEquals(FileExporter.MAGIC, data.readInt());
+                assertEquals(FileExporter.VERSION, data.readByte());
+                assertEquals(node, data.readLong());
+                final long rows = data.readLong();
+                assertEquals(2, data.readInt());
+                assertEquals(FileExporter.NODE_ID_COLUMN, data.readUTF());
+                assertEquals('L', data.readByte());
+                assertEquals("score", data.readUTF());
+                assertEquals('D', data.readByte());
+                for (long i = 0; i < rows; i++) {
+                    assertEquals(graph.toOriginalNodeId(node + (int) i), data.readLong());
+                }
+                for (long i = 0; i < rows; i++) {
+                    assertEquals((node + i) * 1.5, data.readDouble(), 0.0);
+                }
+                assertEquals(-1, data.read());
+                node += rows;
+            }
+        }
+        assertEquals(NODES, node);
+    }
+
+    @Test
+    public void testGenericTranslator() throws Exception {
+        final PropertyTranslator<int[]> translator = (propertyId, data, nodeId) -> IntArrayTranslator.INSTANCE.toProperty(propertyId, data, nodeId);
+        final int[] values = new int[NODES];
+        values[3] = 42;
+        final List<Path> files = FileExporter.of(graph, folder.getRoot().toPath())
+                .build()
+                .write("generic", "value", values, translator);
+        assertEquals(1, files.size());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(files.get(0)), StandardCharsets.UTF_8))) {
+            final List<String> lines = reader.lines().collect(Collectors.toList());
+            assertEquals(NODES + 1, lines.size());
+            assertTrue(lines.get(4).endsWith(",42"));
+        }
+    }
+
+    @Test
+    public void testExportIsDisabledByDefault() {
+        assertRejected(Config.defaults(), "ranks", "disabled");
+        final Map<String, String> settings = new HashMap<>();
+        settings.put(FileExporter.CONFIG_EXPORT_ENABLED, "true");
+        assertRejected(Config.embeddedDefaults(settings), "ranks", "no export directory configured");
+    }
+
+    @Test
+    public void testExportPathStaysInExportDirectory() throws Exception {
+        final Path root = folder.getRoot().toPath().toAbsolutePath();
+        final Map<String, String> settings = new HashMap<>();
+        settings.put(FileExporter.CONFIG_EXPORT_ENABLED, "true");
+        settings.put(FileExporter.CONFIG_EXPORT_DIRECTORY, root.toString());
+        final Config config = Config.embeddedDefaults(settings);
+
+        assertEquals(root.resolve("a/b"), FileExporter.resolveExportPath(config, "a/b"));
+        assertEquals(root, FileExporter.resolveExportPath(config, ""));
+        assertRejected(config, "../ranks", "must not contain '..'");
+        assertRejected(config, "a/../../ranks", "must not contain '..'");
+        assertRejected(config, root.resolve("ranks").toString(), "must be relative");
+    }
+
+    @Test
+    public void testRejectsFileNamesOutsideOfDirectory() {
+        final FileExporter exporter = FileExporter.of(graph, folder.getRoot().toPath()).build();
+        for (String name : new String[]{"../result", "a/result", "..", "/tmp/result", ""}) {
+            try {
+                exporter.write(name, "score", new double[NODES], DoubleArrayTranslator.INSTANCE);
+                fail("accepted file name " + name);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("export file name"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTerminatedExportFails() {
+        FileExporter.of(graph, folder.getRoot().toPath())
+                .withSegmentSize(10)
+                .parallel(Pools.DEFAULT, 4, () -> false)
+                .build()
+                .write("result", "score", new double[NODES], DoubleArrayTranslator.INSTANCE);
+    }
+
+    private static void assertRejected(Config config, String path, String message) {
+        try {
+            FileExporter.resolveExportPath(config, path);
+            fail("accepted export path " + path);
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(message));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFormat() {
+        FileExporter.Format.parse("parquet");
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeBoruvka;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeKSpanningTree;
+import org.neo4j.graphalgo.impl.spanningTrees.HugeSpanningForest;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests the parallel spanning forest on the graph used in {@link PrimTest}
+ * extended by a second tree (f)-(g) and two isolated nodes.
+ *
+ *         a                  a                  a
+ *     1 /   \ 2            /  \                  \
+ *      /     \            /    \                  \
+ *     b --3-- c          b      c          b       c
+ *     |       |  =min=>  |      |  =max=>  |       |
+ *     4       5          |      |          |       |
+ *     |       |          |      |          |       |
+ *     d --6-- e          d      e          d-------e
+ *
+ *     f --7-- g          f------g          f-------g
+ */
+public class HugeBoruvkaTest {
+
+    private static final String cypher =
+            "CREATE (a:Node {name:'a'})\n" +
+            "CREATE (b:Node {name:'b'})\n" +
+            "CREATE (c:Node {name:'c'})\n" +
+            "CREATE (d:Node {name:'d'})\n" +
+            "CREATE (e:Node {name:'e'})\n" +
+            "CREATE (f:Node {name:'f'})\n" +
+            "CREATE (g:Node {name:'g'})\n" +
+            "CREATE (y:Node {name:'y'})\n" +
+            "CREATE (z:Node {name:'z'})\n" +
+            "CREATE" +
+            " (a)-[:TYPE {cost:1.0}]->(b),\n" +
+            " (a)-[:TYPE {cost:2.0}]->(c),\n" +
+            " (b)-[:TYPE {cost:3.0}]->(c),\n" +
+            " (b)-[:TYPE {cost:4.0}]->(d),\n" +
+            " (c)-[:TYPE {cost:5.0}]->(e),\n" +
+            " (d)-[:TYPE {cost:6.0}]->(e),\n" +
+            " (f)-[:TYPE {cost:7.0}]->(g)";
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    private static HugeGraph graph;
+    private static long a, b, c, d, e, f, g, y, z;
+
+    @BeforeClass
+    public static void setupGraph() {
+        try (Transaction tx = DB.beginTx()) {
+            DB.execute(cypher);
+            tx.success();
+        }
+        graph = load("Node", "TYPE");
+        final Label label = Label.label("Node");
+        try (Transaction tx = DB.beginTx()) {
+            a = graph.toHugeMappedNodeId(DB.findNode(label, "name", "a").getId());
+            b = graph.toHugeMappedNodeId(DB.findNode(label, "name", "b").getId());
+            c = graph.toHugeMappedNodeId(DB.findNode(label, "name", "c").getId());
+            d = graph.toHugeMappedNodeId(DB.findNode(label, "name", "d").getId());
+            e = graph.toHugeMappedNodeId(DB.findNode(label, "name", "e").getId());
+            f = graph.toHugeMappedNodeId(DB.findNode(label, "name", "f").getId());
+            g = graph.toHugeMappedNodeId(DB.findNode(label, "name", "g").getId());
+            y = graph.toHugeMappedNodeId(DB.findNode(label, "name", "y").getId());
+            z = graph.toHugeMappedNodeId(DB.findNode(label, "name", "z").getId());
+            tx.success();
+        }
+    }
+
+    private static HugeGraph load(String label, String relationshipType) {
+        return (HugeGraph) new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType(relationshipType)
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withoutNodeWeights()
+                .asUndirected(true)
+                .load(HugeGraphFactory.class);
+    }
+
+    @Test
+    public void testMinimumSpanningForest() throws Exception {
+        final HugeSpanningForest forest = new HugeBoruvka(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .computeMinimumSpanningForest()
+                .getSpanningForest();
+        assertEquals(5, forest.relationshipCount());
+        assertEquals(19.0, forest.totalWeight(), 0.0);
+        final Set<String> rels = relationships(forest);
+        assertTrue(rels.contains(key(a, b)));
+        assertTrue(rels.contains(key(a, c)));
+        assertTrue(rels.contains(key(b, d)));
+        assertTrue(rels.contains(key(c, e)));
+        assertTrue(rels.contains(key(f, g)));
+        assertTrees(forest);
+    }
+
+    @Test
+    public void testMaximumSpanningForest() throws Exception {
+        final HugeSpanningForest forest = new HugeBoruvka(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .computeMaximumSpanningForest()
+                .getSpanningForest();
+        assertEquals(5, forest.relationshipCount());
+        assertEquals(24.0, forest.totalWeight(), 0.0);
+        final Set<String> rels = relationships(forest);
+        assertTrue(rels.contains(key(a, c)));
+        assertTrue(rels.contains(key(b, d)));
+        assertTrue(rels.contains(key(c, e)));
+        assertTrue(rels.contains(key(d, e)));
+        assertTrue(rels.contains(key(f, g)));
+        assertTrees(forest);
+    }
+
+    @Test
+    public void testKMinimumSpanningTrees() throws Exception {
+        final LongArray partitions = new HugeKSpanningTree(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .compute(a, 2, false)
+                .getPartitions();
+        // heaviest relationship (c)-(e) has been removed
+        assertEquals(partitions.get(a), partitions.get(b));
+        assertEquals(partitions.get(a), partitions.get(c));
+        assertEquals(partitions.get(a), partitions.get(d));
+        assertNotEquals(partitions.get(a), partitions.get(e));
+        // nodes outside the tree of the start node are on their own
+        assertNotEquals(partitions.get(f), partitions.get(g));
+    }
+
+    @Test
+    public void testKMaximumSpanningTrees() throws Exception {
+        final HugeKSpanningTree kSpanningTree = new HugeKSpanningTree(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .compute(a, 2, true);
+        final LongArray partitions = kSpanningTree.getPartitions();
+        // lightest relationship (a)-(c) has been removed
+        assertEquals(partitions.get(b), partitions.get(c));
+        assertEquals(partitions.get(b), partitions.get(d));
+        assertEquals(partitions.get(b), partitions.get(e));
+        assertNotEquals(partitions.get(a), partitions.get(b));
+        assertEquals(5, kSpanningTree.getEffectiveNodeCount());
+    }
+
+    @Test
+    public void testSameWeightAsKruskal() throws Exception {
+        final Random random = new Random(42L);
+        final Node[] nodes = new Node[500];
+        try (Transaction tx = DB.beginTx()) {
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = DB.createNode(Label.label("Random"));
+            }
+            // no loops and no parallel relationships, their weights are ambiguous
+            final Set<String> pairs = new HashSet<>();
+            while (pairs.size() < 2000) {
+                final int source = random.nextInt(nodes.length);
+                final int target = random.nextInt(nodes.length);
+                if (source != target && pairs.add(key(source, target))) {
+                    nodes[source]
+                            .createRelationshipTo(nodes[target], RelationshipType.withName("RANDOM"))
+                            .setProperty("cost", (double) random.nextInt(20));
+                }
+            }
+            tx.success();
+        }
+        final HugeGraph randomGraph = load("Random", "RANDOM");
+        for (boolean max : new boolean[]{false, true}) {
+            final HugeBoruvka boruvka = new HugeBoruvka(randomGraph, Pools.DEFAULT, 4, AllocationTracker.EMPTY);
+            final HugeSpanningForest forest = max
+                    ? boruvka.computeMaximumSpanningForest().getSpanningForest()
+                    : boruvka.computeMinimumSpanningForest().getSpanningForest();
+            assertEquals(kruskal(randomGraph, max), forest.totalWeight(), 1e-9);
+        }
+    }
+
+    /**
+     * sequential reference implementation
+     */
+    private static double kruskal(HugeGraph graph, boolean max) {
+        final List<long[]> relationships = new ArrayList<>();
+        graph.forEachNode((long node) -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                relationships.add(new long[]{s, t});
+                return true;
+            });
+            return true;
+        });
+        final Comparator<long[]> byWeight = Comparator.comparingDouble(rel -> graph.weightOf(rel[0], rel[1]));
+        relationships.sort(max ? byWeight.reversed() : byWeight);
+        final PagedDisjointSetStruct trees = new PagedDisjointSetStruct(graph.nodeCount(), AllocationTracker.EMPTY).reset();
+        double weight = 0.0;
+        for (long[] rel : relationships) {
+            if (!trees.connected(rel[0], rel[1])) {
+                trees.union(rel[0], rel[1]);
+                weight += graph.weightOf(rel[0], rel[1]);
+            }
+        }
+        return weight;
+    }
+
+    private void assertTrees(HugeSpanningForest forest) {
+        assertEquals(forest.componentOf(a), forest.componentOf(b));
+        assertEquals(forest.componentOf(a), forest.componentOf(e));
+        assertEquals(forest.componentOf(f), forest.componentOf(g));
+        assertNotEquals(forest.componentOf(a), forest.componentOf(f));
+        assertNotEquals(forest.componentOf(y), forest.componentOf(z));
+        assertEquals(5, forest.treeSize(a));
+        assertEquals(2, forest.treeSize(f));
+        assertEquals(1, forest.treeSize(y));
+    }
+
+    private static Set<String> relationships(HugeSpanningForest forest) {
+        final Set<String> rels = new HashSet<>();
+        forest.forEach((s, t) -> {
+            rels.add(key(s, t));
+            return true;
+        });
+        return rels;
+    }
+
+    private static String key(long s, long t) {
+        return Math.min(s, t) + "-" + Math.max(s, t);
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.harmonic.HarmonicCentralityAlgorithm;
+import org.neo4j.graphalgo.impl.harmonic.HugeHarmonicCentrality;
+import org.neo4j.graphalgo.impl.hyperball.HugeHyperBall;
+import org.neo4j.graphalgo.impl.hyperball.HyperBallClosenessCentrality;
+import org.neo4j.graphalgo.impl.hyperball.HyperBallHarmonicCentrality;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the HyperBall approximation against the exact multi source
+ * BFS based centralities.
+ *
+ * A path of 10 nodes (label Path) is small enough to be counted almost
+ * exactly with many registers. A random graph of 2000 nodes (label Random)
+ * is used to check the error of the approximation.
+ */
+public class HugeHyperBallTest {
+
+    private static final int PATH_LENGTH = 10;
+    private static final int RANDOM_NODES = 2000;
+    private static final int RANDOM_RELATIONSHIPS = 5000;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.execute("UNWIND range(0, " + (PATH_LENGTH - 1) + ") AS i CREATE (:Path {id:i})");
+        DB.execute("MATCH (a:Path), (b:Path) WHERE b.id = a.id + 1 CREATE (a)-[:PATH]->(b)");
+        DB.execute("UNWIND range(0, " + (RANDOM_NODES - 1) + ") AS i CREATE (:Random {id:i})");
+        final Random random = new Random(42L);
+        final List<Map<String, Object>> pairs = new ArrayList<>();
+        for (int i = 0; i < RANDOM_RELATIONSHIPS; i++) {
+            final Map<String, Object> pair = new HashMap<>();
+            pair.put("a", random.nextInt(RANDOM_NODES));
+            pair.put("b", random.nextInt(RANDOM_NODES));
+            pairs.add(pair);
+        }
+        DB.execute("CREATE INDEX ON :Random(id)");
+        DB.execute("CALL db.awaitIndexes()");
+        DB.execute("UNWIND $pairs AS pair " +
+                "MATCH (a:Random {id:pair.a}), (b:Random {id:pair.b}) CREATE (a)-[:RANDOM]->(b)",
+                Collections.singletonMap("pairs", pairs));
+    }
+
+    private static HugeGraph load(String label, String type, Direction direction) {
+        return (HugeGraph) new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType(type)
+                .withoutNodeWeights()
+                .withoutRelationshipWeights()
+                .withDirection(direction)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static HugeHyperBall hyperBall(HugeGraph graph, Direction direction, int precision) {
+        return new HugeHyperBall(graph, direction, precision, 100, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .compute();
+    }
+
+    @Test
+    public void testPathNeighbourhoodFunction() throws Exception {
+        final HugeGraph graph = load("Path", "PATH", Direction.BOTH);
+        final HugeHyperBall hyperBall = hyperBall(graph, Direction.BOTH, 12);
+
+        assertEquals(PATH_LENGTH - 1, hyperBall.iterations());
+        final double[] function = hyperBall.neighbourhoodFunction();
+        assertEquals(PATH_LENGTH, function.length);
+        // n + 2 * (n-1) + 2 * (n-2) + ... pairs within distance t
+        double expected = PATH_LENGTH;
+        for (int t = 0; t < PATH_LENGTH; t++) {
+            if (t > 0) {
+                expected += 2 * (PATH_LENGTH - t);
+            }
+            assertEquals(expected, function[t], expected * 0.02);
+        }
+        assertTrue(hyperBall.effectiveDiameter() > 5.0);
+        assertTrue(hyperBall.effectiveDiameter() < 7.0);
+    }
+
+    @Test
+    public void testPathCentralities() throws Exception {
+        final HugeGraph graph = load("Path", "PATH", Direction.BOTH);
+        final HugeHyperBall hyperBall = hyperBall(graph, Direction.BOTH, 12);
+        final HugeHarmonicCentrality exact = new HugeHarmonicCentrality(graph, AllocationTracker.EMPTY, 4, Pools.DEFAULT)
+                .compute();
+        final double[] harmonic = exact.exportToArray();
+        for (int node = 0; node < PATH_LENGTH; node++) {
+            assertEquals(harmonic[node], hyperBall.harmonic(node), harmonic[node] * 0.02);
+            assertEquals(PATH_LENGTH, hyperBall.reachable(node), 0.2);
+        }
+    }
+
+    @Test
+    public void testApproximateHarmonicCentrality() throws Exception {
+        final HugeGraph graph = load("Random", "RANDOM", Direction.BOTH);
+        final double[] exact = HarmonicCentralityAlgorithm.instance(graph, AllocationTracker.EMPTY, Pools.DEFAULT, 4)
+                .compute()
+                .resultStream()
+                .mapToDouble(r -> r.centrality)
+                .toArray();
+        final double[] approximate = new HyperBallHarmonicCentrality(graph, 10, 100, AllocationTracker.EMPTY, 4, Pools.DEFAULT)
+                .compute()
+                .resultStream()
+                .mapToDouble(r -> r.centrality)
+                .toArray();
+        assertMeanRelativeError(exact, approximate, 0.05);
+    }
+
+    @Test
+    public void testApproximateClosenessCentrality() throws Exception {
+        final double[] exact = new HugeMSClosenessCentrality(
+                load("Random", "RANDOM", Direction.OUTGOING),
+                AllocationTracker.EMPTY,
+                4,
+                Pools.DEFAULT)
+                .compute()
+                .exportToArray();
+        final double[] approximate = new HyperBallClosenessCentrality(
+                load("Random", "RANDOM", Direction.INCOMING),
+                10,
+                100,
+                AllocationTracker.EMPTY,
+                4,
+                Pools.DEFAULT)
+                .compute()
+                .exportToArray();
+        assertMeanRelativeError(exact, approximate, 0.05);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrecision() throws Exception {
+        hyperBall(load("Path", "PATH", Direction.BOTH), Direction.BOTH, 3);
+    }
+
+    private static void assertMeanRelativeError(double[] exact, double[] approximate, double maxError) {
+        assertEquals(exact.length, approximate.length);
+        double error = 0.0;
+        int count = 0;
+        for (int i = 0; i < exact.length; i++) {
+            if (exact[i] > 0) {
+                error += Math.abs(approximate[i] - exact[i]) / exact[i];
+                count++;
+            }
+        }
+        error /= count;
+        assertTrue("mean relative error " + error, error < maxError);
+    }
+}
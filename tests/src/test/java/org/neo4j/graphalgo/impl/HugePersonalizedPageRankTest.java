@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * compares the forward push against a power iteration of the
+ * personalized page rank on a random graph
+ */
+public final class HugePersonalizedPageRankTest {
+
+    private static final int NODE_COUNT = 200;
+    // the last nodes form a separate cluster the push must not reach
+    private static final int CLUSTER_SIZE = 20;
+    private static final double DAMPING = 0.85;
+
+    private static GraphDatabaseAPI api;
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        api = TestDatabaseCreator.createTestDatabase();
+        final Random random = new Random(42L);
+        final int mainSize = NODE_COUNT - CLUSTER_SIZE;
+        try (Transaction tx = api.beginTx()) {
+            final Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = api.createNode();
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                // every 10th node is dangling
+                if (i % 10 == 9) {
+                    continue;
+                }
+                final int offset = i < mainSize ? 0 : mainSize;
+                final int size = i < mainSize ? mainSize : CLUSTER_SIZE;
+                final int degree = 1 + random.nextInt(5);
+                for (int j = 0; j < degree; j++) {
+                    nodes[i].createRelationshipTo(nodes[offset + random.nextInt(size)], () -> "LINK");
+                }
+            }
+            tx.success();
+        }
+        graph = (HugeGraph) new GraphLoader(api)
+                .withAnyLabel()
+                .withRelationshipType("LINK")
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void testSameScoresAsPowerIteration() throws Exception {
+        final long[] sources = {0L, 17L, 42L};
+        final HugePersonalizedPageRank ppr = pageRank().compute(DAMPING, 1e-10, sources);
+        final double[] expected = powerIteration(sources);
+        double sum = 0.0;
+        for (int i = 0; i < NODE_COUNT; i++) {
+            final long node = graph.toHugeMappedNodeId(i);
+            assertEquals("node " + i, expected[i], ppr.score(node), 1e-6);
+            sum += ppr.score(node);
+        }
+        assertEquals(1.0, sum, 1e-6);
+    }
+
+    @Test
+    public void testPushStaysLocal() throws Exception {
+        final HugePersonalizedPageRank ppr = pageRank().compute(DAMPING, 1e-4, 1L);
+        assertTrue(ppr.touchedNodes() < NODE_COUNT - CLUSTER_SIZE);
+        for (int i = NODE_COUNT - CLUSTER_SIZE; i < NODE_COUNT; i++) {
+            assertEquals(0.0, ppr.score(graph.toHugeMappedNodeId(i)), 0.0);
+        }
+    }
+
+    @Test
+    public void testReuseForManyQueries() throws Exception {
+        final HugePersonalizedPageRank reused = pageRank();
+        for (long source = 0; source < 20; source++) {
+            // alternate the parameters between queries
+            final double tolerance = source % 2 == 0 ? 1e-6 : 1e-4;
+            final long[] actual = reused.compute(DAMPING, tolerance, source).topNodes(10);
+            final double[] actualScores = scores(reused, actual);
+            final HugePersonalizedPageRank fresh = pageRank().compute(DAMPING, tolerance, source);
+            final long[] expected = fresh.topNodes(10);
+            assertArrayEquals(expected, actual);
+            assertArrayEquals(scores(fresh, expected), actualScores, 0.0);
+            assertEquals(fresh.pushes(), reused.pushes());
+        }
+    }
+
+    @Test
+    public void testTopNodesAreOrdered() throws Exception {
+        final HugePersonalizedPageRank ppr = pageRank().compute(DAMPING, 1e-8, 3L, 5L);
+        final long[] all = ppr.topNodes(0);
+        assertEquals(ppr.touchedNodes(), all.length);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(ppr.score(all[i - 1]) >= ppr.score(all[i]));
+        }
+        final long[] top = ppr.topNodes(5);
+        assertEquals(5, top.length);
+        assertArrayEquals(scores(ppr, Arrays.copyOf(all, 5)), scores(ppr, top), 0.0);
+    }
+
+    @Test
+    public void testUnknownSourcesAreIgnored() throws Exception {
+        final HugePersonalizedPageRank ppr = pageRank().compute(DAMPING, 1e-6, NODE_COUNT + 1000L);
+        assertEquals(0, ppr.touchedNodes());
+        assertEquals(0, ppr.topNodes(10).length);
+    }
+
+    @Test
+    public void testReleaseFreesTrackedMemory() throws Exception {
+        final AllocationTracker tracker = new AllocationTracker();
+        final HugePersonalizedPageRank ppr = new HugePersonalizedPageRank(graph, Direction.OUTGOING, tracker);
+        assertTrue(tracker.tracked() > 0L);
+        ppr.compute(DAMPING, 1e-6, 0L).release();
+        assertEquals(0L, tracker.tracked());
+    }
+
+    private static HugePersonalizedPageRank pageRank() {
+        return new HugePersonalizedPageRank(graph, Direction.OUTGOING, AllocationTracker.EMPTY);
+    }
+
+    private static double[] scores(HugePersonalizedPageRank ppr, long[] nodes) {
+        final double[] scores = new double[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            scores[i] = ppr.score(nodes[i]);
+        }
+        return scores;
+    }
+
+    /**
+     * reference on original ids, dangling nodes teleport to the sources
+     */
+    private static double[] powerIteration(long[] sources) {
+        final double[] teleport = new double[NODE_COUNT];
+        for (long source : sources) {
+            teleport[(int) source] = 1.0 / sources.length;
+        }
+        double[] scores = teleport.clone();
+        for (int iteration = 0; iteration < 300; iteration++) {
+            final double[] next = new double[NODE_COUNT];
+            double dangling = 0.0;
+            for (int i = 0; i < NODE_COUNT; i++) {
+                final long node = graph.toHugeMappedNodeId(i);
+                final int degree = graph.degree(node, Direction.OUTGOING);
+                if (degree == 0) {
+                    dangling += scores[i];
+                    continue;
+                }
+                final double share = scores[i] / degree;
+                graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    next[(int) graph.toOriginalNodeId(t)] += share;
+                    return true;
+                });
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                next[i] = (1.0 - DAMPING) * teleport[i] + DAMPING * (next[i] + dangling * teleport[i]);
+            }
+            scores = next;
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * compares the point to point searches against the single source
+ * shortest paths on a random geometric graph
+ */
+public final class HugePointToPointSearchTest {
+
+    private static final int NODE_COUNT = 300;
+    private static final int DEGREE = 4;
+
+    private static GraphDatabaseAPI api;
+    private static HugeGraph graph;
+    private static double[] latitudes;
+    private static double[] longitudes;
+
+    @BeforeClass
+    public static void setup() {
+        api = TestDatabaseCreator.createTestDatabase();
+        final Random random = new Random(42L);
+        latitudes = new double[NODE_COUNT];
+        longitudes = new double[NODE_COUNT];
+        try (Transaction tx = api.beginTx()) {
+            final Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = api.createNode();
+                latitudes[i] = 50.0 + random.nextDouble();
+                longitudes[i] = 10.0 + random.nextDouble();
+                nodes[i].setProperty("latitude", latitudes[i]);
+                nodes[i].setProperty("longitude", longitudes[i]);
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                for (int j = 0; j < DEGREE; j++) {
+                    final int target = random.nextInt(NODE_COUNT);
+                    // at least the great circle distance keeps the heuristic admissible
+                    final double cost = distance(i, target) * (1.0 + random.nextDouble());
+                    nodes[i].createRelationshipTo(nodes[target], () -> "ROAD")
+                            .setProperty("cost", cost);
+                }
+            }
+            tx.success();
+        }
+        graph = (HugeGraph) new GraphLoader(api)
+                .withAnyLabel()
+                .withRelationshipType("ROAD")
+                .withRelationshipWeightsFromProperty("cost", 1.0)
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void testBidirectionalDijkstra() throws Exception {
+        for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING, Direction.BOTH}) {
+            assertSameCosts(new HugeBidirectionalDijkstra(graph, direction, AllocationTracker.EMPTY), direction);
+        }
+    }
+
+    @Test
+    public void testAStar() throws Exception {
+        final HugeAStar.Haversine heuristic = new HugeAStar.Haversine(
+                node -> latitudes[(int) graph.toOriginalNodeId(node)],
+                node -> longitudes[(int) graph.toOriginalNodeId(node)]);
+        assertSameCosts(new HugeAStar(graph, Direction.OUTGOING, heuristic, AllocationTracker.EMPTY), Direction.OUTGOING);
+    }
+
+    @Test
+    public void testHaversineUnits() throws Exception {
+        final HugeAStar.Haversine km = new HugeAStar.Haversine(
+                node -> latitudes[(int) node],
+                node -> longitudes[(int) node]);
+        final HugeAStar.Haversine m = new HugeAStar.Haversine(
+                node -> latitudes[(int) node],
+                node -> longitudes[(int) node],
+                HugeAStar.Haversine.earthRadius("m"));
+        final HugeAStar.Haversine mi = new HugeAStar.Haversine(
+                node -> latitudes[(int) node],
+                node -> longitudes[(int) node],
+                HugeAStar.Haversine.earthRadius("MI"));
+        for (int node = 1; node < 10; node++) {
+            final double distance = km.estimate(node, 0L);
+            assertEquals(distance(node, 0), distance, 1e-9);
+            assertEquals(distance * 1000.0, m.estimate(node, 0L), 1e-6);
+            assertEquals(distance / 1.609344, mi.estimate(node, 0L), distance * 1e-4);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDistanceUnit() throws Exception {
+        HugeAStar.Haversine.earthRadius("furlong");
+    }
+
+    @Test
+    public void testStartIsGoal() throws Exception {
+        final HugeBidirectionalDijkstra search =
+                new HugeBidirectionalDijkstra(graph, Direction.OUTGOING, AllocationTracker.EMPTY)
+                        .compute(7L, 7L);
+        assertArrayEquals(new long[]{7L}, search.getPath());
+        assertEquals(0.0, search.getTotalCost(), 0.0);
+    }
+
+    @Test
+    public void testUnknownNodes() throws Exception {
+        final HugeAStar search = new HugeAStar(graph, Direction.OUTGOING, (node, goal) -> 0.0, AllocationTracker.EMPTY)
+                .compute(0L, NODE_COUNT + 1L);
+        assertEquals(0, search.getPathLength());
+        assertEquals(HugePointToPointSearch.NO_PATH_FOUND, search.getTotalCost(), 0.0);
+    }
+
+    /**
+     * runs many queries on the same instance and compares the
+     * total costs and paths against the single source distances
+     */
+    private void assertSameCosts(HugePointToPointSearch<?> search, Direction direction) {
+        final Random random = new Random(23L);
+        for (int query = 0; query < 50; query++) {
+            final long start = random.nextInt(NODE_COUNT);
+            final long goal = random.nextInt(NODE_COUNT);
+            final double expected = shortestPathCost(start, goal, direction);
+            search.compute(start, goal);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertEquals(HugePointToPointSearch.NO_PATH_FOUND, search.getTotalCost(), 0.0);
+                assertEquals(0, search.getPathLength());
+                continue;
+            }
+            assertEquals(expected, search.getTotalCost(), 1e-9);
+            final long[] path = search.getPath();
+            assertEquals(start, path[0]);
+            assertEquals(goal, path[path.length - 1]);
+            assertEquals(expected, pathCost(path, direction), 1e-9);
+        }
+    }
+
+    private static double shortestPathCost(long start, long goal, Direction direction) {
+        // HugeShortestPaths follows outgoing relationships only
+        if (direction == Direction.OUTGOING) {
+            return new HugeShortestPaths(graph, AllocationTracker.EMPTY)
+                    .compute(start)
+                    .getDistances()
+                    .get(graph.toHugeMappedNodeId(goal));
+        }
+        return dijkstra(start, goal, direction);
+    }
+
+    /**
+     * simple reference dijkstra for the other directions
+     */
+    private static double dijkstra(long start, long goal, Direction direction) {
+        final double[] distances = new double[NODE_COUNT];
+        final boolean[] settled = new boolean[NODE_COUNT];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[(int) graph.toHugeMappedNodeId(start)] = 0.0;
+        while (true) {
+            int node = -1;
+            for (int i = 0; i < NODE_COUNT; i++) {
+                if (!settled[i] && distances[i] < Double.POSITIVE_INFINITY && (node == -1 || distances[i] < distances[node])) {
+                    node = i;
+                }
+            }
+            if (node == -1) {
+                break;
+            }
+            settled[node] = true;
+            final double cost = distances[node];
+            graph.forEachRelationship(node, direction, (source, target) -> {
+                distances[(int) target] = Math.min(distances[(int) target], cost + graph.weightOf(source, target));
+                return true;
+            });
+        }
+        return distances[(int) graph.toHugeMappedNodeId(goal)];
+    }
+
+    private static double pathCost(long[] path, Direction direction) {
+        double cost = 0.0;
+        for (int i = 1; i < path.length; i++) {
+            final long source = graph.toHugeMappedNodeId(path[i - 1]);
+            final long target = graph.toHugeMappedNodeId(path[i]);
+            final double[] min = {Double.POSITIVE_INFINITY};
+            graph.forEachRelationship(source, direction, (s, t) -> {
+                if (t == target) {
+                    min[0] = Math.min(min[0], graph.weightOf(s, t));
+                }
+                return true;
+            });
+            cost += min[0];
+        }
+        return cost;
+    }
+
+    private static double distance(int a, int b) {
+        return HugeAStar.Haversine.distance(
+                Math.toRadians(latitudes[a]),
+                Math.toRadians(longitudes[a]),
+                Math.toRadians(latitudes[b]),
+                Math.toRadians(longitudes[b]));
+    }
+}
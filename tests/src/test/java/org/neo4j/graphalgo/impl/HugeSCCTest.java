@@ -27,8 +27,10 @@ import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
 import org.neo4j.graphalgo.impl.scc.HugeSCCIterativeTarjan;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
@@ -120,6 +122,28 @@ public class HugeSCCTest {
                 .getConnectedComponents());
     }
 
+    @Test
+    public void testHugeMultistepScc() throws Exception {
+        final HugeMultistepSCC multistep = new HugeMultistepSCC(graph, Pools.DEFAULT, 4, 0, AllocationTracker.EMPTY)
+                .compute();
+        assertCC(multistep.getConnectedComponents());
+        assertEquals(4, multistep.getSetCount());
+        assertEquals(1, multistep.getMinSetSize());
+        assertEquals(3, multistep.getMaxSetSize());
+    }
+
+    @Test
+    public void testHugeMultistepSccWithoutColoring() throws Exception {
+        // the cutoff is above the node count, forward-backward still assigns
+        // the set of the pivot and tarjan the rest
+        final HugeMultistepSCC multistep = new HugeMultistepSCC(graph, Pools.DEFAULT, 4, 100_000, AllocationTracker.EMPTY)
+                .compute();
+        assertCC(multistep.getConnectedComponents());
+        assertEquals(4, multistep.getSetCount());
+        assertEquals(1, multistep.getMinSetSize());
+        assertEquals(3, multistep.getMaxSetSize());
+    }
+
     private void assertCC(LongArray connectedComponents) {
         assertBelongSameSet(connectedComponents,
                 getMappedNodeId("a"),
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**         5     5      5
+ *      (1)---(2)---(3)----.
+ *    5/ 2\2  2 \2  2 \2  2 \
+ *  (S)---(7)---(8)---(9)---(X)--//->(S)
+ *    3\  /3 3  /3 3  /3 3  /
+ *      (4)---(5)---(6)----°
+ *
+ * S->X: {S,G,H,I,X}:8, {S,D,E,F,X}:12, {S,A,B,C,X}:20
+ */
+public final class HugeShortestPathsTest {
+
+    private static GraphDatabaseAPI api;
+
+    private static HugeGraph graph;
+
+    private static long head, tail, outstanding;
+
+    @BeforeClass
+    public static void setup() {
+        final String cypher =
+                "CREATE (s:Node {name:'s'})\n" +
+                        "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (c:Node {name:'c'})\n" +
+                        "CREATE (d:Node {name:'d'})\n" +
+                        "CREATE (e:Node {name:'e'})\n" +
+                        "CREATE (f:Node {name:'f'})\n" +
+                        "CREATE (g:Node {name:'g'})\n" +
+                        "CREATE (h:Node {name:'h'})\n" +
+                        "CREATE (i:Node {name:'i'})\n" +
+                        "CREATE (x:Node {name:'x'})\n" +
+                        "CREATE (q:Node {name:'q'})\n" + // outstanding node
+                        "CREATE" +
+                        " (s)-[:TYPE {cost:5}]->(a),\n" +
+                        " (a)-[:TYPE {cost:5}]->(b),\n" +
+                        " (b)-[:TYPE {cost:5}]->(c),\n" +
+                        " (c)-[:TYPE {cost:5}]->(x),\n" +
+
+                        " (a)-[:TYPE {cost:2}]->(g),\n" +
+                        " (b)-[:TYPE {cost:2}]->(h),\n" +
+                        " (c)-[:TYPE {cost:2}]->(i),\n" +
+
+                        " (s)-[:TYPE {cost:3}]->(d),\n" +
+                        " (d)-[:TYPE {cost:3}]->(e),\n" +
+                        " (e)-[:TYPE {cost:3}]->(f),\n" +
+                        " (f)-[:TYPE {cost:3}]->(x),\n" +
+
+                        " (d)-[:TYPE {cost:3}]->(g),\n" +
+                        " (e)-[:TYPE {cost:3}]->(h),\n" +
+                        " (f)-[:TYPE {cost:3}]->(i),\n" +
+
+                        " (s)-[:TYPE {cost:2}]->(g),\n" +
+                        " (g)-[:TYPE {cost:2}]->(h),\n" +
+                        " (h)-[:TYPE {cost:2}]->(i),\n" +
+                        " (i)-[:TYPE {cost:2}]->(x),\n" +
+
+                        " (x)-[:TYPE {cost:2}]->(s)"; // create cycle
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+
+        head = getNode("s").getId();
+        tail = getNode("x").getId();
+        outstanding = getNode("q").getId();
+
+        graph = (HugeGraph) new GraphLoader(api)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void testDijkstra() throws Exception {
+        assertPaths(new HugeShortestPaths(graph, AllocationTracker.EMPTY)
+                .compute(head));
+    }
+
+    @Test
+    public void testDeltaStepping() throws Exception {
+        for (double delta : new double[]{0.5, 2.0, 100.0}) {
+            assertPaths(new HugeShortestPaths(graph, AllocationTracker.EMPTY)
+                    .withDeltaStepping(delta, Pools.DEFAULT, 4)
+                    .compute(head));
+        }
+    }
+
+    @Test
+    public void testDeltaSteppingWithZeroWeights() throws Exception {
+        // a ring with chords in both directions where most relationships are free
+        try (Transaction tx = api.beginTx()) {
+            api.execute("UNWIND range(0, 999) AS id CREATE (:Zero {id:id})").close();
+            api.execute("MATCH (a:Zero), (b:Zero) " +
+                    "WHERE b.id = (a.id + 1) % 1000 OR b.id = (a.id * 7 + 3) % 1000 " +
+                    "CREATE (a)-[:ZERO {cost:CASE WHEN a.id % 5 = 0 THEN 1 ELSE 0 END}]->(b), " +
+                    "(b)-[:ZERO {cost:CASE WHEN b.id % 3 = 0 THEN 1 ELSE 0 END}]->(a)").close();
+            tx.success();
+        }
+        final HugeGraph zeroGraph = (HugeGraph) new GraphLoader(api)
+                .withLabel("Zero")
+                .withRelationshipType("ZERO")
+                .withRelationshipWeightsFromProperty("cost", 1.0)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+        final long nodeCount = zeroGraph.nodeCount();
+        final long start = zeroGraph.toOriginalNodeId(0L);
+        for (int run = 0; run < 10; run++) {
+            final HugeShortestPaths sssp = new HugeShortestPaths(zeroGraph, AllocationTracker.EMPTY)
+                    .withDeltaStepping(0.5, Pools.DEFAULT, 4)
+                    .compute(start);
+            final DoubleArray distances = sssp.getDistances();
+            final LongArray predecessors = sssp.getPredecessors();
+            for (long node = 1L; node < nodeCount; node++) {
+                // every node is reached over tight relationships from the start node
+                long current = node;
+                for (long steps = 0L; current != 0L; steps++) {
+                    assertTrue("cycle at node " + node, steps < nodeCount);
+                    final long predecessor = predecessors.get(current);
+                    assertNotEquals(-1L, predecessor);
+                    assertEquals(
+                            distances.get(current),
+                            distances.get(predecessor) + zeroGraph.weightOf(predecessor, current),
+                            0.0);
+                    current = predecessor;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResultBatches() throws Exception {
+        final HugeShortestPaths sssp = new HugeShortestPaths(graph, AllocationTracker.EMPTY)
+                .compute(head);
+        final List<HugeShortestPaths.ResultBatch> batches = sssp.resultBatches(5)
+                .collect(Collectors.toList());
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(2).size());
+        final DoubleArray distances = sssp.getDistances();
+        long node = 0L;
+        for (HugeShortestPaths.ResultBatch batch : batches) {
+            for (int i = 0; i < batch.size(); i++, node++) {
+                assertEquals(graph.toOriginalNodeId(node), batch.nodeIds[i]);
+                assertEquals(distances.get(node), batch.distances[i], 0.0);
+            }
+        }
+    }
+
+    private static void assertPaths(HugeShortestPaths sssp) {
+        final DoubleArray distances = sssp.getDistances();
+        assertEquals(8.0, distances.get(graph.toHugeMappedNodeId(tail)), 0.1);
+        assertEquals(Double.POSITIVE_INFINITY, distances.get(graph.toHugeMappedNodeId(outstanding)), 0.1);
+        // walk back along the predecessors: x <- i <- h <- g <- s
+        final LongArray predecessors = sssp.getPredecessors();
+        final List<String> path = Arrays.asList("i", "h", "g", "s");
+        long node = graph.toHugeMappedNodeId(tail);
+        for (String name : path) {
+            node = predecessors.get(node);
+            assertEquals(graph.toHugeMappedNodeId(getNode(name).getId()), node);
+        }
+        assertEquals(-1L, predecessors.get(node));
+    }
+
+    public static Node getNode(String name) {
+        final Node[] node = new Node[1];
+        api.execute("MATCH (n:Node) WHERE n.name = '" + name + "' RETURN n").accept(row -> {
+            node[0] = row.getNode("n");
+            return false;
+        });
+        return node[0];
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayDeque;
+import com.carrotsearch.hppc.LongHashSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.impl.louvain.MultiLevelLouvain;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A ring of 30 cliques with 5 nodes each, neighbouring cliques are connected
+ * by a single relationship. The first level finds the cliques, the next
+ * levels merge neighbouring cliques since a single clique is below the
+ * resolution limit of modularity. A larger ring of the same shape covers
+ * the parallel phases.
+ */
+public class MultiLevelLouvainTest {
+
+    private static final int CLIQUES = 30;
+    private static final int CLIQUE_SIZE = 5;
+    // spans several batches of the parallel phases
+    private static final int LARGE_CLIQUES = 6_000;
+
+    private static GraphDatabaseAPI db;
+    private static HugeGraph graph;
+    private static long[] clique;
+    private static HugeGraph largeGraph;
+    private static long[] largeClique;
+
+    @BeforeClass
+    public static void setup() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        final long[] nodeIds = ring("Node", CLIQUES);
+        final long[] largeNodeIds = ring("Large", LARGE_CLIQUES);
+        graph = load("Node");
+        clique = cliques(graph, nodeIds);
+        largeGraph = load("Large");
+        largeClique = cliques(largeGraph, largeNodeIds);
+    }
+
+    /**
+     * creates a ring of cliques and returns the created node ids
+     */
+    private static long[] ring(String label, int cliques) {
+        final RelationshipType type = RelationshipType.withName("TYPE");
+        final long[] nodeIds = new long[cliques * CLIQUE_SIZE];
+        try (Transaction tx = db.beginTx()) {
+            final Node[] nodes = new Node[nodeIds.length];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = db.createNode(Label.label(label));
+                nodeIds[i] = nodes[i].getId();
+            }
+            for (int c = 0; c < cliques; c++) {
+                final int offset = c * CLIQUE_SIZE;
+                for (int i = 0; i < CLIQUE_SIZE; i++) {
+                    for (int j = i + 1; j < CLIQUE_SIZE; j++) {
+                        nodes[offset + i].createRelationshipTo(nodes[offset + j], type);
+                    }
+                }
+                final int next = ((c + 1) % cliques) * CLIQUE_SIZE;
+                nodes[offset].createRelationshipTo(nodes[next + 1], type);
+            }
+            tx.success();
+        }
+        return nodeIds;
+    }
+
+    private static HugeGraph load(String label) {
+        return (HugeGraph) new GraphLoader(db)
+                .withLabel(label)
+                .withAnyRelationshipType()
+                .withoutNodeProperties()
+                .withoutRelationshipWeights()
+                .asUndirected(true)
+                .load(HugeGraphFactory.class);
+    }
+
+    /**
+     * the clique of each mapped node
+     */
+    private static long[] cliques(HugeGraph graph, long[] nodeIds) {
+        final long[] cliques = new long[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            cliques[(int) graph.toHugeMappedNodeId(nodeIds[i])] = i / CLIQUE_SIZE;
+        }
+        return cliques;
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) {
+            db.shutdown();
+        }
+    }
+
+    private MultiLevelLouvain louvain(int maxLevels) {
+        return louvain(graph, 1, maxLevels);
+    }
+
+    private static MultiLevelLouvain louvain(HugeGraph graph, int concurrency, int maxLevels) {
+        return new MultiLevelLouvain(graph, Pools.DEFAULT, concurrency, 10, maxLevels, false, AllocationTracker.EMPTY)
+                .compute();
+    }
+
+    @Test
+    public void testFirstLevelFindsCliques() {
+        final MultiLevelLouvain louvain = louvain(1);
+        assertEquals(1, louvain.getLevels());
+        assertEquals(CLIQUES, louvain.getCommunityCount());
+        assertNested(clique, louvain.getFinalCommunities());
+    }
+
+    @Test
+    public void testLevelsMergeCliques() {
+        final MultiLevelLouvain louvain = louvain(10);
+        final LongArray[] levels = louvain.getCommunitiesByLevel();
+        final long[] counts = louvain.getCommunityCounts();
+        assertTrue("expected more than one level", louvain.getLevels() > 1);
+        assertEquals(louvain.getLevels(), levels.length);
+        assertEquals(levels.length, counts.length);
+        assertEquals(CLIQUES, counts[0]);
+        assertTrue("cliques have not been merged", louvain.getCommunityCount() < CLIQUES);
+        assertNested(clique, levels[0]);
+        for (int level = 1; level < levels.length; level++) {
+            assertTrue(counts[level] < counts[level - 1]);
+            assertNested(toArray(levels[level - 1]), levels[level]);
+        }
+    }
+
+    @Test
+    public void testCommunitiesAreConnected() {
+        final MultiLevelLouvain louvain = louvain(10);
+        for (LongArray communities : louvain.getCommunitiesByLevel()) {
+            assertConnected(graph, communities);
+        }
+    }
+
+    @Test
+    public void testCommunitiesOfNode() {
+        final MultiLevelLouvain louvain = louvain(10);
+        final LongArray[] levels = louvain.getCommunitiesByLevel();
+        final long[] communities = louvain.getCommunities(42L);
+        assertEquals(levels.length, communities.length);
+        for (int level = 0; level < levels.length; level++) {
+            assertEquals(levels[level].get(42L), communities[level]);
+        }
+        assertEquals(louvain.getCommunityIds()[42], communities[communities.length - 1]);
+    }
+
+    @Test
+    public void testConcurrentLevels() {
+        final MultiLevelLouvain louvain = louvain(largeGraph, 4, 10);
+        final LongArray[] levels = louvain.getCommunitiesByLevel();
+        assertTrue("expected more than one level", louvain.getLevels() > 1);
+        assertTrue("cliques have not been merged", louvain.getCommunityCount() < LARGE_CLIQUES);
+        assertNested(largeClique, levels[0]);
+        for (int level = 1; level < levels.length; level++) {
+            assertNested(toArray(levels[level - 1]), levels[level]);
+        }
+        for (LongArray communities : levels) {
+            assertConnected(largeGraph, communities);
+        }
+        final double cliqueModularity = modularity(largeGraph, largeClique);
+        final double modularity = modularity(largeGraph, toArray(louvain.getFinalCommunities()));
+        assertTrue("modularity " + modularity + " is below the clique partition " + cliqueModularity,
+                modularity > cliqueModularity);
+    }
+
+    /**
+     * every community of the lower level is contained in a single community of the upper level
+     */
+    private static void assertNested(long[] lower, LongArray upper) {
+        final long[] parent = new long[lower.length];
+        java.util.Arrays.fill(parent, -1L);
+        for (int node = 0; node < lower.length; node++) {
+            final int c = (int) lower[node];
+            if (parent[c] == -1L) {
+                parent[c] = upper.get(node);
+            }
+            assertEquals("community " + c + " is split", parent[c], upper.get(node));
+        }
+    }
+
+    private static void assertConnected(HugeGraph graph, LongArray communities) {
+        final int nodeCount = (int) graph.nodeCount();
+        final LongHashSet seen = new LongHashSet();
+        final LongHashSet visited = new LongHashSet();
+        for (long start = 0; start < nodeCount; start++) {
+            final long community = communities.get(start);
+            if (!seen.add(community)) {
+                assertTrue("community " + community + " is not connected", visited.contains(start));
+                continue;
+            }
+            final LongArrayDeque queue = new LongArrayDeque();
+            queue.addLast(start);
+            visited.add(start);
+            while (!queue.isEmpty()) {
+                graph.forEachRelationship(queue.removeFirst(), Direction.OUTGOING, (s, t) -> {
+                    if (communities.get(t) == community && visited.add(t)) {
+                        queue.addLast(t);
+                    }
+                    return true;
+                });
+            }
+        }
+    }
+
+    /**
+     * modularity of an unweighted, undirected graph where
+     * each relationship is visited from both ends
+     */
+    private static double modularity(HugeGraph graph, long[] communities) {
+        final int nodeCount = (int) graph.nodeCount();
+        final double[] total = new double[nodeCount];
+        final double[] internal = {0.0};
+        double m2 = 0.0;
+        for (int node = 0; node < nodeCount; node++) {
+            final int degree = graph.degree(node, Direction.OUTGOING);
+            total[(int) communities[node]] += degree;
+            m2 += degree;
+            graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                if (communities[(int) s] == communities[(int) t]) {
+                    internal[0] += 1.0;
+                }
+                return true;
+            });
+        }
+        double modularity = internal[0] / m2;
+        for (double t : total) {
+            modularity -= (t / m2) * (t / m2);
+        }
+        return modularity;
+    }
+
+    private static long[] toArray(LongArray array) {
+        final long[] values = new long[(int) array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i);
+        }
+        return values;
+    }
+}
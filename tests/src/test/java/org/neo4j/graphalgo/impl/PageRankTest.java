@@ -44,6 +44,7 @@ import java.util.Map;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 public final class PageRankTest {
@@ -126,6 +127,54 @@ public final class PageRankTest {
 
     @Test
     public void test() throws Exception {
+        final Map<Long, Double> expected = expected();
+        final Graph graph = loadGraph();
+
+        final PageRankResult rankResult = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(40)
+                .result();
+
+        IntStream.range(0, expected.size()).forEach(i -> {
+            final long nodeId = graph.toOriginalNodeId(i);
+            assertEquals(
+                    "Node#" + nodeId,
+                    expected.get(nodeId),
+                    rankResult.score(i),
+                    1e-2
+            );
+        });
+    }
+
+    @Test
+    public void testTolerance() throws Exception {
+        final Map<Long, Double> expected = expected();
+        final Graph graph = loadGraph();
+
+        final PageRankAlgorithm pageRank = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(100, 1e-4);
+        final PageRankResult rankResult = pageRank.result();
+        final double[] residuals = pageRank.residuals();
+
+        assertTrue(pageRank.iterations() < 100);
+        assertEquals(pageRank.iterations(), residuals.length);
+        assertTrue(residuals[residuals.length - 1] < 1e-4);
+        for (int i = 0; i < residuals.length - 1; i++) {
+            assertTrue(residuals[i] >= 1e-4);
+        }
+        IntStream.range(0, expected.size()).forEach(i -> {
+            final long nodeId = graph.toOriginalNodeId(i);
+            assertEquals(
+                    "Node#" + nodeId,
+                    expected.get(nodeId),
+                    rankResult.score(i),
+                    1e-2
+            );
+        });
+    }
+
+    private Map<Long, Double> expected() {
         final Label label = Label.label("Label1");
         final Map<Long, Double> expected = new HashMap<>();
 
@@ -142,7 +191,10 @@ public final class PageRankTest {
             expected.put(db.findNode(label, "name", "j").getId(), 0.15);
             tx.close();
         }
+        return expected;
+    }
 
+    private Graph loadGraph() {
         final Graph graph;
         if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
             graph = new GraphLoader(db)
@@ -152,25 +204,11 @@ public final class PageRankTest {
 
         } else {
             graph = new GraphLoader(db)
-                    .withLabel(label)
+                    .withLabel(Label.label("Label1"))
                     .withRelationshipType("TYPE1")
                     .withDirection(Direction.OUTGOING)
                     .load(graphImpl);
         }
-
-        final PageRankResult rankResult = PageRankAlgorithm
-                .of(graph, 0.85)
-                .compute(40)
-                .result();
-
-        IntStream.range(0, expected.size()).forEach(i -> {
-            final long nodeId = graph.toOriginalNodeId(i);
-            assertEquals(
-                    "Node#" + nodeId,
-                    expected.get(nodeId),
-                    rankResult.score(i),
-                    1e-2
-            );
-        });
+        return graph;
     }
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Two triangles, every node starts with its own id as label.
+ * Ties are broken by the smallest label:
+ * <pre>
+ *   labels       0  1  2  3  4  5
+ *   iteration 1  1  0  0  4  3  3
+ *   iteration 2  0  0  0  3  3  3
+ *   iteration 3  nothing changes
+ * </pre>
+ */
+public final class SynchronousLabelPropagationTest {
+
+    private static final String GRAPH =
+            "CREATE (a:Node {name:'a'}), (b:Node {name:'b'}), (c:Node {name:'c'})\n" +
+            ", (d:Node {name:'d'}), (e:Node {name:'e'}), (f:Node {name:'f'})\n" +
+            "CREATE (a)-[:TYPE]->(b), (b)-[:TYPE]->(c), (c)-[:TYPE]->(a)\n" +
+            ", (d)-[:TYPE]->(e), (e)-[:TYPE]->(f), (f)-[:TYPE]->(d)";
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    private static HeavyGraph graph;
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.execute(GRAPH).close();
+        graph = (HeavyGraph) new GraphLoader(DB, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.BOTH)
+                .load(HeavyGraphFactory.class);
+    }
+
+    @Test
+    public void testSingleThreaded() {
+        testLabels(100);
+    }
+
+    @Test
+    public void testMultiThreaded() {
+        testLabels(2);
+    }
+
+    @Test
+    public void testRepeatable() {
+        final int[] first = compute(1, 2).labels().clone();
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(first, compute(1, 2).labels());
+        }
+    }
+
+    @Test
+    public void testMaxIterations() {
+        final LabelPropagation lp = compute(100, 2);
+        assertFalse(lp.didConverge());
+        assertEquals(2, lp.ranIterations());
+        assertArrayEquals(new int[]{0, 0, 0, 3, 3, 3}, lp.labels());
+    }
+
+    private void testLabels(int batchSize) {
+        final LabelPropagation lp = compute(batchSize, 10);
+        assertTrue(lp.didConverge());
+        assertEquals(3, lp.ranIterations());
+        assertArrayEquals(new int[]{0, 0, 0, 3, 3, 3}, lp.labels());
+        assertEquals(2, lp.residuals().length);
+    }
+
+    private LabelPropagation compute(int batchSize, int maxIterations) {
+        return new LabelPropagation(graph, batchSize, Pools.DEFAULT_CONCURRENCY, Pools.DEFAULT)
+                .computeSynchronous(Direction.BOTH, maxIterations, 0.0);
+    }
+}